@@ -0,0 +1,111 @@
+package etudeExp;
+
+import src.dfa.CompileBudget;
+import src.search.BatchCompiler;
+import src.search.CompiledPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the compilation of a batch of patterns scales with the number of threads of
+ * {@link BatchCompiler}.
+ *
+ * <p>The batch mixes the patterns of {@code regexList0.csv} with generated alternations of words,
+ * literals and patterns whose DFA grows exponentially, {@value #PATTERNS} patterns in all. It is
+ * compiled with 1, 2, 4, ... threads up to twice the number of available processors, and the
+ * median time of the measured runs is reported with the speedup over one thread and the
+ * efficiency, i.e. the speedup divided by the number of threads that can actually run at once.
+ * With compilations sharing no state, the efficiency should stay close to 1.</p>
+ */
+public class BatchCompileBenchmark {
+
+    private static final int PATTERNS = 400;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+    private static final String REGEX_LIST = "Backend/resources/regexLists/regexList0.csv";
+
+    public static void main(String[] args) {
+        List<String> patterns = generateBatch();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        // Warm the JVM up on the whole batch, sequentially then in parallel
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            BatchCompiler.compileAll(patterns, false, CompileBudget.DEFAUT, 1);
+            BatchCompiler.compileAll(patterns, false, CompileBudget.DEFAUT, processors);
+        }
+
+        System.out.println(patterns.size() + " patterns, " + processors + " available processors");
+        System.out.printf("%8s %10s %12s %8s %10s%n", "threads", "time(ms)", "patterns/s", "speedup", "efficiency");
+        double reference = 0;
+        for (int threads = 1; threads <= 2 * processors; threads *= 2) {
+            double millis = measure(patterns, threads);
+            if (threads == 1) {
+                reference = millis;
+            }
+            double speedup = reference / millis;
+            System.out.printf("%8d %10.1f %12.0f %8.2f %10.2f%n", threads, millis, patterns.size() / (millis / 1000),
+                    speedup, speedup / Math.min(threads, processors));
+        }
+    }
+
+    /**
+     * Generates the batch: the patterns of the regex list, then generated patterns of various kinds
+     * until the batch holds {@value #PATTERNS} patterns.
+     *
+     * @return The patterns of the batch.
+     */
+    public static List<String> generateBatch() {
+        List<String> patterns = new ArrayList<>(CompileBenchmark.loadRegexList(REGEX_LIST).values());
+        Random random = new Random(42);
+        while (patterns.size() < PATTERNS) {
+            switch (patterns.size() % 3) {
+                case 0 -> {
+                    StringBuilder sb = new StringBuilder("(");
+                    for (int i = 0; i < 40; i++) {
+                        if (i > 0) {
+                            sb.append('|');
+                        }
+                        appendWord(sb, random, 6);
+                    }
+                    patterns.add(sb.append(')').toString());
+                }
+                case 1 -> {
+                    StringBuilder sb = new StringBuilder();
+                    appendWord(sb, random, 60);
+                    patterns.add(sb.toString());
+                }
+                default -> {
+                    StringBuilder sb = new StringBuilder("(a|b)*a");
+                    for (int i = 0, n = 4 + random.nextInt(5); i < n; i++) {
+                        sb.append("(a|b)");
+                    }
+                    patterns.add(sb.toString());
+                }
+            }
+        }
+        return patterns;
+    }
+
+    private static void appendWord(StringBuilder sb, Random random, int length) {
+        for (int j = 0; j < length; j++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+    }
+
+    private static double measure(List<String> patterns, int threads) {
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            List<CompiledPattern> compiled = BatchCompiler.compileAll(patterns, false, CompileBudget.DEFAUT, threads);
+            nanos[run] = System.nanoTime() - start;
+            if (compiled.size() != patterns.size()) {
+                throw new IllegalStateException("Missing results with " + threads + " threads");
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2] / 1e6;
+    }
+}
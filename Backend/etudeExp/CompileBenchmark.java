@@ -0,0 +1,356 @@
+package etudeExp;
+
+import src.derivative.DerivativeDFABuilder;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.PositionDFABuilder;
+import src.minimization.DFAMinimization;
+import src.ndfa.CompactNDFA;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.stats.PhaseStats;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Measures the time spent in each phase of the compilation pipeline (parse, NDFA construction,
+ * determinisation, minimization) on generated patterns of increasing size.
+ *
+ * <p>Each pattern is compiled a few times to warm the JVM up, then the median of the measured
+ * runs is reported per phase, with the bytes each phase allocates in one more run measured by
+ * {@link PhaseStats}.</p>
+ *
+ * <p>The Thompson pipeline (NDFA construction and determinisation) is then compared with the
+ * direct followpos construction of {@link PositionDFABuilder}, on the patterns of
+ * {@code regexList0.csv} and on the generated ones, and the subset construction followed by
+ * minimization is compared with the derivatives of {@link DerivativeDFABuilder}. Last, Hopcroft's
+ * minimization is compared with the former Moore refinement on larger DFAs, and the packed NDFA
+ * builder with the object NDFA followed by its conversion, in time and allocated bytes.</p>
+ */
+public class CompileBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+    private static final String REGEX_LIST = "Backend/resources/regexLists/regexList0.csv";
+
+    public static void main(String[] args) {
+        Map<String, String> patterns = generatePatterns();
+
+        System.out.printf("%-22s %10s %10s %12s %10s %8s %28s%n", "pattern", "parse(ms)", "ndfa(ms)", "determ(ms)",
+                "min(ms)", "states", "allocated(KiB) p/n/d/m");
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            benchmark(entry.getKey(), entry.getValue());
+        }
+
+        Map<String, String> compared = new LinkedHashMap<>(loadRegexList(REGEX_LIST));
+        compared.putAll(patterns);
+
+        // Same warm-up for both constructions, the first table has only warmed the Thompson pipeline up
+        for (String pattern : compared.values()) {
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                PositionDFABuilder.build(RegExTreeParser.parse(pattern));
+                DerivativeDFABuilder.build(RegExTreeParser.parse(pattern));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-22s %13s %8s %13s %8s%n", "pattern", "thompson(ms)", "states", "followpos(ms)", "states");
+        for (Map.Entry<String, String> entry : compared.entrySet()) {
+            compareConstructions(entry.getKey(), entry.getValue());
+        }
+
+        System.out.println();
+        System.out.printf("%-22s %13s %8s %15s %8s%n", "pattern", "subset+min(ms)", "states", "derivatives(ms)", "states");
+        for (Map.Entry<String, String> entry : compared.entrySet()) {
+            compareWithDerivatives(entry.getKey(), entry.getValue());
+        }
+
+        Map<String, String> large = new LinkedHashMap<>(patterns);
+        large.putAll(generateLargePatterns());
+        System.out.println();
+        System.out.printf("%-22s %8s %10s %12s %8s%n", "pattern", "states", "moore(ms)", "hopcroft(ms)", "minimal");
+        for (Map.Entry<String, String> entry : large.entrySet()) {
+            compareMinimizations(entry.getKey(), entry.getValue());
+        }
+
+        System.out.println();
+        System.out.printf("%-22s %10s %10s %10s %10s%n", "pattern", "objects(ms)", "(KiB)", "packed(ms)", "(KiB)");
+        for (Map.Entry<String, String> entry : large.entrySet()) {
+            compareNDFABuilders(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Generates patterns whose DFAs have thousands of states, to compare the minimization methods.
+     *
+     * @return The patterns, indexed by a readable name.
+     */
+    public static Map<String, String> generateLargePatterns() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        Random random = new Random(7);
+
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            for (int j = 0; j < 8; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        patterns.put("alternation-1000", sb.append(')').toString());
+
+        sb = new StringBuilder("(a|b)*a");
+        for (int i = 0; i < 12; i++) {
+            sb.append("(a|b)");
+        }
+        patterns.put("exponential-12", sb.toString());
+        return patterns;
+    }
+
+    /**
+     * Loads the patterns of a regex list, one per line, skipping the empty lines.
+     *
+     * @param path The path of the regex list.
+     * @return The patterns, indexed by their line in the file, or no pattern if the file cannot be read.
+     */
+    public static Map<String, String> loadRegexList(String path) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    patterns.put("regexList0:" + lineNumber, line.trim());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read " + path + ": " + e.getMessage());
+        }
+        return patterns;
+    }
+
+    /**
+     * Generates the benchmark patterns: large alternations of words, long literals and
+     * patterns whose DFA grows exponentially with the pattern size.
+     *
+     * @return The patterns, indexed by a readable name.
+     */
+    public static Map<String, String> generatePatterns() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        Random random = new Random(42);
+
+        for (int words : new int[]{50, 100, 200}) {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    sb.append('|');
+                }
+                for (int j = 0; j < 6; j++) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            patterns.put("alternation-" + words, sb.append(')').toString());
+        }
+
+        for (int length : new int[]{100, 200}) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            patterns.put("literal-" + length, sb.toString());
+        }
+
+        for (int n : new int[]{6, 8, 10}) {
+            StringBuilder sb = new StringBuilder("(a|b)*a");
+            for (int i = 0; i < n; i++) {
+                sb.append("(a|b)");
+            }
+            patterns.put("exponential-" + n, sb.toString());
+        }
+
+        patterns.put("wildcards", "S.*a.*r.*g.*o.*n");
+        return patterns;
+    }
+
+    private static void benchmark(String name, String pattern) {
+        long[][] times = new long[4][MEASURED_RUNS];
+        int states = 0;
+
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long t0 = System.nanoTime();
+            RegExTree tree = RegExTreeParser.parse(pattern);
+            long t1 = System.nanoTime();
+            NDFA ndfa = NDFAParser.parseTreeToNDFA(tree);
+            long t2 = System.nanoTime();
+            DFA dfa = DFADeterminisation.determinise(ndfa);
+            long t3 = System.nanoTime();
+            DFA minimized = DFAMinimization.minimize(dfa);
+            long t4 = System.nanoTime();
+
+            if (run >= 0) {
+                times[0][run] = t1 - t0;
+                times[1][run] = t2 - t1;
+                times[2][run] = t3 - t2;
+                times[3][run] = t4 - t3;
+            }
+            states = countStates(minimized);
+        }
+
+        // One more run, apart from the measured ones so that the instrumentation does not slow them
+        PhaseStats stats = new PhaseStats();
+        RegExTree tree = stats.measure(PhaseStats.PARSE, () -> RegExTreeParser.parse(pattern));
+        NDFA ndfa = stats.measure(PhaseStats.NDFA, () -> NDFAParser.parseTreeToNDFA(tree));
+        DFA dfa = stats.measure(PhaseStats.DETERMINISE, () -> DFADeterminisation.determinise(ndfa));
+        stats.measure(PhaseStats.MINIMIZE, () -> DFAMinimization.minimize(dfa));
+        StringBuilder allocated = new StringBuilder();
+        for (PhaseStats.Phase phase : stats.phases()) {
+            allocated.append(allocated.length() == 0 ? "" : "/").append(phase.allocatedBytes() / 1024);
+        }
+
+        System.out.printf("%-22s %10.2f %10.2f %12.2f %10.2f %8d %28s%n", name,
+                median(times[0]), median(times[1]), median(times[2]), median(times[3]), states, allocated);
+    }
+
+    private static void compareConstructions(String name, String pattern) {
+        long[][] times = new long[2][MEASURED_RUNS];
+        int thompsonStates = 0;
+        int positionStates = 0;
+        RegExTree tree = RegExTreeParser.parse(pattern);
+
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long t0 = System.nanoTime();
+            DFA thompson = DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree));
+            long t1 = System.nanoTime();
+            DFA positions = PositionDFABuilder.build(tree);
+            long t2 = System.nanoTime();
+
+            if (run >= 0) {
+                times[0][run] = t1 - t0;
+                times[1][run] = t2 - t1;
+            }
+            thompsonStates = countStates(thompson);
+            positionStates = countStates(positions);
+        }
+
+        System.out.printf("%-22s %13.3f %8d %13.3f %8d%n", name,
+                median(times[0]), thompsonStates, median(times[1]), positionStates);
+    }
+
+    private static void compareWithDerivatives(String name, String pattern) {
+        long[][] times = new long[2][MEASURED_RUNS];
+        int minimizedStates = 0;
+        int derivativeStates = 0;
+        RegExTree tree = RegExTreeParser.parse(pattern);
+
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long t0 = System.nanoTime();
+            DFA minimized = DFAMinimization.minimize(DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree)));
+            long t1 = System.nanoTime();
+            DFA derivatives = DerivativeDFABuilder.build(tree);
+            long t2 = System.nanoTime();
+
+            if (run >= 0) {
+                times[0][run] = t1 - t0;
+                times[1][run] = t2 - t1;
+            }
+            minimizedStates = countStates(minimized);
+            derivativeStates = countStates(derivatives);
+        }
+
+        System.out.printf("%-22s %14.3f %8d %15.3f %8d%n", name,
+                median(times[0]), minimizedStates, median(times[1]), derivativeStates);
+    }
+
+    private static void compareMinimizations(String name, String pattern) {
+        // Fewer runs: the Moore refinement takes seconds on the largest DFAs
+        int runs = 3;
+        long[][] times = new long[2][runs];
+        DFA dfa = DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(pattern)));
+        int minimal = 0;
+
+        for (int run = -1; run < runs; run++) {
+            long t0 = System.nanoTime();
+            DFAMinimization.minimizeMoore(dfa);
+            long t1 = System.nanoTime();
+            DFA minimized = DFAMinimization.minimize(dfa);
+            long t2 = System.nanoTime();
+
+            if (run >= 0) {
+                times[0][run] = t1 - t0;
+                times[1][run] = t2 - t1;
+            }
+            minimal = countStates(minimized);
+        }
+
+        System.out.printf("%-22s %8d %10.2f %12.2f %8d%n", name,
+                countStates(dfa), median(times[0]), median(times[1]), minimal);
+    }
+
+    private static void compareNDFABuilders(String name, String pattern) {
+        long[][] times = new long[2][MEASURED_RUNS];
+        long[][] bytes = new long[2][MEASURED_RUNS];
+        RegExTree tree = RegExTreeParser.parse(pattern);
+
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long b0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            CompactNDFA.from(NDFAParser.parseTreeToNDFA(tree));
+            long t1 = System.nanoTime();
+            long b1 = allocatedBytes();
+            CompactNDFA.fromTree(tree);
+            long t2 = System.nanoTime();
+            long b2 = allocatedBytes();
+
+            if (run >= 0) {
+                times[0][run] = t1 - t0;
+                times[1][run] = t2 - t1;
+                bytes[0][run] = b1 - b0;
+                bytes[1][run] = b2 - b1;
+            }
+        }
+
+        long[] objectBytes = bytes[0].clone();
+        long[] packedBytes = bytes[1].clone();
+        Arrays.sort(objectBytes);
+        Arrays.sort(packedBytes);
+        System.out.printf("%-22s %10.3f %10d %10.3f %10d%n", name, median(times[0]),
+                objectBytes[MEASURED_RUNS / 2] / 1024, median(times[1]), packedBytes[MEASURED_RUNS / 2] / 1024);
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread.
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1e6;
+    }
+
+    private static int countStates(DFA dfa) {
+        Set<NDFA.Etat> seen = new HashSet<>();
+        Deque<NDFA.Etat> toVisit = new ArrayDeque<>();
+        toVisit.add(dfa.etatInitial);
+        seen.add(dfa.etatInitial);
+        while (!toVisit.isEmpty()) {
+            for (NDFA.Etat target : toVisit.poll().successeurs()) {
+                if (seen.add(target)) {
+                    toVisit.add(target);
+                }
+            }
+        }
+        return seen.size();
+    }
+}
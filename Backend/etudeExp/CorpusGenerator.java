@@ -0,0 +1,294 @@
+package etudeExp;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Random;
+
+/**
+ * Generates synthetic corpora of any size, much larger than the texts of {@code resources/texts},
+ * for the benchmarks. The lines are written as they are generated, so a corpus of several GB only
+ * needs the memory of one line.
+ *
+ * <ul>
+ * <li>{@link Style#LOG} lines look like application logs: a timestamp, a level, a thread and
+ * {@code key=value} fields, followed by a message.</li>
+ * <li>{@link Style#PROSE} lines are sentences of words drawn from a vocabulary with a skewed
+ * frequency, a few words being very common and most of them rare, as in a natural text.</li>
+ * </ul>
+ *
+ * <p>The words are made of the letters of the alphabet, and the lines are {@code lineLength}
+ * characters long on average. A share {@code matchRate} of the lines gets the {@code plant} string
+ * inserted between two words, so the number of lines matching a pattern is known. With the same
+ * seed, a generator writes the same corpus.</p>
+ */
+public class CorpusGenerator {
+
+    /**
+     * The kind of lines generated.
+     */
+    public enum Style {
+        /** Application log lines. */
+        LOG,
+        /** Sentences of words. */
+        PROSE
+    }
+
+    /**
+     * The summary of a generated corpus.
+     *
+     * @param bytes        The number of bytes written, line terminators included.
+     * @param lines        The number of lines written.
+     * @param plantedLines The number of lines holding the planted string.
+     */
+    public record Summary(long bytes, long lines, long plantedLines) {
+    }
+
+    /** The default alphabet of the words. */
+    public static final String LOWER_CASE = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final int VOCABULARY_SIZE = 5_000;
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "INFO", "INFO", "INFO", "INFO", "DEBUG", "WARN",
+            "ERROR"};
+    private static final String[] KEYS = {"id", "user", "path", "status", "took"};
+
+    private final Style style;
+    private final int lineLength;
+    private final double matchRate;
+    private final String plant;
+    private final Random random;
+    private final String[] vocabulary;
+    private final StringBuilder line = new StringBuilder();
+    private boolean planted;
+    private long timestamp = 1_700_000_000_000L;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param style      The kind of lines.
+     * @param lineLength The average number of characters of a line.
+     * @param alphabet   The letters of the words, printable ASCII characters.
+     * @param matchRate  The share of the lines holding the planted string, between 0 and 1.
+     * @param plant      The string planted in the lines, printable ASCII; may be empty if
+     *                   {@code matchRate} is 0.
+     * @param seed       The seed of the random choices.
+     * @throws IllegalArgumentException If a parameter is out of its range.
+     */
+    public CorpusGenerator(Style style, int lineLength, String alphabet, double matchRate, String plant, long seed) {
+        if (lineLength < 1) {
+            throw new IllegalArgumentException("The line length must be positive");
+        }
+        if (alphabet.isEmpty() || !isPrintableAscii(alphabet) || !isPrintableAscii(plant)) {
+            throw new IllegalArgumentException("The alphabet and the plant must be printable ASCII");
+        }
+        if (!(matchRate >= 0 && matchRate <= 1) || matchRate > 0 && plant.isEmpty()) {
+            throw new IllegalArgumentException("Invalid match rate " + matchRate + " for plant \"" + plant + "\"");
+        }
+        this.style = style;
+        this.lineLength = lineLength;
+        this.matchRate = matchRate;
+        this.plant = plant;
+        this.random = new Random(seed);
+        this.vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            // Short words are the common ones, as in a natural text
+            int length = 1 + i * 9 / VOCABULARY_SIZE + random.nextInt(3);
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            vocabulary[i] = word.toString();
+        }
+    }
+
+    private static boolean isPrintableAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < ' ' || s.charAt(i) > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generates the next line.
+     *
+     * @return The line, without its terminator.
+     */
+    public String nextLine() {
+        return generateLine().toString();
+    }
+
+    private StringBuilder generateLine() {
+        line.setLength(0);
+        int target = lineLength / 2 + random.nextInt(lineLength + 1);
+        int messageStart = 0;
+        if (style == Style.LOG) {
+            timestamp += random.nextInt(1_000);
+            line.append(Instant.ofEpochMilli(timestamp)).append(' ')
+                    .append(LEVELS[random.nextInt(LEVELS.length)]).append(" [worker-")
+                    .append(random.nextInt(32)).append(']');
+            for (String key : KEYS) {
+                line.append(' ').append(key).append('=');
+                if (key.equals("status") || key.equals("took")) {
+                    line.append(random.nextInt(key.equals("status") ? 600 : 10_000));
+                } else {
+                    line.append(word());
+                }
+            }
+            messageStart = line.length();
+        }
+        while (line.length() < target) {
+            if (line.length() > 0) {
+                line.append(style == Style.PROSE && random.nextInt(12) == 0 ? ". " : " ");
+            }
+            line.append(word());
+        }
+        planted = random.nextDouble() < matchRate;
+        if (planted) {
+            // Before a word of the message, or at its end if it has none
+            int words = 0;
+            for (int i = messageStart; i < line.length(); i++) {
+                if (isWordStart(i)) {
+                    words++;
+                }
+            }
+            if (words == 0) {
+                line.append(' ').append(plant);
+            } else {
+                int at = messageStart;
+                for (int skip = random.nextInt(words); skip > 0 || !isWordStart(at); at++) {
+                    if (isWordStart(at)) {
+                        skip--;
+                    }
+                }
+                line.insert(at, plant + ' ');
+            }
+        }
+        return line;
+    }
+
+    private boolean isWordStart(int i) {
+        return line.charAt(i) != ' ' && (i == 0 || line.charAt(i - 1) == ' ');
+    }
+
+    private String word() {
+        // A power of a uniform draw favours the first, short words of the vocabulary
+        double u = random.nextDouble();
+        return vocabulary[(int) (VOCABULARY_SIZE * u * u * u)];
+    }
+
+    /**
+     * Writes whole lines until at least {@code bytes} bytes are written.
+     *
+     * @param out   The stream written, which is not closed.
+     * @param bytes The minimum size of the corpus.
+     * @return The summary of the corpus written.
+     * @throws IOException If the stream cannot be written.
+     */
+    public Summary write(OutputStream out, long bytes) throws IOException {
+        long written = 0;
+        long lines = 0;
+        long plantedLines = 0;
+        while (written < bytes) {
+            StringBuilder generated = generateLine().append('\n');
+            byte[] encoded = generated.toString().getBytes(StandardCharsets.US_ASCII);
+            out.write(encoded);
+            written += encoded.length;
+            lines++;
+            if (planted) {
+                plantedLines++;
+            }
+        }
+        return new Summary(written, lines, plantedLines);
+    }
+
+    /**
+     * Writes a corpus into a file, which only appears once it is complete.
+     *
+     * @param path  The file written.
+     * @param bytes The minimum size of the corpus.
+     * @return The summary of the corpus written.
+     * @throws IOException If the file cannot be written.
+     */
+    public Summary write(Path path, long bytes) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path partial = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".part");
+        Summary summary;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 20)) {
+            summary = write(out, bytes);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return summary;
+    }
+
+    /**
+     * Parses a size such as {@code 10MB} or {@code 1GB}, in decimal units.
+     *
+     * @param size The size, a number followed by {@code B}, {@code KB}, {@code MB} or {@code GB}.
+     * @return The number of bytes.
+     * @throws IllegalArgumentException If the size cannot be parsed.
+     */
+    public static long parseSize(String size) {
+        String unit = size.replaceAll("^[0-9]+", "");
+        if (unit.length() == size.length()) {
+            throw new IllegalArgumentException("Invalid size " + size);
+        }
+        long value = Long.parseLong(size.substring(0, size.length() - unit.length()));
+        return switch (unit) {
+            case "B" -> value;
+            case "KB" -> value * 1_000L;
+            case "MB" -> value * 1_000_000L;
+            case "GB" -> value * 1_000_000_000L;
+            default -> throw new IllegalArgumentException("Unknown size unit in " + size);
+        };
+    }
+
+    /**
+     * Generates a corpus from the command line:
+     * {@code CorpusGenerator <log|prose> <size> <file> [--line-length n] [--alphabet letters]
+     * [--match-rate r] [--plant string] [--seed n]}.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: CorpusGenerator <log|prose> <size> <file> [--line-length n] [--alphabet letters]"
+                    + " [--match-rate r] [--plant string] [--seed n]");
+            return;
+        }
+        int lineLength = 80;
+        String alphabet = LOWER_CASE;
+        double matchRate = 0.01;
+        String plant = "Sargon";
+        long seed = PatternFamilies.SEED;
+        for (int i = 3; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--line-length" -> lineLength = Integer.parseInt(args[i + 1]);
+                case "--alphabet" -> alphabet = args[i + 1];
+                case "--match-rate" -> matchRate = Double.parseDouble(args[i + 1]);
+                case "--plant" -> plant = args[i + 1];
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        Style style = Style.valueOf(args[0].toUpperCase());
+        CorpusGenerator generator = new CorpusGenerator(style, lineLength, alphabet, matchRate, plant, seed);
+        long start = System.nanoTime();
+        Summary summary = generator.write(Paths.get(args[2]), parseSize(args[1]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d bytes, %d lines, %d planted lines in %.1f s (%.0f MB/s)%n", summary.bytes(),
+                summary.lines(), summary.plantedLines(), seconds, summary.bytes() / 1e6 / seconds);
+    }
+}
@@ -1,155 +1,231 @@
 package etudeExp;
-import src.DFASearch;
-import src.dfa.DFA;
-import src.dfa.DFADeterminisation;
-import src.KMPAlgorithm;
-import src.minimization.DFAMinimization;
-import src.ndfa.NDFA;
-import src.ndfa.NDFAParser;
-import src.regex.RegExTree;
-import src.regex.RegExTreeParser;
-
-import java.io.*;
-import java.nio.file.*;
-import java.util.*;
 
+import src.dfa.CompileBudget;
+import src.search.CompiledPattern;
+import src.search.KMPLineMatcher;
+import src.search.LineMatcher;
+import src.search.QueryPlan;
+import src.search.QueryPlanner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the engines of the project with the real {@code egrep} on the words of
+ * {@code test_words.txt}, searched in a text of {@code resources/texts}, and writes the results into
+ * the {@code results.csv} read by {@code results.ipynb}.
+ *
+ * <p>A run of an engine is a whole search, as on the command line: the compilation of the pattern,
+ * then the streaming of the file line by line. Each engine runs a few times to warm the JVM up, then
+ * the measured runs give the median, 95th and 99th percentiles of the durations, and the throughput
+ * at the median. {@code egrep} runs as {@code grep -E} in a new process: the median duration of
+ * {@code grep} on an empty file, i.e. the spawn of the process, is subtracted from its durations.</p>
+ *
+ * <p>Every engine must select the same lines as {@code egrep}, whose output is parsed; KMP only runs
+ * on the words without operators, since it searches the pattern as a literal string. The program
+ * reports the engines that disagree, and exits with status 1 if there is one.</p>
+ *
+ * <p>Usage: {@code EtudeExp [--runs n] [--warmup n] [--text file] [--words file] [--csv file]}, from
+ * the root of the repository.</p>
+ */
 public class EtudeExp {
-    public static void main(String[] args) throws IOException {
-        // Path to the book text and test words
-        String bookPath = "Backend/resources/texts/56667-0.txt";
-        String testWordsPath = "Backend/etudeExp/test_words.txt";
-
-        // Read the book text
-        String text = readFile(bookPath);
 
-        // Read test words
-        List<String> testWords = Files.readAllLines(Paths.get(testWordsPath));
-
-        // clean up out results file in order to create new testemonies
-        cleanupResultsFile();
+    /**
+     * A whole search of a pattern in a file by an engine.
+     */
+    private interface Search {
+
+        /**
+         * Runs the search.
+         *
+         * @return The selected lines, in the order of the file.
+         * @throws IOException If the file cannot be read.
+         */
+        List<String> run() throws IOException;
+    }
 
-        // Loop through the test words
-        for (String word : testWords) {
-            System.out.println("Testing word: " + word);
-            int AutomatefoundWords = 0;
-            ArrayList<String> matchingLines = new ArrayList<>();
-            BufferedReader reader = null;
-            // Time Method 1
-            long startTimeAutomate = System.currentTimeMillis();
+    private static final String[] EGREP = {"grep", "-E", "-a", "--color=never"};
 
-            try {
-                // Create NDFA from regex and convert to minimized DFA
-                RegExTree tree = RegExTreeParser.parse(word);
-                if (tree == null) {
-                    System.err.println("Error, Parsed Regex Tree is null");
-                    return;
+    public static void main(String[] args) throws IOException {
+        int runs = 30;
+        int warmup = 10;
+        Path text = Paths.get("Backend/resources/texts/56667-0.txt");
+        Path words = Paths.get("Backend/etudeExp/test_words.txt");
+        Path csv = Paths.get("Backend/etudeExp/results.csv");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--runs" -> runs = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--text" -> text = Paths.get(args[i + 1]);
+                case "--words" -> words = Paths.get(args[i + 1]);
+                case "--csv" -> csv = Paths.get(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        long textBytes = Files.size(text);
+
+        // The cost of starting grep, measured on an empty file
+        Path empty = Files.createTempFile("etudeExp", ".txt");
+        empty.toFile().deleteOnExit();
+        long spawn = measure(egrep("x", empty), warmup, runs).median();
+
+        boolean disagreement = false;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("word,engine,runs,lines,agrees,medianMs,p95Ms,p99Ms,mbPerS");
+            writer.newLine();
+            System.out.printf("%-26s %-9s %6s %7s %10s %10s %10s %9s%n", "word", "engine", "lines", "agrees",
+                    "median(ms)", "p95(ms)", "p99(ms)", "MB/s");
+
+            for (String word : Files.readAllLines(words)) {
+                if (word.isBlank()) {
+                    continue;
+                }
+                List<String> expected = egrep(word, text).run();
+                Map<String, Search> engines = engines(word, text);
+                if (engines == null) {
+                    System.err.println("Skipping " + word + ": the pattern does not compile");
+                    continue;
+                }
+                engines.put("egrep", egrep(word, text));
+
+                for (Map.Entry<String, Search> engine : engines.entrySet()) {
+                    List<String> lines = engine.getValue().run();
+                    boolean agrees = lines.equals(expected);
+                    if (!agrees) {
+                        disagreement = true;
+                        System.err.println(engine.getKey() + " selects " + lines.size() + " lines for " + word
+                                + " instead of " + expected.size() + ", first difference: " + firstDifference(lines, expected));
+                    }
+                    Samples samples = measure(engine.getValue(), warmup, runs);
+                    if (engine.getKey().equals("egrep")) {
+                        samples = samples.minus(spawn);
+                    }
+                    double median = samples.median() / 1e6;
+                    double mbPerS = textBytes / 1e6 / (Math.max(samples.median(), 1) / 1e9);
+                    System.out.printf("%-26s %-9s %6d %7s %10.3f %10.3f %10.3f %9.1f%n", word, engine.getKey(),
+                            lines.size(), agrees, median, samples.percentile(95) / 1e6, samples.percentile(99) / 1e6,
+                            mbPerS);
+                    writer.write(String.format("%s,%s,%d,%d,%s,%.3f,%.3f,%.3f,%.1f", csvField(word), engine.getKey(),
+                            samples.size(), lines.size(), agrees, median, samples.percentile(95) / 1e6,
+                            samples.percentile(99) / 1e6, mbPerS));
+                    writer.newLine();
                 }
-                NDFA ndfa = NDFAParser.parseTreeToNDFA(tree);
-                DFA dfa = DFADeterminisation.determinise(ndfa);
-                dfa = DFAMinimization.minimize(dfa);
-
-                // Search for the pattern in the text and highlight lines containing it
-                AutomatefoundWords = DFASearch.highlightPatternInText(text, dfa, false);
-
-            } catch (Exception e) {
-                System.err.println("Error in the Ahu-ullman method: " + e.getMessage());
             }
+        }
+        System.out.printf("egrep durations exclude the spawn of grep, %.3f ms at the median%n", spawn / 1e6);
+        if (disagreement) {
+            System.exit(1);
+        }
+    }
 
+    /**
+     * Builds the searches of the engines of the project for a pattern.
+     *
+     * @return The searches by engine name, or {@code null} if the pattern does not compile.
+     */
+    private static Map<String, Search> engines(String word, Path text) {
+        if (!QueryPlanner.plan(word, false, CompileBudget.DEFAUT).estCompile()) {
+            return null;
+        }
+        Map<String, Search> engines = new LinkedHashMap<>();
+        engines.put("automate", () -> {
+            CompiledPattern compiled = CompiledPattern.compile(word, false, CompileBudget.DEFAUT);
+            return search(compiled.matcher(), text);
+        });
+        engines.put("auto", () -> {
+            QueryPlan plan = QueryPlanner.plan(word, false, CompileBudget.DEFAUT);
+            return search(plan.matcher(), text);
+        });
+        if (QueryPlanner.litteral(word) != null) {
+            engines.put("kmp", () -> search(new KMPLineMatcher(word), text));
+        }
+        return engines;
+    }
 
-            long endTimeAutomate = System.currentTimeMillis();
-            long AutomateTime = endTimeAutomate - startTimeAutomate;
-
-
-            // Testing KMP method:
-
-            long startTimeKMP = System.currentTimeMillis();
-
-            try {
-                KMPAlgorithm kmpMatcher = new KMPAlgorithm(word, text);
-
-                kmpMatcher.generatePatternCharacters();
-                kmpMatcher.generateLpsTable();
-
-                matchingLines = kmpMatcher.searchPatternInText();
-            } catch (Exception e) {
-                System.err.println("Error in the KMP method: " + e.getMessage());
+    /**
+     * Streams a file line by line, as {@code Main} does, and keeps the selected lines.
+     */
+    private static List<String> search(LineMatcher matcher, Path text) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(text.toFile()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (matcher.matches(line)) {
+                    lines.add(line);
+                }
             }
+        }
+        return lines;
+    }
 
-            long endTimeKMP = System.currentTimeMillis();
-
-            long KMPTime = endTimeKMP - startTimeKMP;
-
-            // Testing the real `egrep` :
-            long startTimeEgrep = System.currentTimeMillis();
-
+    /**
+     * Builds the search of a pattern by {@code grep -E}, whose output is read back as lines.
+     */
+    private static Search egrep(String word, Path text) {
+        return () -> {
+            List<String> command = new ArrayList<>(List.of(EGREP));
+            command.add(word);
+            command.add(text.toString());
+            ProcessBuilder builder = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD);
+            // The engines decode the text as UTF-8: grep must match characters, not bytes, to agree on . and [...]
+            builder.environment().put("LC_ALL", "C.UTF-8");
+            Process process = builder.start();
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lines.add(line);
+                }
+            }
             try {
-                // Create a process to execute egrep with the desired pattern and file
-                ProcessBuilder processBuilder = new ProcessBuilder("egrep", word, bookPath);
-
-                // Redirect the error stream to avoid issues
-                processBuilder.redirectErrorStream(true);
-
-                // Start the process and get the result
-                Process process = processBuilder.start();
-
-                // Capture the output of the command
-                reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-
-                // Wait for the process to finish
-                int exitCode = process.waitFor();
-
-            } catch (Exception e) {
-                System.err.println("Error in the egrep method: " + e.getMessage());
+                // 0 if lines were selected, 1 if none, 2 on error
+                if (process.waitFor() > 1) {
+                    throw new IOException("grep failed on " + word);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
             }
-
-            long endTimeEgrep = System.currentTimeMillis();
-
-            long EgrepTime = endTimeEgrep - startTimeEgrep;
-
-            // Output results
-            System.out.println("Method 1 (Automate) Time: " + AutomateTime + "ms");
-            System.out.println("Method 2 (KMP) Time: " + KMPTime + "ms");
-            System.out.println("Method 3 (egrep) Time: " + EgrepTime + "ms");
-
-            // Optionally, save results to file for analysis later
-            saveResultsToFile(word, AutomateTime, AutomatefoundWords , KMPTime, matchingLines.size(), EgrepTime, reader );
-        }
+            return lines;
+        };
     }
 
-    // Method to read the file
-    public static String readFile(String filePath) throws IOException {
-        return new String(Files.readAllBytes(Paths.get(filePath)));
+    /**
+     * Runs a search {@code warmup} times, then measures {@code runs} runs.
+     */
+    private static Samples measure(Search search, int warmup, int runs) throws IOException {
+        long[] nanos = new long[runs];
+        for (int run = -warmup; run < runs; run++) {
+            long start = System.nanoTime();
+            search.run();
+            if (run >= 0) {
+                nanos[run] = System.nanoTime() - start;
+            }
+        }
+        return new Samples(nanos);
     }
 
-    public static void cleanupResultsFile()  throws IOException{
-        File file = new File("Backend/etudeExp/results.csv");
-
-        // Check if the file exists and is not empty
-        if (file.exists() && file.length() > 0) {
-            // Empty the file content before adding new results
-            PrintWriter writer = new PrintWriter(file);
-            writer.print("");  // This empties the file
-            writer.close();
+    private static String firstDifference(List<String> lines, List<String> expected) {
+        for (int i = 0; i < Math.max(lines.size(), expected.size()); i++) {
+            String line = i < lines.size() ? lines.get(i) : null;
+            String other = i < expected.size() ? expected.get(i) : null;
+            if (line == null || !line.equals(other)) {
+                return line == null ? "missing \"" + other + "\"" : "\"" + line + "\"";
+            }
         }
-
-        // Now append the results
-        BufferedWriter writer = new BufferedWriter(new FileWriter(file, true));
-
-        writer.write("word,AutomateTime,isThereAWordAutomate,KMPTime,isThereAWordKMP,egrepTime,isThereAWordEgrep\n");
-        writer.close();
+        return "none";
     }
 
-    // Method to save results to a CSV file
-    public static void saveResultsToFile(String word, long AutomateTime, int AutomatefoundWords, long KMPTime, int KMPfoundWords, long egrepTime, BufferedReader reader ) throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter("Backend/etudeExp/results.csv", true));
-
-        boolean isThereAWordAutomate = AutomatefoundWords > 0;
-        boolean isThereAWordKMP = KMPfoundWords > 0;
-        boolean isThereAWordEgrep = reader != null;
-        writer.write(word + "," + AutomateTime + "," + isThereAWordAutomate + "," + KMPTime + "," + isThereAWordKMP + "," + egrepTime + "," + isThereAWordEgrep);
-        writer.newLine();
-        writer.close();
+    private static String csvField(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
     }
-
 }
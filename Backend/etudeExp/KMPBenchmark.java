@@ -0,0 +1,182 @@
+package etudeExp;
+
+import src.KMPAlgorithm;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Compares {@link KMPAlgorithm} with its former implementation, kept below as {@link LegacyKMP}: the
+ * median time and the bytes allocated to build the failure table of patterns of growing length, and
+ * to find the matching lines of a book.
+ *
+ * <p>The former implementation built its table in O(m³) from one-character strings and compared
+ * the text one allocated string at a time, restarting on every line.</p>
+ */
+public class KMPBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+    private static final String BOOK = "Backend/resources/texts/56667-0.txt";
+    private static final String[] PATTERNS = {"the", "Sargon", "Babylon", "nevertheless", "xyzzy"};
+
+    public static void main(String[] args) throws IOException {
+        String text = Files.readString(Paths.get(BOOK));
+
+        System.out.printf("%-14s %12s %10s %12s %10s%n", "table length", "legacy(ms)", "(KiB)", "kmp(ms)", "(KiB)");
+        for (int length : new int[]{10, 50, 100, 200}) {
+            String pattern = "ab".repeat(length / 2 - 1) + "ac";
+            double[] legacy = measure(() -> {
+                LegacyKMP matcher = new LegacyKMP(pattern, "");
+                matcher.generatePatternCharacters();
+                matcher.generateLpsTable();
+            });
+            double[] kmp = measure(() -> KMPAlgorithm.buildFailureTable(pattern.toCharArray()));
+            System.out.printf("%-14d %12.3f %10.1f %12.3f %10.1f%n", length, legacy[0], legacy[1], kmp[0], kmp[1]);
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %6s %12s %10s %12s %10s%n", "pattern", "lines", "legacy(ms)", "(KiB)", "kmp(ms)",
+                "(KiB)");
+        for (String pattern : PATTERNS) {
+            int[] lines = new int[2];
+            double[] legacy = measure(() -> {
+                LegacyKMP matcher = new LegacyKMP(pattern, text);
+                matcher.generatePatternCharacters();
+                matcher.generateLpsTable();
+                lines[0] = matcher.searchPatternInText().size();
+            });
+            double[] kmp = measure(() -> lines[1] = new KMPAlgorithm(pattern, text).searchPatternInText().size());
+            System.out.printf("%-14s %6s %12.3f %10.1f %12.3f %10.1f%n", pattern,
+                    lines[0] == lines[1] ? lines[1] : lines[0] + "/" + lines[1], legacy[0], legacy[1], kmp[0], kmp[1]);
+        }
+    }
+
+    /**
+     * Runs a task and returns its median time in milliseconds and its median allocation in KiB.
+     */
+    private static double[] measure(Runnable task) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            task.run();
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        long[] bytes = new long[MEASURED_RUNS];
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long b0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            task.run();
+            nanos[run] = System.nanoTime() - t0;
+            bytes[run] = allocatedBytes() - b0;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new double[]{nanos[MEASURED_RUNS / 2] / 1e6, bytes[MEASURED_RUNS / 2] / 1024.0};
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread.
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    /**
+     * The former implementation of {@link KMPAlgorithm}, as a baseline.
+     */
+    private static final class LegacyKMP {
+
+        private final String pattern;
+        private final String searchText;
+        private ArrayList<String> patternCharacters;
+        private ArrayList<Integer> lpsTable;
+
+        LegacyKMP(String pattern, String searchText) {
+            this.pattern = pattern;
+            this.searchText = searchText;
+        }
+
+        void generatePatternCharacters() {
+            this.patternCharacters = new ArrayList<>();
+            for (int i = 0; i < pattern.length(); i++) {
+                this.patternCharacters.add("" + pattern.charAt(i));
+            }
+        }
+
+        private int longestPrefixSuffixLength(ArrayList<String> stringList) {
+            StringBuilder result = new StringBuilder();
+            for (String s : stringList) {
+                result.append(s);
+            }
+            String concatenatedString = result.toString();
+            for (int i = concatenatedString.length() - 1; i > 0; i--) {
+                String suffix = concatenatedString.substring(concatenatedString.length() - i);
+                if (concatenatedString.startsWith(suffix)) {
+                    return suffix.length();
+                }
+            }
+            return 0;
+        }
+
+        void generateLpsTable() {
+            this.lpsTable = new ArrayList<>();
+            this.lpsTable.add(-1);
+
+            for (int i = 1; i < this.pattern.length(); i++) {
+                ArrayList<String> prefix = new ArrayList<>(this.patternCharacters.subList(0, i));
+                if (prefix.size() == 1) {
+                    this.lpsTable.add(0);
+                } else {
+                    this.lpsTable.add(longestPrefixSuffixLength(prefix));
+                }
+            }
+
+            for (int i = 1; i < this.patternCharacters.size(); i++) {
+                if ((this.patternCharacters.get(i).equals(this.patternCharacters.get(0)))
+                        && (this.lpsTable.get(i) == 0)) {
+                    this.lpsTable.set(i, -1);
+                }
+            }
+
+            for (int i = 0; i < this.patternCharacters.size(); i++) {
+                if ((this.lpsTable.get(i) != -1)
+                        && (this.patternCharacters.get(i).equals(this.patternCharacters.get(this.lpsTable.get(i))))) {
+                    this.lpsTable.set(i, this.lpsTable.get(this.lpsTable.get(i)));
+                }
+            }
+            this.lpsTable.add(0);
+        }
+
+        private String searchInSuffixes(String line) {
+            int i = 0;
+            while ((i < line.length()) && ((line.length() - i) >= patternCharacters.size())) {
+                int matchCount = 0;
+                for (int j = 0; j < patternCharacters.size(); j++) {
+                    if (patternCharacters.get(j).equals("" + line.charAt(j + i))) {
+                        matchCount++;
+                    }
+                }
+                if (matchCount == patternCharacters.size()) {
+                    return line;
+                } else {
+                    i += matchCount - lpsTable.get(matchCount);
+                }
+            }
+            return null;
+        }
+
+        ArrayList<String> searchPatternInText() {
+            ArrayList<String> matchingLines = new ArrayList<>();
+            for (String line : searchText.split("\n")) {
+                if (searchInSuffixes(line) != null) {
+                    matchingLines.add(line);
+                }
+            }
+            return matchingLines;
+        }
+    }
+}
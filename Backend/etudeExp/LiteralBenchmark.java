@@ -0,0 +1,81 @@
+package etudeExp;
+
+import src.KMPAlgorithm;
+import src.literal.HorspoolMatcher;
+import src.literal.LiteralMatcher;
+import src.literal.LiteralMatchers;
+import src.literal.TwoWayMatcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the literal engines, KMP, Horspool and Two-Way, and the one picked by
+ * {@link LiteralMatchers#select(String)}, on the Gutenberg texts of {@code resources/texts}: the
+ * median time to find every occurrence of words of growing length in the whole text. A last text
+ * made of a single repeated letter shows the worst case of Horspool on periodic patterns.
+ */
+public class LiteralBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 15;
+    private static final String[] TEXTS = {"Backend/resources/texts/56667-0.txt", "Backend/resources/texts/41011-0.txt"};
+    private static final String[] WORDS = {"the", "and", "Sargon", "Chihuahua", "Babylonian", "nevertheless",
+            "in the midst of the"};
+    private static final String[] PERIODIC = {"aab", "aaaaaaab", "aaaaaaaaaaaaaaaaaaab",
+            "baaaaaaaaaaaaaaaaaaa"};
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (String path : TEXTS) {
+            texts.put(Paths.get(path).getFileName().toString(), Files.readString(Paths.get(path)));
+        }
+
+        System.out.printf("%-12s %-22s %6s %9s %13s %12s %9s %-9s%n", "text", "pattern", "found", "kmp(ms)",
+                "horspool(ms)", "two-way(ms)", "auto(ms)", "auto");
+        for (Map.Entry<String, String> text : texts.entrySet()) {
+            for (String word : WORDS) {
+                benchmark(text.getKey(), text.getValue(), word);
+            }
+        }
+        String letters = "a".repeat(1 << 20);
+        for (String pattern : PERIODIC) {
+            benchmark("a^1M", letters, pattern);
+        }
+    }
+
+    private static void benchmark(String textName, String text, String pattern) {
+        LiteralMatcher selected = LiteralMatchers.select(pattern);
+        LiteralMatcher[] engines = {new KMPAlgorithm(pattern, ""), new HorspoolMatcher(pattern),
+                new TwoWayMatcher(pattern), selected};
+        double[] millis = new double[engines.length];
+        int found = 0;
+        for (int e = 0; e < engines.length; e++) {
+            LiteralMatcher engine = engines[e];
+            long[] nanos = new long[MEASURED_RUNS];
+            for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+                long start = System.nanoTime();
+                found = countOccurrences(engine, text);
+                if (run >= 0) {
+                    nanos[run] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(nanos);
+            millis[e] = nanos[MEASURED_RUNS / 2] / 1e6;
+        }
+        System.out.printf("%-12s %-22s %6d %9.3f %13.3f %12.3f %9.3f %-9s%n", textName, pattern, found, millis[0],
+                millis[1], millis[2], millis[3], selected.name());
+    }
+
+    private static int countOccurrences(LiteralMatcher engine, String text) {
+        int count = 0;
+        for (int i = engine.indexOf(text, 0); i >= 0; i = engine.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
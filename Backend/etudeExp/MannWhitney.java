@@ -0,0 +1,81 @@
+package etudeExp;
+
+import java.util.Arrays;
+
+/**
+ * The Mann-Whitney U test, which tells whether the values of a sample tend to be greater than the
+ * values of another one. It only uses the ranks of the values, so it does not assume that they
+ * follow a normal distribution, and a few outliers, such as a run slowed down by a garbage
+ * collection, barely change its result.
+ *
+ * <p>The p-value is computed from the normal approximation of {@code U}, with the correction for
+ * ties and for continuity, which is accurate from about ten values per sample.</p>
+ */
+public class MannWhitney {
+
+    private MannWhitney() {
+    }
+
+    /**
+     * Computes the one-sided p-value of the hypothesis that the values of {@code x} tend to be
+     * greater than those of {@code y}: the probability of a {@code U} statistic at least as large
+     * if both samples came from the same distribution.
+     *
+     * @param x The sample supposed greater, such as the durations after a change.
+     * @param y The reference sample, such as the durations before the change.
+     * @return The p-value, between 0 and 1; small when {@code x} is significantly greater.
+     * @throws IllegalArgumentException If a sample is empty.
+     */
+    public static double pValueGreater(long[] x, long[] y) {
+        if (x.length == 0 || y.length == 0) {
+            throw new IllegalArgumentException("Empty sample");
+        }
+        int n = x.length + y.length;
+        // The values of both samples, sorted, x marked by the lowest bit
+        long[][] values = new long[n][];
+        for (int i = 0; i < x.length; i++) {
+            values[i] = new long[]{x[i], 1};
+        }
+        for (int i = 0; i < y.length; i++) {
+            values[x.length + i] = new long[]{y[i], 0};
+        }
+        Arrays.sort(values, (a, b) -> Long.compare(a[0], b[0]));
+
+        // Rank sum of x, tied values sharing the average of their ranks
+        double rankSum = 0;
+        double ties = 0;
+        for (int start = 0; start < n; ) {
+            int end = start;
+            int fromX = 0;
+            while (end < n && values[end][0] == values[start][0]) {
+                fromX += (int) values[end][1];
+                end++;
+            }
+            double t = end - start;
+            rankSum += fromX * (start + 1 + end) / 2.0;
+            ties += t * t * t - t;
+            start = end;
+        }
+        double u = rankSum - x.length * (x.length + 1) / 2.0;
+        double mean = x.length * (double) y.length / 2;
+        double variance = x.length * (double) y.length / 12 * ((n + 1) - ties / (n * (double) (n - 1)));
+        if (variance <= 0) {
+            // Every value is the same
+            return 1;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    /**
+     * Computes the cumulative distribution function of the standard normal distribution, from the
+     * approximation 7.1.26 of the error function by Abramowitz and Stegun (error below 1.5e-7).
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027
+                + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+}
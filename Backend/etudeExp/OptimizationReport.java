@@ -0,0 +1,98 @@
+package etudeExp;
+
+import src.dfa.CompileContext;
+import src.dfa.CompileBudget;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.minimization.DFAMinimization;
+import src.ndfa.CompactNDFA;
+import src.regex.RegExTree;
+import src.regex.RegExTreeOptimizer;
+import src.regex.RegExTreeParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the effect of {@link RegExTreeOptimizer} on the patterns of {@code regexList0.csv} and
+ * {@code test_words.txt}, and on the generated alternations of words of {@link CompileBenchmark},
+ * where the factoring matters most: the number of NDFA states, of DFA states before and after minimization,
+ * and the median compilation time (NDFA, determinisation and minimization) of the parsed tree and
+ * of the optimized tree, the time of the rewrite itself being counted with the latter.
+ */
+public class OptimizationReport {
+
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 21;
+    private static final String REGEX_LIST = "Backend/resources/regexLists/regexList0.csv";
+    private static final String TEST_WORDS = "Backend/etudeExp/test_words.txt";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> patterns = new LinkedHashMap<>(CompileBenchmark.loadRegexList(REGEX_LIST));
+        List<String> words = Files.readAllLines(Paths.get(TEST_WORDS));
+        for (int i = 0; i < words.size(); i++) {
+            if (!words.get(i).isBlank()) {
+                patterns.put("test_words:" + (i + 1), words.get(i).trim());
+            }
+        }
+        for (Map.Entry<String, String> entry : CompileBenchmark.generatePatterns().entrySet()) {
+            if (entry.getKey().startsWith("alternation-")) {
+                patterns.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        System.out.printf("%-16s %-30s %15s %15s %15s %21s%n", "pattern", "", "ndfa", "dfa", "min dfa",
+                "compile(us)");
+        long[] totals = new long[8];
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            RegExTree tree = RegExTreeParser.parse(entry.getValue());
+            long[] before = measure(tree, false);
+            long[] after = measure(tree, true);
+            System.out.printf("%-16s %-30s %7d -> %-5d %7d -> %-5d %7d -> %-5d %9.1f -> %-9.1f%n", entry.getKey(),
+                    abbreviate(entry.getValue()), before[0], after[0], before[1], after[1], before[2], after[2],
+                    before[3] / 1e3, after[3] / 1e3);
+            for (int k = 0; k < 4; k++) {
+                totals[k] += before[k];
+                totals[k + 4] += after[k];
+            }
+        }
+        System.out.printf("%-47s %7d -> %-5d %7d -> %-5d %7d -> %-5d %9.1f -> %-9.1f%n", "total", totals[0], totals[4],
+                totals[1], totals[5], totals[2], totals[6], totals[3] / 1e3, totals[7] / 1e3);
+    }
+
+    /**
+     * Compiles a tree, optionally optimized first, and returns the sizes of its automata and the
+     * median compilation time in nanoseconds.
+     */
+    private static long[] measure(RegExTree tree, boolean optimize) {
+        long[] nanos = new long[MEASURED_RUNS];
+        long[] sizes = new long[3];
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            RegExTree compiled = optimize ? RegExTreeOptimizer.optimize(tree) : tree;
+            CompileContext context = new CompileContext(CompileBudget.ILLIMITE);
+            CompactNDFA ndfa = CompactNDFA.fromTree(compiled);
+            DFA dfa = DFADeterminisation.determinise(ndfa, context);
+            DFA minimized = DFAMinimization.minimize(dfa, context);
+            long elapsed = System.nanoTime() - start;
+            if (run >= 0) {
+                nanos[run] = elapsed;
+            }
+            sizes[0] = ndfa.nombreEtats;
+            sizes[1] = DFATable.compile(dfa).nombreEtats();
+            sizes[2] = DFATable.compile(minimized).nombreEtats();
+        }
+        Arrays.sort(nanos);
+        return new long[]{sizes[0], sizes[1], sizes[2], nanos[MEASURED_RUNS / 2]};
+    }
+
+    private static String abbreviate(String pattern) {
+        return pattern.length() <= 30 ? pattern : pattern.substring(0, 27) + "...";
+    }
+}
@@ -0,0 +1,160 @@
+package etudeExp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates families of adversarial patterns, whose size grows with a parameter {@code n}, for the
+ * benchmarks and the compile budget tests. The random families use a fixed seed, so a name such as
+ * {@code dictionary-5000} always denotes the same pattern.
+ *
+ * <ul>
+ * <li>{@code exponential-n}: {@code (a|b)*a(a|b)...(a|b)} with {@code n} trailing groups, whose
+ * minimal DFA has {@code 2^(n+1)} states.</li>
+ * <li>{@code nested-n}: {@code n} nested starred groups, {@code ((x|a)*|b)*...}, whose tree is
+ * {@code n} levels deep.</li>
+ * <li>{@code dictionary-n}: the alternation of {@code n} random words of 8 letters.</li>
+ * <li>{@code dotstar-n}: {@code a.*b.*c...}, a chain of {@code n} letters separated by {@code .*},
+ * whose search DFA keeps track of the longest prefix of the chain already seen.</li>
+ * <li>{@code concatenation-n}: {@code n} random letters.</li>
+ * </ul>
+ */
+public class PatternFamilies {
+
+    /** The seed of the random families. */
+    public static final long SEED = 42;
+
+    private static final int WORD_LENGTH = 8;
+
+    private PatternFamilies() {
+    }
+
+    /**
+     * Builds a pattern of a family from its name.
+     *
+     * @param name The family and its parameter, such as {@code exponential-12}.
+     * @return The pattern.
+     * @throws IllegalArgumentException If the name does not denote a pattern of a family.
+     */
+    public static String byName(String name) {
+        int dash = name.lastIndexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("Unknown pattern family " + name);
+        }
+        int n;
+        try {
+            n = Integer.parseInt(name.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size in " + name);
+        }
+        return switch (name.substring(0, dash)) {
+            case "exponential" -> exponential(n);
+            case "nested" -> nested(n);
+            case "dictionary" -> dictionary(n * WORD_LENGTH, WORD_LENGTH, new Random(SEED));
+            case "dotstar" -> dotStarChain(n);
+            case "concatenation" -> concatenation(n, new Random(SEED));
+            default -> throw new IllegalArgumentException("Unknown pattern family " + name);
+        };
+    }
+
+    /**
+     * Lists the patterns of every family at growing sizes, the largest exceeding the default
+     * compile budget or the usual recursion depth.
+     *
+     * @return The patterns, indexed by their name.
+     */
+    public static Map<String, String> adversarial() {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        for (String name : new String[]{"exponential-8", "exponential-12", "exponential-16", "exponential-20",
+                "nested-100", "nested-1000", "nested-10000", "dictionary-100", "dictionary-1000",
+                "dictionary-10000", "dotstar-10", "dotstar-100", "dotstar-1000", "concatenation-10000"}) {
+            patterns.put(name, byName(name));
+        }
+        return patterns;
+    }
+
+    /**
+     * Builds {@code (a|b)*a(a|b)...(a|b)} with {@code n} trailing groups, whose minimal DFA has
+     * {@code 2^(n+1)} states.
+     *
+     * @param n The number of groups after the last {@code a}.
+     * @return The pattern.
+     */
+    public static String exponential(int n) {
+        StringBuilder sb = new StringBuilder("(a|b)*a");
+        for (int i = 0; i < n; i++) {
+            sb.append("(a|b)");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds {@code depth} nested starred groups: {@code x}, then {@code (x|a)*}, then
+     * {@code ((x|a)*|b)*}, and so on with the letters of the alphabet in turn.
+     *
+     * @param depth The number of nested groups.
+     * @return The pattern.
+     */
+    public static String nested(int depth) {
+        StringBuilder sb = new StringBuilder(6 * depth + 1);
+        sb.append("(".repeat(depth)).append('x');
+        for (int i = 0; i < depth; i++) {
+            sb.append('|').append((char) ('a' + i % 26)).append(")*");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds {@code a.*b.*c...}, a chain of {@code n} letters, taken in turn from the alphabet,
+     * separated by {@code .*}.
+     *
+     * @param n The number of letters.
+     * @return The pattern.
+     */
+    public static String dotStarChain(int n) {
+        StringBuilder sb = new StringBuilder(3 * n);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(".*");
+            }
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the alternation of random words of {@code length} letters, as {@code w1|w2|...}, with
+     * {@code terms} letters in all.
+     *
+     * @param terms  The number of letters of the pattern.
+     * @param length The number of letters of each word.
+     * @param random The source of the letters.
+     * @return The pattern.
+     */
+    public static String dictionary(int terms, int length, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < terms / length; i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(concatenation(length, random));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the concatenation of {@code terms} random letters.
+     *
+     * @param terms  The number of letters.
+     * @param random The source of the letters.
+     * @return The pattern.
+     */
+    public static String concatenation(int terms, Random random) {
+        StringBuilder sb = new StringBuilder(terms);
+        for (int i = 0; i < terms; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
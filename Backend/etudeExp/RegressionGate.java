@@ -0,0 +1,420 @@
+package etudeExp;
+
+import src.dfa.CompileBudget;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.search.CompiledPattern;
+import src.search.LineMatcher;
+import src.search.QueryPlanner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Detects the performance regressions of the compilation and of the search, against a baseline
+ * versioned with the sources, without any network access or external tool.
+ *
+ * <ul>
+ * <li>{@code record} runs the benchmarks and writes every measured sample into the baseline
+ * file, to be committed with the change that sets the new reference.</li>
+ * <li>{@code compare} runs the benchmarks again and prints, for each of them, the medians of the
+ * baseline and of the current run, their relative change and the p-value of the Mann-Whitney test
+ * on the samples. A benchmark regresses when it is significantly slower or larger (p-value below
+ * {@code --alpha}) by more than {@code --threshold} percent; the program then exits with status
+ * 1.</li>
+ * </ul>
+ *
+ * <p>The benchmarks cover each compile phase ({@code parse}, {@code parseTreeToNDFA},
+ * {@code determinise}, {@code minimize}) on {@code test_words.txt} and {@code regexList0.csv}, the
+ * search throughput of the {@code dfa} and {@code auto} engines on a text held in memory, and the
+ * memory of a whole compilation and of a search: the bytes they allocate, and the heap still used
+ * by their result after a full collection. Each benchmark runs in {@code --forks} new JVMs, each one
+ * measuring {@code --runs} runs after {@code --warmup} unmeasured ones, so that the JIT has
+ * compiled the code measured, and the median of each JVM is a sample. A time run is the mean
+ * duration of the operation over a batch of at least 10 ms. The timings depend on the machine: the baseline must be recorded on
+ * the machine that runs the comparison.</p>
+ *
+ * <p>Usage, from the root of the repository: {@code RegressionGate <record|compare>
+ * [--baseline file] [--forks n] [--runs n] [--warmup n] [--alpha p] [--threshold percent]}.</p>
+ */
+public class RegressionGate {
+
+    /**
+     * What a benchmark measures, every sample being lower for a faster or smaller program.
+     */
+    private enum Unit {
+        /** A duration, in nanoseconds. */
+        TIME,
+        /** The duration of a pass over the text, in nanoseconds, reported as a throughput. */
+        THROUGHPUT,
+        /** A number of bytes. */
+        MEMORY
+    }
+
+    /**
+     * A benchmark, whose operation returns one sample each time it runs.
+     */
+    private record Benchmark(String name, Unit unit, LongSupplier operation) {
+    }
+
+    private static final String TEXT = "Backend/resources/texts/56667-0.txt";
+    private static final String[] SEARCHED = {"Sargon", "the", "S(a|g|r)+on", "(S|s)((ag|gr))*on"};
+
+    private static final long BATCH_NANOS = 10_000_000;
+
+    private static long textBytes;
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !List.of("record", "compare", "fork").contains(args[0])) {
+            System.out.println("Usage: RegressionGate <record|compare> [--baseline file] [--forks n] [--runs n]"
+                    + " [--warmup n] [--alpha p] [--threshold percent]");
+            return;
+        }
+        Path baseline = Paths.get("Backend/etudeExp/baseline.txt");
+        int forks = 8;
+        int runs = 5;
+        int warmup = 50;
+        double alpha = 0.01;
+        double threshold = 10;
+        int first = args[0].equals("fork") ? 2 : 1;
+        for (int i = first; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--baseline" -> baseline = Paths.get(args[i + 1]);
+                case "--forks" -> forks = Integer.parseInt(args[i + 1]);
+                case "--runs" -> runs = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--alpha" -> alpha = Double.parseDouble(args[i + 1]);
+                case "--threshold" -> threshold = Double.parseDouble(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (args[0].equals("fork")) {
+            runFork(args[1], warmup, runs);
+            return;
+        }
+
+        Map<String, Samples> reference = args[0].equals("compare") ? readBaseline(baseline) : null;
+        Map<String, Samples> current = new LinkedHashMap<>();
+        Map<String, Unit> units = new LinkedHashMap<>();
+        for (Benchmark benchmark : benchmarks()) {
+            long[] samples = new long[forks];
+            for (int fork = 0; fork < forks; fork++) {
+                samples[fork] = fork(benchmark.name(), warmup, runs);
+            }
+            current.put(benchmark.name(), new Samples(samples));
+            units.put(benchmark.name(), benchmark.unit());
+            System.err.printf("%-44s %s%n", benchmark.name(), format(benchmark.unit(), current.get(benchmark.name())));
+        }
+
+        if (reference == null) {
+            writeBaseline(baseline, current, units);
+            System.out.println("Baseline of " + current.size() + " benchmarks written into " + baseline);
+            return;
+        }
+        if (!compare(reference, current, units, alpha, threshold)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a benchmark in a new JVM, with the same class path and a fixed garbage collector, so
+     * that the samples include the variations of the JIT from one JVM to another, and do not
+     * depend on the benchmarks run before. The runs of a JVM are not independent, hence a single
+     * sample per JVM, the median of its runs, for the test.
+     *
+     * @return The median of the runs of the forked JVM.
+     */
+    private static long fork(String name, int warmup, int runs) throws IOException {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        ProcessBuilder builder = new ProcessBuilder(java.toString(), "-XX:+UseG1GC", "-Xms512m", "-Xmx512m",
+                "-cp", System.getProperty("java.class.path"), RegressionGate.class.getName(), "fork", name,
+                "--warmup", String.valueOf(warmup), "--runs", String.valueOf(runs))
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        String output;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            output = reader.readLine();
+        }
+        try {
+            if (process.waitFor() != 0 || output == null) {
+                throw new IOException("The fork of " + name + " failed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        long[] samples = Arrays.stream(output.split(" ")).mapToLong(Long::parseLong).toArray();
+        if (samples.length != runs) {
+            throw new IOException("The fork of " + name + " returned " + samples.length + " samples");
+        }
+        return new Samples(samples).median();
+    }
+
+    /**
+     * Runs a benchmark in the forked JVM and prints its samples on one line.
+     */
+    private static void runFork(String name, int warmup, int runs) throws IOException {
+        for (Benchmark benchmark : benchmarks()) {
+            if (benchmark.name().equals(name)) {
+                StringBuilder line = new StringBuilder();
+                for (int run = -warmup; run < runs; run++) {
+                    long sample = benchmark.operation().getAsLong();
+                    if (run >= 0) {
+                        line.append(run > 0 ? " " : "").append(sample);
+                    }
+                }
+                System.out.println(line);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown benchmark " + name);
+    }
+
+    /**
+     * Prints the diff report of the current run against the baseline.
+     *
+     * @return {@code true} if no benchmark regressed.
+     */
+    private static boolean compare(Map<String, Samples> reference, Map<String, Samples> current,
+                                   Map<String, Unit> units, double alpha, double threshold) {
+        System.out.printf("%-44s %14s %14s %8s %8s  %s%n", "benchmark", "baseline", "current", "change", "p", "verdict");
+        int regressions = 0;
+        for (Map.Entry<String, Samples> entry : current.entrySet()) {
+            Unit unit = units.get(entry.getKey());
+            Samples after = entry.getValue();
+            Samples before = reference.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-44s %14s %14s %8s %8s  %s%n", entry.getKey(), "-", format(unit, after), "-", "-",
+                        "new");
+                continue;
+            }
+            // Relative change of the cost, positive when slower or larger
+            double change = 100.0 * (after.median() - before.median()) / Math.max(before.median(), 1);
+            double slower = MannWhitney.pValueGreater(after.nanos(), before.nanos());
+            double faster = MannWhitney.pValueGreater(before.nanos(), after.nanos());
+            String verdict = "unchanged";
+            double p = Math.min(slower, faster);
+            if (slower < alpha && change > threshold) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (faster < alpha && change < -threshold) {
+                verdict = "improvement";
+            }
+            System.out.printf("%-44s %14s %14s %+7.1f%% %8.4f  %s%n", entry.getKey(), format(unit, before),
+                    format(unit, after), change, p, verdict);
+        }
+        for (String name : reference.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-44s %14s %14s %8s %8s  %s%n", name, "", "-", "-", "-", "removed");
+            }
+        }
+        System.out.println(regressions == 0 ? "No regression"
+                : regressions + " regression(s) above " + threshold + "% with p < " + alpha);
+        return regressions == 0;
+    }
+
+    private static String format(Unit unit, Samples samples) {
+        return switch (unit) {
+            case TIME -> String.format("%.3f ms", samples.median() / 1e6);
+            case THROUGHPUT -> String.format("%.1f MB/s", textBytes / 1e6 / (Math.max(samples.median(), 1) / 1e9));
+            case MEMORY -> String.format("%d KiB", samples.median() / 1024);
+        };
+    }
+
+    /**
+     * Builds the benchmarks, whose inputs are computed once.
+     */
+    private static List<Benchmark> benchmarks() throws IOException {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        Map<String, String[]> sets = new LinkedHashMap<>();
+        sets.put("test_words", Files.readAllLines(Paths.get("Backend/etudeExp/test_words.txt")).stream()
+                .filter(line -> !line.isBlank()).toArray(String[]::new));
+        sets.put("regexList0", CompileBenchmark.loadRegexList("Backend/resources/regexLists/regexList0.csv")
+                .values().toArray(new String[0]));
+
+        for (Map.Entry<String, String[]> set : sets.entrySet()) {
+            String[] sources = set.getValue();
+            RegExTree[] trees = new RegExTree[sources.length];
+            NDFA[] ndfas = new NDFA[sources.length];
+            DFA[] dfas = new DFA[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                trees[i] = RegExTreeParser.parse(sources[i]);
+                ndfas[i] = NDFAParser.parseTreeToNDFA(trees[i]);
+                dfas[i] = DFADeterminisation.determinise(ndfas[i]);
+            }
+            String suffix = "/" + set.getKey();
+            benchmarks.add(new Benchmark("compile/parse" + suffix, Unit.TIME, () -> timePerOperation(() -> {
+                for (String source : sources) {
+                    sink = RegExTreeParser.parse(source);
+                }
+            })));
+            benchmarks.add(new Benchmark("compile/parseTreeToNDFA" + suffix, Unit.TIME, () -> timePerOperation(() -> {
+                for (RegExTree tree : trees) {
+                    sink = NDFAParser.parseTreeToNDFA(tree);
+                }
+            })));
+            benchmarks.add(new Benchmark("compile/determinise" + suffix, Unit.TIME, () -> timePerOperation(() -> {
+                for (NDFA ndfa : ndfas) {
+                    sink = DFADeterminisation.determinise(ndfa);
+                }
+            })));
+            benchmarks.add(new Benchmark("compile/minimize" + suffix, Unit.TIME, () -> timePerOperation(() -> {
+                for (DFA dfa : dfas) {
+                    sink = DFAMinimization.minimize(dfa);
+                }
+            })));
+            Supplier<Object> compile = () -> {
+                DFA[] minimized = new DFA[sources.length];
+                for (int i = 0; i < sources.length; i++) {
+                    minimized[i] = DFAMinimization.minimize(DFADeterminisation.determinise(
+                            NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(sources[i]))));
+                }
+                return minimized;
+            };
+            benchmarks.add(new Benchmark("memory/compile" + suffix + "/allocated", Unit.MEMORY,
+                    () -> allocatedBytes(compile)));
+            benchmarks.add(new Benchmark("memory/compile" + suffix + "/retained", Unit.MEMORY,
+                    () -> retainedBytes(compile)));
+        }
+
+        textBytes = Files.size(Paths.get(TEXT));
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(TEXT))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        for (String word : SEARCHED) {
+            LineMatcher dfa = CompiledPattern.compile(word, false, CompileBudget.DEFAUT).matcher();
+            LineMatcher auto = QueryPlanner.plan(word, false, CompileBudget.DEFAUT).matcher();
+            benchmarks.add(new Benchmark("search/dfa/" + word, Unit.THROUGHPUT,
+                    () -> timePerOperation(() -> count(dfa, lines))));
+            benchmarks.add(new Benchmark("search/auto/" + word, Unit.THROUGHPUT,
+                    () -> timePerOperation(() -> count(auto, lines))));
+        }
+        String word = SEARCHED[2];
+        benchmarks.add(new Benchmark("memory/search/auto/" + word + "/allocated", Unit.MEMORY, () -> allocatedBytes(
+                () -> count(QueryPlanner.plan(word, false, CompileBudget.DEFAUT).matcher(), lines))));
+        benchmarks.add(new Benchmark("memory/search/auto/" + word + "/retained", Unit.MEMORY, () -> retainedBytes(
+                () -> QueryPlanner.plan(word, false, CompileBudget.DEFAUT).matcher())));
+        return benchmarks;
+    }
+
+    private static int count(LineMatcher matcher, List<String> lines) {
+        int count = 0;
+        for (String line : lines) {
+            if (matcher.matches(line)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs an operation repeatedly for at least {@link #BATCH_NANOS}.
+     *
+     * @return The mean duration of the operation, in nanoseconds.
+     */
+    private static long timePerOperation(Runnable operation) {
+        long start = System.nanoTime();
+        long elapsed;
+        int count = 0;
+        do {
+            operation.run();
+            count++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < BATCH_NANOS);
+        return elapsed / count;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread while an operation runs.
+     */
+    private static long allocatedBytes(Supplier<Object> operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(id);
+        sink = operation.get();
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+
+    /**
+     * Returns the growth of the heap used, after a full collection, when the result of an operation
+     * is kept: the memory of the compiled automata, rather than of the garbage of their
+     * construction.
+     */
+    private static long retainedBytes(Supplier<Object> operation) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        sink = null;
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        sink = operation.get();
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        sink = null;
+        return Math.max(0, after - before);
+    }
+
+    /**
+     * Reads a baseline: a comment line, then one line per benchmark, its name, its unit and its
+     * samples, separated by spaces.
+     */
+    private static Map<String, Samples> readBaseline(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            throw new IOException("No baseline " + path + ", run RegressionGate record first");
+        }
+        Map<String, Samples> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                if (line.startsWith("#") && !line.contains("Java " + System.getProperty("java.version") + " ")) {
+                    System.err.println("Warning: the baseline was recorded with another JVM:" + line.substring(1));
+                }
+                continue;
+            }
+            String[] fields = line.split(" ");
+            long[] samples = Arrays.stream(fields, 2, fields.length).mapToLong(Long::parseLong).toArray();
+            baseline.put(fields[0], new Samples(samples));
+        }
+        return baseline;
+    }
+
+    private static void writeBaseline(Path path, Map<String, Samples> samples, Map<String, Unit> units)
+            throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(String.format("# Baseline of etudeExp.RegressionGate, Java %s on %s %s, %d cores",
+                    System.getProperty("java.version"), System.getProperty("os.name"), System.getProperty("os.arch"),
+                    Runtime.getRuntime().availableProcessors()));
+            writer.newLine();
+            for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+                StringBuilder line = new StringBuilder(entry.getKey()).append(' ')
+                        .append(units.get(entry.getKey()).name().toLowerCase());
+                for (long sample : entry.getValue().nanos()) {
+                    line.append(' ').append(sample);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+}
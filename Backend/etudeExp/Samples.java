@@ -0,0 +1,80 @@
+package etudeExp;
+
+import java.util.Arrays;
+
+/**
+ * The measured durations of repeated runs of a benchmark, sorted, with the statistics reported by
+ * the harnesses of this package. The samples may also be sizes, in bytes, when a benchmark
+ * measures the memory.
+ */
+public class Samples {
+
+    private final long[] nanos;
+
+    /**
+     * Constructs the samples of a benchmark.
+     *
+     * @param nanos The durations of the measured runs, in nanoseconds, at least one.
+     * @throws IllegalArgumentException If there is no sample.
+     */
+    public Samples(long[] nanos) {
+        if (nanos.length == 0) {
+            throw new IllegalArgumentException("No sample");
+        }
+        this.nanos = nanos.clone();
+        Arrays.sort(this.nanos);
+    }
+
+    /**
+     * Returns the number of samples.
+     *
+     * @return The number of measured runs.
+     */
+    public int size() {
+        return nanos.length;
+    }
+
+    /**
+     * Returns the sorted durations.
+     *
+     * @return A copy of the durations, in nanoseconds, in increasing order.
+     */
+    public long[] nanos() {
+        return nanos.clone();
+    }
+
+    /**
+     * Returns a percentile of the durations, by the nearest-rank method: the smallest duration
+     * such that at least {@code p} percent of the runs took at most as long.
+     *
+     * @param p The percentile, between 0 (excluded) and 100.
+     * @return The duration, in nanoseconds.
+     */
+    public long percentile(double p) {
+        int rank = (int) Math.ceil(p / 100 * nanos.length);
+        return nanos[Math.max(0, Math.min(nanos.length, rank) - 1)];
+    }
+
+    /**
+     * Returns the median duration.
+     *
+     * @return The 50th percentile, in nanoseconds.
+     */
+    public long median() {
+        return percentile(50);
+    }
+
+    /**
+     * Subtracts a constant cost, such as the spawn of a process, from every duration.
+     *
+     * @param overhead The constant cost, in nanoseconds.
+     * @return The samples minus the cost, never below 0.
+     */
+    public Samples minus(long overhead) {
+        long[] corrected = new long[nanos.length];
+        for (int i = 0; i < nanos.length; i++) {
+            corrected[i] = Math.max(0, nanos[i] - overhead);
+        }
+        return new Samples(corrected);
+    }
+}
@@ -0,0 +1,99 @@
+package etudeExp;
+
+import src.derivative.DerivativeDFABuilder;
+import src.dfa.DFATable;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.ndfa.export.NDFAExporter;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.stats.PhaseStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Stress test of the compilation pipeline on machine-generated regexes of {@value #TERMS} terms:
+ * a dictionary alternation and a long concatenation.
+ *
+ * <p>Each stage (parsing, tree printing, NDFA construction, NDFA printing, JSON export, derivative DFA) must
+ * run with the default thread stack, within {@value #MAX_MILLIS} ms and {@value #MAX_HEAP_MIB} MiB of
+ * peak heap. The stages walk the tree and the automaton with explicit stacks, so the depth of the
+ * tree (about {@value #TERMS} nodes) does not matter. The program exits with status 1 if a stage
+ * overflows the stack or exceeds its limits.</p>
+ *
+ */
+public class StressBenchmark {
+
+    private static final int TERMS = 100_000;
+    private static final long MAX_MILLIS = 5_000;
+    private static final long MAX_HEAP_MIB = 1_024;
+
+    private static boolean failed = false;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("dictionary-" + TERMS, PatternFamilies.dictionary(TERMS, 5, new Random(42)));
+        patterns.put("concatenation-" + TERMS, PatternFamilies.concatenation(TERMS, new Random(43)));
+
+        File export = File.createTempFile("stress", ".json");
+        export.deleteOnExit();
+
+        System.out.printf("%-22s %-14s %10s %10s %8s%n", "pattern", "stage", "time(ms)", "peak(MiB)", "result");
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            String name = entry.getKey();
+            RegExTree tree = stage(name, "parse", () -> RegExTreeParser.parse(entry.getValue()));
+            if (tree == null) {
+                continue;
+            }
+
+            stage(name, "tree-string", () -> tree.toString().length());
+            stage(name, "leftmost-leaf", tree::getLeaf);
+            NDFA ndfa = stage(name, "ndfa", () -> NDFAParser.parseTreeToNDFA(tree));
+            if (ndfa == null) {
+                continue;
+            }
+            stage(name, "ndfa-string", () -> ndfa.toString().length());
+            stage(name, "json-export", () -> {
+                new NDFAExporter().toJsonFile(ndfa, export.getPath());
+                return export.length();
+            });
+            stage(name, "derivative-dfa", () -> DFATable.compile(DerivativeDFABuilder.build(tree)).nombreEtats());
+        }
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a stage once, reports its time and peak heap, and checks them against the limits. The
+     * stage is measured by {@link PhaseStats}, whose peak is that of the whole heap.
+     *
+     * @return The result of the stage, or {@code null} if it overflowed the stack.
+     */
+    private static <T> T stage(String pattern, String stage, Supplier<T> work) {
+        System.gc();
+        PhaseStats stats = new PhaseStats();
+        T result = null;
+        String status;
+        try {
+            result = stats.measure(stage, work::get);
+            status = "ok";
+        } catch (StackOverflowError e) {
+            status = "OVERFLOW";
+        }
+        PhaseStats.Phase measure = stats.phases().get(0);
+        long millis = measure.nanos() / 1_000_000;
+        long peakMib = measure.peakHeapBytes() >> 20;
+        if (result != null && (millis > MAX_MILLIS || peakMib > MAX_HEAP_MIB)) {
+            status = "OVER";
+        }
+        failed |= !status.equals("ok");
+
+        System.out.printf("%-22s %-14s %10d %10d %8s%n", pattern, stage, millis, peakMib, status);
+        return result;
+    }
+}
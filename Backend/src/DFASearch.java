@@ -2,8 +2,10 @@ package src;
 
 import src.dfa.DFA;
 import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
 import src.minimization.DFAMinimization;
 import src.ndfa.NDFA;
+import src.regex.RegExSyntaxException;
 import src.regex.RegExTree;
 import src.regex.RegExTreeParser;
 import src.ndfa.NDFAParser;
@@ -63,6 +65,123 @@ public class DFASearch {
         return dfa.etatAcceptant.contains(currentState); // Check if the final state is accepting
     }
 
+    /**
+     * Method to check if a string is accepted by a compiled DFA table.
+     * Same semantics as {@link #isAcceptedByDFA(DFA, String)}, without any allocation.
+     *
+     * @param table The compiled DFA to use for matching.
+     * @param input The input string to match.
+     * @return True if the string is accepted by the DFA, false otherwise.
+     */
+    public static boolean isAcceptedByDFA(DFATable table, CharSequence input) {
+        return table.accepte(input);
+    }
+
+    /**
+     * Method to check in a single pass if a line contains a match, using the table compiled from
+     * {@code NDFAParser.parseTreeToSearchNDFA}. The automaton is never restarted: the line is
+     * selected as soon as an accepting state is reached.
+     *
+     * @param searchTable The compiled DFA recognizing the texts ending with a match.
+     * @param line        The line to classify.
+     * @return True if the line contains a match, false otherwise.
+     */
+    public static boolean containsMatch(DFATable searchTable, CharSequence line) {
+        int state = searchTable.getEtatInitial();
+        if (searchTable.estAcceptant(state)) {
+            return true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            state = searchTable.suivant(state, line.charAt(i));
+            if (state == DFATable.MORT) {
+                // Symbol unknown to the pattern: only the leading loop survives it
+                state = searchTable.getEtatInitial();
+            } else if (searchTable.estAcceptant(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to check if a line starts with a match ({@code ^R}): the table of {@code R} is run from
+     * the start of the line until it accepts or dies.
+     *
+     * @param table The compiled DFA of the pattern.
+     * @param line  The line to classify.
+     * @return True if a prefix of the line is accepted, false otherwise.
+     */
+    public static boolean startsWithMatch(DFATable table, CharSequence line) {
+        int state = table.getEtatInitial();
+        for (int i = 0; !table.estAcceptant(state); i++) {
+            if (i == line.length()) {
+                return false;
+            }
+            state = table.suivant(state, line.charAt(i));
+            if (state == DFATable.MORT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to check in a single pass if a line ends with a match ({@code R$}): the table of
+     * {@code .*R} is run over the whole line, and the line is selected if it stops in an accepting
+     * state.
+     *
+     * @param searchTable The compiled DFA recognizing the texts ending with a match.
+     * @param line        The line to classify.
+     * @return True if a suffix of the line is accepted, false otherwise.
+     */
+    public static boolean endsWithMatch(DFATable searchTable, CharSequence line) {
+        int state = searchTable.getEtatInitial();
+        for (int i = 0; i < line.length(); i++) {
+            state = searchTable.suivant(state, line.charAt(i));
+            if (state == DFATable.MORT) {
+                // Symbol unknown to the pattern: only the leading loop survives it
+                state = searchTable.getEtatInitial();
+            }
+        }
+        return searchTable.estAcceptant(state);
+    }
+
+    /**
+     * Method to find the leftmost position from which the rest of the line is accepted, i.e. the
+     * start of the longest match of {@code R$}. Only used to highlight selected lines.
+     *
+     * @param table The compiled DFA of the pattern.
+     * @param line  The line in which to search.
+     * @return The start of the match, or -1 if no suffix of the line is accepted.
+     */
+    public static int suffixMatchStart(DFATable table, CharSequence line) {
+        for (int start = 0; start <= line.length(); start++) {
+            int state = table.getEtatInitial();
+            for (int i = start; i < line.length() && state != DFATable.MORT; i++) {
+                state = table.suivant(state, line.charAt(i));
+            }
+            if (state != DFATable.MORT && table.estAcceptant(state)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to highlight a single span of a line.
+     *
+     * @param line  The line.
+     * @param start The start of the span.
+     * @param end   The end (exclusive) of the span.
+     * @return The line with the span highlighted, or the line itself if the span is empty.
+     */
+    public static String highlightSpan(String line, int start, int end) {
+        if (end <= start) {
+            return line;
+        }
+        return line.substring(0, start) + RED + BOLD + line.substring(start, end) + RESET + line.substring(end);
+    }
+
     /**
      * Method to find and highlight all lines containing the pattern recognized by DFA, case-insensitive.
      * We convert both the text and the pattern to lowercase for matching, but we highlight in the original text.
@@ -76,47 +195,15 @@ public class DFASearch {
         int matchedLinesCount = 0;
         int foundWords = 0;
         Set<String> printedLines = new HashSet<>(); // To track printed lines
+        DFATable table = DFATable.compile(dfa); // Compile once for the whole text
 
         for (String line : lines) {
             StringBuilder highlightedLineBuilder = new StringBuilder(); // Use StringBuilder for the new line
-            int index = 0; // Current index in the original line
-            boolean lineModified = false; // Flag to check if line has been modified
-
-            // Iterate through the entire line looking for matches
-            while (index < line.length()) {
-                boolean matchFound = false;
-
-                // Attempt to find the longest match from the current position
-                for (int end = index + 1; end <= line.length(); end++) {
-                    String substring = line.substring(index, end);  // Current substring
-
-                    if (isAcceptedByDFA(dfa, substring)) {
-                        foundWords++;
-                        // Highlight the original case substring in the line
-                        String highlightedSubstring = RED + BOLD + substring + RESET;
-
-                        // Append the portion of the line before the match
-                        highlightedLineBuilder.append(line, index, index);
-                        // Append the highlighted match
-                        highlightedLineBuilder.append(highlightedSubstring);
-
-                        // Move index to the end of the found match
-                        index = end;
-                        matchFound = true;
-                        lineModified = true; // Mark that this line has been modified
-                        break;  // Break to avoid multiple highlights in the same line
-                    }
-                }
-
-                if (!matchFound) {
-                    // If no match is found, append the current character
-                    highlightedLineBuilder.append(line.charAt(index));
-                    index++; // Move to the next character
-                }
-            }
+            int matches = highlightMatches(line, table, highlightedLineBuilder);
+            foundWords += matches;
 
             // If the line was modified and not already printed, print it
-            if (lineModified && !printedLines.contains(highlightedLineBuilder.toString())) {
+            if (matches > 0 && !printedLines.contains(highlightedLineBuilder.toString())) {
                 if (printLine) {
                     System.out.println(highlightedLineBuilder.toString());
                 }
@@ -131,6 +218,77 @@ public class DFASearch {
         return foundWords;
     }
 
+    /**
+     * Method to highlight every match of the DFA in a single line.
+     * Matches are searched from left to right, the shortest accepted substring is kept at each position,
+     * and the search resumes after the end of the match.
+     *
+     * @param line  The line in which to search for the pattern.
+     * @param table The compiled DFA representing the minimized regex.
+     * @return The highlighted line, or {@code null} if the line contains no match.
+     */
+    public static String highlightLine(String line, DFATable table) {
+        StringBuilder highlightedLineBuilder = new StringBuilder();
+        return highlightMatches(line, table, highlightedLineBuilder) > 0 ? highlightedLineBuilder.toString() : null;
+    }
+
+    /**
+     * Appends the line to the builder with every match of the DFA highlighted.
+     *
+     * @param line                   The line in which to search for the pattern.
+     * @param table                  The compiled DFA representing the minimized regex.
+     * @param highlightedLineBuilder The builder receiving the highlighted line.
+     * @return The number of matches found in the line.
+     */
+    private static int highlightMatches(String line, DFATable table, StringBuilder highlightedLineBuilder) {
+        int index = 0; // Current index in the original line
+        int matches = 0;
+
+        // Iterate through the entire line looking for matches
+        while (index < line.length()) {
+            int end = matchEnd(line, index, table);
+
+            if (end > index) {
+                // Append the highlighted match, keeping the original case of the substring
+                highlightedLineBuilder.append(RED + BOLD).append(line, index, end).append(RESET);
+
+                // Move index to the end of the found match
+                index = end;
+                matches++;
+            } else {
+                // If no match is found, append the current character
+                highlightedLineBuilder.append(line.charAt(index));
+                index++; // Move to the next character
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Attempts to find the shortest match starting at the given position.
+     * The automaton is run once from {@code start} and stopped at the first accepting state,
+     * which is equivalent to testing every substring with {@link #isAcceptedByDFA}.
+     *
+     * @param line  The line in which to search.
+     * @param start The position at which the match must start.
+     * @param table The compiled DFA representing the minimized regex.
+     * @return The end (exclusive) of the shortest match, or {@code start} if there is none.
+     */
+    public static int matchEnd(String line, int start, DFATable table) {
+        int state = table.getEtatInitial();
+        for (int end = start + 1; end <= line.length(); end++) {
+            state = table.suivant(state, line.charAt(end - 1));
+            if (state == DFATable.MORT) {
+                return start;
+            }
+            if (table.estAcceptant(state)) {
+                return end;
+            }
+        }
+        return start;
+    }
+
 
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
@@ -139,9 +297,11 @@ public class DFASearch {
             System.out.print("Enter the regular expression to create the DFA: ");
             String regex = scanner.nextLine(); // Assume the regex will be converted to a DFA
 
-            RegExTree tree = RegExTreeParser.parse(regex);
-            if (tree == null) {
-                System.err.println("Error, Parsed Regex Tree is null");
+            RegExTree tree;
+            try {
+                tree = RegExTreeParser.parse(regex);
+            } catch (RegExSyntaxException e) {
+                System.err.println("Error: " + e.getMessage());
                 return;
             }
             NDFA ndfa = NDFAParser.parseTreeToNDFA(tree);
@@ -1,132 +1,276 @@
 package src;
+
+import src.literal.LiteralMatcher;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
-public class KMPAlgorithm {
+/**
+ * Knuth-Morris-Pratt search of a literal pattern.
+ *
+ * <p>The pattern is kept as a {@code char[]} with an {@code int[]} failure table built in O(m). The text
+ * is scanned once from start to end in O(n), whatever the number of lines, and every occurrence is
+ * reported with its offset and the line holding its first character, overlapping occurrences included.
+ * The scan itself allocates nothing: {@link #scan(char[], int, int, OccurrenceHandler)} hands each
+ * occurrence to a callback, and {@link #findAll(char[])} collects them in a list.</p>
+ *
+ * <p>The per-line methods {@link #searchInSuffixes(String)} and {@link #searchPatternInText()} are thin
+ * wrappers over the scan.</p>
+ */
+public class KMPAlgorithm implements LiteralMatcher {
 
     // ANSI escape code for green text
     public static final String GREEN = "\u001B[32m";
     public static final String RESET = "\u001B[0m";
 
-    private String pattern;
-    private String searchText;
-    private ArrayList<String> patternCharacters;
-    private ArrayList<Integer> lpsTable;
+    private final String searchText;
+    private final char[] patternChars;
 
-    public KMPAlgorithm(String pattern, String searchText) {
-        this.pattern = pattern;
-        this.searchText = searchText;
+    /**
+     * The failure table: {@code failure[j]} is the position of the pattern compared next when the
+     * character at position {@code j} does not match, or -1 to move on to the next character of the
+     * text. {@code failure[m]} is the length of the longest proper border of the whole pattern, where
+     * the search resumes after an occurrence.
+     */
+    private final int[] failure;
+
+    /** The offset of the first {@code '\n'} of the pattern, or -1, and the number of them. */
+    private final int firstNewline;
+    private final int newlines;
+
+    /**
+     * Receives the occurrences found by a scan.
+     */
+    @FunctionalInterface
+    public interface OccurrenceHandler {
+
+        /**
+         * Called for each occurrence, in the order of the text.
+         *
+         * @param offset     The offset of the first character of the occurrence.
+         * @param lineNumber The number of the line holding that character, from 0.
+         * @param lineStart  The offset of the first character of that line.
+         * @param lineEnd    The offset of the {@code '\n'} ending that line, or the end of the scanned range.
+         * @return {@code false} to stop the scan.
+         */
+        boolean found(int offset, int lineNumber, int lineStart, int lineEnd);
     }
 
-    public void generatePatternCharacters() {
-        this.patternCharacters = new ArrayList<>();
-        for (int i = 0; i < pattern.length(); i++) {
-            this.patternCharacters.add("" + pattern.charAt(i));
-        }
+    /**
+     * An occurrence of the pattern and the line holding its first character.
+     *
+     * @param offset     The offset of the first character of the occurrence.
+     * @param lineNumber The number of the line, from 0.
+     * @param lineStart  The offset of the first character of the line.
+     * @param lineEnd    The offset just past the last character of the line, its {@code '\n'} excluded.
+     */
+    public record Occurrence(int offset, int lineNumber, int lineStart, int lineEnd) {
     }
 
-    public ArrayList<Integer> getLpsTable() {
-        return this.lpsTable;
+    public KMPAlgorithm(String pattern, String searchText) {
+        this.searchText = searchText;
+        this.patternChars = pattern.toCharArray();
+        this.failure = buildFailureTable(patternChars);
+        this.firstNewline = pattern.indexOf('\n');
+        this.newlines = (int) pattern.chars().filter(c -> c == '\n').count();
     }
 
-    public ArrayList<String> getPrefixSublist(int index) {
-        ArrayList<String> prefix = new ArrayList<>();
-        for (int i = 0; i < index; i++) {
-            prefix.add(this.patternCharacters.get(i));
+    /**
+     * Builds the failure table of a pattern in O(m), each position skipping directly to a border whose
+     * next character differs from its own, as a mismatch there would fail again.
+     *
+     * @param pattern The pattern.
+     * @return The failure table, of length {@code m + 1}.
+     */
+    public static int[] buildFailureTable(char[] pattern) {
+        int m = pattern.length;
+        int[] failure = new int[m + 1];
+        failure[0] = -1;
+        // border is the length of the longest proper border of pattern[0..j)
+        int border = -1;
+        for (int j = 0; j < m; j++) {
+            while (border >= 0 && pattern[border] != pattern[j]) {
+                border = failure[border];
+            }
+            border++;
+            if (j + 1 < m && pattern[j + 1] == pattern[border]) {
+                failure[j + 1] = failure[border];
+            } else {
+                failure[j + 1] = border;
+            }
         }
-        return prefix;
+        return failure;
     }
 
-    public String extractSuffix(String inputString, int length) {
-        return inputString.substring(inputString.length() - length);
+    /**
+     * Kept for the callers of the former API: the pattern is converted by the constructor.
+     */
+    public void generatePatternCharacters() {
     }
 
-    public String listToString(ArrayList<String> stringList) {
-        StringBuilder result = new StringBuilder();
-        for (String s : stringList) {
-            result.append(s);
-        }
-        return result.toString();
+    /**
+     * Kept for the callers of the former API: the failure table is built by the constructor.
+     */
+    public void generateLpsTable() {
     }
 
-    public boolean isPrefix(String inputString, String suffix) {
-        return inputString.startsWith(suffix);
+    /**
+     * Returns a copy of the failure table.
+     *
+     * @return The failure table, of length {@code m + 1}.
+     */
+    public ArrayList<Integer> getLpsTable() {
+        ArrayList<Integer> table = new ArrayList<>(failure.length);
+        for (int value : failure) {
+            table.add(value);
+        }
+        return table;
     }
 
-    public int longestPrefixSuffixLength(ArrayList<String> stringList) {
-        String concatenatedString = listToString(stringList);
-        for (int i = concatenatedString.length() - 1; i > 0; i--) {
-            String suffix = extractSuffix(concatenatedString, i);
-            if (isPrefix(concatenatedString, suffix)) {
-                return suffix.length();
+    /**
+     * Scans a range of a text once and reports every occurrence of the pattern, overlapping ones
+     * included. An empty pattern occurs at every offset of the range and at its end.
+     *
+     * @param text    The text.
+     * @param from    The offset where the scan starts, taken as the start of a line.
+     * @param to      The offset where the scan ends, exclusive.
+     * @param handler The callback receiving the occurrences.
+     * @return The number of occurrences reported.
+     */
+    public int scan(char[] text, int from, int to, OccurrenceHandler handler) {
+        char[] p = patternChars;
+        int[] f = failure;
+        int m = p.length;
+        int count = 0;
+        int lineNumber = 0;
+        int lineStart = from;
+        // The end of the current line, only searched once the line holds an occurrence
+        int lineEnd = -1;
+        int j = 0;
+        for (int i = from; ; i++) {
+            if (j == m) {
+                int offset = i - m;
+                count++;
+                boolean more;
+                if (firstNewline < 0) {
+                    if (lineEnd < 0) {
+                        lineEnd = lineEnd(text, lineStart, to);
+                    }
+                    more = handler.found(offset, lineNumber, lineStart, lineEnd);
+                } else {
+                    // The occurrence spans lines: report the one holding its first character
+                    int start = offset;
+                    while (start > from && text[start - 1] != '\n') {
+                        start--;
+                    }
+                    more = handler.found(offset, lineNumber - newlines, start, offset + firstNewline);
+                }
+                if (!more) {
+                    return count;
+                }
+                j = f[m];
+            }
+            if (i == to) {
+                return count;
+            }
+            char c = text[i];
+            while (j >= 0 && p[j] != c) {
+                j = f[j];
+            }
+            j++;
+            if (c == '\n') {
+                lineNumber++;
+                lineStart = i + 1;
+                lineEnd = -1;
             }
         }
-        return 0;
     }
 
-    public void generateLpsTable() {
-        this.lpsTable = new ArrayList<>();
-        this.lpsTable.add(-1);
-
-        for (int i = 1; i < this.pattern.length(); i++) {
-            ArrayList<String> prefix = getPrefixSublist(i);
-            if (prefix.size() == 1) {
-                this.lpsTable.add(0);
-            } else {
-                int longestPrefixSuffix = longestPrefixSuffixLength(prefix);
-                this.lpsTable.add(longestPrefixSuffix);
-            }
+    private static int lineEnd(char[] text, int lineStart, int to) {
+        int end = lineStart;
+        while (end < to && text[end] != '\n') {
+            end++;
         }
+        return end;
+    }
 
-        for (int i = 1; i < this.patternCharacters.size(); i++) {
-            if ((this.patternCharacters.get(i).equals(this.patternCharacters.get(0)))
-                    && (this.lpsTable.get(i) == 0)) {
-                this.lpsTable.set(i, -1);
-            }
-        }
+    /**
+     * Returns every occurrence of the pattern in a text, overlapping ones included.
+     *
+     * @param text The text.
+     * @return The occurrences, in the order of the text.
+     */
+    public List<Occurrence> findAll(char[] text) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        scan(text, 0, text.length, (offset, lineNumber, lineStart, lineEnd) -> {
+            occurrences.add(new Occurrence(offset, lineNumber, lineStart, lineEnd));
+            return true;
+        });
+        return occurrences;
+    }
 
-        for (int i = 0; i < this.patternCharacters.size(); i++) {
-            if ((this.lpsTable.get(i) != -1)
-                    && (this.patternCharacters.get(i).equals(this.patternCharacters.get(this.lpsTable.get(i))))) {
-                this.lpsTable.set(i, this.lpsTable.get(this.lpsTable.get(i)));
+    /**
+     * Returns the offset of the first occurrence of the pattern in a text, without copying it.
+     *
+     * @param text The text.
+     * @param from The offset where the search starts.
+     * @return The offset of the first occurrence at or after {@code from}, or -1.
+     */
+    @Override
+    public int indexOf(CharSequence text, int from) {
+        char[] p = patternChars;
+        int[] f = failure;
+        int m = p.length;
+        int n = text.length();
+        int j = 0;
+        for (int i = from; i < n && j < m; i++) {
+            char c = text.charAt(i);
+            while (j >= 0 && p[j] != c) {
+                j = f[j];
+            }
+            j++;
+            if (j == m) {
+                return i + 1 - m;
             }
         }
-        this.lpsTable.add(0);
+        return j == m && from <= n ? from : -1;
     }
 
-    public String[] splitTextIntoLines() {
-        return this.searchText.split("\n");
+    @Override
+    public String name() {
+        return "kmp";
     }
 
+    /**
+     * Tells whether a line contains the pattern.
+     *
+     * @param line The line.
+     * @return The line if it contains the pattern, {@code null} otherwise.
+     */
     public String searchInSuffixes(String line) {
-        int i = 0;
-        while ((i < line.length()) && ((line.length() - i) >= patternCharacters.size())) {
-            int matchCount = 0;
-            for (int j = 0; j < patternCharacters.size(); j++) {
-                if (patternCharacters.get(j).equals("" + line.charAt(j + i))) {
-                    matchCount++;
-                }
-            }
-            if (matchCount == patternCharacters.size()) {
-                return line;
-            } else {
-                i += matchCount - lpsTable.get(matchCount);
-            }
-        }
-        return null;
+        return indexOf(line, 0) >= 0 ? line : null;
     }
 
+    /**
+     * Returns the lines of the search text containing the pattern, in one scan of the whole text.
+     *
+     * @return The matching lines, each one once.
+     */
     public ArrayList<String> searchPatternInText() {
-        String[] lines = splitTextIntoLines();
+        char[] text = searchText.toCharArray();
         ArrayList<String> matchingLines = new ArrayList<>();
-        for (String line : lines) {
-            String result = searchInSuffixes(line);
-            if (result != null) {
-                matchingLines.add(result);
+        int[] lastLine = {-1};
+        scan(text, 0, text.length, (offset, lineNumber, lineStart, lineEnd) -> {
+            // The text after the last '\n' is not a line, as for split("\n")
+            if (lineNumber != lastLine[0] && lineStart < text.length) {
+                matchingLines.add(new String(text, lineStart, lineEnd - lineStart));
+                lastLine[0] = lineNumber;
             }
-        }
+            return true;
+        });
         return matchingLines;
     }
 
@@ -151,9 +295,6 @@ public class KMPAlgorithm {
 
         KMPAlgorithm kmpMatcher = new KMPAlgorithm(pattern, fileContent.toString());
 
-        kmpMatcher.generatePatternCharacters();
-        kmpMatcher.generateLpsTable();
-
         ArrayList<String> matchingLines = kmpMatcher.searchPatternInText();
 
         System.out.println("Search Results:");
@@ -1,13 +1,18 @@
 package src;
 
-import src.dfa.DFA;
-import src.dfa.DFADeterminisation;
-import src.minimization.DFAMinimization;
-import src.ndfa.NDFA;
-import src.regex.RegExTree;
-import src.regex.RegExTreeParser;
-import src.ndfa.NDFAParser;
+import src.dfa.CompileBudget;
+import src.search.CompiledPattern;
+import src.search.ContextPrinter;
+import src.search.KMPLineMatcher;
+import src.search.LineMatcher;
+import src.search.LiteralLineMatcher;
+import src.search.QueryPlan;
+import src.search.QueryPlanner;
+import src.search.StreamingSearch;
+import src.stats.PhaseStats;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Paths;
 
@@ -18,67 +23,163 @@ public class Main {
     public static final String RESET = "\u001B[0m";
 
     public static void main(String[] args) {
-        if (args.length < 3) {
-            System.out.println("Usage: java -jar myprogram.jar <method> <regex-pattern> <filename>");
-            System.out.println("method: 'automate' for DFA or 'kmp' for KMP algorithm");
+        int before = 0;
+        int after = 0;
+        boolean context = false;
+        boolean invert = false;
+        boolean fullLine = false;
+        boolean explain = false;
+        boolean stats = false;
+        int maxStates = CompileBudget.DEFAUT.maxEtats;
+        long maxTableBytes = CompileBudget.DEFAUT.maxOctetsTable;
+        long maxMillis = CompileBudget.DEFAUT.maxMillis;
+
+        // Parse the egrep-like options preceding the positional arguments
+        int argIndex = 0;
+        try {
+            while (argIndex < args.length && args[argIndex].startsWith("-")) {
+                String option = args[argIndex++];
+                if (option.equals("-v")) {
+                    invert = true;
+                    continue;
+                }
+                if (option.equals("-x")) {
+                    fullLine = true;
+                    continue;
+                }
+                if (option.equals("--explain")) {
+                    explain = true;
+                    continue;
+                }
+                if (option.equals("--stats")) {
+                    stats = true;
+                    continue;
+                }
+                if (argIndex >= args.length) {
+                    throw new IllegalArgumentException("Missing value for option " + option);
+                }
+                long value = Long.parseLong(args[argIndex++]);
+                if (value < 0 || value > Integer.MAX_VALUE && !option.equals("--max-table-bytes")) {
+                    throw new IllegalArgumentException("Invalid value for option " + option);
+                }
+                switch (option) {
+                    case "-A" -> {
+                        after = (int) value;
+                        context = true;
+                    }
+                    case "-B" -> {
+                        before = (int) value;
+                        context = true;
+                    }
+                    case "-C" -> {
+                        before = (int) value;
+                        after = (int) value;
+                        context = true;
+                    }
+                    case "--max-states" -> maxStates = (int) value;
+                    case "--max-table-bytes" -> maxTableBytes = value;
+                    case "--max-time" -> maxMillis = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+
+        int positional = args.length - argIndex;
+        if (positional < 2) {
+            System.out.println("Usage: java -jar myprogram.jar [options] [<method>] <regex-pattern> <filename>");
+            System.out.println("method: 'auto' (the default) for the engine planned from the pattern, 'automate' for DFA,"
+                    + " 'kmp' for KMP algorithm, or 'literal' for the literal engine suited to the pattern"
+                    + " (Horspool or Two-Way)");
+            System.out.println("-v: select the lines that do not match");
+            System.out.println("-x: select the lines that match as a whole");
+            System.out.println("-A n / -B n / -C n: print n lines of context after / before / around each matched line");
+            System.out.println("--max-states n / --max-table-bytes n / --max-time ms: compile budget of the DFA,"
+                    + " beyond which the automate method falls back to an NFA simulation");
+            System.out.println("--explain: print the plan of the auto method and its estimated cost on the error output");
+            System.out.println("--stats: print the time, allocated bytes, garbage collections and peak heap of each"
+                    + " compile phase and of the search on the error output");
             return;
         }
 
-        String method = args[0];
-        String regex = args[1];
-        String filePath = args[2];
+        String method = positional == 2 ? "auto" : args[argIndex++];
+        String regex = args[argIndex];
+        String filePath = args[argIndex + 1];
 
+        CompileBudget budget;
         try {
-            // Read the file content into a String
-            String text = DFASearch.readFile(filePath);
+            budget = new CompileBudget(maxStates, maxTableBytes, maxMillis);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
 
-            if (method.equalsIgnoreCase("automate")) {
-                runAutomateMethod(regex, text);
-            } else if (method.equalsIgnoreCase("kmp")) {
-                runKMPMethod(regex, text);
-            } else {
-                System.out.println("Unknown method. Please choose either 'automate' or 'kmp'.");
+        PhaseStats phaseStats = stats ? new PhaseStats() : PhaseStats.DISABLED;
+        LineMatcher matcher;
+        if (method.equalsIgnoreCase("auto")) {
+            matcher = buildPlannedMatcher(regex, fullLine, budget, explain, phaseStats);
+        } else if (method.equalsIgnoreCase("automate")) {
+            matcher = buildAutomateMatcher(regex, fullLine, budget, phaseStats);
+        } else if (method.equalsIgnoreCase("kmp")) {
+            if (QueryPlanner.litteral(regex) == null) {
+                System.err.println("Warning: the kmp method searches " + regex + " as a literal string");
             }
+            matcher = new KMPLineMatcher(regex, fullLine);
+        } else if (method.equalsIgnoreCase("literal")) {
+            matcher = new LiteralLineMatcher(regex, fullLine);
+        } else {
+            System.out.println("Unknown method. Please choose 'auto', 'automate', 'kmp' or 'literal'.");
+            return;
+        }
+        if (matcher == null) {
+            return;
+        }
 
+        // Stream the file line by line so the memory used does not depend on its size
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            ContextPrinter printer = new ContextPrinter(before, after, context, System.out);
+            boolean inverted = invert;
+            int matchedLines = phaseStats.measure(PhaseStats.SEARCH,
+                    () -> StreamingSearch.search(reader, matcher, printer, inverted));
+            System.out.println("There are " + GREEN + BOLD + matchedLines + RESET + " Matched lines");
+            if (stats) {
+                System.err.print(phaseStats.report());
+            }
         } catch (IOException e) {
             System.err.println("Error: File not found at " + Paths.get(filePath).toAbsolutePath());
         }
     }
 
-    private static void runAutomateMethod(String regex, String text) {
-        try {
-            // Create NDFA from regex and convert to minimized DFA
-            RegExTree tree = RegExTreeParser.parse(regex);
-            if (tree == null) {
-                System.err.println("Error, Parsed Regex Tree is null");
-                return;
-            }
-            NDFA ndfa = NDFAParser.parseTreeToNDFA(tree);
-            DFA dfa = DFADeterminisation.determinise(ndfa);
-            dfa = DFAMinimization.minimize(dfa);
-
-            // Search for the pattern in the text and highlight lines containing it
-            int foundWords = DFASearch.highlightPatternInText(text, dfa, true);
-
-        } catch (Exception e) {
-            System.err.println("Error in the automate method: " + e.getMessage());
+    private static LineMatcher buildPlannedMatcher(String regex, boolean fullLine, CompileBudget budget,
+                                                   boolean explain, PhaseStats stats) {
+        // Choose the engine from the analysis of the syntax tree
+        QueryPlan plan = QueryPlanner.plan(regex, fullLine, budget, stats);
+        if (explain) {
+            System.err.print(plan.explain());
         }
+        if (!plan.estCompile()) {
+            System.err.println("Error in the auto method: " + plan.getErreur());
+            return null;
+        }
+        return plan.matcher();
     }
 
-    private static void runKMPMethod(String regex, String text) {
-        KMPAlgorithm kmpMatcher = new KMPAlgorithm(regex, text);
-
-        kmpMatcher.generatePatternCharacters();
-        kmpMatcher.generateLpsTable();
-
-        var matchingLines = kmpMatcher.searchPatternInText();
-
-        System.out.println("Search Results:");
-        for (String line : matchingLines) {
-            // Highlighting the found pattern
-            String highlightedLine = line.replace(regex, KMPAlgorithm.GREEN + regex + KMPAlgorithm.RESET);
-            System.out.println(highlightedLine);
+    private static LineMatcher buildAutomateMatcher(String regex, boolean fullLine, CompileBudget budget,
+                                                    PhaseStats stats) {
+        // Create the minimized DFAs from the regex and compile them into tables
+        CompiledPattern compiled = CompiledPattern.compile(regex, fullLine, budget, stats);
+        if (!compiled.estCompile()) {
+            System.err.println("Error in the automate method: " + compiled.getErreur());
+            return null;
+        }
+        if (compiled.aCompteurs()) {
+            System.err.println("Running NFA simulation, the large counted repetitions run on counters instead of a DFA");
+        } else if (compiled.getRepli() != null) {
+            // The DFA is too costly for this pattern: simulate the NDFA instead
+            System.err.println("Falling back to NFA simulation, the DFA compilation exceeded its budget in " + compiled.getRepli());
         }
-        System.out.println("There are " + GREEN + BOLD + matchingLines.size() + RESET + " Matched lines");
+        return compiled.matcher();
     }
 }
@@ -0,0 +1,128 @@
+package src.derivative;
+
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.dfa.DFA;
+import src.regex.RegExTree;
+import src.regex.Repetition;
+
+import java.util.*;
+
+/**
+ * The {@code DerivativeDFABuilder} class builds a DFA from a regular expression syntax tree with
+ * Brzozowski derivatives.
+ *
+ * <p>Each DFA state is a canonical {@link Term}: the initial state is the term of the expression,
+ * the state reached on a symbol is the derivative of the current term with respect to that symbol,
+ * and a state is accepting if its term is nullable. The terms are interned by a {@link TermFactory},
+ * so equal derivatives share a state, and the derivative {@code ∅} is the dead state, which is left
+ * out of the DFA. Because the terms are normalized, the resulting DFA is often minimal or close to
+ * it, without a minimization pass.</p>
+ *
+ * <p>The symbols that do not appear explicitly in a term all have the same derivative, so it is
+ * computed once per state for all of them, and the runs of symbols going to the same state are
+ * added as range transitions.</p>
+ */
+public class DerivativeDFABuilder {
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    /**
+     * Builds the DFA of a regular expression syntax tree.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return A {@code DFA} recognizing the language of the expression.
+     */
+    public static DFA build(RegExTree arbreRegEx) {
+        return build(arbreRegEx, CompileBudget.ILLIMITE.start());
+    }
+
+    /**
+     * Builds the DFA of a regular expression syntax tree, within the given compilation budget.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @param budget     The budget of the running compilation.
+     * @return A {@code DFA} recognizing the language of the expression.
+     * @throws src.dfa.BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA build(RegExTree arbreRegEx, CompileBudget.Tracker budget) {
+        return build(arbreRegEx, CompileContext.partage(budget));
+    }
+
+    /**
+     * Builds the DFA of a regular expression syntax tree, numbering the states and checking the
+     * budget through the context of the running compilation.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @param contexte   The context of the running compilation.
+     * @return A {@code DFA} recognizing the language of the expression.
+     * @throws src.dfa.BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA build(RegExTree arbreRegEx, CompileContext contexte) {
+        CompileBudget.Tracker budget = contexte.budget;
+        TermFactory factory = new TermFactory();
+        Term initial = factory.depuis(Repetition.deplier(arbreRegEx));
+
+        Map<Term, DFA.Etat> dfaStates = new HashMap<>();
+        List<Term> toProcess = new ArrayList<>();
+        Set<DFA.Etat> dfaAcceptingStates = new HashSet<>();
+        DFA.Etat[] targets = new DFA.Etat[SYMBOLES_ASCII];
+
+        DFA.Etat initialState = contexte.nouvelEtat();
+        dfaStates.put(initial, initialState);
+        toProcess.add(initial);
+
+        for (int current = 0; current < toProcess.size(); current++) {
+            Term term = toProcess.get(current);
+            DFA.Etat currentDFAState = dfaStates.get(term);
+            if (term.isNullable()) {
+                dfaAcceptingStates.add(currentDFAState);
+            }
+
+            // Derivative shared by all the symbols the term does not mention, computed on first need
+            Term otherDerivative = null;
+            Arrays.fill(targets, null);
+            for (int symbole = 0; symbole < SYMBOLES_ASCII; symbole++) {
+                Term derivative;
+                if (term.mentionne(symbole)) {
+                    derivative = factory.deriver(term, symbole);
+                } else {
+                    if (otherDerivative == null) {
+                        otherDerivative = factory.deriver(term, symbole);
+                    }
+                    derivative = otherDerivative;
+                }
+                if (derivative == factory.vide) {
+                    continue; // Dead state
+                }
+
+                DFA.Etat next = dfaStates.get(derivative);
+                if (next == null) {
+                    budget.verifier("derivatives", dfaStates.size() + 1);
+                    next = contexte.nouvelEtat();
+                    dfaStates.put(derivative, next);
+                    toProcess.add(derivative);
+                }
+                targets[symbole] = next;
+            }
+
+            // Consecutive symbols going to the same state become one range transition
+            for (int low = 0; low < SYMBOLES_ASCII; ) {
+                int high = low;
+                while (high + 1 < SYMBOLES_ASCII && targets[high + 1] == targets[low]) {
+                    high++;
+                }
+                if (targets[low] != null) {
+                    currentDFAState.ajouterTransition(low, high, targets[low]);
+                }
+                low = high + 1;
+            }
+        }
+
+        if (dfaAcceptingStates.isEmpty()) {
+            // Empty language: keep an accepting state that cannot be reached, as the DFA needs one
+            dfaAcceptingStates.add(contexte.nouvelEtat());
+        }
+        return new DFA(initialState, dfaAcceptingStates);
+    }
+}
@@ -0,0 +1,158 @@
+package src.derivative;
+
+import src.regex.RegExTreeParser;
+
+/**
+ * The {@code Term} class represents a canonical regular expression term, as used by the derivative
+ * construction of {@link DerivativeDFABuilder}.
+ *
+ * <p>Terms are only created through the smart constructors of a {@link TermFactory}, which interns
+ * them: two equal terms of the same factory are the same object, so they can be compared with
+ * {@code ==} and used as DFA states directly. Alternations are flattened, sorted and without
+ * duplicates, and {@code ε} and {@code ∅} are simplified away, so that the derivatives of a term are
+ * finitely many.</p>
+ */
+public final class Term {
+
+    /** The empty language {@code ∅}. */
+    public static final int VIDE = 0;
+    /** The empty word {@code ε}. */
+    public static final int EPSILON = 1;
+    /** A single symbol, or any symbol for {@code DOT}. */
+    public static final int SYMBOLE = 2;
+    /** The concatenation of two terms. */
+    public static final int CONCAT = 3;
+    /** The alternation of two or more terms. */
+    public static final int ALTERN = 4;
+    /** The Kleene star of a term. */
+    public static final int ETOILE = 5;
+    /** Any symbol of a character class. */
+    public static final int CLASSE = 6;
+
+    private static final Term[] AUCUN = new Term[0];
+
+    /** The number of the term in its factory, in creation order. */
+    final int id;
+    final int genre;
+    /** The symbol of a {@code SYMBOLE} term, possibly {@code DOT}. */
+    final int symbole;
+    /** The symbols of a {@code CLASSE} term, as a 256-bit set; {@code null} for the other kinds. */
+    final long[] classe;
+    /** The operands: two for {@code CONCAT}, one for {@code ETOILE}, sorted by id for {@code ALTERN}. */
+    final Term[] operandes;
+    final boolean nullable;
+    /** The explicit symbols of the term, as a 256-bit set; the other symbols all have the same derivative. */
+    final long[] alphabet;
+
+    Term(int id, int genre, int symbole, long[] classe, Term[] operandes) {
+        this.id = id;
+        this.genre = genre;
+        this.symbole = symbole;
+        this.classe = classe;
+        this.operandes = operandes == null ? AUCUN : operandes;
+        this.alphabet = new long[4];
+
+        switch (genre) {
+            case EPSILON:
+            case ETOILE:
+                this.nullable = true;
+                break;
+            case CONCAT:
+                this.nullable = this.operandes[0].nullable && this.operandes[1].nullable;
+                break;
+            case ALTERN:
+                boolean anyNullable = false;
+                for (Term operande : this.operandes) {
+                    anyNullable |= operande.nullable;
+                }
+                this.nullable = anyNullable;
+                break;
+            default:
+                this.nullable = false;
+        }
+
+        if (genre == SYMBOLE && symbole != RegExTreeParser.DOT && symbole < 256) {
+            alphabet[symbole >>> 6] |= 1L << symbole;
+        }
+        if (genre == CLASSE) {
+            System.arraycopy(classe, 0, alphabet, 0, 4);
+        }
+        for (Term operande : this.operandes) {
+            for (int w = 0; w < 4; w++) {
+                alphabet[w] |= operande.alphabet[w];
+            }
+        }
+    }
+
+    /**
+     * Returns the kind of the term, one of {@link #VIDE}, {@link #EPSILON}, {@link #SYMBOLE},
+     * {@link #CONCAT}, {@link #ALTERN}, {@link #ETOILE} or {@link #CLASSE}.
+     *
+     * @return The kind of the term.
+     */
+    public int getGenre() {
+        return genre;
+    }
+
+    /**
+     * Checks whether the term matches the empty word.
+     *
+     * @return {@code true} if the term is nullable.
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * Checks whether the symbol is one of the explicit symbols of the term.
+     *
+     * @param symbole The symbol, between 0 and 255.
+     * @return {@code true} if the symbol appears in the term.
+     */
+    boolean mentionne(int symbole) {
+        return (alphabet[symbole >>> 6] & (1L << symbole)) != 0;
+    }
+
+    /**
+     * Checks whether the symbol belongs to the class of a {@code CLASSE} term.
+     *
+     * @param symbole The symbol, between 0 and 255.
+     * @return {@code true} if the class contains the symbol.
+     */
+    boolean contient(int symbole) {
+        return (classe[symbole >>> 6] & (1L << symbole)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        switch (genre) {
+            case VIDE:
+                return "∅";
+            case EPSILON:
+                return "ε";
+            case SYMBOLE:
+                return symbole == RegExTreeParser.DOT ? "." : Character.toString((char) symbole);
+            case CONCAT:
+                return "(" + operandes[0] + operandes[1] + ")";
+            case CLASSE:
+                StringBuilder classe = new StringBuilder("[");
+                for (int s = 0; s < 256; s++) {
+                    if (contient(s)) {
+                        classe.append((char) s);
+                    }
+                }
+                return classe.append(']').toString();
+            case ALTERN:
+                StringBuilder sb = new StringBuilder("(");
+                for (int i = 0; i < operandes.length; i++) {
+                    if (i > 0) {
+                        sb.append('|');
+                    }
+                    sb.append(operandes[i]);
+                }
+                return sb.append(')').toString();
+            default:
+                return operandes[0] + "*";
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package src.derivative;
+
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+
+import java.util.*;
+
+/**
+ * The {@code TermFactory} class creates and interns the {@link Term}s of one derivative construction,
+ * and computes their derivatives.
+ *
+ * <p>The smart constructors apply the simplifications {@code ∅·r = r·∅ = ∅}, {@code ε·r = r·ε = r},
+ * {@code r** = r*}, {@code r*·r* = r*}, {@code ε* = ∅* = ε}, and normalize alternations modulo associativity,
+ * commutativity and idempotence, dropping {@code ∅}. Concatenations are kept right-associated.
+ * Derivatives are memoized per term and symbol. A factory is not thread-safe and only lives for one
+ * compilation.</p>
+ */
+public class TermFactory {
+
+    private final Map<Cle, Term> termes = new HashMap<>();
+    private final Map<Long, Term> derivees = new HashMap<>();
+    private final Map<List<Long>, Integer> indexClasses = new HashMap<>();
+    private final List<long[]> classes = new ArrayList<>();
+    private int compteur = 0;
+
+    /** The empty language. */
+    public final Term vide = creer(Term.VIDE, 0, null);
+    /** The empty word. */
+    public final Term epsilon = creer(Term.EPSILON, 0, null);
+
+    /**
+     * Returns the term matching a single symbol.
+     *
+     * @param symbole The symbol, or {@code DOT} for any symbol.
+     * @return The interned term.
+     */
+    public Term symbole(int symbole) {
+        return interner(Term.SYMBOLE, symbole, null);
+    }
+
+    /**
+     * Returns the term matching any symbol of a character class. Equal classes share one term.
+     *
+     * @param symboles The symbols of the class, as a 256-bit set.
+     * @return The interned term.
+     */
+    public Term classe(long[] symboles) {
+        List<Long> cle = List.of(symboles[0], symboles[1], symboles[2], symboles[3]);
+        Integer index = indexClasses.get(cle);
+        if (index == null) {
+            index = classes.size();
+            classes.add(symboles.clone());
+            indexClasses.put(cle, index);
+        }
+        return interner(Term.CLASSE, index, null);
+    }
+
+    /**
+     * Returns the concatenation of two terms.
+     *
+     * @param gauche The left term.
+     * @param droite The right term.
+     * @return The interned, simplified term.
+     */
+    public Term concat(Term gauche, Term droite) {
+        if (gauche == vide || droite == vide) {
+            return vide;
+        }
+        if (gauche == epsilon) {
+            return droite;
+        }
+        if (droite == epsilon) {
+            return gauche;
+        }
+        // r*·r* = r*
+        if (gauche.genre == Term.ETOILE && (droite == gauche
+                || droite.genre == Term.CONCAT && droite.operandes[0] == gauche)) {
+            return droite;
+        }
+        // Keep concatenations right-associated: (a·b)·c = a·(b·c)
+        if (gauche.genre == Term.CONCAT) {
+            Deque<Term> facteurs = new ArrayDeque<>();
+            Term t = gauche;
+            while (t.genre == Term.CONCAT) {
+                facteurs.push(t.operandes[0]);
+                t = t.operandes[1];
+            }
+            Term resultat = interner(Term.CONCAT, 0, new Term[]{t, droite});
+            while (!facteurs.isEmpty()) {
+                resultat = interner(Term.CONCAT, 0, new Term[]{facteurs.pop(), resultat});
+            }
+            return resultat;
+        }
+        return interner(Term.CONCAT, 0, new Term[]{gauche, droite});
+    }
+
+    /**
+     * Returns the alternation of two terms.
+     *
+     * @param gauche The left term.
+     * @param droite The right term.
+     * @return The interned, normalized term.
+     */
+    public Term altern(Term gauche, Term droite) {
+        if (gauche == droite || droite == vide) {
+            return gauche;
+        }
+        if (gauche == vide) {
+            return droite;
+        }
+        return altern(List.of(gauche, droite));
+    }
+
+    /**
+     * Returns the alternation of several terms, flattened, sorted and without duplicates.
+     *
+     * @param alternatives The terms.
+     * @return The interned, normalized term.
+     */
+    public Term altern(Collection<Term> alternatives) {
+        TreeMap<Integer, Term> operandes = new TreeMap<>();
+        for (Term alternative : alternatives) {
+            if (alternative.genre == Term.ALTERN) {
+                for (Term operande : alternative.operandes) {
+                    operandes.put(operande.id, operande);
+                }
+            } else if (alternative != vide) {
+                operandes.put(alternative.id, alternative);
+            }
+        }
+        if (operandes.isEmpty()) {
+            return vide;
+        }
+        if (operandes.size() == 1) {
+            return operandes.firstEntry().getValue();
+        }
+        return interner(Term.ALTERN, 0, operandes.values().toArray(new Term[0]));
+    }
+
+    /**
+     * Returns the Kleene star of a term.
+     *
+     * @param operande The term.
+     * @return The interned, simplified term.
+     */
+    public Term etoile(Term operande) {
+        if (operande == vide || operande == epsilon) {
+            return epsilon;
+        }
+        if (operande.genre == Term.ETOILE) {
+            return operande;
+        }
+        return interner(Term.ETOILE, 0, new Term[]{operande});
+    }
+
+    /**
+     * Converts a regular expression syntax tree into a term. The spines of concatenations and
+     * alternations are walked iteratively, so long sequences do not overflow the stack.
+     *
+     * @param arbre The regular expression syntax tree.
+     * @return The interned term.
+     */
+    public Term depuis(RegExTree arbre) {
+        int racine = arbre.getRoot();
+        if (arbre.subTrees.isEmpty()) {
+            if (racine != RegExTreeParser.CLASSE) {
+                return symbole(racine);
+            }
+            long[] symboles = new long[4];
+            int[] intervalles = arbre.intervalles();
+            for (int i = 0; i < intervalles.length; i += 2) {
+                for (int s = intervalles[i]; s <= intervalles[i + 1]; s++) {
+                    symboles[s >>> 6] |= 1L << s;
+                }
+            }
+            return classe(symboles);
+        }
+        if (racine == RegExTreeParser.CONCAT || racine == RegExTreeParser.ALTERN) {
+            // Trees are left-associated: collect the right operands down the left spine
+            Deque<RegExTree> operandes = new ArrayDeque<>();
+            RegExTree t = arbre;
+            while (t.getRoot() == racine && !t.subTrees.isEmpty()) {
+                operandes.push(t.subTrees.get(1));
+                t = t.subTrees.get(0);
+            }
+            operandes.push(t);
+            if (racine == RegExTreeParser.ALTERN) {
+                List<Term> alternatives = new ArrayList<>();
+                for (RegExTree operande : operandes) {
+                    alternatives.add(depuis(operande));
+                }
+                return altern(alternatives);
+            }
+            List<RegExTree> facteurs = new ArrayList<>(operandes);
+            Term resultat = depuis(facteurs.get(facteurs.size() - 1));
+            for (int i = facteurs.size() - 2; i >= 0; i--) {
+                resultat = concat(depuis(facteurs.get(i)), resultat);
+            }
+            return resultat;
+        }
+        if (racine == RegExTreeParser.ETOILE) {
+            return etoile(depuis(arbre.subTrees.get(0)));
+        }
+        if (racine == RegExTreeParser.OPTION) {
+            return altern(epsilon, depuis(arbre.subTrees.get(0)));
+        }
+        if (racine == RegExTreeParser.PLUS) {
+            Term operande = depuis(arbre.subTrees.get(0));
+            return concat(operande, etoile(operande));
+        }
+        // Unknown operator: empty language, as in NDFAParser
+        return vide;
+    }
+
+    /**
+     * Returns the derivative of a term with respect to a symbol: the term matching the suffixes
+     * of the words of {@code terme} that start with {@code symbole}.
+     *
+     * @param terme   The term.
+     * @param symbole The symbol, between 0 and 255.
+     * @return The interned derivative.
+     */
+    public Term deriver(Term terme, int symbole) {
+        Long cle = (long) terme.id << 8 | symbole;
+        Term derivee = derivees.get(cle);
+        if (derivee == null) {
+            derivee = calculerDerivee(terme, symbole);
+            derivees.put(cle, derivee);
+        }
+        return derivee;
+    }
+
+    private Term calculerDerivee(Term terme, int symbole) {
+        switch (terme.genre) {
+            case Term.SYMBOLE:
+                return terme.symbole == symbole || terme.symbole == RegExTreeParser.DOT ? epsilon : vide;
+            case Term.CLASSE:
+                return terme.contient(symbole) ? epsilon : vide;
+            case Term.CONCAT:
+                Term gauche = terme.operandes[0];
+                Term droite = terme.operandes[1];
+                Term derivee = concat(deriver(gauche, symbole), droite);
+                return gauche.nullable ? altern(derivee, deriver(droite, symbole)) : derivee;
+            case Term.ALTERN:
+                List<Term> derivees = new ArrayList<>(terme.operandes.length);
+                for (Term operande : terme.operandes) {
+                    derivees.add(deriver(operande, symbole));
+                }
+                return altern(derivees);
+            case Term.ETOILE:
+                return concat(deriver(terme.operandes[0], symbole), terme);
+            default:
+                return vide;
+        }
+    }
+
+    /**
+     * Returns the number of terms created so far.
+     *
+     * @return The number of interned terms.
+     */
+    public int taille() {
+        return compteur;
+    }
+
+    private Term interner(int genre, int symbole, Term[] operandes) {
+        Cle cle = new Cle(genre, symbole, operandes);
+        Term terme = termes.get(cle);
+        if (terme == null) {
+            terme = creer(genre, symbole, operandes);
+            termes.put(cle, terme);
+        }
+        return terme;
+    }
+
+    private Term creer(int genre, int symbole, Term[] operandes) {
+        return new Term(compteur++, genre, symbole, genre == Term.CLASSE ? classes.get(symbole) : null, operandes);
+    }
+
+    /**
+     * Structural key of a term: its kind, symbol and the ids of its operands.
+     */
+    private static final class Cle {
+        private final int genre;
+        private final int symbole;
+        private final int[] operandes;
+        private final int hash;
+
+        Cle(int genre, int symbole, Term[] operandes) {
+            this.genre = genre;
+            this.symbole = symbole;
+            this.operandes = new int[operandes == null ? 0 : operandes.length];
+            for (int i = 0; i < this.operandes.length; i++) {
+                this.operandes[i] = operandes[i].id;
+            }
+            this.hash = 31 * (31 * genre + symbole) + Arrays.hashCode(this.operandes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) o;
+            return genre == autre.genre && symbole == autre.symbole && Arrays.equals(operandes, autre.operandes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
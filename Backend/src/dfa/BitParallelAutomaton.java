@@ -0,0 +1,271 @@
+package src.dfa;
+
+import src.regex.RegExTree;
+import src.regex.Repetition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code BitParallelAutomaton} class runs the position automaton of a pattern of at most
+ * {@link #MAX_POSITIONS} positions with bit-parallel operations (Navarro and Raffinot, "Flexible
+ * Pattern Matching in Strings", section 5.4).
+ *
+ * <p>The positions are those of {@link PositionDFABuilder}, and the set of positions just read fits
+ * in one {@code long}. Reading a symbol keeps the positions that follow the set and match the
+ * symbol: {@code D' = follow(D) & symbols[c]}. {@code follow(D)} is read from one table of 256
+ * entries per byte of {@code D}, so a step costs a few table reads whatever the pattern, and
+ * nothing is determinised: the automaton is built in time linear in the number of positions,
+ * even for patterns whose DFA is exponential, such as {@code (a|b)*a(a|b){12}}.</p>
+ *
+ * <p>An instance only holds immutable tables and can be shared between threads.</p>
+ */
+public class BitParallelAutomaton {
+
+    /** The largest number of positions, the end marker excluded. */
+    public static final int MAX_POSITIONS = 64;
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    /** The positions matching each symbol. */
+    private final long[] symboles = new long[SYMBOLES_ASCII];
+
+    /** The union of the followpos of the positions selected by each byte of a set, per byte. */
+    private final long[][] suivants;
+
+    /** The positions that may start a match. */
+    private final long premiers;
+
+    /** The positions that may end a match. */
+    private final long derniers;
+
+    /** Whether the pattern matches the empty word. */
+    private final boolean vide;
+
+    private BitParallelAutomaton(PositionDFABuilder.Positions positions) {
+        int nombre = positions.count() - 1;
+        long[] follow = new long[nombre];
+        long fin = 0;
+        for (int position = 0; position < nombre; position++) {
+            for (int suivant : positions.followpos[position]) {
+                if (suivant == positions.end) {
+                    fin |= 1L << position;
+                } else {
+                    follow[position] |= 1L << suivant;
+                }
+            }
+            int[] ranges = positions.ranges[position];
+            for (int r = 0; r < ranges.length; r += 2) {
+                for (int s = ranges[r]; s <= Math.min(ranges[r + 1], SYMBOLES_ASCII - 1); s++) {
+                    symboles[s] |= 1L << position;
+                }
+            }
+        }
+        long debut = 0;
+        boolean finAuDebut = false;
+        for (int position : positions.firstposRoot) {
+            if (position == positions.end) {
+                finAuDebut = true;
+            } else {
+                debut |= 1L << position;
+            }
+        }
+
+        suivants = new long[(nombre + 7) >>> 3][SYMBOLES_ASCII];
+        for (int octet = 0; octet < suivants.length; octet++) {
+            for (int valeur = 1; valeur < SYMBOLES_ASCII; valeur++) {
+                // Each table entry adds one bit to an entry already computed
+                int bit = Integer.numberOfTrailingZeros(valeur);
+                int position = (octet << 3) + bit;
+                long union = suivants[octet][valeur & (valeur - 1)];
+                suivants[octet][valeur] = position < nombre ? union | follow[position] : union;
+            }
+        }
+        this.premiers = debut;
+        this.derniers = fin;
+        this.vide = finAuDebut;
+    }
+
+    /**
+     * Builds the bit-parallel automaton of a syntax tree.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return The automaton of the expression.
+     * @throws IllegalArgumentException If the expression has more than {@link #MAX_POSITIONS} positions.
+     */
+    public static BitParallelAutomaton build(RegExTree arbreRegEx) {
+        if (nombrePositions(arbreRegEx) > MAX_POSITIONS) {
+            throw new IllegalArgumentException("More than " + MAX_POSITIONS + " positions");
+        }
+        return new BitParallelAutomaton(new PositionDFABuilder.Positions(Repetition.deplier(arbreRegEx)));
+    }
+
+    /**
+     * Counts the positions of a syntax tree once its counted repetitions are unrolled, without
+     * unrolling them. The count saturates at {@link Long#MAX_VALUE}.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return The number of positions, the end marker excluded.
+     */
+    public static long nombrePositions(RegExTree arbreRegEx) {
+        // List the nodes so that every node comes after its subtrees
+        List<RegExTree> noeuds = new ArrayList<>();
+        Deque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbreRegEx);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            noeuds.add(noeud);
+            for (RegExTree sousArbre : noeud.subTrees) {
+                aVisiter.push(sousArbre);
+            }
+        }
+        Collections.reverse(noeuds);
+
+        Map<RegExTree, Long> comptes = new IdentityHashMap<>();
+        for (RegExTree noeud : noeuds) {
+            long compte = noeud.isLeaf() ? 1 : 0;
+            for (RegExTree sousArbre : noeud.subTrees) {
+                compte = saturer(compte + comptes.get(sousArbre));
+            }
+            if (noeud instanceof Repetition repetition) {
+                // R{m,} unrolls to m + 1 copies of R, R{m,n} to n copies
+                long copies = repetition.max == Repetition.INFINI ? repetition.min + 1L : repetition.max;
+                compte = compte != 0 && copies > Long.MAX_VALUE / compte ? Long.MAX_VALUE : compte * copies;
+            }
+            comptes.put(noeud, compte);
+        }
+        return comptes.get(arbreRegEx);
+    }
+
+    private static long saturer(long compte) {
+        return compte < 0 ? Long.MAX_VALUE : compte;
+    }
+
+    private long suivre(long ensemble) {
+        long union = 0;
+        for (int octet = 0; octet < suivants.length && ensemble != 0; octet++, ensemble >>>= 8) {
+            union |= suivants[octet][(int) ensemble & 0xFF];
+        }
+        return union;
+    }
+
+    private long symbole(char c) {
+        return c < SYMBOLES_ASCII ? symboles[c] : 0;
+    }
+
+    /**
+     * Checks if the whole input is accepted.
+     *
+     * @param input The input to run.
+     * @return {@code true} if the input is accepted.
+     */
+    public boolean accepte(CharSequence input) {
+        return accepteDepuis(input, 0);
+    }
+
+    private boolean accepteDepuis(CharSequence input, int debut) {
+        if (debut == input.length()) {
+            return vide;
+        }
+        long possibles = premiers;
+        long ensemble = 0;
+        for (int i = debut; i < input.length(); i++) {
+            ensemble = possibles & symbole(input.charAt(i));
+            if (ensemble == 0) {
+                return false;
+            }
+            possibles = suivre(ensemble);
+        }
+        return (ensemble & derniers) != 0;
+    }
+
+    /**
+     * Checks if the line starts with a match ({@code ^R}).
+     *
+     * @param line The line to classify.
+     * @return {@code true} if a prefix of the line is accepted.
+     */
+    public boolean correspondAuDebut(CharSequence line) {
+        return vide || finCorrespondance(line, 0) > 0;
+    }
+
+    /**
+     * Checks in a single pass if the line contains a match, a new run starting at each position.
+     *
+     * @param line The line to classify.
+     * @return {@code true} if the line contains a match.
+     */
+    public boolean contientCorrespondance(CharSequence line) {
+        if (vide) {
+            return true;
+        }
+        long ensemble = 0;
+        for (int i = 0; i < line.length(); i++) {
+            ensemble = (suivre(ensemble) | premiers) & symbole(line.charAt(i));
+            if ((ensemble & derniers) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks in a single pass if the line ends with a match ({@code R$}).
+     *
+     * @param line The line to classify.
+     * @return {@code true} if a suffix of the line is accepted.
+     */
+    public boolean correspondALaFin(CharSequence line) {
+        if (vide) {
+            return true;
+        }
+        long ensemble = 0;
+        for (int i = 0; i < line.length(); i++) {
+            ensemble = (suivre(ensemble) | premiers) & symbole(line.charAt(i));
+        }
+        return (ensemble & derniers) != 0;
+    }
+
+    /**
+     * Finds the shortest non-empty match starting at the given position.
+     *
+     * @param line  The line in which to search.
+     * @param debut The position at which the match must start.
+     * @return The end (exclusive) of the shortest match, or {@code debut} if there is none.
+     */
+    public int finCorrespondance(CharSequence line, int debut) {
+        long possibles = premiers;
+        for (int fin = debut + 1; fin <= line.length(); fin++) {
+            long ensemble = possibles & symbole(line.charAt(fin - 1));
+            if (ensemble == 0) {
+                return debut;
+            }
+            if ((ensemble & derniers) != 0) {
+                return fin;
+            }
+            possibles = suivre(ensemble);
+        }
+        return debut;
+    }
+
+    /**
+     * Finds the leftmost position from which the rest of the line is accepted, i.e. the start of
+     * the longest match of {@code R$}.
+     *
+     * @param line The line in which to search.
+     * @return The start of the match, or -1 if no suffix of the line is accepted.
+     */
+    public int debutCorrespondanceFinale(CharSequence line) {
+        for (int debut = 0; debut <= line.length(); debut++) {
+            if (accepteDepuis(line, debut)) {
+                return debut;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package src.dfa;
+
+/**
+ * Thrown when the compilation of a pattern exceeds one of the limits of its {@link CompileBudget}.
+ * The compilation is abandoned and the message tells which limit was hit, so the caller can
+ * report it and fall back to an engine that does not build a DFA.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String phase;
+    private final boolean stateSetLimit;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param phase  The compilation phase that was running (e.g. "determinisation").
+     * @param reason The description of the exceeded limit.
+     */
+    public BudgetExceededException(String phase, String reason) {
+        this(phase, reason, false);
+    }
+
+    /**
+     * Constructs the exception, telling whether the NDFA state sets of the DFA states exceeded the
+     * budget rather than their number or the compilation time.
+     *
+     * @param phase         The compilation phase that was running (e.g. "determinisation").
+     * @param reason        The description of the exceeded limit.
+     * @param stateSetLimit Whether the state sets exceeded the budget.
+     */
+    public BudgetExceededException(String phase, String reason, boolean stateSetLimit) {
+        super(phase + ": " + reason);
+        this.phase = phase;
+        this.stateSetLimit = stateSetLimit;
+    }
+
+    /**
+     * Returns the compilation phase that exceeded the budget.
+     *
+     * @return The name of the phase.
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * Tells whether the NDFA state sets of the DFA states exceeded the budget, in which case any
+     * automaton built from these sets, such as a lazy DFA, would be too large as well.
+     *
+     * @return {@code true} if the state sets exceeded the budget.
+     */
+    public boolean isStateSetLimit() {
+        return stateSetLimit;
+    }
+}
@@ -0,0 +1,121 @@
+package src.dfa;
+
+/**
+ * The {@code CompileBudget} class holds the resources a single pattern compilation may use:
+ * the maximum number of DFA states, the maximum size of the transition table, and the maximum
+ * wall-clock time.
+ *
+ * <p>A budget is immutable and can be shared. Each compilation calls {@link #start()} and hands the
+ * returned {@link Tracker} to every phase, which checks it as it grows the automaton. When a
+ * limit is exceeded, a {@link BudgetExceededException} aborts the compilation before it can
+ * exhaust the memory of the process.</p>
+ */
+public class CompileBudget {
+
+    /** Size in bytes of the table row of one DFA state (256 {@code int} transitions). */
+    public static final long OCTETS_PAR_ETAT = 256L * Integer.BYTES;
+
+    /** A budget without any limit. */
+    public static final CompileBudget ILLIMITE = new CompileBudget(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /** The budget used by default for user patterns. */
+    public static final CompileBudget DEFAUT = new CompileBudget(100_000, 64L << 20, 5_000);
+
+    /** The maximum number of DFA states. */
+    public final int maxEtats;
+
+    /**
+     * The maximum size in bytes of the DFA transition table, and of the sets of NDFA states the
+     * DFA states stand for while it is built.
+     */
+    public final long maxOctetsTable;
+
+    /** The maximum wall-clock time of the compilation, in milliseconds. */
+    public final long maxMillis;
+
+    /**
+     * Constructs a budget.
+     *
+     * @param maxEtats       The maximum number of DFA states.
+     * @param maxOctetsTable The maximum size in bytes of the DFA transition table.
+     * @param maxMillis      The maximum wall-clock time of the compilation, in milliseconds.
+     */
+    public CompileBudget(int maxEtats, long maxOctetsTable, long maxMillis) {
+        if (maxEtats <= 0 || maxOctetsTable <= 0 || maxMillis <= 0) {
+            throw new IllegalArgumentException("Budget limits must be positive.");
+        }
+        this.maxEtats = maxEtats;
+        this.maxOctetsTable = maxOctetsTable;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Starts the clock of a new compilation.
+     *
+     * @return The tracker to hand to each compilation phase.
+     */
+    public Tracker start() {
+        return new Tracker();
+    }
+
+    /**
+     * The {@code Tracker} class checks the resources used by one compilation against the budget.
+     */
+    public class Tracker {
+
+        private final long debut = System.nanoTime();
+
+        private Tracker() {
+        }
+
+        /**
+         * Checks the current size of the automaton and the elapsed time.
+         *
+         * @param phase  The name of the running phase, used in the report.
+         * @param etats  The number of DFA states built so far.
+         * @throws BudgetExceededException If one of the limits is exceeded.
+         */
+        public void verifier(String phase, int etats) {
+            if (etats > maxEtats) {
+                throw new BudgetExceededException(phase, etats + " DFA states exceed the budget of " + maxEtats + " states");
+            }
+            long octets = etats * OCTETS_PAR_ETAT;
+            if (octets > maxOctetsTable) {
+                throw new BudgetExceededException(phase, "a " + octets + " byte table exceeds the budget of " + maxOctetsTable + " bytes");
+            }
+            verifierTemps(phase);
+        }
+
+        /**
+         * Checks the size of the sets of NDFA states that the DFA states stand for during a subset
+         * construction: one bit per NDFA state for each DFA state. For a large NDFA, they outgrow
+         * the transition table long before the number of states reaches its limit.
+         *
+         * @param phase     The name of the running phase, used in the report.
+         * @param etats     The number of DFA states.
+         * @param etatsNDFA The number of NDFA states.
+         * @throws BudgetExceededException If the sets exceed the size limit of the table.
+         */
+        public void verifierEnsembles(String phase, long etats, long etatsNDFA) {
+            long octetsParEnsemble = (etatsNDFA + 63) / 64 * Long.BYTES;
+            long octets = etats > Long.MAX_VALUE / octetsParEnsemble ? Long.MAX_VALUE : etats * octetsParEnsemble;
+            if (octets > maxOctetsTable) {
+                throw new BudgetExceededException(phase, "the NDFA state sets of " + etats + " DFA states take "
+                        + octets + " bytes, beyond the budget of " + maxOctetsTable + " bytes", true);
+            }
+        }
+
+        /**
+         * Checks the elapsed time only.
+         *
+         * @param phase The name of the running phase, used in the report.
+         * @throws BudgetExceededException If the time limit is exceeded.
+         */
+        public void verifierTemps(String phase) {
+            long millis = (System.nanoTime() - debut) / 1_000_000;
+            if (millis > maxMillis) {
+                throw new BudgetExceededException(phase, "compilation time of " + millis + " ms exceeds the budget of " + maxMillis + " ms");
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package src.dfa;
+
+import src.ndfa.NDFA;
+import src.stats.PhaseStats;
+
+/**
+ * The {@code CompileContext} class holds the mutable state of a single pattern compilation: the
+ * tracker of its {@link CompileBudget}, the numbering of the states it creates and the
+ * {@link PhaseStats} measuring its phases.
+ *
+ * <p>Every phase of a compilation receives the same context instead of relying on static fields,
+ * so two compilations running on different threads share nothing. A context is confined to the
+ * thread running its compilation and must not be used by two compilations at once. The
+ * {@link DFATable} it ends with is immutable and can be shared freely.</p>
+ *
+ * <p>The entry points that only take a {@link CompileBudget.Tracker} predate contexts and keep
+ * numbering their states with the shared {@link NDFA.Etat#compteur}, through {@link #partage}.</p>
+ */
+public class CompileContext {
+
+    /** The budget tracker of the compilation. */
+    public final CompileBudget.Tracker budget;
+
+    /** The statistics of the phases of the compilation, {@link PhaseStats#DISABLED} by default. */
+    public final PhaseStats stats;
+
+    // Whether the states are numbered by the shared NDFA.Etat.compteur instead of prochainId
+    private final boolean numerotationPartagee;
+    private int prochainId = 0;
+
+    /**
+     * Starts a compilation within the given budget.
+     *
+     * @param budget The resources the compilation may use.
+     */
+    public CompileContext(CompileBudget budget) {
+        this(budget.start());
+    }
+
+    /**
+     * Starts a compilation within the given budget, whose phases are measured.
+     *
+     * @param budget The resources the compilation may use.
+     * @param stats  The statistics the phases are added to.
+     */
+    public CompileContext(CompileBudget budget, PhaseStats stats) {
+        this(budget.start(), false, stats);
+    }
+
+    /**
+     * Creates a context for a compilation whose budget is already running.
+     *
+     * @param budget The budget tracker of the compilation.
+     */
+    public CompileContext(CompileBudget.Tracker budget) {
+        this(budget, false, PhaseStats.DISABLED);
+    }
+
+    private CompileContext(CompileBudget.Tracker budget, boolean numerotationPartagee, PhaseStats stats) {
+        this.budget = budget;
+        this.numerotationPartagee = numerotationPartagee;
+        this.stats = stats;
+    }
+
+    /**
+     * Creates a context numbering its states with the shared {@link NDFA.Etat#compteur}, as the
+     * single-threaded entry points did before contexts. Such a context is not safe to use while
+     * another compilation runs.
+     *
+     * @param budget The budget tracker of the compilation.
+     * @return A context drawing its state IDs from the shared counter.
+     */
+    public static CompileContext partage(CompileBudget.Tracker budget) {
+        return new CompileContext(budget, true, PhaseStats.DISABLED);
+    }
+
+    /**
+     * Creates an NDFA state numbered within this compilation.
+     *
+     * @return A new NDFA state.
+     */
+    public NDFA.Etat nouvelEtatNDFA() {
+        int id = prochainId++;
+        return numerotationPartagee ? new NDFA.Etat() : new NDFA.Etat(id);
+    }
+
+    /**
+     * Creates a DFA state numbered within this compilation.
+     *
+     * @return A new DFA state.
+     */
+    public DFA.Etat nouvelEtat() {
+        int id = prochainId++;
+        return numerotationPartagee ? new DFA.Etat() : new DFA.Etat(id);
+    }
+
+    /**
+     * Creates a DFA state standing for a set of NDFA states, numbered within this compilation.
+     *
+     * @param ndfaIds The IDs of the NDFA states the DFA state stands for.
+     * @return A new DFA state.
+     */
+    public DFA.Etat nouvelEtat(int[] ndfaIds) {
+        int id = prochainId++;
+        return numerotationPartagee ? new DFA.Etat(ndfaIds) : new DFA.Etat(id, ndfaIds);
+    }
+
+    /**
+     * Returns the number of states created so far in this compilation.
+     *
+     * @return The number of states.
+     */
+    public int nombreEtatsCrees() {
+        return prochainId;
+    }
+}
@@ -16,10 +16,12 @@ public class DFA extends NDFA {
      * Constructs a DFA with the specified initial state and accepting states.
      *
      * @param etatInitial     The initial state of the DFA.
-     * @param etatsAcceptants The set of accepting states in the DFA.
+     * @param etatsAcceptants The set of accepting states in the DFA, empty when the DFA recognizes
+     *                        no word, such as the DFA of a pattern holding a symbol above 255.
      */
     public DFA(Etat etatInitial, Set<Etat> etatsAcceptants) {
-        super(etatInitial, etatsAcceptants.iterator().next()); // Use the NDFA constructor with one accepting state
+        // Use the NDFA constructor with one accepting state, null if there is none
+        super(etatInitial, etatsAcceptants.isEmpty() ? null : etatsAcceptants.iterator().next());
         this.etatAcceptant = etatsAcceptants;  // Set of accepting states
     }
 
@@ -31,21 +33,78 @@ public class DFA extends NDFA {
 
         private String name;
 
+        // IDs of the NDFA states this state stands for, used to build the name on demand
+        private int[] ndfaIds;
+
         // No-argument constructor for Etat
         public Etat() {
             super(); // Call the parent constructor to set the ID
             this.name = "State_" + id;  // Default name based on the state ID
         }
 
+        /**
+         * Constructor for a state numbered by a {@link CompileContext}.
+         *
+         * @param id The ID of the state, unique within its compilation.
+         */
+        public Etat(int id) {
+            super(id);
+            this.name = "State_" + id;
+        }
+
         // Constructor that accepts a name for the state
         public Etat(String name) {
             super(); // Call the parent constructor to set the ID
             this.name = name; // Set the custom name
         }
 
+        /**
+         * Constructor for a state produced by the subset construction. The name, made of the sorted
+         * NDFA state IDs, is only built the first time it is requested.
+         *
+         * @param ndfaIds The IDs of the NDFA states this state stands for.
+         */
+        public Etat(int[] ndfaIds) {
+            super(); // Call the parent constructor to set the ID
+            this.ndfaIds = ndfaIds;
+        }
+
+        /**
+         * Constructor for a state produced by the subset construction and numbered by a {@link CompileContext}.
+         *
+         * @param id      The ID of the state, unique within its compilation.
+         * @param ndfaIds The IDs of the NDFA states this state stands for.
+         */
+        public Etat(int id, int[] ndfaIds) {
+            super(id);
+            this.ndfaIds = ndfaIds;
+        }
+
+        /**
+         * Returns the name of the state, building it from the NDFA state IDs if needed.
+         *
+         * @return The name of the state.
+         */
+        public String getName() {
+            if (name == null) {
+                int[] sortedIds = ndfaIds.clone();
+                Arrays.sort(sortedIds);
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < sortedIds.length; i++) {
+                    if (i > 0) {
+                        sb.append('-');
+                    }
+                    sb.append(sortedIds[i]);
+                }
+                name = sortedIds.length == 0 ? "Unknown" : sb.toString();
+                ndfaIds = null;
+            }
+            return name;
+        }
+
         @Override
         public String toString() {
-            return "State ID: " + id + ", Name: " + name;
+            return "State ID: " + id + ", Name: " + getName();
         }
 
         /**
@@ -71,7 +130,15 @@ public class DFA extends NDFA {
         @Override
         public Set<NDFA.Etat> obtenirTransition(int symbole) {
             Set<NDFA.Etat> etats = transitions.get(symbole);
-            return etats != null && !etats.isEmpty() ? Collections.singleton(etats.iterator().next()) : null; // Return a single state (deterministic)
+            if (etats != null && !etats.isEmpty()) {
+                return Collections.singleton(etats.iterator().next()); // Return a single state (deterministic)
+            }
+            for (NDFA.Intervalle intervalle : getIntervalles()) {
+                if (intervalle.contient(symbole)) {
+                    return Collections.singleton(intervalle.cible);
+                }
+            }
+            return null;
         }
 
         // Remove epsilon transitions for DFA (no epsilon transitions in DFA)
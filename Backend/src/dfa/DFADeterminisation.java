@@ -1,5 +1,6 @@
 package src.dfa;
 
+import src.ndfa.CompactNDFA;
 import src.ndfa.NDFA;
 
 import java.util.*;
@@ -7,36 +8,28 @@ import java.util.*;
 /**
  * The {@code DFADeterminisation} class is responsible for converting a Non-Deterministic Finite Automaton (NDFA)
  * to a Deterministic Finite Automaton (DFA) using the subset construction algorithm (powerset construction).
+ *
+ * <p>The NDFA is first converted into a {@link CompactNDFA}, whose states are numbered densely, so that a set
+ * of NDFA states is a {@code long[]} bitset. The sets met during the construction are interned in a {@link SubsetInterner} that only lives for one call,
+ * so nothing is shared between two determinisations.</p>
  */
 public class DFADeterminisation {
 
     private final static int SYMBOLES_ASCII = 256;
-    // Map pour mémoriser la correspondance entre ensembles d'états NDFA et états DFA
-    private static final Map<Set<NDFA.Etat>, DFA.Etat> ndfaToDfaMap = new HashMap<>();
 
     /**
-     * Convertit un ensemble d'états NDFA en un état DFA unique.
+     * Convertit un ensemble d'états NDFA en un nouvel état DFA.
+     * Le nom de l'état (les identifiants des états NDFA triés) n'est construit que s'il est demandé.
      * @param ndfaStates L'ensemble d'états NDFA.
-     * @return L'état DFA correspondant à cet ensemble d'états NDFA.
+     * @return Un nouvel état DFA représentant cet ensemble d'états NDFA.
      */
     public static DFA.Etat convertNDFASetToDFA(Set<NDFA.Etat> ndfaStates) {
-        // Sort the NDFA states by their ID to ensure consistent ordering
-        List<NDFA.Etat> sortedStates = new ArrayList<>(ndfaStates);
-        sortedStates.sort(Comparator.comparingInt(etat -> etat.id));
-
-        // Create a unique name by concatenating the sorted NDFA state IDs
-        String stateName = sortedStates.stream()
-                .map(etat -> String.valueOf(etat.id))
-                .reduce((s1, s2) -> s1 + "-" + s2)
-                .orElse("Unknown");
-
-        // Create a new DFA state with this name if it doesn't already exist
-        if (!ndfaToDfaMap.containsKey(ndfaStates)) {
-            DFA.Etat newDfaState = new DFA.Etat(stateName);
-            ndfaToDfaMap.put(ndfaStates, newDfaState);
+        int[] ids = new int[ndfaStates.size()];
+        int i = 0;
+        for (NDFA.Etat etat : ndfaStates) {
+            ids[i++] = etat.id;
         }
-
-        return ndfaToDfaMap.get(ndfaStates);
+        return new DFA.Etat(ids);
     }
 
 
@@ -47,96 +40,217 @@ public class DFADeterminisation {
      * @return A {@code DFA} representing the deterministic version of the NDFA.
      */
     public static DFA determinise(NDFA ndfa) {
-        // Subset construction algorithm (powerset construction)
-        Set<DFA.Etat> dfaStates = new HashSet<>();
-        Map<Set<NDFA.Etat>, DFA.Etat> dfaStateMap = new HashMap<>();
+        return determinise(ndfa, CompileBudget.ILLIMITE.start());
+    }
+
+    /**
+     * Converts the given NDFA into a DFA, within the given compilation budget.
+     *
+     * @param ndfa   The NDFA to convert.
+     * @param budget The budget of the running compilation.
+     * @return A {@code DFA} representing the deterministic version of the NDFA.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA determinise(NDFA ndfa, CompileBudget.Tracker budget) {
+        return determinise(CompactNDFA.from(ndfa), budget);
+    }
+
+    /**
+     * Converts the given NDFA into a DFA within the context of a running compilation.
+     *
+     * @param ndfa     The NDFA to convert.
+     * @param contexte The context of the running compilation.
+     * @return A {@code DFA} representing the deterministic version of the NDFA.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA determinise(NDFA ndfa, CompileContext contexte) {
+        return determinise(CompactNDFA.from(ndfa), contexte);
+    }
+
+    /**
+     * Converts the given compact NDFA into a DFA using the subset construction (powerset) method.
+     *
+     * <p>The arcs of the NDFA are labelled with ranges of symbols. For each set of NDFA states, the
+     * bounds of the arcs of its members split the alphabet into elementary intervals on which every
+     * arc either applies entirely or not at all, so the next set is computed once per interval
+     * instead of once per symbol, and consecutive intervals leading to the same DFA state become a
+     * single range transition. A {@code .} costs one interval, not 256 symbols.</p>
+     *
+     * <p>The budget is checked each time a DFA state is created, so a pattern whose DFA explodes
+     * is abandoned as soon as it exceeds the budget, not after exhausting the memory.</p>
+     *
+     * @param ndfa   The compact NDFA to convert.
+     * @param budget The budget of the running compilation.
+     * @return A {@code DFA} representing the deterministic version of the NDFA.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA determinise(CompactNDFA ndfa, CompileBudget.Tracker budget) {
+        return determinise(ndfa, CompileContext.partage(budget));
+    }
+
+    /**
+     * Converts the given compact NDFA into a DFA, numbering the DFA states and checking the budget
+     * through the context of the running compilation.
+     *
+     * @param ndfa     The compact NDFA to convert.
+     * @param contexte The context of the running compilation.
+     * @return A {@code DFA} representing the deterministic version of the NDFA.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA determinise(CompactNDFA ndfa, CompileContext contexte) {
+        if (ndfa.nombreCompteurs > 0) {
+            throw new IllegalArgumentException("An NDFA with counters can only be simulated.");
+        }
+        CompileBudget.Tracker budget = contexte.budget;
+        int words = (ndfa.nombreEtats + 63) >>> 6;
+        SubsetInterner subsets = new SubsetInterner(words);
+        List<DFA.Etat> dfaStates = new ArrayList<>();
+
+        // Scratch: the bounds of the elementary intervals, and one set per interval
+        int[] bounds = new int[16];
+        long[][] nextSets = new long[8][];
+        boolean[] covered = new boolean[8];
 
         // Create initial DFA state from NDFA initial epsilon-closure
-        Set<NDFA.Etat> initialSet = epsilonClosure(Set.of(ndfa.etatInitial));
-        DFA.Etat initialDFAState = convertNDFASetToDFA(initialSet);  // Use your conversion function
-        dfaStateMap.put(initialSet, initialDFAState);
-        dfaStates.add(initialDFAState);
-
-        Queue<Set<NDFA.Etat>> toProcess = new LinkedList<>();
-        toProcess.add(initialSet);
-
-        // Process each DFA state (representing a set of NDFA states)
-        while (!toProcess.isEmpty()) {
-            Set<NDFA.Etat> currentSet = toProcess.poll();
-            DFA.Etat currentDFAState = dfaStateMap.get(currentSet);
-
-            // Process each possible input symbol
-            for (int symbole = 0; symbole < SYMBOLES_ASCII; symbole++) {
-                Set<NDFA.Etat> nextSet = new HashSet<>();
-                for (NDFA.Etat ndfaState : currentSet) {
-                    Set<NDFA.Etat> transitions = ndfaState.obtenirTransition(symbole);
-                    if (transitions != null) {
-                        nextSet.addAll(transitions);
+        int[] stack = new int[ndfa.nombreEtats];
+        long[] currentSet = new long[words];
+        ndfa.ajouterFermeture(ndfa.etatInitial, currentSet, stack);
+        subsets.ajouter(currentSet);
+        dfaStates.add(newState(currentSet, ndfa, contexte));
+
+        // Process each DFA state (representing a set of NDFA states) in creation order
+        for (int current = 0; current < subsets.taille(); current++) {
+            // A single state of a large NDFA may take long to process, whether or not it creates states
+            budget.verifierTemps("determinisation");
+            subsets.copier(current, currentSet);
+            DFA.Etat currentDFAState = dfaStates.get(current);
+
+            // Split the alphabet at the bounds of the arcs leaving the set
+            int boundCount = 0;
+            for (int w = 0; w < words; w++) {
+                for (long bits = currentSet[w]; bits != 0; bits &= bits - 1) {
+                    int ndfaState = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int arc = ndfa.debut(ndfaState); arc < ndfa.fin(ndfaState); arc++) {
+                        if (ndfa.bas(arc) >= SYMBOLES_ASCII) {
+                            continue; // Symbol outside of the ASCII table, never read
+                        }
+                        if (boundCount + 2 > bounds.length) {
+                            bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+                        }
+                        bounds[boundCount++] = ndfa.bas(arc);
+                        bounds[boundCount++] = Math.min(ndfa.haut(arc), SYMBOLES_ASCII - 1) + 1;
                     }
                 }
+            }
+            if (boundCount == 0) {
+                continue;
+            }
+            Arrays.sort(bounds, 0, boundCount);
+            int intervals = 0;
+            for (int i = 1; i < boundCount; i++) {
+                if (bounds[i] != bounds[intervals]) {
+                    bounds[++intervals] = bounds[i];
+                }
+            }
+            // The elementary intervals are [bounds[j], bounds[j + 1] - 1] for j < intervals
+            if (intervals > nextSets.length) {
+                nextSets = Arrays.copyOf(nextSets, Math.max(intervals, 2 * nextSets.length));
+                covered = new boolean[nextSets.length];
+            }
+            for (int j = 0; j < intervals; j++) {
+                if (nextSets[j] == null) {
+                    nextSets[j] = new long[words];
+                } else {
+                    Arrays.fill(nextSets[j], 0L);
+                }
+                covered[j] = false;
+            }
 
-                if (!nextSet.isEmpty()) {
-                    // Compute the epsilon-closure of the next set of NDFA states
-                    Set<NDFA.Etat> epsilonClosureSet = epsilonClosure(nextSet);
-
-                    // Check if this leads to the same set of states (i.e., a self-loop)
-                    if (epsilonClosureSet.equals(currentSet)) {
-                        // Self-loop, add a transition back to the current DFA state
-                        currentDFAState.ajouterTransition(symbole, currentDFAState);
-                    } else {
-                        // Otherwise, check if the next state already exists in the DFA
-                        DFA.Etat nextDFAState = dfaStateMap.get(epsilonClosureSet);
-                        if (nextDFAState == null) {
-                            // If not, create a new DFA state and add it to the map and queue
-                            nextDFAState = convertNDFASetToDFA(epsilonClosureSet);
-                            dfaStateMap.put(epsilonClosureSet, nextDFAState);
-                            dfaStates.add(nextDFAState);
-                            toProcess.add(epsilonClosureSet);
+            // Gather, for each interval, the closure of the states its symbols lead to
+            for (int w = 0; w < words; w++) {
+                for (long bits = currentSet[w]; bits != 0; bits &= bits - 1) {
+                    int ndfaState = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int arc = ndfa.debut(ndfaState); arc < ndfa.fin(ndfaState); arc++) {
+                        if (ndfa.bas(arc) >= SYMBOLES_ASCII) {
+                            continue;
                         }
-                        // Add the transition from the current DFA state to the next DFA state
-                        currentDFAState.ajouterTransition(symbole, nextDFAState);
+                        int high = Math.min(ndfa.haut(arc), SYMBOLES_ASCII - 1);
+                        for (int j = Arrays.binarySearch(bounds, 0, intervals + 1, ndfa.bas(arc)); bounds[j] <= high; j++) {
+                            ndfa.ajouterFermeture(ndfa.cible(arc), nextSets[j], stack);
+                            covered[j] = true;
+                        }
+                    }
+                }
+            }
+
+            // Process the intervals in increasing order, so states are numbered as by a full 0..255 scan,
+            // and merge the consecutive intervals going to the same state into one range transition
+            int runTarget = -1;
+            int runLow = 0;
+            int runHigh = 0;
+            for (int j = 0; j < intervals; j++) {
+                if (!covered[j]) {
+                    continue;
+                }
+                long[] nextSet = nextSets[j];
+
+                // Check if the next state already exists in the DFA (a self-loop is the current state itself)
+                int next = subsets.chercher(nextSet);
+                if (next < 0) {
+                    // If not, create a new DFA state, it will be processed in turn
+                    budget.verifier("determinisation", dfaStates.size() + 1);
+                    budget.verifierEnsembles("determinisation", dfaStates.size() + 1, ndfa.nombreEtats);
+                    next = subsets.ajouter(nextSet);
+                    dfaStates.add(newState(nextSet, ndfa, contexte));
+                }
+
+                if (next == runTarget && runHigh + 1 == bounds[j]) {
+                    runHigh = bounds[j + 1] - 1;
+                } else {
+                    if (runTarget >= 0) {
+                        currentDFAState.ajouterTransition(runLow, runHigh, dfaStates.get(runTarget));
                     }
+                    runTarget = next;
+                    runLow = bounds[j];
+                    runHigh = bounds[j + 1] - 1;
                 }
             }
+            if (runTarget >= 0) {
+                currentDFAState.ajouterTransition(runLow, runHigh, dfaStates.get(runTarget));
+            }
         }
 
         // Determine accepting states in DFA
         Set<DFA.Etat> dfaAcceptingStates = new HashSet<>();
-        for (Map.Entry<Set<NDFA.Etat>, DFA.Etat> entry : dfaStateMap.entrySet()) {
-            for (NDFA.Etat ndfaState : entry.getKey()) {
-                if (ndfaState.equals(ndfa.etatAcceptant)) {
-                    dfaAcceptingStates.add(entry.getValue());
-                    break;
-                }
+        for (int i = 0; i < dfaStates.size(); i++) {
+            if (subsets.contient(i, ndfa.etatAcceptant)) {
+                dfaAcceptingStates.add(dfaStates.get(i));
             }
         }
 
-        return new DFA(initialDFAState, dfaAcceptingStates);
+        return new DFA(dfaStates.get(0), dfaAcceptingStates);
     }
 
-
-
     /**
-     * Computes the epsilon-closure for a set of NDFA states.
-     *
-     * @param states The set of NDFA states.
-     * @return The epsilon-closure of the given states.
+     * Creates the DFA state standing for a set of NDFA states. Only the NDFA ids are kept, the name is built lazily.
      */
-    private static Set<NDFA.Etat> epsilonClosure(Set<NDFA.Etat> states) {
-        Set<NDFA.Etat> closure = new HashSet<>(states);
-        Stack<NDFA.Etat> toProcess = new Stack<>();
-        toProcess.addAll(states);
-
-        while (!toProcess.isEmpty()) {
-            NDFA.Etat current = toProcess.pop();
-            for (NDFA.Etat epsilonTarget : current.transitionsEpsilon) {
-                if (closure.add(epsilonTarget)) {
-                    toProcess.add(epsilonTarget);
-                }
+    private static DFA.Etat newState(long[] set, CompactNDFA ndfa, CompileContext contexte) {
+        int[] ids = new int[cardinality(set)];
+        int i = 0;
+        for (int w = 0; w < set.length; w++) {
+            for (long bits = set[w]; bits != 0; bits &= bits - 1) {
+                ids[i++] = ndfa.ids[(w << 6) + Long.numberOfTrailingZeros(bits)];
             }
         }
+        return contexte.nouvelEtat(ids);
+    }
 
-        return closure;
+    private static int cardinality(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        return count;
     }
 
 }
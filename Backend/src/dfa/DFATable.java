@@ -0,0 +1,135 @@
+package src.dfa;
+
+import src.ndfa.NDFA;
+
+import java.util.*;
+
+/**
+ * The {@code DFATable} class is a compiled, immutable form of a {@code DFA}: states are numbered
+ * densely and transitions are stored in a flat {@code int[]} indexed by {@code state * columns + symbol}.
+ *
+ * <p>Running the automaton over a line is then a sequence of array reads, without the
+ * {@code Set} allocations and map lookups of {@link DFA.Etat#obtenirTransition(int)}.
+ * Like the rest of the pipeline, the table covers the 256 ASCII symbols; any other symbol has
+ * no transition.</p>
+ */
+public class DFATable {
+
+    /** Value of a missing transition. */
+    public static final int MORT = -1;
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    private final int[] transitions;
+    private final boolean[] acceptants;
+    private final int etatInitial;
+
+    private DFATable(int[] transitions, boolean[] acceptants, int etatInitial) {
+        this.transitions = transitions;
+        this.acceptants = acceptants;
+        this.etatInitial = etatInitial;
+    }
+
+    /**
+     * Compiles the states reachable from the initial state of the DFA into a table.
+     * The initial state gets the number 0, the others are numbered in breadth-first order.
+     *
+     * @param dfa The DFA to compile.
+     * @return The compiled table.
+     */
+    public static DFATable compile(DFA dfa) {
+        Map<NDFA.Etat, Integer> numeros = new HashMap<>();
+        List<NDFA.Etat> etats = new ArrayList<>();
+
+        numeros.put(dfa.etatInitial, 0);
+        etats.add(dfa.etatInitial);
+        for (int i = 0; i < etats.size(); i++) {
+            for (NDFA.Etat suivant : etats.get(i).successeurs()) {
+                if (!numeros.containsKey(suivant)) {
+                    numeros.put(suivant, etats.size());
+                    etats.add(suivant);
+                }
+            }
+        }
+
+        int[] transitions = new int[etats.size() * SYMBOLES_ASCII];
+        Arrays.fill(transitions, MORT);
+        boolean[] acceptants = new boolean[etats.size()];
+
+        for (int i = 0; i < etats.size(); i++) {
+            NDFA.Etat etat = etats.get(i);
+            acceptants[i] = dfa.etatAcceptant.contains(etat);
+            for (Map.Entry<Integer, Set<NDFA.Etat>> entree : etat.transitions.entrySet()) {
+                int symbole = entree.getKey();
+                if (symbole < SYMBOLES_ASCII) {
+                    transitions[i * SYMBOLES_ASCII + symbole] = numeros.get(entree.getValue().iterator().next());
+                }
+            }
+            for (NDFA.Intervalle intervalle : etat.getIntervalles()) {
+                int cible = numeros.get(intervalle.cible);
+                for (int symbole = intervalle.bas; symbole <= Math.min(intervalle.haut, SYMBOLES_ASCII - 1); symbole++) {
+                    transitions[i * SYMBOLES_ASCII + symbole] = cible;
+                }
+            }
+        }
+        return new DFATable(transitions, acceptants, 0);
+    }
+
+    /**
+     * Returns the number of the initial state.
+     *
+     * @return The initial state.
+     */
+    public int getEtatInitial() {
+        return etatInitial;
+    }
+
+    /**
+     * Returns the number of states in the table.
+     *
+     * @return The number of states.
+     */
+    public int nombreEtats() {
+        return acceptants.length;
+    }
+
+    /**
+     * Checks whether the given state is accepting.
+     *
+     * @param etat The state number.
+     * @return {@code true} if the state is accepting.
+     */
+    public boolean estAcceptant(int etat) {
+        return acceptants[etat];
+    }
+
+    /**
+     * Returns the state reached from {@code etat} on {@code symbole}.
+     *
+     * @param etat    The current state number.
+     * @param symbole The symbol read.
+     * @return The next state, or {@link #MORT} if there is no transition.
+     */
+    public int suivant(int etat, int symbole) {
+        return symbole < SYMBOLES_ASCII ? transitions[etat * SYMBOLES_ASCII + symbole] : MORT;
+    }
+
+    /**
+     * Checks if the whole input is accepted by the automaton, with the same semantics as
+     * {@code DFASearch.isAcceptedByDFA}: the run starts from the initial state and must end in an
+     * accepting state after the last character.
+     *
+     * @param input The input to run.
+     * @return {@code true} if the input is accepted.
+     */
+    public boolean accepte(CharSequence input) {
+        int etat = etatInitial;
+        for (int i = 0; i < input.length(); i++) {
+            etat = suivant(etat, input.charAt(i));
+            if (etat == MORT) {
+                return false;
+            }
+        }
+        return acceptants[etat];
+    }
+}
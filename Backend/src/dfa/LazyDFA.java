@@ -0,0 +1,179 @@
+package src.dfa;
+
+import src.ndfa.CompactNDFA;
+
+import java.util.Arrays;
+
+/**
+ * The {@code LazyDFA} class determinises a {@link CompactNDFA} while it reads the input: a DFA state
+ * and its transition on a symbol are only built the first time the run needs them, and kept in a
+ * cache for the following ones.
+ *
+ * <p>The states are {@code long[]} bitsets of NDFA states interned in a {@link SubsetInterner}, as in
+ * {@link DFADeterminisation}, and the transitions are kept in a flat {@code int[]} like the one of
+ * {@link DFATable}. A line only builds the states it goes through, so patterns whose full DFA is
+ * exponential, such as {@code (a|b)*a(a|b){12}}, run at the speed of a table once the states met in
+ * the text are built. When the cache holds {@code maxEtats} states, it is emptied and the run goes
+ * on from the current state, so the memory used stays bounded whatever the input.</p>
+ *
+ * <p>An instance fills its cache while it runs and is therefore not thread-safe.</p>
+ */
+public class LazyDFA {
+
+    /** Value of a missing transition. */
+    public static final int MORT = DFATable.MORT;
+
+    /** Value of a transition not built yet. */
+    private static final int INCONNU = -2;
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    private final CompactNDFA ndfa;
+    private final int mots;
+    private final int maxEtats;
+    private SubsetInterner ensembles;
+    private int[] transitions;
+    private boolean[] acceptants;
+    private final long[] courant;
+    private final long[] suivant;
+    private final int[] pile;
+    private int vidages;
+
+    /**
+     * Constructs a lazy DFA of the given NDFA.
+     *
+     * @param ndfa     The NDFA to determinise, without counters.
+     * @param maxEtats The number of states kept in the cache, at least 2.
+     * @throws IllegalArgumentException If the NDFA has counters, or the cache is too small.
+     */
+    public LazyDFA(CompactNDFA ndfa, int maxEtats) {
+        if (ndfa.nombreCompteurs > 0) {
+            throw new IllegalArgumentException("Counters cannot be determinised");
+        }
+        if (maxEtats < 2) {
+            throw new IllegalArgumentException("The cache must hold at least 2 states");
+        }
+        this.ndfa = ndfa;
+        this.mots = (ndfa.nombreEtats + 63) >>> 6;
+        this.maxEtats = maxEtats;
+        this.courant = new long[mots];
+        this.suivant = new long[mots];
+        this.pile = new int[ndfa.nombreEtats];
+        vider();
+        vidages = 0;
+    }
+
+    /**
+     * Empties the cache, which then only holds the initial state.
+     */
+    private void vider() {
+        ensembles = new SubsetInterner(mots);
+        int capacite = Math.min(maxEtats, 16);
+        transitions = new int[capacite * SYMBOLES_ASCII];
+        Arrays.fill(transitions, INCONNU);
+        acceptants = new boolean[capacite];
+        Arrays.fill(courant, 0L);
+        ndfa.ajouterFermeture(ndfa.etatInitial, courant, pile);
+        ajouter(courant);
+        vidages++;
+    }
+
+    private int ajouter(long[] ensemble) {
+        int numero = ensembles.ajouter(ensemble);
+        if (numero == acceptants.length) {
+            int capacite = Math.min(maxEtats, 2 * acceptants.length);
+            transitions = Arrays.copyOf(transitions, capacite * SYMBOLES_ASCII);
+            Arrays.fill(transitions, numero * SYMBOLES_ASCII, transitions.length, INCONNU);
+            acceptants = Arrays.copyOf(acceptants, capacite);
+        }
+        acceptants[numero] = ensembles.contient(numero, ndfa.etatAcceptant);
+        return numero;
+    }
+
+    /**
+     * Returns the number of the initial state, which is the same until the cache is emptied.
+     *
+     * @return The initial state.
+     */
+    public int getEtatInitial() {
+        return 0;
+    }
+
+    /**
+     * Checks whether the given state is accepting.
+     *
+     * @param etat The state number.
+     * @return {@code true} if the state is accepting.
+     */
+    public boolean estAcceptant(int etat) {
+        return acceptants[etat];
+    }
+
+    /**
+     * Returns the state reached from {@code etat} on {@code symbole}, building it if needed. When
+     * the cache is emptied, the numbers of the states returned before are no longer valid, so a run
+     * must only keep the last number returned.
+     *
+     * @param etat    The current state number.
+     * @param symbole The symbol read.
+     * @return The next state, or {@link #MORT} if there is no transition.
+     */
+    public int suivant(int etat, int symbole) {
+        if (symbole >= SYMBOLES_ASCII) {
+            return MORT;
+        }
+        int cible = transitions[etat * SYMBOLES_ASCII + symbole];
+        return cible != INCONNU ? cible : construire(etat, symbole);
+    }
+
+    private int construire(int etat, int symbole) {
+        ensembles.copier(etat, courant);
+        Arrays.fill(suivant, 0L);
+        boolean actif = false;
+        for (int w = 0; w < mots; w++) {
+            for (long bits = courant[w]; bits != 0; bits &= bits - 1) {
+                int source = (w << 6) + Long.numberOfTrailingZeros(bits);
+                for (int arc = ndfa.debut(source); arc < ndfa.fin(source) && ndfa.bas(arc) <= symbole; arc++) {
+                    if (symbole <= ndfa.haut(arc)) {
+                        ndfa.ajouterFermeture(ndfa.cible(arc), suivant, pile);
+                        actif = true;
+                    }
+                }
+            }
+        }
+        if (!actif) {
+            transitions[etat * SYMBOLES_ASCII + symbole] = MORT;
+            return MORT;
+        }
+        int cible = ensembles.chercher(suivant);
+        if (cible < 0) {
+            if (ensembles.taille() == maxEtats) {
+                // The transition from the current state is lost with the cache
+                vider();
+                cible = ensembles.chercher(suivant);
+                return cible >= 0 ? cible : ajouter(suivant);
+            }
+            cible = ajouter(suivant);
+        }
+        transitions[etat * SYMBOLES_ASCII + symbole] = cible;
+        return cible;
+    }
+
+    /**
+     * Returns the number of states currently in the cache.
+     *
+     * @return The number of states built since the cache was last emptied.
+     */
+    public int nombreEtats() {
+        return ensembles.taille();
+    }
+
+    /**
+     * Returns the number of times the cache was emptied because it was full.
+     *
+     * @return The number of flushes.
+     */
+    public int getVidages() {
+        return vidages;
+    }
+}
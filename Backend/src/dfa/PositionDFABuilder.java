@@ -0,0 +1,363 @@
+package src.dfa;
+
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.regex.Repetition;
+
+import java.util.*;
+
+/**
+ * The {@code PositionDFABuilder} class builds a DFA directly from a regular expression syntax tree,
+ * without going through the Thompson NDFA (Aho, Sethi and Ullman, "Compilers", section 3.9).
+ *
+ * <p>Each leaf of the tree is a position. The tree is augmented with an end marker, and the
+ * functions nullable, firstpos and lastpos are computed bottom-up, from which followpos is derived
+ * for concatenations and repetitions. A DFA state is then a set of positions: the initial state is
+ * firstpos of the root, the state reached on a symbol is the union of followpos of the positions of
+ * that symbol, and a state is accepting if it contains the end marker.</p>
+ *
+ * <p>There are no epsilon transitions to remove, so there is no closure to compute, and the NDFA
+ * is never allocated. The sets of positions are {@code long[]} bitsets interned in a
+ * {@link SubsetInterner}, as in {@link DFADeterminisation}.</p>
+ */
+public class PositionDFABuilder {
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    /** Ranges of the end marker position, which no input symbol matches. */
+    private static final int[] FIN = new int[0];
+
+    /** Largest number of {@code long} words spent on the followpos bitsets, beyond which the sorted lists are used. */
+    private static final long MAX_MOTS_FOLLOWPOS = 1 << 20;
+
+    /**
+     * Builds the DFA of a regular expression syntax tree.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return A {@code DFA} recognizing the language of the expression.
+     */
+    public static DFA build(RegExTree arbreRegEx) {
+        return build(arbreRegEx, CompileBudget.ILLIMITE.start());
+    }
+
+    /**
+     * Builds the DFA of a regular expression syntax tree, within the given compilation budget.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @param budget     The budget of the running compilation.
+     * @return A {@code DFA} recognizing the language of the expression.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA build(RegExTree arbreRegEx, CompileBudget.Tracker budget) {
+        return build(arbreRegEx, CompileContext.partage(budget));
+    }
+
+    /**
+     * Builds the DFA of a regular expression syntax tree, numbering the states and checking the
+     * budget through the context of the running compilation.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @param contexte   The context of the running compilation.
+     * @return A {@code DFA} recognizing the language of the expression.
+     * @throws BudgetExceededException If the DFA grows beyond the budget.
+     */
+    public static DFA build(RegExTree arbreRegEx, CompileContext contexte) {
+        CompileBudget.Tracker budget = contexte.budget;
+        Positions positions = new Positions(Repetition.deplier(arbreRegEx));
+        int words = (positions.count() + 63) >>> 6;
+        long[][] followSets = (long) words * positions.count() <= MAX_MOTS_FOLLOWPOS ? positions.followposSets(words) : null;
+        SubsetInterner subsets = new SubsetInterner(words);
+        List<DFA.Etat> dfaStates = new ArrayList<>();
+
+        long[][] nextSets = new long[SYMBOLES_ASCII][];
+        boolean[] symbolSeen = new boolean[SYMBOLES_ASCII];
+        int[] symbols = new int[SYMBOLES_ASCII];
+
+        long[] currentSet = new long[words];
+        for (int position : positions.firstposRoot) {
+            currentSet[position >>> 6] |= 1L << position;
+        }
+        subsets.ajouter(currentSet);
+        dfaStates.add(contexte.nouvelEtat(members(currentSet)));
+
+        for (int current = 0; current < subsets.taille(); current++) {
+            subsets.copier(current, currentSet);
+            DFA.Etat currentDFAState = dfaStates.get(current);
+
+            // Union of followpos of the positions of each symbol
+            int symbolCount = 0;
+            for (int w = 0; w < words; w++) {
+                for (long bits = currentSet[w]; bits != 0; bits &= bits - 1) {
+                    int position = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int[] ranges = positions.ranges[position];
+                    for (int r = 0; r < ranges.length; r += 2) {
+                        for (int s = ranges[r]; s <= ranges[r + 1]; s++) {
+                            if (!symbolSeen[s]) {
+                                symbolSeen[s] = true;
+                                symbols[symbolCount++] = s;
+                                if (nextSets[s] == null) {
+                                    nextSets[s] = new long[words];
+                                } else {
+                                    Arrays.fill(nextSets[s], 0L);
+                                }
+                            }
+                            if (followSets != null) {
+                                long[] next = nextSets[s];
+                                long[] follow = followSets[position];
+                                for (int k = 0; k < words; k++) {
+                                    next[k] |= follow[k];
+                                }
+                            } else {
+                                for (int follower : positions.followpos[position]) {
+                                    nextSets[s][follower >>> 6] |= 1L << follower;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Consecutive symbols going to the same state become one range transition
+            Arrays.sort(symbols, 0, symbolCount);
+            int runTarget = -1;
+            int runLow = 0;
+            int runHigh = 0;
+            for (int i = 0; i < symbolCount; i++) {
+                int symbole = symbols[i];
+                symbolSeen[symbole] = false;
+                int next = subsets.chercher(nextSets[symbole]);
+                if (next < 0) {
+                    budget.verifier("position construction", dfaStates.size() + 1);
+                    next = subsets.ajouter(nextSets[symbole]);
+                    dfaStates.add(contexte.nouvelEtat(members(nextSets[symbole])));
+                }
+                if (next == runTarget && runHigh + 1 == symbole) {
+                    runHigh = symbole;
+                } else {
+                    if (runTarget >= 0) {
+                        currentDFAState.ajouterTransition(runLow, runHigh, dfaStates.get(runTarget));
+                    }
+                    runTarget = next;
+                    runLow = symbole;
+                    runHigh = symbole;
+                }
+            }
+            if (runTarget >= 0) {
+                currentDFAState.ajouterTransition(runLow, runHigh, dfaStates.get(runTarget));
+            }
+        }
+
+        Set<DFA.Etat> dfaAcceptingStates = new HashSet<>();
+        for (int i = 0; i < dfaStates.size(); i++) {
+            if (subsets.contient(i, positions.end)) {
+                dfaAcceptingStates.add(dfaStates.get(i));
+            }
+        }
+        if (dfaAcceptingStates.isEmpty()) {
+            // Empty language: keep an accepting state that cannot be reached, as the DFA needs one
+            dfaAcceptingStates.add(contexte.nouvelEtat());
+        }
+        return new DFA(dfaStates.get(0), dfaAcceptingStates);
+    }
+
+    private static int[] members(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int w = 0; w < set.length; w++) {
+            for (long bits = set[w]; bits != 0; bits &= bits - 1) {
+                result[i++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The positions of a tree augmented with the end marker, with their symbol and followpos.
+     */
+    static class Positions {
+
+        /** The symbols of each position, as sorted pairs of bounds; none for the end marker. */
+        final int[][] ranges;
+
+        /** The sorted followpos of each position. */
+        final int[][] followpos;
+
+        /** The firstpos of the augmented tree. */
+        final int[] firstposRoot;
+
+        /** The position of the end marker. */
+        final int end;
+
+        /**
+         * Computes the positions of a tree. The tree is walked iteratively in post-order,
+         * so very deep trees do not overflow the stack.
+         *
+         * @param arbreRegEx The regular expression syntax tree.
+         */
+        Positions(RegExTree arbreRegEx) {
+            // List the nodes so that every node comes after its subtrees, left subtree first
+            List<RegExTree> nodes = new ArrayList<>();
+            Deque<RegExTree> toVisit = new ArrayDeque<>();
+            toVisit.push(arbreRegEx);
+            while (!toVisit.isEmpty()) {
+                RegExTree node = toVisit.pop();
+                nodes.add(node);
+                for (RegExTree subTree : node.subTrees) {
+                    toVisit.push(subTree);
+                }
+            }
+            Collections.reverse(nodes);
+
+            Map<RegExTree, Integer> index = new IdentityHashMap<>();
+            List<int[]> leafRanges = new ArrayList<>();
+            boolean[] nullable = new boolean[nodes.size()];
+            int[][] firstpos = new int[nodes.size()][];
+            int[][] lastpos = new int[nodes.size()][];
+            List<IntList> follow = new ArrayList<>();
+
+            for (int i = 0; i < nodes.size(); i++) {
+                RegExTree node = nodes.get(i);
+                index.put(node, i);
+                int root = node.getRoot();
+                if (node.subTrees.isEmpty()) {
+                    int position = leafRanges.size();
+                    leafRanges.add(node.intervalles());
+                    follow.add(new IntList());
+                    firstpos[i] = new int[]{position};
+                    lastpos[i] = firstpos[i];
+                    continue;
+                }
+                int left = index.get(node.subTrees.get(0));
+                if (root == RegExTreeParser.CONCAT) {
+                    int right = index.get(node.subTrees.get(1));
+                    for (int position : lastpos[left]) {
+                        follow.get(position).addAll(firstpos[right]);
+                    }
+                    nullable[i] = nullable[left] && nullable[right];
+                    firstpos[i] = nullable[left] ? union(firstpos[left], firstpos[right]) : firstpos[left];
+                    lastpos[i] = nullable[right] ? union(lastpos[left], lastpos[right]) : lastpos[right];
+                } else if (root == RegExTreeParser.ALTERN) {
+                    int right = index.get(node.subTrees.get(1));
+                    nullable[i] = nullable[left] || nullable[right];
+                    firstpos[i] = union(firstpos[left], firstpos[right]);
+                    lastpos[i] = union(lastpos[left], lastpos[right]);
+                } else if (root == RegExTreeParser.OPTION) {
+                    nullable[i] = true;
+                    firstpos[i] = firstpos[left];
+                    lastpos[i] = lastpos[left];
+                } else if (root == RegExTreeParser.ETOILE || root == RegExTreeParser.PLUS) {
+                    for (int position : lastpos[left]) {
+                        follow.get(position).addAll(firstpos[left]);
+                    }
+                    nullable[i] = root == RegExTreeParser.ETOILE || nullable[left];
+                    firstpos[i] = firstpos[left];
+                    lastpos[i] = lastpos[left];
+                } else {
+                    // Unknown operator: empty language, as in NDFAParser
+                    firstpos[i] = new int[0];
+                    lastpos[i] = firstpos[i];
+                }
+            }
+
+            // Augment the tree with the end marker: R# = concatenation of R and the marker
+            int rootIndex = nodes.size() - 1;
+            end = leafRanges.size();
+            leafRanges.add(FIN);
+            follow.add(new IntList());
+            for (int position : lastpos[rootIndex]) {
+                follow.get(position).add(end);
+            }
+            firstposRoot = nullable[rootIndex] ? union(firstpos[rootIndex], new int[]{end}) : firstpos[rootIndex];
+
+            ranges = leafRanges.toArray(new int[0][]);
+            followpos = new int[ranges.length][];
+            for (int position = 0; position < ranges.length; position++) {
+                followpos[position] = follow.get(position).toSortedSet();
+            }
+        }
+
+        /**
+         * Returns followpos of each position as a bitset, so that a union costs one pass over {@code words}.
+         *
+         * @param words The number of {@code long} words of a set of positions.
+         * @return The followpos bitset of each position.
+         */
+        long[][] followposSets(int words) {
+            long[][] sets = new long[followpos.length][words];
+            for (int position = 0; position < followpos.length; position++) {
+                for (int follower : followpos[position]) {
+                    sets[position][follower >>> 6] |= 1L << follower;
+                }
+            }
+            return sets;
+        }
+
+        /**
+         * Returns the number of positions, the end marker included.
+         *
+         * @return The number of positions.
+         */
+        int count() {
+            return ranges.length;
+        }
+
+        private static int[] union(int[] a, int[] b) {
+            int[] result = new int[a.length + b.length];
+            int i = 0, j = 0, k = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    result[k++] = a[i++];
+                } else if (a[i] > b[j]) {
+                    result[k++] = b[j++];
+                } else {
+                    result[k++] = a[i++];
+                    j++;
+                }
+            }
+            while (i < a.length) {
+                result[k++] = a[i++];
+            }
+            while (j < b.length) {
+                result[k++] = b[j++];
+            }
+            return k == result.length ? result : Arrays.copyOf(result, k);
+        }
+    }
+
+    /**
+     * A growable list of {@code int}, used to accumulate followpos before removing duplicates.
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] others) {
+            for (int value : others) {
+                add(value);
+            }
+        }
+
+        int[] toSortedSet() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int k = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (k == 0 || sorted[k - 1] != sorted[i]) {
+                    sorted[k++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, k);
+        }
+    }
+}
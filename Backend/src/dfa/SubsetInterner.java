@@ -0,0 +1,136 @@
+package src.dfa;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SubsetInterner} class is an open-addressing hash table interning the sets of NDFA
+ * states met during one subset construction.
+ *
+ * <p>Each set is a bitset of {@code mots} {@code long} words over the dense NDFA state numbers.
+ * Interned sets are stored back to back in a single {@code long[]} pool and identified by their
+ * insertion order, which is also the number of the DFA state they stand for. An instance lives
+ * only as long as the determinisation that created it.</p>
+ */
+class SubsetInterner {
+
+    private static final int ABSENT = -1;
+
+    private final int mots;
+    private long[] ensembles;
+    private int[] alveoles;
+    private int taille = 0;
+
+    /**
+     * Creates an empty table for bitsets of the given width.
+     *
+     * @param mots The number of {@code long} words of each bitset.
+     */
+    SubsetInterner(int mots) {
+        this.mots = mots;
+        this.ensembles = new long[16 * mots];
+        this.alveoles = new int[32];
+        Arrays.fill(alveoles, ABSENT);
+    }
+
+    /**
+     * Returns the number of the given set, or {@code -1} if it has not been interned yet.
+     *
+     * @param ensemble The bitset to look up.
+     * @return The number of the set, or {@code -1}.
+     */
+    int chercher(long[] ensemble) {
+        int masque = alveoles.length - 1;
+        for (int i = hacher(ensemble) & masque; ; i = (i + 1) & masque) {
+            int numero = alveoles[i];
+            if (numero == ABSENT || egal(numero, ensemble)) {
+                return numero;
+            }
+        }
+    }
+
+    /**
+     * Interns a set that is not in the table yet and returns its number.
+     * The content of the given array is copied, so the caller may reuse it.
+     *
+     * @param ensemble The bitset to intern.
+     * @return The number of the new set.
+     */
+    int ajouter(long[] ensemble) {
+        if (2 * (taille + 1) > alveoles.length) {
+            agrandir();
+        }
+        if ((taille + 1) * mots > ensembles.length) {
+            ensembles = Arrays.copyOf(ensembles, 2 * ensembles.length);
+        }
+        System.arraycopy(ensemble, 0, ensembles, taille * mots, mots);
+        placer(taille, hacher(ensemble));
+        return taille++;
+    }
+
+    /**
+     * Checks whether the set with the given number contains the given NDFA state.
+     *
+     * @param numero The number of the set.
+     * @param etat   The dense number of the NDFA state.
+     * @return {@code true} if the state belongs to the set.
+     */
+    boolean contient(int numero, int etat) {
+        return (ensembles[numero * mots + (etat >>> 6)] & (1L << etat)) != 0;
+    }
+
+    /**
+     * Copies the set with the given number into {@code destination}.
+     *
+     * @param numero      The number of the set.
+     * @param destination The array receiving the bitset.
+     */
+    void copier(int numero, long[] destination) {
+        System.arraycopy(ensembles, numero * mots, destination, 0, mots);
+    }
+
+    /**
+     * Returns the number of interned sets.
+     *
+     * @return The number of sets.
+     */
+    int taille() {
+        return taille;
+    }
+
+    private boolean egal(int numero, long[] ensemble) {
+        int debut = numero * mots;
+        for (int i = 0; i < mots; i++) {
+            if (ensembles[debut + i] != ensemble[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void placer(int numero, int hache) {
+        int masque = alveoles.length - 1;
+        int i = hache & masque;
+        while (alveoles[i] != ABSENT) {
+            i = (i + 1) & masque;
+        }
+        alveoles[i] = numero;
+    }
+
+    private void agrandir() {
+        alveoles = new int[2 * alveoles.length];
+        Arrays.fill(alveoles, ABSENT);
+        long[] ensemble = new long[mots];
+        for (int numero = 0; numero < taille; numero++) {
+            copier(numero, ensemble);
+            placer(numero, hacher(ensemble));
+        }
+    }
+
+    private int hacher(long[] ensemble) {
+        long h = 0;
+        for (int i = 0; i < mots; i++) {
+            h = (h + ensemble[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+}
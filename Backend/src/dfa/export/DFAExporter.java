@@ -75,55 +75,25 @@ public class DFAExporter extends NDFAExporter {
     }
 
     /**
-     * Helper function to recursively collect DFA states and transitions for JSON export.
-     * Overrides the NDFA behavior to handle DFA's deterministic transitions.
+     * Builds the JSON links leaving a DFA state: one link per target, without epsilon transitions,
+     * self-loops being marked with the {@code loop} type.
      *
-     * @param etat    The current state being processed.
-     * @param nodes   The list of nodes to which the current state will be added.
-     * @param links   The list of links (transitions) from this state to other states.
-     * @param visites A set of visited states to prevent infinite loops.
-     * @param dfa     The DFA structure, used to identify initial and accepting states.
+     * @param etat The state.
+     * @return The links leaving the state, in export order.
      */
     @Override
-    public void collectEtatForJson(NDFA.Etat etat, List<Map<String, String>> nodes, List<Map<String, String>> links,
-                                   Set<NDFA.Etat> visites, NDFA dfa) {
-        if (!visites.add(etat)) {
-            return; // Skip already visited states
-        }
-
-        // Add the current state to the nodes list
-        Map<String, String> node = new HashMap<>();
-        node.put("id", String.valueOf(etat.id)); // Ensure the ID is a String
-        nodes.add(node);
-
-        // Add deterministic transitions (without epsilon transitions) for DFA
-        for (Map.Entry<Integer, Set<NDFA.Etat>> entry : etat.transitions.entrySet()) {
-            int symbol = entry.getKey();
-            for (NDFA.Etat suivant : entry.getValue()) {
-                if (suivant == null) {
-                    // Log or handle the case where the next state is null
-                    System.err.println("Null transition state detected for symbol: " + (char) symbol + " from state: " + etat.id);
-                    continue; // Skip this transition
-                }
-
-                Map<String, String> link = new HashMap<>();
-                link.put("source", String.valueOf(etat.id)); // Ensure source is a String
-                link.put("target", String.valueOf(suivant.id)); // Ensure target is a String
-                link.put("label", String.valueOf((char) symbol)); // Ensure label is a String
-
-                // Handle loop detection: if the source and target states are the same, it's a loop
-                if (etat.equals(suivant)) {
-                    link.put("type", "loop");
-                }
-
-                links.add(link);
-
-                // Avoid revisiting self-loops unnecessarily
-                if (!etat.equals(suivant)) {
-                    collectEtatForJson(suivant, nodes, links, visites, dfa); // Recursively process the next state
-                }
+    protected List<Lien> liens(NDFA.Etat etat) {
+        List<Lien> liens = new ArrayList<>();
+        for (Map.Entry<NDFA.Etat, BitSet> entry : symbolesParCible(etat).entrySet()) {
+            NDFA.Etat suivant = entry.getKey();
+            Lien lien = new Lien(etat, suivant, etiquette(entry.getValue())); // Merged label of all the symbols
+
+            // Handle loop detection: if the source and target states are the same, it's a loop
+            if (etat.equals(suivant)) {
+                lien.link.put("type", "loop");
             }
+            liens.add(lien);
         }
+        return liens;
     }
-
 }
@@ -1,5 +1,7 @@
 package src.dfa.export;
 
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
 import src.dfa.DFA;
 import src.dfa.DFADeterminisation;
 import src.ndfa.NDFA;
@@ -20,8 +22,6 @@ import java.util.Scanner;
  */
 public class DFAGenerator extends NDFAGenerator {
 
-    private static final List<String> regexList = new ArrayList<>();  // Store the list of regular expressions
-
     /**
      * Override the method to build a DFA from a regular expression by first creating an NDFA and then determinizing it.
      *
@@ -29,25 +29,14 @@ public class DFAGenerator extends NDFAGenerator {
      * @return The DFA representing the DFA created from the NDFA.
      */
     public static DFA buildDFAFromRegex(String regEx) {
-        // Reset state IDs before building a new NDFA
-        resetStateCounter();
-
-        // Call the superclass method to build the NDFA from the regular expression
-        buildNDFAFromRegex(regEx);  // This builds the NDFA and stores it in the superclass
+        // Call the superclass method to build the NDFA from the regular expression, in a context
+        // numbering the states of the NDFA and of the DFA from zero
+        CompileContext contexte = new CompileContext(CompileBudget.ILLIMITE);
+        NDFA ndfa = buildNDFAFromRegex(regEx, contexte);
 
         // Determinize the NDFA into a DFA
 
-        return DFADeterminisation.determinise(getNDFA());  // Return the determinized DFA
-    }
-
-    /**
-     * Helper method to get the NDFA built by the superclass.
-     *
-     * @return The NDFA created by the superclass.
-     */
-    public static NDFA getNDFA() {
-        // Access the NDFA that was created in the superclass (since it's static in the superclass)
-        return ndfa;
+        return DFADeterminisation.determinise(ndfa, contexte);  // Return the determinized DFA
     }
 
     /**
@@ -79,9 +68,9 @@ public class DFAGenerator extends NDFAGenerator {
 
         try (BufferedReader br = new BufferedReader(new FileReader(inputFilePath))) {
             String line;
-            int regexIndex = 1;
+            List<String> regexList = new ArrayList<>();  // The regular expressions of the file
 
-            System.out.println("Building Ndfa from the regex");
+            System.out.println("Reading the regex file");
 
             // Read the file line by line and store each regex
             while ((line = br.readLine()) != null) {
@@ -90,11 +79,6 @@ public class DFAGenerator extends NDFAGenerator {
                 }
                 // Add regex to the list for later DFA processing
                 regexList.add(line.trim());
-
-                // Build NDFA from the current regex line
-                buildNDFAFromRegex(line.trim());
-
-                regexIndex++;
             }
 
             System.out.println("Building minimized DFA from the DFA.");
@@ -0,0 +1,67 @@
+package src.literal;
+
+import java.util.Arrays;
+
+/**
+ * Boyer-Moore-Horspool search of a literal pattern.
+ *
+ * <p>The window is compared from its last character, and on a mismatch it slides by the distance
+ * from the last occurrence, in the pattern, of the text character under its last position, so a
+ * long pattern made of varied characters reads only a fraction of the text. The shifts are kept
+ * in a table of 256 entries indexed by the low byte of the character: the characters sharing an
+ * entry keep the smallest of their shifts, which stays safe for any UTF-16 text.</p>
+ *
+ * <p>The worst case is O(nm), on periodic patterns over a small alphabet such as {@code aaaab}:
+ * {@link LiteralMatchers#select(String)} leaves those to {@link TwoWayMatcher}.</p>
+ */
+public final class HorspoolMatcher implements LiteralMatcher {
+
+    private final char[] pattern;
+
+    /** The shift of the window when the character under its last position is of each low byte. */
+    private final int[] shifts = new int[256];
+
+    /**
+     * Constructs a matcher for a pattern.
+     *
+     * @param pattern The literal pattern.
+     */
+    public HorspoolMatcher(String pattern) {
+        this.pattern = pattern.toCharArray();
+        int m = this.pattern.length;
+        Arrays.fill(shifts, Math.max(m, 1));
+        for (int i = 0; i < m - 1; i++) {
+            shifts[this.pattern[i] & 0xFF] = m - 1 - i;
+        }
+    }
+
+    @Override
+    public int indexOf(CharSequence text, int from) {
+        char[] p = pattern;
+        int m = p.length;
+        int n = text.length();
+        if (m == 0) {
+            return from <= n ? from : -1;
+        }
+        char last = p[m - 1];
+        for (int j = from; j <= n - m; ) {
+            char c = text.charAt(j + m - 1);
+            if (c == last) {
+                int i = m - 2;
+                while (i >= 0 && p[i] == text.charAt(j + i)) {
+                    i--;
+                }
+                if (i < 0) {
+                    return j;
+                }
+            }
+            j += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "horspool";
+    }
+}
@@ -0,0 +1,28 @@
+package src.literal;
+
+/**
+ * The {@code LiteralMatcher} interface is the contract shared by the engines searching a literal
+ * string: {@link src.KMPAlgorithm}, {@link HorspoolMatcher} and {@link TwoWayMatcher}.
+ *
+ * <p>The engines compare UTF-16 chars, so a pattern matches exactly where
+ * {@link String#indexOf(String, int)} would find it. {@link LiteralMatchers#select(String)} picks
+ * the engine suited to a pattern.</p>
+ */
+public interface LiteralMatcher {
+
+    /**
+     * Returns the offset of the first occurrence of the pattern in a text, without copying it.
+     *
+     * @param text The text.
+     * @param from The offset where the search starts.
+     * @return The offset of the first occurrence at or after {@code from}, or -1.
+     */
+    int indexOf(CharSequence text, int from);
+
+    /**
+     * Returns the name of the engine, as printed in reports.
+     *
+     * @return The name of the engine.
+     */
+    String name();
+}
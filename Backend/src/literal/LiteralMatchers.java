@@ -0,0 +1,42 @@
+package src.literal;
+
+/**
+ * Picks the literal engine suited to a pattern, from its length and its alphabet.
+ *
+ * <ul>
+ * <li>Patterns of at least {@link #MIN_SKIP_LENGTH} chars over at least
+ * {@link #MIN_DISTINCT_CHARS} distinct chars, such as words, go to {@link HorspoolMatcher},
+ * which reads about {@code n / m} chars of a text written in a large alphabet.</li>
+ * <li>The other patterns go to {@link TwoWayMatcher}: on short patterns the shifts of Horspool
+ * stay short, and on patterns over a small alphabet, such as {@code baaaa}, its worst case is
+ * quadratic, while Two-Way stays linear.</li>
+ * </ul>
+ *
+ * <p>{@link src.KMPAlgorithm} is never picked: Two-Way was faster on every pattern measured by
+ * {@code etudeExp.LiteralBenchmark}, in constant space. It stays the engine reporting every
+ * occurrence of a whole buffer with its line.</p>
+ */
+public final class LiteralMatchers {
+
+    /** The shortest pattern for which Horspool is chosen. */
+    public static final int MIN_SKIP_LENGTH = 4;
+
+    /** The smallest number of distinct chars for which Horspool is chosen. */
+    public static final int MIN_DISTINCT_CHARS = 4;
+
+    private LiteralMatchers() {
+    }
+
+    /**
+     * Returns the engine suited to a pattern.
+     *
+     * @param pattern The literal pattern.
+     * @return The engine searching the pattern.
+     */
+    public static LiteralMatcher select(String pattern) {
+        if (pattern.length() < MIN_SKIP_LENGTH || pattern.chars().distinct().count() < MIN_DISTINCT_CHARS) {
+            return new TwoWayMatcher(pattern);
+        }
+        return new HorspoolMatcher(pattern);
+    }
+}
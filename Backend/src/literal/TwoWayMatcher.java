@@ -0,0 +1,128 @@
+package src.literal;
+
+/**
+ * Crochemore-Perrin Two-Way search of a literal pattern.
+ *
+ * <p>The pattern is cut at a critical position {@code ell}, found from the maximal suffixes of the
+ * pattern for two opposite orders of the alphabet. Each window compares the right part
+ * {@code pattern[ell+1..m)} from left to right, then the left part from right to left. A mismatch
+ * in the right part slides the window past it, and an occurrence or a mismatch in the left part
+ * slides it by the period of the pattern. When the pattern is periodic, the prefix already known
+ * to match after such a slide is remembered and not compared again.</p>
+ *
+ * <p>The search reads each character of the text a bounded number of times, so it is linear in
+ * the worst case, and it only keeps four integers besides the pattern.</p>
+ */
+public final class TwoWayMatcher implements LiteralMatcher {
+
+    private final char[] pattern;
+
+    /** The last position of the left part of the critical factorization, -1 if it is empty. */
+    private final int ell;
+
+    /** The shift after an occurrence or a mismatch in the left part. */
+    private final int period;
+
+    /** Whether {@link #period} is the period of the whole pattern. */
+    private final boolean periodic;
+
+    /**
+     * Constructs a matcher for a pattern.
+     *
+     * @param pattern The literal pattern.
+     */
+    public TwoWayMatcher(String pattern) {
+        this.pattern = pattern.toCharArray();
+        char[] x = this.pattern;
+        int m = x.length;
+
+        // The critical position is the later of the two maximal suffixes
+        long direct = maximalSuffix(x, false);
+        long reverse = maximalSuffix(x, true);
+        long critical = (int) (direct >> 32) >= (int) (reverse >> 32) ? direct : reverse;
+        int ell = (int) (critical >> 32);
+        int period = (int) critical;
+
+        boolean periodic = ell + period < m;
+        for (int i = 0; periodic && i <= ell; i++) {
+            periodic = x[i] == x[i + period];
+        }
+        this.ell = ell;
+        this.periodic = periodic;
+        this.period = periodic ? period : Math.max(ell + 1, m - ell - 1) + 1;
+    }
+
+    /**
+     * Computes the maximal suffix of a pattern for the order of the chars, or for the reverse order.
+     *
+     * @return The position before the maximal suffix in the high 32 bits, and its period in the low ones.
+     */
+    private static long maximalSuffix(char[] x, boolean reverse) {
+        int m = x.length;
+        int ms = -1;
+        int j = 0;
+        int k = 1;
+        int p = 1;
+        while (j + k < m) {
+            char a = x[j + k];
+            char b = x[ms + k];
+            if (reverse ? a > b : a < b) {
+                j += k;
+                k = 1;
+                p = j - ms;
+            } else if (a == b) {
+                if (k != p) {
+                    k++;
+                } else {
+                    j += p;
+                    k = 1;
+                }
+            } else {
+                ms = j;
+                j = ms + 1;
+                k = 1;
+                p = 1;
+            }
+        }
+        return ((long) ms << 32) | p;
+    }
+
+    @Override
+    public int indexOf(CharSequence text, int from) {
+        char[] x = pattern;
+        int m = x.length;
+        int n = text.length();
+        if (m == 0) {
+            return from <= n ? from : -1;
+        }
+        // memory is the last position of the prefix known to match after a shift by the period
+        int memory = -1;
+        for (int j = from; j <= n - m; ) {
+            int i = Math.max(ell, memory) + 1;
+            while (i < m && x[i] == text.charAt(i + j)) {
+                i++;
+            }
+            if (i < m) {
+                j += i - ell;
+                memory = -1;
+                continue;
+            }
+            i = ell;
+            int floor = periodic ? memory : -1;
+            while (i > floor && x[i] == text.charAt(i + j)) {
+                i--;
+            }
+            if (i <= floor) {
+                return j;
+            }
+            j += period;
+            memory = periodic ? m - period - 1 : -1;
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "two-way";
+    }
+}
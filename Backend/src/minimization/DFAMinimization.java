@@ -1,5 +1,8 @@
 package src.minimization;
 
+import src.dfa.BudgetExceededException;
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
 import src.dfa.DFA;
 import src.ndfa.NDFA;
 
@@ -7,16 +10,69 @@ import java.util.*;
 
 /**
  * The {@code DFAMinimization} class provides the functionality to minimize a given DFA.
+ *
+ * <p>{@link #minimize(DFA)} uses Hopcroft's algorithm over integer state ids and byte classes
+ * (see {@link HopcroftMinimization}). The former iterative refinement is kept as
+ * {@link #minimizeMoore(DFA)} for comparison.</p>
  */
 public class DFAMinimization {
 
     /**
-     * Minimizes the given DFA using the partition refinement method.
+     * Minimizes the given DFA using Hopcroft's partition refinement.
      *
      * @param dfa The DFA to be minimized.
      * @return A new minimized DFA.
      */
     public static DFA minimize(DFA dfa) {
+        return minimize(dfa, CompileBudget.ILLIMITE.start());
+    }
+
+    /**
+     * Minimizes the given DFA using Hopcroft's partition refinement, within the given compilation budget.
+     * States from which no accepting state can be reached are removed with their transitions.
+     *
+     * @param dfa    The DFA to be minimized.
+     * @param budget The budget of the running compilation.
+     * @return A new minimized DFA.
+     * @throws BudgetExceededException If the minimization runs out of time.
+     */
+    public static DFA minimize(DFA dfa, CompileBudget.Tracker budget) {
+        return minimize(dfa, CompileContext.partage(budget));
+    }
+
+    /**
+     * Minimizes the given DFA using Hopcroft's partition refinement, numbering the new states and
+     * checking the budget through the context of the running compilation.
+     *
+     * @param dfa      The DFA to be minimized.
+     * @param contexte The context of the running compilation.
+     * @return A new minimized DFA.
+     * @throws BudgetExceededException If the minimization runs out of time.
+     */
+    public static DFA minimize(DFA dfa, CompileContext contexte) {
+        return HopcroftMinimization.minimize(dfa, contexte);
+    }
+
+    /**
+     * Minimizes the given DFA using the iterative (Moore) partition refinement method.
+     *
+     * @param dfa The DFA to be minimized.
+     * @return A new minimized DFA.
+     */
+    public static DFA minimizeMoore(DFA dfa) {
+        return minimizeMoore(dfa, CompileBudget.ILLIMITE.start());
+    }
+
+    /**
+     * Minimizes the given DFA using the iterative (Moore) partition refinement method, within the given
+     * compilation budget.
+     *
+     * @param dfa    The DFA to be minimized.
+     * @param budget The budget of the running compilation.
+     * @return A new minimized DFA.
+     * @throws BudgetExceededException If the minimization runs out of time.
+     */
+    public static DFA minimizeMoore(DFA dfa, CompileBudget.Tracker budget) {
         // Step 1: Remove unreachable states
         Set<DFA.Etat> reachableStates = getReachableStates(dfa);
 
@@ -36,6 +92,7 @@ public class DFAMinimization {
             List<Set<DFA.Etat>> newPartitions = new ArrayList<>();
 
             for (Set<DFA.Etat> group : partitions) {
+                budget.verifierTemps("minimization");
                 Map<Map<Integer, DFA.Etat>, Set<DFA.Etat>> splitterMap = new HashMap<>();
 
                 for (DFA.Etat state : group) {
@@ -61,13 +118,14 @@ public class DFAMinimization {
         } while (isRefined);
 
         // Step 4: Create the minimized DFA
+        CompileContext contexte = CompileContext.partage(budget);
         Map<DFA.Etat, DFA.Etat> stateMap = new HashMap<>();
         Set<DFA.Etat> minimizedStates = new HashSet<>();
         Set<DFA.Etat> minimizedAcceptingStates = new HashSet<>();
 
         for (Set<DFA.Etat> partition : partitions) {
             DFA.Etat representative = partition.iterator().next();
-            DFA.Etat newState = new DFA.Etat();
+            DFA.Etat newState = contexte.nouvelEtat();
             stateMap.put(representative, newState);
             minimizedStates.add(newState);
             if (acceptingStates.contains(representative)) {
@@ -0,0 +1,277 @@
+package src.minimization;
+
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.dfa.DFA;
+import src.dfa.DFATable;
+
+import java.util.*;
+
+/**
+ * The {@code HopcroftMinimization} class minimizes a DFA with Hopcroft's partition refinement, in
+ * {@code O(k n log n)} for {@code n} states and {@code k} symbol classes.
+ *
+ * <p>The DFA is first compiled into a {@link DFATable}, completed with a sink state standing for the
+ * missing transitions. Symbols whose columns are equal in the table form one byte class, and the
+ * refinement runs over the classes rather than the 256 symbols. A worklist holds the splitters
+ * {@code (block, class)}; when a block is split, only the smaller half is added for the classes that
+ * are not already pending. The block of the sink is left out of the result.</p>
+ */
+class HopcroftMinimization {
+
+    private final int n;
+    private final int classes;
+    /** Target of each state for each class, {@code state * classes + class}; the sink is state {@code n - 1}. */
+    private final int[] delta;
+    private final int[] classeDeSymbole = new int[256];
+    private final boolean[] acceptant;
+
+    // Partition: the states of block b are elements[debut[b] .. fin[b]), position[s] is the index of s in elements
+    private final int[] elements;
+    private final int[] position;
+    private final int[] bloc;
+    private int[] debut;
+    private int[] fin;
+    private int[] marques;
+    private int blocs = 0;
+
+    // Inverse transitions per class: the sources of t on class a are sources[debutInverse[a][t] .. debutInverse[a][t + 1])
+    private final int[][] debutInverse;
+    private final int[][] sources;
+
+    private HopcroftMinimization(DFATable table) {
+        n = table.nombreEtats() + 1;
+        int sink = n - 1;
+
+        // Group the symbols with equal columns into classes, comparing the columns with the same hash
+        Map<Long, List<Integer>> premiersParHash = new HashMap<>();
+        List<Integer> premiers = new ArrayList<>();
+        for (int symbole = 0; symbole < 256; symbole++) {
+            long hash = 0;
+            for (int etat = 0; etat < n - 1; etat++) {
+                hash = hash * 0x9E3779B97F4A7C15L + table.suivant(etat, symbole);
+            }
+            List<Integer> candidats = premiersParHash.computeIfAbsent(hash, h -> new ArrayList<>());
+            int classe = -1;
+            for (int candidat : candidats) {
+                if (memeColonne(table, candidat, symbole)) {
+                    classe = classeDeSymbole[candidat];
+                    break;
+                }
+            }
+            if (classe < 0) {
+                classe = premiers.size();
+                premiers.add(symbole);
+                candidats.add(symbole);
+            }
+            classeDeSymbole[symbole] = classe;
+        }
+        classes = premiers.size();
+
+        delta = new int[n * classes];
+        for (int etat = 0; etat < n; etat++) {
+            for (int a = 0; a < classes; a++) {
+                int cible = etat == sink ? DFATable.MORT : table.suivant(etat, premiers.get(a));
+                delta[etat * classes + a] = cible == DFATable.MORT ? sink : cible;
+            }
+        }
+
+        debutInverse = new int[classes][n + 1];
+        sources = new int[classes][n];
+        for (int a = 0; a < classes; a++) {
+            for (int etat = 0; etat < n; etat++) {
+                debutInverse[a][delta[etat * classes + a] + 1]++;
+            }
+            for (int t = 0; t < n; t++) {
+                debutInverse[a][t + 1] += debutInverse[a][t];
+            }
+            int[] suivant = Arrays.copyOf(debutInverse[a], n);
+            for (int etat = 0; etat < n; etat++) {
+                sources[a][suivant[delta[etat * classes + a]]++] = etat;
+            }
+        }
+
+        elements = new int[n];
+        position = new int[n];
+        bloc = new int[n];
+        debut = new int[8];
+        fin = new int[8];
+        marques = new int[8];
+        acceptant = new boolean[n];
+        for (int etat = 0; etat < sink; etat++) {
+            acceptant[etat] = table.estAcceptant(etat);
+        }
+
+        // Initial partition: accepting states first, then the others
+        int i = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int premier = i;
+            for (int etat = 0; etat < n; etat++) {
+                if (acceptant[etat] == (pass == 0)) {
+                    elements[i] = etat;
+                    position[etat] = i++;
+                    bloc[etat] = blocs;
+                }
+            }
+            if (i > premier) {
+                nouveauBloc(premier, i);
+            }
+        }
+    }
+
+    /**
+     * Minimizes a DFA.
+     *
+     * @param dfa      The DFA to minimize.
+     * @param contexte The context of the running compilation.
+     * @return A new minimized DFA, whose states are created in breadth-first order, with range transitions.
+     */
+    static DFA minimize(DFA dfa, CompileContext contexte) {
+        HopcroftMinimization hopcroft = new HopcroftMinimization(DFATable.compile(dfa));
+        hopcroft.raffiner(contexte.budget);
+        return hopcroft.construire(contexte);
+    }
+
+    private void raffiner(CompileBudget.Tracker budget) {
+        BitSet enAttente = new BitSet();
+        Deque<Integer> travail = new ArrayDeque<>();
+        if (blocs == 2) {
+            int plusPetit = taille(0) <= taille(1) ? 0 : 1;
+            for (int a = 0; a < classes; a++) {
+                ajouter(enAttente, travail, plusPetit, a);
+            }
+        }
+
+        int[] predecesseurs = new int[n];
+        int[] touches = new int[n];
+        while (!travail.isEmpty()) {
+            budget.verifierTemps("minimization");
+            int splitter = travail.poll();
+            enAttente.clear(splitter);
+            int b = splitter / classes;
+            int a = splitter % classes;
+
+            // Collect the states going into b on a before any split moves them
+            int nombre = 0;
+            for (int i = debut[b]; i < fin[b]; i++) {
+                int t = elements[i];
+                for (int j = debutInverse[a][t]; j < debutInverse[a][t + 1]; j++) {
+                    predecesseurs[nombre++] = sources[a][j];
+                }
+            }
+
+            // Move the marked states to the front of their block
+            int nombreTouches = 0;
+            for (int k = 0; k < nombre; k++) {
+                int s = predecesseurs[k];
+                int y = bloc[s];
+                if (marques[y] == 0) {
+                    touches[nombreTouches++] = y;
+                }
+                int cible = debut[y] + marques[y]++;
+                int autre = elements[cible];
+                elements[position[s]] = autre;
+                position[autre] = position[s];
+                elements[cible] = s;
+                position[s] = cible;
+            }
+
+            for (int k = 0; k < nombreTouches; k++) {
+                int y = touches[k];
+                int marquees = marques[y];
+                marques[y] = 0;
+                if (marquees == taille(y)) {
+                    continue;
+                }
+                int nouveau = nouveauBloc(debut[y], debut[y] + marquees);
+                debut[y] += marquees;
+                for (int i = debut[nouveau]; i < fin[nouveau]; i++) {
+                    bloc[elements[i]] = nouveau;
+                }
+                for (int c = 0; c < classes; c++) {
+                    if (enAttente.get(y * classes + c)) {
+                        ajouter(enAttente, travail, nouveau, c);
+                    } else {
+                        ajouter(enAttente, travail, taille(nouveau) <= taille(y) ? nouveau : y, c);
+                    }
+                }
+            }
+        }
+    }
+
+    private DFA construire(CompileContext contexte) {
+        int sinkBloc = bloc[n - 1];
+        DFA.Etat[] etats = new DFA.Etat[blocs];
+        Set<DFA.Etat> acceptants = new HashSet<>();
+        int[] file = new int[blocs];
+        int longueur = 0;
+
+        int initial = bloc[0];
+        etats[initial] = contexte.nouvelEtat();
+        file[longueur++] = initial;
+        for (int i = 0; i < longueur; i++) {
+            int b = file[i];
+            int representant = elements[debut[b]];
+            // Consecutive symbols going to the same block become one range transition
+            int debutPlage = 0;
+            for (int symbole = 0; symbole <= 256; symbole++) {
+                int cible = symbole < 256 ? bloc[delta[representant * classes + classeDe(symbole)]] : -1;
+                if (symbole > 0 && (symbole == 256 || cible != bloc[delta[representant * classes + classeDe(symbole - 1)]])) {
+                    int precedente = bloc[delta[representant * classes + classeDe(symbole - 1)]];
+                    if (precedente != sinkBloc) {
+                        if (etats[precedente] == null) {
+                            etats[precedente] = contexte.nouvelEtat();
+                            file[longueur++] = precedente;
+                        }
+                        etats[b].ajouterTransition(debutPlage, symbole - 1, etats[precedente]);
+                    }
+                    debutPlage = symbole;
+                }
+            }
+            if (acceptant[representant]) {
+                acceptants.add(etats[b]);
+            }
+        }
+        if (acceptants.isEmpty()) {
+            // Empty language: keep an accepting state that cannot be reached, as the DFA needs one
+            acceptants.add(contexte.nouvelEtat());
+        }
+        return new DFA(etats[initial], acceptants);
+    }
+
+    private static boolean memeColonne(DFATable table, int premier, int second) {
+        for (int etat = 0; etat < table.nombreEtats(); etat++) {
+            if (table.suivant(etat, premier) != table.suivant(etat, second)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int classeDe(int symbole) {
+        return classeDeSymbole[symbole];
+    }
+
+    private int taille(int b) {
+        return fin[b] - debut[b];
+    }
+
+    private int nouveauBloc(int premier, int dernier) {
+        if (blocs == debut.length) {
+            debut = Arrays.copyOf(debut, 2 * blocs);
+            fin = Arrays.copyOf(fin, 2 * blocs);
+            marques = Arrays.copyOf(marques, 2 * blocs);
+        }
+        debut[blocs] = premier;
+        fin[blocs] = dernier;
+        return blocs++;
+    }
+
+    private void ajouter(BitSet enAttente, Deque<Integer> travail, int b, int a) {
+        int splitter = b * classes + a;
+        if (!enAttente.get(splitter)) {
+            enAttente.set(splitter);
+            travail.add(splitter);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package src.minimization.export;
 
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
 import src.dfa.DFA;
 import src.dfa.DFADeterminisation;
 import src.dfa.export.DFAGenerator;
 import src.minimization.DFAMinimization;
+import src.ndfa.NDFA;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -20,8 +23,6 @@ import java.util.Scanner;
  */
 public class DFAMinimizationGenerator extends DFAGenerator {
 
-    private static final List<String> regexList = new ArrayList<>();  // Store the list of regular expressions
-
     /**
      * Override the method to build a minimized DFA from a regular expression by first creating an NDFA,
      * determinizing it into a DFA, and then minimizing it.
@@ -30,18 +31,17 @@ public class DFAMinimizationGenerator extends DFAGenerator {
      * @return The DFA representing the minimized DFA.
      */
     public static DFA buildMinimizedDFAFromRegex(String regEx) {
-        // Reset state IDs before building a new NDFA
-        resetStateCounter();
-
-        // Call the superclass method to build the NDFA from the regular expression
-        buildNDFAFromRegex(regEx);  // This builds the NDFA and stores it in the superclass
+        // Call the superclass method to build the NDFA from the regular expression, in a context
+        // numbering the states of the NDFA and of the DFA from zero
+        CompileContext contexte = new CompileContext(CompileBudget.ILLIMITE);
+        NDFA ndfa = buildNDFAFromRegex(regEx, contexte);
 
         // Determinize the NDFA into a DFA
-        DFA dfa = DFADeterminisation.determinise(getNDFA());
+        DFA dfa = DFADeterminisation.determinise(ndfa, contexte);
 
         // Minimize the DFA
 
-        return DFAMinimization.minimize(dfa);  // Return the minimized DFA
+        return DFAMinimization.minimize(dfa, contexte);  // Return the minimized DFA
     }
 
     /**
@@ -79,9 +79,9 @@ public class DFAMinimizationGenerator extends DFAGenerator {
 
         try (BufferedReader br = new BufferedReader(new FileReader(inputFilePath))) {
             String line;
-            int regexIndex = 1;
+            List<String> regexList = new ArrayList<>();  // The regular expressions of the file
 
-            System.out.println("Building Ndfa from the regex");
+            System.out.println("Reading the regex file");
             // Read the file line by line and store each regex
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty()) {
@@ -89,10 +89,6 @@ public class DFAMinimizationGenerator extends DFAGenerator {
                 }
                 // Add regex to the list for later DFA processing
                 regexList.add(line.trim());
-                // Build NDFA from the current regex line
-                buildNDFAFromRegex(line.trim());
-
-                regexIndex++;
             }
 
             // Now process the DFA for each regex
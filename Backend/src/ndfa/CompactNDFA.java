@@ -0,0 +1,617 @@
+package src.ndfa;
+
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.regex.Repetition;
+
+import java.util.*;
+
+/**
+ * The {@code CompactNDFA} class is a packed, read-only NDFA used by the determinisation and the
+ * simulation.
+ *
+ * <p>States are numbered densely from 0. The symbol transitions of all states are stored in
+ * compressed sparse row form: the arcs of state {@code e} are {@code debut(e) .. fin(e) - 1}, sorted
+ * by lower bound, and each arc is labelled with an inclusive range of symbols, so {@code .} is a
+ * single arc {@code [0, 255]} instead of 256 map entries. Epsilon transitions are stored the same way
+ * as {@code int} adjacency, and the epsilon-closure of every state is computed once, as a sorted list
+ * of state numbers, as long as these lists hold about two million states in all. Beyond, as when
+ * stars are deeply nested as in {@code ((x|a)*|b)*}, where the lists take quadratic time and memory,
+ * the closures are searched along the epsilon transitions each time they are needed.</p>
+ *
+ * <p>{@link #fromTree(RegExTree)} builds the Thompson automaton of a syntax tree directly in this
+ * form, without allocating any {@code NDFA.Etat}, map or set.</p>
+ *
+ * <p>{@link #avecCompteurs(RegExTree)} additionally keeps the large counted repetitions of a single
+ * symbol or class as counters: a counter is entered through its entry state, which has no arc, and
+ * leads to its exit state once it has read between {@code min} and {@code max} symbols of its class.
+ * Such an automaton is only run by {@link NDFASimulation}, never determinised.</p>
+ */
+public class CompactNDFA {
+
+    private static final int SYMBOLES_ASCII = 256;
+
+    /** The largest number of states in all the precomputed epsilon-closures, 8 MB of lists. */
+    private static final int MAX_MEMBRES_FERMETURES = 1 << 21;
+
+    /** The number of states. */
+    public final int nombreEtats;
+
+    /** The number of the initial state. */
+    public final int etatInitial;
+
+    /** The number of the accepting state. */
+    public final int etatAcceptant;
+
+    /** The IDs naming the states in the DFA built from this NDFA, indexed by state number. */
+    public final int[] ids;
+
+    private final int[] debutArcs;
+    private final int[] bas;
+    private final int[] hauts;
+    private final int[] cibles;
+    private final int[] debutEpsilons;
+    private final int[] epsilons;
+    private final int[][] fermetures;
+
+    /** The number of counters, 0 unless built by {@link #avecCompteurs(RegExTree)}. */
+    public final int nombreCompteurs;
+
+    private final int[] entreesCompteurs;
+    private final int[] sortiesCompteurs;
+    private final int[] minCompteurs;
+    private final int[] maxCompteurs;
+    private final long[][] classesCompteurs;
+
+    private CompactNDFA(int etatInitial, int etatAcceptant, int[] ids, int[] debutArcs, int[] bas, int[] hauts,
+                        int[] cibles, int[] debutEpsilons, int[] epsilons, int nombreCompteurs,
+                        int[] entreesCompteurs, int[] sortiesCompteurs, int[] minCompteurs, int[] maxCompteurs,
+                        long[][] classesCompteurs) {
+        this.nombreEtats = ids.length;
+        this.etatInitial = etatInitial;
+        this.etatAcceptant = etatAcceptant;
+        this.ids = ids;
+        this.debutArcs = debutArcs;
+        this.bas = bas;
+        this.hauts = hauts;
+        this.cibles = cibles;
+        this.debutEpsilons = debutEpsilons;
+        this.epsilons = epsilons;
+        this.fermetures = calculerFermetures(debutEpsilons, epsilons);
+        this.nombreCompteurs = nombreCompteurs;
+        this.entreesCompteurs = entreesCompteurs;
+        this.sortiesCompteurs = sortiesCompteurs;
+        this.minCompteurs = minCompteurs;
+        this.maxCompteurs = maxCompteurs;
+        this.classesCompteurs = classesCompteurs;
+    }
+
+    /**
+     * Builds the compact form of the states reachable from the initial state of the NDFA.
+     * The initial state gets the number 0, the others are numbered in breadth-first order.
+     * Consecutive symbols leading to the same state are merged into one arc, and range transitions
+     * are kept as they are.
+     *
+     * @param ndfa The NDFA to convert.
+     * @return The compact NDFA.
+     */
+    public static CompactNDFA from(NDFA ndfa) {
+        // Number the reachable states densely
+        List<NDFA.Etat> etats = new ArrayList<>();
+        Map<NDFA.Etat, Integer> numeros = new HashMap<>();
+        numeros.put(ndfa.etatInitial, 0);
+        etats.add(ndfa.etatInitial);
+        for (int i = 0; i < etats.size(); i++) {
+            NDFA.Etat etat = etats.get(i);
+            for (NDFA.Etat suivant : etat.successeurs()) {
+                numeroter(suivant, etats, numeros);
+            }
+            for (NDFA.Etat suivant : etat.transitionsEpsilon) {
+                numeroter(suivant, etats, numeros);
+            }
+        }
+        numeroter(ndfa.etatAcceptant, etats, numeros);
+
+        Constructeur constructeur = new Constructeur();
+        int[] ids = new int[etats.size()];
+        for (int i = 0; i < etats.size(); i++) {
+            NDFA.Etat etat = etats.get(i);
+            ids[i] = etat.id;
+            constructeur.nouvelEtat();
+
+            // Merge the runs of consecutive symbols with the same target, the symbols being visited in order
+            Map<Integer, int[]> ouverts = new HashMap<>();
+            for (Map.Entry<Integer, Set<NDFA.Etat>> entree : new TreeMap<>(etat.transitions).entrySet()) {
+                int symbole = entree.getKey();
+                for (NDFA.Etat suivant : entree.getValue()) {
+                    int cible = numeros.get(suivant);
+                    int[] intervalle = ouverts.get(cible);
+                    if (intervalle != null && intervalle[1] == symbole - 1) {
+                        intervalle[1] = symbole;
+                    } else {
+                        if (intervalle != null) {
+                            constructeur.arc(i, intervalle[0], intervalle[1], cible);
+                        }
+                        ouverts.put(cible, new int[]{symbole, symbole});
+                    }
+                }
+            }
+            for (Map.Entry<Integer, int[]> ouvert : ouverts.entrySet()) {
+                constructeur.arc(i, ouvert.getValue()[0], ouvert.getValue()[1], ouvert.getKey());
+            }
+            for (NDFA.Intervalle intervalle : etat.getIntervalles()) {
+                constructeur.arc(i, intervalle.bas, intervalle.haut, numeros.get(intervalle.cible));
+            }
+            for (NDFA.Etat suivant : etat.transitionsEpsilon) {
+                constructeur.epsilon(i, numeros.get(suivant));
+            }
+        }
+        return constructeur.construire(0, numeros.get(ndfa.etatAcceptant), ids);
+    }
+
+    /**
+     * Builds the Thompson NDFA of a regular expression syntax tree directly in compact form,
+     * with the same construction as {@link NDFAParser#parseTreeToNDFA(RegExTree)}.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return The compact NDFA of the expression.
+     */
+    public static CompactNDFA fromTree(RegExTree arbreRegEx) {
+        Constructeur constructeur = new Constructeur();
+        int[] fragment = constructeur.fragment(Repetition.deplier(arbreRegEx));
+        return constructeur.construire(fragment[0], fragment[1], null);
+    }
+
+    /**
+     * Builds the Thompson NDFA of a syntax tree in compact form, with one counter for each counted
+     * repetition of a single symbol or class whose bound is too large to unroll
+     * ({@link Repetition#estCompteur()}). The size of the automaton does not depend on these bounds.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return The compact NDFA with counters of the expression.
+     */
+    public static CompactNDFA avecCompteurs(RegExTree arbreRegEx) {
+        Constructeur constructeur = new Constructeur();
+        int[] fragment = constructeur.fragment(Repetition.deplier(arbreRegEx, true));
+        return constructeur.construire(fragment[0], fragment[1], null);
+    }
+
+    /**
+     * Builds the NDFA recognizing every text that ends with a match of the expression, the language
+     * of {@code .*R}, directly in compact form, as {@link NDFAParser#parseTreeToSearchNDFA(RegExTree)}.
+     *
+     * @param arbreRegEx The regular expression syntax tree.
+     * @return The compact NDFA of the texts ending with a match of the expression.
+     */
+    public static CompactNDFA fromSearchTree(RegExTree arbreRegEx) {
+        Constructeur constructeur = new Constructeur();
+        int[] fragment = constructeur.fragment(Repetition.deplier(arbreRegEx));
+        int boucle = constructeur.nouvelEtat(); // Start state looping on any symbol
+        constructeur.arc(boucle, 0, SYMBOLES_ASCII - 1, boucle);
+        constructeur.epsilon(boucle, fragment[0]);
+        return constructeur.construire(boucle, fragment[1], null);
+    }
+
+    private static void numeroter(NDFA.Etat etat, List<NDFA.Etat> etats, Map<NDFA.Etat, Integer> numeros) {
+        if (!numeros.containsKey(etat)) {
+            numeros.put(etat, etats.size());
+            etats.add(etat);
+        }
+    }
+
+    /**
+     * Computes the epsilon-closure of every state with a depth-first search, unless the closures
+     * hold more than {@link #MAX_MEMBRES_FERMETURES} states in all.
+     * A stamp array marks the states already met, so no set is allocated per search.
+     *
+     * @param debutEpsilons The index of the first epsilon successor of each state, and the total at the end.
+     * @param epsilons      The epsilon successors of all states.
+     * @return The sorted epsilon-closure of each state, or {@code null} if they are too large.
+     */
+    private static int[][] calculerFermetures(int[] debutEpsilons, int[] epsilons) {
+        int n = debutEpsilons.length - 1;
+        int[][] fermetures = new int[n][];
+        int[] marques = new int[n];
+        int[] pile = new int[n];
+        int[] membres = new int[n];
+        long total = 0;
+
+        for (int i = 0; i < n; i++) {
+            int marque = i + 1;
+            int sommet = 0;
+            int taille = 0;
+            marques[i] = marque;
+            pile[sommet++] = i;
+            while (sommet > 0) {
+                int courant = pile[--sommet];
+                membres[taille++] = courant;
+                for (int k = debutEpsilons[courant]; k < debutEpsilons[courant + 1]; k++) {
+                    int suivant = epsilons[k];
+                    if (marques[suivant] != marque) {
+                        marques[suivant] = marque;
+                        pile[sommet++] = suivant;
+                    }
+                }
+            }
+            total += taille;
+            if (total > MAX_MEMBRES_FERMETURES) {
+                return null;
+            }
+            fermetures[i] = Arrays.copyOf(membres, taille);
+            Arrays.sort(fermetures[i]);
+        }
+        return fermetures;
+    }
+
+    /**
+     * Returns the index of the first arc of a state.
+     *
+     * @param etat The state number.
+     * @return The index of the first arc leaving the state.
+     */
+    public int debut(int etat) {
+        return debutArcs[etat];
+    }
+
+    /**
+     * Returns the index following the last arc of a state.
+     *
+     * @param etat The state number.
+     * @return The index after the last arc leaving the state.
+     */
+    public int fin(int etat) {
+        return debutArcs[etat + 1];
+    }
+
+    /**
+     * Returns the lowest symbol of the range labelling an arc.
+     *
+     * @param arc The arc index.
+     * @return The lower bound, inclusive.
+     */
+    public int bas(int arc) {
+        return bas[arc];
+    }
+
+    /**
+     * Returns the highest symbol of the range labelling an arc.
+     *
+     * @param arc The arc index.
+     * @return The upper bound, inclusive.
+     */
+    public int haut(int arc) {
+        return hauts[arc];
+    }
+
+    /**
+     * Returns the target state of an arc.
+     *
+     * @param arc The arc index.
+     * @return The number of the state reached by the arc.
+     */
+    public int cible(int arc) {
+        return cibles[arc];
+    }
+
+    /**
+     * Adds the epsilon-closure of a state, the state itself included, to a set of states. The
+     * closure is either precomputed or searched depth-first along the epsilon transitions. The search
+     * does not go through the states already in the set, so the set must be closed: each of its
+     * states must have been added with its closure. Filling a set this way visits each state and
+     * epsilon transition at most once, however much the closures of its states overlap.
+     *
+     * @param etat     The state number.
+     * @param ensemble The set of states as a bitset, closed under the epsilon transitions.
+     * @param pile     A scratch stack of at least {@link #nombreEtats} entries.
+     */
+    public void ajouterFermeture(int etat, long[] ensemble, int[] pile) {
+        if ((ensemble[etat >>> 6] & (1L << etat)) != 0) {
+            return;
+        }
+        if (fermetures != null) {
+            for (int membre : fermetures[etat]) {
+                ensemble[membre >>> 6] |= 1L << membre;
+            }
+            return;
+        }
+        ensemble[etat >>> 6] |= 1L << etat;
+        int sommet = 0;
+        pile[sommet++] = etat;
+        while (sommet > 0) {
+            int courant = pile[--sommet];
+            for (int k = debutEpsilons[courant]; k < debutEpsilons[courant + 1]; k++) {
+                int suivant = epsilons[k];
+                if ((ensemble[suivant >>> 6] & (1L << suivant)) == 0) {
+                    ensemble[suivant >>> 6] |= 1L << suivant;
+                    pile[sommet++] = suivant;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the entry state of a counter. Reaching it starts a new count at 0.
+     *
+     * @param compteur The counter number, below {@link #nombreCompteurs}.
+     * @return The number of the entry state.
+     */
+    public int entreeCompteur(int compteur) {
+        return entreesCompteurs[compteur];
+    }
+
+    /**
+     * Returns the exit state of a counter, reached when a count is between the bounds.
+     *
+     * @param compteur The counter number.
+     * @return The number of the exit state.
+     */
+    public int sortieCompteur(int compteur) {
+        return sortiesCompteurs[compteur];
+    }
+
+    /**
+     * Returns the lower bound of a counter.
+     *
+     * @param compteur The counter number.
+     * @return The minimum number of symbols read.
+     */
+    public int minCompteur(int compteur) {
+        return minCompteurs[compteur];
+    }
+
+    /**
+     * Returns the upper bound of a counter.
+     *
+     * @param compteur The counter number.
+     * @return The maximum number of symbols read, or {@link Repetition#INFINI}.
+     */
+    public int maxCompteur(int compteur) {
+        return maxCompteurs[compteur];
+    }
+
+    /**
+     * Checks whether a counter counts a symbol.
+     *
+     * @param compteur The counter number.
+     * @param symbole  The symbol read.
+     * @return {@code true} if the symbol belongs to the class of the counter.
+     */
+    public boolean compteurLit(int compteur, int symbole) {
+        return symbole < SYMBOLES_ASCII && (classesCompteurs[compteur][symbole >>> 6] & (1L << symbole)) != 0;
+    }
+
+    /**
+     * Accumulates the states and transitions of an NDFA under construction in growable
+     * {@code int} arrays, then packs them in compressed sparse row form.
+     */
+    private static class Constructeur {
+        private int etats = 0;
+        private int arcs = 0;
+        private int[] arcSources = new int[16];
+        private int[] arcBas = new int[16];
+        private int[] arcHauts = new int[16];
+        private int[] arcCibles = new int[16];
+        private int nombreEpsilons = 0;
+        private int[] epsilonSources = new int[16];
+        private int[] epsilonCibles = new int[16];
+        private int compteurs = 0;
+        private int[][] definitionsCompteurs = new int[4][];
+        private long[][] classesCompteurs = new long[4][];
+
+        int nouvelEtat() {
+            return etats++;
+        }
+
+        void arc(int source, int bas, int haut, int cible) {
+            if (arcs == arcSources.length) {
+                arcSources = Arrays.copyOf(arcSources, 2 * arcs);
+                arcBas = Arrays.copyOf(arcBas, 2 * arcs);
+                arcHauts = Arrays.copyOf(arcHauts, 2 * arcs);
+                arcCibles = Arrays.copyOf(arcCibles, 2 * arcs);
+            }
+            arcSources[arcs] = source;
+            arcBas[arcs] = bas;
+            arcHauts[arcs] = haut;
+            arcCibles[arcs++] = cible;
+        }
+
+        void epsilon(int source, int cible) {
+            if (nombreEpsilons == epsilonSources.length) {
+                epsilonSources = Arrays.copyOf(epsilonSources, 2 * nombreEpsilons);
+                epsilonCibles = Arrays.copyOf(epsilonCibles, 2 * nombreEpsilons);
+            }
+            epsilonSources[nombreEpsilons] = source;
+            epsilonCibles[nombreEpsilons++] = cible;
+        }
+
+        /**
+         * Adds a counter between an entry and an exit state.
+         */
+        void compteur(int entree, int sortie, int min, int max, int[] intervalles) {
+            if (compteurs == definitionsCompteurs.length) {
+                definitionsCompteurs = Arrays.copyOf(definitionsCompteurs, 2 * compteurs);
+                classesCompteurs = Arrays.copyOf(classesCompteurs, 2 * compteurs);
+            }
+            long[] classe = new long[SYMBOLES_ASCII / 64];
+            for (int i = 0; i < intervalles.length; i += 2) {
+                for (int s = intervalles[i]; s <= intervalles[i + 1]; s++) {
+                    classe[s >>> 6] |= 1L << s;
+                }
+            }
+            definitionsCompteurs[compteurs] = new int[]{entree, sortie, min, max};
+            classesCompteurs[compteurs++] = classe;
+            if (min == 0) {
+                epsilon(entree, sortie);
+            }
+        }
+
+        /**
+         * Adds the Thompson fragment of a syntax tree. The tree is walked bottom-up with an explicit
+         * stack, so very long patterns do not overflow the call stack.
+         *
+         * @param arbre The syntax tree.
+         * @return The start and accepting states of the fragment.
+         */
+        int[] fragment(RegExTree arbre) {
+            Deque<RegExTree> noeuds = new ArrayDeque<>();
+            Deque<int[]> cadres = new ArrayDeque<>(); // {next subtree, start state created before the subtrees}
+            Deque<int[]> fragments = new ArrayDeque<>();
+            noeuds.push(arbre);
+            cadres.push(new int[]{0, -1});
+
+            while (!noeuds.isEmpty()) {
+                RegExTree noeud = noeuds.peek();
+                int[] cadre = cadres.peek();
+                int racine = noeud.getRoot();
+
+                if (noeud instanceof Repetition repetition) {
+                    // Only the counters are left by Repetition.deplier(arbre, true)
+                    int debut = nouvelEtat();
+                    int fin = nouvelEtat();
+                    compteur(debut, fin, repetition.min, repetition.max, repetition.subTrees.get(0).intervalles());
+                    fragments.push(new int[]{debut, fin});
+                    noeuds.pop();
+                    cadres.pop();
+                    continue;
+                }
+                if (noeud.subTrees.isEmpty()) {
+                    int debut = nouvelEtat();
+                    int fin = nouvelEtat();
+                    // One arc per range: a class costs a few arcs, not one branch per symbol
+                    int[] intervalles = noeud.intervalles();
+                    for (int i = 0; i < intervalles.length; i += 2) {
+                        arc(debut, intervalles[i], intervalles[i + 1], fin);
+                    }
+                    fragments.push(new int[]{debut, fin});
+                    noeuds.pop();
+                    cadres.pop();
+                    continue;
+                }
+
+                boolean binaire = racine == RegExTreeParser.CONCAT || racine == RegExTreeParser.ALTERN;
+                boolean unaire = racine == RegExTreeParser.ETOILE || racine == RegExTreeParser.PLUS
+                        || racine == RegExTreeParser.OPTION;
+                int operandes = binaire ? 2 : unaire ? 1 : 0;
+                if (cadre[0] == 0 && (unaire || racine == RegExTreeParser.ALTERN)) {
+                    cadre[1] = nouvelEtat();
+                }
+                if (cadre[0] < operandes) {
+                    noeuds.push(noeud.subTrees.get(cadre[0]++));
+                    cadres.push(new int[]{0, -1});
+                    continue;
+                }
+                noeuds.pop();
+                cadres.pop();
+
+                int debut = cadre[1];
+                if (racine == RegExTreeParser.CONCAT) {
+                    int[] droite = fragments.pop();
+                    int[] gauche = fragments.pop();
+                    epsilon(gauche[1], droite[0]);
+                    fragments.push(new int[]{gauche[0], droite[1]});
+                } else if (racine == RegExTreeParser.ALTERN) {
+                    int[] droite = fragments.pop();
+                    int[] gauche = fragments.pop();
+                    int fin = nouvelEtat();
+                    epsilon(debut, gauche[0]);
+                    epsilon(debut, droite[0]);
+                    epsilon(gauche[1], fin);
+                    epsilon(droite[1], fin);
+                    fragments.push(new int[]{debut, fin});
+                } else if (unaire) {
+                    int[] gauche = fragments.pop();
+                    int fin = nouvelEtat();
+                    epsilon(debut, gauche[0]);
+                    if (racine != RegExTreeParser.PLUS) {
+                        epsilon(debut, fin);
+                    }
+                    if (racine != RegExTreeParser.OPTION) {
+                        epsilon(gauche[1], gauche[0]);
+                    }
+                    epsilon(gauche[1], fin);
+                    fragments.push(new int[]{debut, fin});
+                } else {
+                    // Unknown operator: empty language, as in NDFAParser
+                    fragments.push(new int[]{nouvelEtat(), nouvelEtat()});
+                }
+            }
+            return fragments.pop();
+        }
+
+        /**
+         * Packs the accumulated transitions.
+         *
+         * @param initial   The initial state.
+         * @param acceptant The accepting state.
+         * @param ids       The IDs naming the states, or {@code null} to use the state numbers.
+         * @return The compact NDFA.
+         */
+        CompactNDFA construire(int initial, int acceptant, int[] ids) {
+            if (ids == null) {
+                ids = new int[etats];
+                for (int i = 0; i < etats; i++) {
+                    ids[i] = i;
+                }
+            }
+
+            // Counting sort of the arcs by source, then by lower bound within each state
+            int[] debutArcs = new int[etats + 1];
+            for (int k = 0; k < arcs; k++) {
+                debutArcs[arcSources[k] + 1]++;
+            }
+            for (int i = 0; i < etats; i++) {
+                debutArcs[i + 1] += debutArcs[i];
+            }
+            int[] ordre = new int[arcs];
+            int[] prochain = Arrays.copyOf(debutArcs, etats);
+            for (int k = 0; k < arcs; k++) {
+                ordre[prochain[arcSources[k]]++] = k;
+            }
+            int[] bas = new int[arcs];
+            int[] hauts = new int[arcs];
+            int[] cibles = new int[arcs];
+            for (int i = 0; i < etats; i++) {
+                for (int j = debutArcs[i]; j < debutArcs[i + 1]; j++) {
+                    // Insertion sort: states have very few arcs
+                    int k = ordre[j];
+                    int p = j;
+                    while (p > debutArcs[i] && bas[p - 1] > arcBas[k]) {
+                        bas[p] = bas[p - 1];
+                        hauts[p] = hauts[p - 1];
+                        cibles[p] = cibles[p - 1];
+                        p--;
+                    }
+                    bas[p] = arcBas[k];
+                    hauts[p] = arcHauts[k];
+                    cibles[p] = arcCibles[k];
+                }
+            }
+
+            int[] debutEpsilons = new int[etats + 1];
+            for (int k = 0; k < nombreEpsilons; k++) {
+                debutEpsilons[epsilonSources[k] + 1]++;
+            }
+            for (int i = 0; i < etats; i++) {
+                debutEpsilons[i + 1] += debutEpsilons[i];
+            }
+            int[] epsilons = new int[nombreEpsilons];
+            prochain = Arrays.copyOf(debutEpsilons, etats);
+            for (int k = 0; k < nombreEpsilons; k++) {
+                epsilons[prochain[epsilonSources[k]]++] = epsilonCibles[k];
+            }
+
+            int[] entrees = new int[compteurs];
+            int[] sorties = new int[compteurs];
+            int[] mins = new int[compteurs];
+            int[] maxs = new int[compteurs];
+            for (int k = 0; k < compteurs; k++) {
+                entrees[k] = definitionsCompteurs[k][0];
+                sorties[k] = definitionsCompteurs[k][1];
+                mins[k] = definitionsCompteurs[k][2];
+                maxs[k] = definitionsCompteurs[k][3];
+            }
+            return new CompactNDFA(initial, acceptant, ids, debutArcs, bas, hauts, cibles, debutEpsilons, epsilons,
+                    compteurs, entrees, sorties, mins, maxs, Arrays.copyOf(classesCompteurs, compteurs));
+        }
+    }
+}
@@ -36,7 +36,11 @@ public class NDFA {
      */
     public static class Etat {
 
-        /** Static counter to assign unique IDs to states. */
+        /**
+         * Static counter assigning IDs to the states created without a {@link src.dfa.CompileContext}.
+         * It is shared by every thread, so it is only meant for single-threaded tools and tests; a
+         * compilation that may run concurrently numbers its states through its own context.
+         */
         public static int compteur = 0;
 
         /** The unique ID of this state. */
@@ -48,11 +52,23 @@ public class NDFA {
         /** A set of states this state can transition to via epsilon (ε) transitions. */
         public final Set<Etat> transitionsEpsilon;
 
+        /** The transitions labelled with a range of several symbols, {@code null} until the first one is added. */
+        private List<Intervalle> intervalles;
+
         /**
          * Constructs a new state with a unique ID and initializes the transition maps.
          */
         public Etat() {
-            id = compteur++;
+            this(compteur++);
+        }
+
+        /**
+         * Constructs a new state with the given ID, without touching the shared counter.
+         *
+         * @param id The ID of the state, unique within its automaton.
+         */
+        public Etat(int id) {
+            this.id = id;
             transitions = new HashMap<>();
             transitionsEpsilon = new HashSet<>();
         }
@@ -68,6 +84,52 @@ public class NDFA {
             etats.add(suivant);
         }
 
+        /**
+         * Adds a transition from this state to another state on every symbol of a range, stored as a
+         * single {@link Intervalle} instead of one map entry per symbol. A range of one symbol is
+         * stored as an ordinary symbol transition.
+         *
+         * @param bas     The lowest symbol of the range, inclusive.
+         * @param haut    The highest symbol of the range, inclusive.
+         * @param suivant The state to transition to when a symbol of the range is encountered.
+         */
+        public void ajouterTransition(int bas, int haut, Etat suivant) {
+            if (bas == haut) {
+                ajouterTransition(bas, suivant);
+                return;
+            }
+            if (intervalles == null) {
+                intervalles = new ArrayList<>(1);
+            }
+            intervalles.add(new Intervalle(bas, haut, suivant));
+        }
+
+        /**
+         * Returns the transitions labelled with a range of several symbols.
+         *
+         * @return The range transitions, in insertion order. The list must not be modified.
+         */
+        public List<Intervalle> getIntervalles() {
+            return intervalles == null ? Collections.emptyList() : intervalles;
+        }
+
+        /**
+         * Returns every state reachable from this state by consuming one symbol, whether the
+         * transition is labelled with a single symbol or with a range.
+         *
+         * @return The targets of the symbol transitions, possibly with duplicates.
+         */
+        public List<Etat> successeurs() {
+            List<Etat> successeurs = new ArrayList<>();
+            for (Set<Etat> etats : transitions.values()) {
+                successeurs.addAll(etats);
+            }
+            for (Intervalle intervalle : getIntervalles()) {
+                successeurs.add(intervalle.cible);
+            }
+            return successeurs;
+        }
+
         /**
          * Adds an epsilon (ε) transition from this state to another state.
          *
@@ -84,34 +146,70 @@ public class NDFA {
          * @return A set of states to which this state can transition using the given symbol, or {@code null} if no such transitions exist.
          */
         public Set<Etat> obtenirTransition(int symbole) {
-            return transitions.get(symbole);
+            Set<Etat> etats = transitions.get(symbole);
+            if (intervalles == null) {
+                return etats;
+            }
+            Set<Etat> union = null;
+            for (Intervalle intervalle : intervalles) {
+                if (intervalle.contient(symbole)) {
+                    if (union == null) {
+                        union = etats == null ? new HashSet<>() : new HashSet<>(etats);
+                    }
+                    union.add(intervalle.cible);
+                }
+            }
+            return union == null ? etats : union;
         }
 
         /**
-         * Recursively prints the NDFA structure starting from this state, showing transitions and reachable states.
+         * Prints the NDFA structure starting from this state, showing transitions and reachable states.
+         * Each transition is printed before the transitions of its target, in depth-first order; the
+         * walk uses an explicit stack, so very large automata do not overflow the call stack.
          *
          * @param visites A set of visited states to prevent infinite loops during printing.
-         * @return A string representation of the NDFA from this state.
+         * @return A string representation of the NDFA from this state, or {@code null} if this state was already visited.
          */
         public String imprimer(HashSet<Etat> visites) {
             if (!visites.add(this))
                 return null;
 
             StringBuilder sb = new StringBuilder();
+            Deque<Iterator<Arete>> pile = new ArrayDeque<>();
+            pile.push(aretes().iterator());
+            while (!pile.isEmpty()) {
+                Iterator<Arete> aretes = pile.peek();
+                if (!aretes.hasNext()) {
+                    pile.pop();
+                    continue;
+                }
+                Arete arete = aretes.next();
+                sb.append(arete.source.id).append(" -- ").append(arete.etiquette).append(" --> ").append(arete.cible.id).append("\n");
+                if (visites.add(arete.cible)) {
+                    pile.push(arete.cible.aretes().iterator());
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Lists the outgoing edges of this state in printing order: symbol transitions, range
+         * transitions, then epsilon transitions.
+         */
+        private List<Arete> aretes() {
+            List<Arete> aretes = new ArrayList<>();
             for (Map.Entry<Integer, Set<Etat>> entree : transitions.entrySet()) {
                 for (Etat etat : entree.getValue()) {
-                    sb.append(id).append(" -- ").append((char) entree.getKey().intValue()).append(" --> ").append(etat.id).append("\n");
-                    String seq = etat.imprimer(visites);
-                    if (seq != null) sb.append(seq);
+                    aretes.add(new Arete(this, String.valueOf((char) entree.getKey().intValue()), etat));
                 }
             }
-
+            for (Intervalle intervalle : getIntervalles()) {
+                aretes.add(new Arete(this, intervalle.toString(), intervalle.cible));
+            }
             for (Etat etat : transitionsEpsilon) {
-                sb.append(id).append(" -- EPSILON --> ").append(etat.id).append("\n");
-                String seq = etat.imprimer(visites);
-                if (seq != null) sb.append(seq);
+                aretes.add(new Arete(this, "EPSILON", etat));
             }
-            return sb.toString();
+            return aretes;
         }
 
         /**
@@ -125,6 +223,65 @@ public class NDFA {
         }
     }
 
+    /**
+     * A printed edge: its source, its label and its target.
+     */
+    private static final class Arete {
+        private final Etat source;
+        private final String etiquette;
+        private final Etat cible;
+
+        private Arete(Etat source, String etiquette, Etat cible) {
+            this.source = source;
+            this.etiquette = etiquette;
+            this.cible = cible;
+        }
+    }
+
+    /**
+     * The {@code Intervalle} class is a transition taken on every symbol of an inclusive range,
+     * such as the 256 symbols of {@code .}.
+     */
+    public static final class Intervalle {
+
+        /** The lowest symbol of the range, inclusive. */
+        public final int bas;
+
+        /** The highest symbol of the range, inclusive. */
+        public final int haut;
+
+        /** The state reached on the symbols of the range. */
+        public final Etat cible;
+
+        /**
+         * Constructs a range transition.
+         *
+         * @param bas   The lowest symbol of the range, inclusive.
+         * @param haut  The highest symbol of the range, inclusive.
+         * @param cible The state reached on the symbols of the range.
+         */
+        public Intervalle(int bas, int haut, Etat cible) {
+            this.bas = bas;
+            this.haut = haut;
+            this.cible = cible;
+        }
+
+        /**
+         * Checks whether a symbol belongs to the range.
+         *
+         * @param symbole The symbol.
+         * @return {@code true} if {@code bas <= symbole <= haut}.
+         */
+        public boolean contient(int symbole) {
+            return bas <= symbole && symbole <= haut;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + (char) bas + "-" + (char) haut + "]";
+        }
+    }
+
     /**
      * Overrides the {@code toString} method to return the string representation of the NDFA.
      *
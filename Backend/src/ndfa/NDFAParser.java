@@ -1,7 +1,13 @@
 package src.ndfa;
 
+import src.dfa.CompileContext;
 import src.regex.RegExTreeParser;
 import src.regex.RegExTree;
+import src.regex.Repetition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
 
 /**
  * The {@code DFADeterminisation} class is responsible for converting a regular
@@ -34,8 +40,8 @@ public class NDFAParser {
      * <p>
      * This method processes the tree structure of the regular expression and builds
      * the corresponding NDFA.
-     * It recursively processes the nodes in the tree and handles the following
-     * cases:
+     * It processes the nodes of the tree bottom-up, with an explicit stack, and
+     * handles the following cases:
      * <ul>
      * <li>Individual characters or wildcard (DOT)</li>
      * <li>Concatenation of expressions</li>
@@ -50,77 +56,192 @@ public class NDFAParser {
      *         expression tree.
      */
     public static NDFA parseTreeToNDFA(RegExTree arbreRegEx) {
-        // Handle individual character or wildcard (DOT)
-        if (arbreRegEx.subTrees.isEmpty()) {
-            NDFA.Etat etatDebut = new NDFA.Etat(); // Start state
-            NDFA.Etat etatFin = new NDFA.Etat(); // Accepting state
-
-            // If not DOT (wildcard), add a specific transition for the character
-            if (arbreRegEx.getRoot() != RegExTreeParser.DOT) {
-                etatDebut.ajouterTransition(arbreRegEx.getRoot(), etatFin);
-            } else {
-                // Handle DOT, which matches any character
-                for (int i = 0; i < SYMBOLES_ASCII; i++) {
-                    etatDebut.ajouterTransition(i, etatFin);
+        return construire(arbreRegEx, NDFA.Etat::new);
+    }
+
+    /**
+     * Converts a regular expression syntax tree into an NDFA whose states are numbered by the given
+     * compilation context instead of the shared {@link NDFA.Etat#compteur}, so that several patterns
+     * can be converted concurrently.
+     *
+     * @param arbreRegEx The regular expression syntax tree to be converted into an NDFA.
+     * @param contexte   The context of the running compilation.
+     * @return An {@code NDFA} representing the generated NDFA from the regular expression tree.
+     */
+    public static NDFA parseTreeToNDFA(RegExTree arbreRegEx, CompileContext contexte) {
+        return construire(arbreRegEx, contexte::nouvelEtatNDFA);
+    }
+
+    private static NDFA construire(RegExTree arbreRegEx, Supplier<NDFA.Etat> fabrique) {
+        arbreRegEx = Repetition.deplier(arbreRegEx);
+        // The tree is walked with an explicit stack of frames instead of recursion, so that very long
+        // patterns do not overflow the call stack. States are created in the same order as by a
+        // recursive walk: the new start state of a node before its subtrees, its new end state after.
+        Deque<Cadre> pile = new ArrayDeque<>();
+        Deque<NDFA> resultats = new ArrayDeque<>();
+        pile.push(new Cadre(arbreRegEx));
+
+        while (!pile.isEmpty()) {
+            Cadre cadre = pile.peek();
+            RegExTree noeud = cadre.noeud;
+            int racine = noeud.getRoot();
+
+            // Handle individual character, wildcard (DOT) or character class
+            if (noeud.subTrees.isEmpty()) {
+                NDFA.Etat etatDebut = fabrique.get(); // Start state
+                NDFA.Etat etatFin = fabrique.get(); // Accepting state
+
+                // One transition per range of the leaf: a single symbol is an ordinary transition,
+                // DOT or a class becomes a few range transitions between the same two states
+                int[] intervalles = noeud.intervalles();
+                for (int i = 0; i < intervalles.length; i += 2) {
+                    etatDebut.ajouterTransition(intervalles[i], intervalles[i + 1], etatFin);
                 }
+                resultats.push(new NDFA(etatDebut, etatFin));
+                pile.pop();
+                continue;
             }
-            return new NDFA(etatDebut, etatFin);
-        }
 
-        // Handle concatenation (e.g., "ab" means first "a", then "b")
-        if (arbreRegEx.getRoot() == RegExTreeParser.CONCAT) {
-            NDFA gauche = parseTreeToNDFA(arbreRegEx.subTrees.get(0)); // Left subtree
-            NDFA droite = parseTreeToNDFA(arbreRegEx.subTrees.get(1)); // Right subtree
-            gauche.etatAcceptant.ajouterTransition(droite.etatInitial); // Connect left accept state to right start
-                                                                        // state
-            return new NDFA(gauche.etatInitial, droite.etatAcceptant); // Return combined NDFA
-        }
+            int operandes = nombreOperandes(racine);
+            if (cadre.suivant == 0 && (racine == RegExTreeParser.ALTERN || racine == RegExTreeParser.ETOILE
+                    || racine == RegExTreeParser.PLUS || racine == RegExTreeParser.OPTION)) {
+                cadre.etatDebut = fabrique.get(); // New start state, created before the subtrees
+            }
+            if (cadre.suivant < operandes) {
+                pile.push(new Cadre(noeud.subTrees.get(cadre.suivant++)));
+                continue;
+            }
+            pile.pop();
+
+            // Handle concatenation (e.g., "ab" means first "a", then "b")
+            if (racine == RegExTreeParser.CONCAT) {
+                NDFA droite = resultats.pop(); // Right subtree
+                NDFA gauche = resultats.pop(); // Left subtree
+                gauche.etatAcceptant.ajouterTransition(droite.etatInitial); // Connect left accept state to right start state
+                resultats.push(new NDFA(gauche.etatInitial, droite.etatAcceptant)); // Return combined NDFA
+            }
 
-        // Handle alternation (e.g., "a|b" means either "a" or "b")
-        if (arbreRegEx.getRoot() == RegExTreeParser.ALTERN) {
-            NDFA.Etat etatDebut = new NDFA.Etat(); // New start state
-            NDFA gauche = parseTreeToNDFA(arbreRegEx.subTrees.get(0)); // Left subtree
-            NDFA droite = parseTreeToNDFA(arbreRegEx.subTrees.get(1)); // Right subtree
-            NDFA.Etat etatFin = new NDFA.Etat(); // New accepting state
+            // Handle alternation (e.g., "a|b" means either "a" or "b")
+            else if (racine == RegExTreeParser.ALTERN) {
+                NDFA droite = resultats.pop(); // Right subtree
+                NDFA gauche = resultats.pop(); // Left subtree
+                NDFA.Etat etatFin = fabrique.get(); // New accepting state
 
-            etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to left start
-            etatDebut.ajouterTransition(droite.etatInitial); // Epsilon transition to right start
+                cadre.etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to left start
+                cadre.etatDebut.ajouterTransition(droite.etatInitial); // Epsilon transition to right start
 
-            gauche.etatAcceptant.ajouterTransition(etatFin); // Left accept to final
-            droite.etatAcceptant.ajouterTransition(etatFin); // Right accept to final
+                gauche.etatAcceptant.ajouterTransition(etatFin); // Left accept to final
+                droite.etatAcceptant.ajouterTransition(etatFin); // Right accept to final
 
-            return new NDFA(etatDebut, etatFin); // Return combined NDFA
-        }
+                resultats.push(new NDFA(cadre.etatDebut, etatFin)); // Return combined NDFA
+            }
+
+            // Handle Kleene star (e.g., "a*" means repeat "a" zero or more times)
+            else if (racine == RegExTreeParser.ETOILE) {
+                NDFA gauche = resultats.pop(); // Left subtree
+                NDFA.Etat etatFin = fabrique.get(); // New accepting state
+
+                cadre.etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to start
+                cadre.etatDebut.ajouterTransition(etatFin); // Epsilon transition to accept state
+                gauche.etatAcceptant.ajouterTransition(gauche.etatInitial); // Loop back (repetition)
+                gauche.etatAcceptant.ajouterTransition(etatFin); // Epsilon transition to accept state
+
+                resultats.push(new NDFA(cadre.etatDebut, etatFin)); // Return the NDFA
+            }
 
-        // Handle Kleene star (e.g., "a*" means repeat "a" zero or more times)
-        if (arbreRegEx.getRoot() == RegExTreeParser.ETOILE) {
-            NDFA.Etat etatDebut = new NDFA.Etat(); // New start state
-            NDFA gauche = parseTreeToNDFA(arbreRegEx.subTrees.get(0)); // Left subtree
-            NDFA.Etat etatFin = new NDFA.Etat(); // New accepting state
+            // Handle "+" (e.g., "a+" means repeat "a" one or more times)
+            else if (racine == RegExTreeParser.PLUS) {
+                NDFA gauche = resultats.pop(); // Left subtree
+                NDFA.Etat etatFin = fabrique.get(); // New accepting state
 
-            etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to start
-            etatDebut.ajouterTransition(etatFin); // Epsilon transition to accept state
-            gauche.etatAcceptant.ajouterTransition(gauche.etatInitial); // Loop back (repetition)
-            gauche.etatAcceptant.ajouterTransition(etatFin); // Epsilon transition to accept state
+                cadre.etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to start
+                gauche.etatAcceptant.ajouterTransition(gauche.etatInitial); // Loop back (repetition)
+                gauche.etatAcceptant.ajouterTransition(etatFin); // Epsilon transition to accept state
+
+                resultats.push(new NDFA(gauche.etatInitial, etatFin)); // Return the NDFA, ensuring at least one pass
+            }
+
+            // Handle "?" (e.g., "a?" means "a" zero or one time)
+            else if (racine == RegExTreeParser.OPTION) {
+                NDFA gauche = resultats.pop(); // Left subtree
+                NDFA.Etat etatFin = fabrique.get(); // New accepting state
+
+                cadre.etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to start
+                cadre.etatDebut.ajouterTransition(etatFin); // Epsilon transition skipping the subtree
+                gauche.etatAcceptant.ajouterTransition(etatFin); // Epsilon transition to accept state
+
+                resultats.push(new NDFA(cadre.etatDebut, etatFin)); // Return the NDFA
+            }
 
-            return new NDFA(etatDebut, etatFin); // Return the NDFA
+            // Fallback case: If the expression is unknown or unsupported, return a default
+            // NDFA
+            else {
+                resultats.push(new NDFA(fabrique.get(), fabrique.get()));
+            }
         }
+        return resultats.pop();
+    }
 
-        // Handle "+" (e.g., "a+" means repeat "a" one or more times)
-        if (arbreRegEx.getRoot() == RegExTreeParser.PLUS) {
-            NDFA.Etat etatDebut = new NDFA.Etat(); // New start state
-            NDFA gauche = parseTreeToNDFA(arbreRegEx.subTrees.get(0)); // Left subtree
-            NDFA.Etat etatFin = new NDFA.Etat(); // New accepting state
+    /**
+     * Returns the number of subtrees an operator is built from; an unknown operator ignores its subtrees.
+     */
+    private static int nombreOperandes(int racine) {
+        if (racine == RegExTreeParser.CONCAT || racine == RegExTreeParser.ALTERN)
+            return 2;
+        if (racine == RegExTreeParser.ETOILE || racine == RegExTreeParser.PLUS || racine == RegExTreeParser.OPTION)
+            return 1;
+        return 0;
+    }
 
-            etatDebut.ajouterTransition(gauche.etatInitial); // Epsilon transition to start
-            gauche.etatAcceptant.ajouterTransition(gauche.etatInitial); // Loop back (repetition)
-            gauche.etatAcceptant.ajouterTransition(etatFin); // Epsilon transition to accept state
+    /**
+     * A node of the tree being converted, with the index of its next subtree to convert and the
+     * start state it created before its subtrees, if any.
+     */
+    private static class Cadre {
+        private final RegExTree noeud;
+        private int suivant = 0;
+        private NDFA.Etat etatDebut;
 
-            return new NDFA(gauche.etatInitial, etatFin); // Return the NDFA, ensuring at least one pass
+        private Cadre(RegExTree noeud) {
+            this.noeud = noeud;
         }
+    }
+
+    /**
+     * Converts a regular expression syntax tree into an NDFA recognizing every text that ends with
+     * a match of the expression, i.e. the language of {@code .*R}.
+     *
+     * <p>
+     * A single run of the determinised automaton over a line then tells whether the line
+     * contains a match, without restarting the automaton at every position.
+     * </p>
+     *
+     * @param arbreRegEx The regular expression syntax tree to be converted.
+     * @return An {@code NDFA} recognizing the texts ending with a match of the expression.
+     */
+    public static NDFA parseTreeToSearchNDFA(RegExTree arbreRegEx) {
+        return rechercher(parseTreeToNDFA(arbreRegEx), new NDFA.Etat());
+    }
+
+    /**
+     * Converts a regular expression syntax tree into an NDFA recognizing the language of {@code .*R},
+     * with states numbered by the given compilation context.
+     *
+     * @param arbreRegEx The regular expression syntax tree to be converted.
+     * @param contexte   The context of the running compilation.
+     * @return An {@code NDFA} recognizing the texts ending with a match of the expression.
+     */
+    public static NDFA parseTreeToSearchNDFA(RegExTree arbreRegEx, CompileContext contexte) {
+        return rechercher(parseTreeToNDFA(arbreRegEx, contexte), contexte.nouvelEtatNDFA());
+    }
+
+    /**
+     * Prefixes an NDFA with a start state looping on any symbol.
+     */
+    private static NDFA rechercher(NDFA expression, NDFA.Etat boucle) {
+        boucle.ajouterTransition(0, SYMBOLES_ASCII - 1, boucle);
+        boucle.ajouterTransition(expression.etatInitial); // Epsilon transition to the expression
 
-        // Fallback case: If the expression is unknown or unsupported, return a default
-        // NDFA
-        return new NDFA(new NDFA.Etat(), new NDFA.Etat());
+        return new NDFA(boucle, expression.etatAcceptant);
     }
-}
\ No newline at end of file
+}
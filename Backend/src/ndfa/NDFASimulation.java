@@ -0,0 +1,305 @@
+package src.ndfa;
+
+import src.regex.RegExTree;
+import src.regex.Repetition;
+
+import java.util.Arrays;
+
+/**
+ * The {@code NDFASimulation} class runs a {@link CompactNDFA} directly on the input, keeping the set
+ * of active states as a {@code long[]} bitset (Thompson's simulation).
+ *
+ * <p>No DFA is ever built, so the memory used is proportional to the size of the NDFA whatever the
+ * pattern, and the time per character is bounded by the number of NDFA states. It is the engine
+ * used when the compilation of a pattern into a DFA exceeds its budget.</p>
+ *
+ * <p>The counters of an NDFA built by {@link CompactNDFA#avecCompteurs(RegExTree)} are run as counting
+ * sets: the values of all the counts of a counter grow by one together at each symbol of its class, so
+ * the set only stores the position at which each count started, as runs of consecutive positions. A
+ * step costs the same whatever the bounds, and a search restarting at each position keeps a single
+ * run per counter.</p>
+ *
+ * <p>An instance reuses its buffers between calls and is therefore not thread-safe.</p>
+ */
+public class NDFASimulation {
+
+    private final CompactNDFA ndfa;
+    private final int mots;
+    private long[] courants;
+    private long[] suivants;
+    private final int[] pile;
+    private final EnsembleCompteur[] ensembles;
+    /** The number of symbols read since the start of the run. */
+    private int pas;
+
+    /**
+     * Constructs a simulation of the given NDFA.
+     *
+     * @param ndfa The NDFA to run.
+     */
+    public NDFASimulation(CompactNDFA ndfa) {
+        this.ndfa = ndfa;
+        this.mots = (ndfa.nombreEtats + 63) >>> 6;
+        this.courants = new long[mots];
+        this.suivants = new long[mots];
+        this.pile = new int[ndfa.nombreEtats];
+        this.ensembles = new EnsembleCompteur[ndfa.nombreCompteurs];
+        for (int k = 0; k < ensembles.length; k++) {
+            ensembles[k] = new EnsembleCompteur();
+        }
+    }
+
+    /**
+     * Checks if the whole input is accepted by the NDFA.
+     *
+     * @param input The input to run.
+     * @return {@code true} if the input is accepted.
+     */
+    public boolean accepte(CharSequence input) {
+        return accepteDepuis(input, 0);
+    }
+
+    /**
+     * Checks if the line starts with a match ({@code ^R}).
+     *
+     * @param line The line to classify.
+     * @return {@code true} if a prefix of the line is accepted.
+     */
+    public boolean correspondAuDebut(CharSequence line) {
+        demarrer();
+        for (int i = 0; !contient(courants, ndfa.etatAcceptant); i++) {
+            if (i == line.length() || !avancer(line.charAt(i), false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks in a single pass if the line ends with a match ({@code R$}): a new run is started at
+     * each position, and the line is selected if a run accepts at its end.
+     *
+     * @param line The line to classify.
+     * @return {@code true} if a suffix of the line is accepted.
+     */
+    public boolean correspondALaFin(CharSequence line) {
+        demarrer();
+        for (int i = 0; i < line.length(); i++) {
+            avancer(line.charAt(i), true);
+        }
+        return contient(courants, ndfa.etatAcceptant);
+    }
+
+    /**
+     * Finds the leftmost position from which the rest of the line is accepted, i.e. the start of
+     * the longest match of {@code R$}.
+     *
+     * @param line The line in which to search.
+     * @return The start of the match, or -1 if no suffix of the line is accepted.
+     */
+    public int debutCorrespondanceFinale(CharSequence line) {
+        for (int debut = 0; debut <= line.length(); debut++) {
+            if (accepteDepuis(line, debut)) {
+                return debut;
+            }
+        }
+        return -1;
+    }
+
+    private boolean accepteDepuis(CharSequence input, int debut) {
+        demarrer();
+        for (int i = debut; i < input.length(); i++) {
+            if (!avancer(input.charAt(i), false)) {
+                return false;
+            }
+        }
+        return contient(courants, ndfa.etatAcceptant);
+    }
+
+    /**
+     * Checks in a single pass if the line contains a match: a new run is started at each position
+     * by adding the closure of the initial state to the active set.
+     *
+     * @param line The line to classify.
+     * @return {@code true} if the line contains a match.
+     */
+    public boolean contientCorrespondance(CharSequence line) {
+        demarrer();
+        if (contient(courants, ndfa.etatAcceptant)) {
+            return true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            avancer(line.charAt(i), true);
+            if (contient(courants, ndfa.etatAcceptant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the shortest non-empty match starting at the given position.
+     *
+     * @param line  The line in which to search.
+     * @param debut The position at which the match must start.
+     * @return The end (exclusive) of the shortest match, or {@code debut} if there is none.
+     */
+    public int finCorrespondance(CharSequence line, int debut) {
+        demarrer();
+        for (int fin = debut + 1; fin <= line.length(); fin++) {
+            if (!avancer(line.charAt(fin - 1), false)) {
+                return debut;
+            }
+            if (contient(courants, ndfa.etatAcceptant)) {
+                return fin;
+            }
+        }
+        return debut;
+    }
+
+    private void demarrer() {
+        Arrays.fill(courants, 0L);
+        ajouterFermeture(courants, ndfa.etatInitial);
+        pas = 0;
+        for (EnsembleCompteur ensemble : ensembles) {
+            ensemble.vider();
+        }
+        entrerCompteurs();
+    }
+
+    /**
+     * Moves the active set over one symbol.
+     *
+     * @param symbole    The symbol read.
+     * @param redemarrer Whether to start a new run at the next position.
+     * @return {@code true} if the active set is not empty afterwards.
+     */
+    private boolean avancer(int symbole, boolean redemarrer) {
+        Arrays.fill(suivants, 0L);
+        boolean actif = false;
+        for (int w = 0; w < mots; w++) {
+            for (long bits = courants[w]; bits != 0; bits &= bits - 1) {
+                int etat = (w << 6) + Long.numberOfTrailingZeros(bits);
+                // Arcs are sorted by lower bound, and a state has very few of them
+                for (int arc = ndfa.debut(etat); arc < ndfa.fin(etat) && ndfa.bas(arc) <= symbole; arc++) {
+                    if (symbole <= ndfa.haut(arc)) {
+                        ajouterFermeture(suivants, ndfa.cible(arc));
+                        actif = true;
+                    }
+                }
+            }
+        }
+        if (redemarrer) {
+            ajouterFermeture(suivants, ndfa.etatInitial);
+            actif = true;
+        }
+        pas++;
+        for (int k = 0; k < ensembles.length; k++) {
+            // Every count grows by one on a symbol of the class, and all stop on any other symbol
+            EnsembleCompteur ensemble = ensembles[k];
+            if (!ndfa.compteurLit(k, symbole)) {
+                ensemble.vider();
+                continue;
+            }
+            int max = ndfa.maxCompteur(k);
+            if (max != Repetition.INFINI) {
+                ensemble.oublierAvant(pas - max);
+            }
+            if (!ensemble.estVide()) {
+                actif = true;
+                if (pas - ensemble.plusAncien() >= ndfa.minCompteur(k)) {
+                    ajouterFermeture(suivants, ndfa.sortieCompteur(k));
+                }
+            }
+        }
+        long[] echange = courants;
+        courants = suivants;
+        suivants = echange;
+        entrerCompteurs();
+        return actif;
+    }
+
+    /**
+     * Starts a count at the current position in every counter whose entry state is active.
+     */
+    private void entrerCompteurs() {
+        for (int k = 0; k < ensembles.length; k++) {
+            if (contient(courants, ndfa.entreeCompteur(k))) {
+                ensembles[k].ajouter(pas);
+            }
+        }
+    }
+
+    private void ajouterFermeture(long[] ensemble, int etat) {
+        ndfa.ajouterFermeture(etat, ensemble, pile);
+    }
+
+    private static boolean contient(long[] ensemble, int etat) {
+        return (ensemble[etat >>> 6] & (1L << etat)) != 0;
+    }
+
+    /**
+     * The counting set of a counter: the positions at which its running counts started, in
+     * increasing order, stored as runs of consecutive positions in a circular buffer.
+     */
+    private static class EnsembleCompteur {
+        private int[] debuts = new int[4];
+        private int[] fins = new int[4];
+        private int tete = 0;
+        private int taille = 0;
+
+        void vider() {
+            taille = 0;
+        }
+
+        boolean estVide() {
+            return taille == 0;
+        }
+
+        /** The start of the oldest count, which has the largest value. */
+        int plusAncien() {
+            return debuts[tete];
+        }
+
+        void ajouter(int position) {
+            if (taille > 0) {
+                int dernier = (tete + taille - 1) & (debuts.length - 1);
+                if (fins[dernier] >= position - 1) {
+                    fins[dernier] = Math.max(fins[dernier], position);
+                    return;
+                }
+            }
+            if (taille == debuts.length) {
+                agrandir();
+            }
+            int libre = (tete + taille) & (debuts.length - 1);
+            debuts[libre] = position;
+            fins[libre] = position;
+            taille++;
+        }
+
+        /** Drops the counts started before a position, whose value exceeds the upper bound. */
+        void oublierAvant(int position) {
+            while (taille > 0 && debuts[tete] < position) {
+                if (fins[tete] < position) {
+                    tete = (tete + 1) & (debuts.length - 1);
+                    taille--;
+                } else {
+                    debuts[tete] = position;
+                }
+            }
+        }
+
+        private void agrandir() {
+            int[] nouveauxDebuts = new int[2 * debuts.length];
+            int[] nouvellesFins = new int[2 * fins.length];
+            for (int i = 0; i < taille; i++) {
+                nouveauxDebuts[i] = debuts[(tete + i) & (debuts.length - 1)];
+                nouvellesFins[i] = fins[(tete + i) & (debuts.length - 1)];
+            }
+            debuts = nouveauxDebuts;
+            fins = nouvellesFins;
+            tete = 0;
+        }
+    }
+}
@@ -77,7 +77,9 @@ public class NDFAExporter {
     }
 
     /**
-     * Helper function to recursively collect states and transitions for JSON export.
+     * Helper function to collect states and transitions for JSON export. States are added in
+     * depth-first order, each link being followed by the states discovered through it; the walk
+     * uses an explicit stack, so very large automata do not overflow the call stack.
      *
      * @param etat The current state being processed.
      * @param nodes The list of nodes to which the current state will be added.
@@ -90,32 +92,128 @@ public class NDFAExporter {
         if (!visites.add(etat))
             return; // Skip already visited states
 
-        // Add the current state to the nodes list
+        Deque<Iterator<Lien>> pile = new ArrayDeque<>();
+        nodes.add(node(etat));
+        pile.push(liens(etat).iterator());
+        while (!pile.isEmpty()) {
+            Iterator<Lien> liens = pile.peek();
+            if (!liens.hasNext()) {
+                pile.pop();
+                continue;
+            }
+            Lien lien = liens.next();
+            links.add(lien.link);
+            if (visites.add(lien.suivant)) {
+                // Process the next state before the remaining links of the current one
+                nodes.add(node(lien.suivant));
+                pile.push(liens(lien.suivant).iterator());
+            }
+        }
+    }
+
+    /**
+     * Builds the JSON node of a state.
+     *
+     * @param etat The state.
+     * @return The node, with the state ID as a String.
+     */
+    protected Map<String, String> node(NDFA.Etat etat) {
         Map<String, String> node = new HashMap<>();
         node.put("id", String.valueOf(etat.id)); // Ensure the ID is a String
-        nodes.add(node);
+        return node;
+    }
 
-        // Add all transitions for this state to the links list
-        for (Map.Entry<Integer, Set<NDFA.Etat>> entry : etat.transitions.entrySet()) {
-            int symbol = entry.getKey();
-            for (NDFA.Etat suivant : entry.getValue()) {
-                Map<String, String> link = new HashMap<>();
-                link.put("source", String.valueOf(etat.id)); // Ensure source is a String
-                link.put("target", String.valueOf(suivant.id)); // Ensure target is a String
-                link.put("label", String.valueOf((char) symbol)); // Ensure label is a String
-                links.add(link);
-                collectEtatForJson(suivant, nodes, links, visites, ndfa); // Recursively process the next state
-            }
+    /**
+     * Builds the JSON links leaving a state: one link per target of its symbol transitions, then
+     * one link per epsilon (ε) transition.
+     *
+     * @param etat The state.
+     * @return The links leaving the state, in export order.
+     */
+    protected List<Lien> liens(NDFA.Etat etat) {
+        List<Lien> liens = new ArrayList<>();
+        for (Map.Entry<NDFA.Etat, BitSet> entry : symbolesParCible(etat).entrySet()) {
+            liens.add(new Lien(etat, entry.getKey(), etiquette(entry.getValue()))); // Merged label of all the symbols
         }
-
-        // Add epsilon transitions to the links list
         for (NDFA.Etat suivant : etat.transitionsEpsilon) {
-            Map<String, String> link = new HashMap<>();
+            liens.add(new Lien(etat, suivant, "ε"));
+        }
+        return liens;
+    }
+
+    /**
+     * A JSON link and the state it leads to.
+     */
+    protected static class Lien {
+        /** The link, with its source, target and label as Strings. */
+        public final Map<String, String> link = new HashMap<>();
+        /** The state the link leads to. */
+        public final NDFA.Etat suivant;
+
+        /**
+         * Constructs a link between two states.
+         *
+         * @param etat    The source state.
+         * @param suivant The target state.
+         * @param label   The label of the link.
+         */
+        public Lien(NDFA.Etat etat, NDFA.Etat suivant, String label) {
+            this.suivant = suivant;
             link.put("source", String.valueOf(etat.id)); // Ensure source is a String
             link.put("target", String.valueOf(suivant.id)); // Ensure target is a String
-            link.put("label", "ε"); // Epsilon is already a String
-            links.add(link);
-            collectEtatForJson(suivant, nodes, links, visites, ndfa); // Recursively process the next state
+            link.put("label", label);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Groups the symbol transitions of a state by target, whether they are labelled with a single
+     * symbol or with a range.
+     *
+     * @param etat The state whose transitions are grouped.
+     * @return The symbols leading to each target, targets in order of their first symbol.
+     */
+    protected static Map<NDFA.Etat, BitSet> symbolesParCible(NDFA.Etat etat) {
+        Map<NDFA.Etat, BitSet> symboles = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Set<NDFA.Etat>> entry : new TreeMap<>(etat.transitions).entrySet()) {
+            for (NDFA.Etat suivant : entry.getValue()) {
+                symboles.computeIfAbsent(suivant, k -> new BitSet()).set(entry.getKey());
+            }
+        }
+        for (NDFA.Intervalle intervalle : etat.getIntervalles()) {
+            symboles.computeIfAbsent(intervalle.cible, k -> new BitSet()).set(intervalle.bas, intervalle.haut + 1);
+        }
+        return symboles;
+    }
+
+    /**
+     * Builds the label of a link from the symbols it stands for: runs of consecutive symbols are
+     * written as ranges such as {@code a-z}, separated by commas, and the 256 symbols of {@code .}
+     * are written {@code Σ}. Symbols that cannot appear as is in a JSON string are written in hexadecimal.
+     *
+     * @param symboles The symbols of the link.
+     * @return The label of the link.
+     */
+    public static String etiquette(BitSet symboles) {
+        if (symboles.nextClearBit(0) >= 256) {
+            return "Σ";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int bas = symboles.nextSetBit(0); bas >= 0; bas = symboles.nextSetBit(bas + 1)) {
+            int haut = symboles.nextClearBit(bas) - 1;
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(symbole(bas));
+            if (haut > bas) {
+                sb.append('-').append(symbole(haut));
+            }
+            bas = haut;
+        }
+        return sb.toString();
+    }
+
+    private static String symbole(int symbole) {
+        boolean imprimable = symbole > ' ' && symbole < 0x7F && symbole != '"' && symbole != '\\';
+        return imprimable ? String.valueOf((char) symbole) : String.format("0x%02X", symbole);
+    }
+}
@@ -1,5 +1,7 @@
 package src.ndfa.export;
 
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
 import src.ndfa.NDFA;
 import src.regex.RegExTree;
 import src.regex.RegExTreeParser;
@@ -20,30 +22,31 @@ import java.io.IOException;
  */
 public class NDFAGenerator {
 
-    protected static NDFA ndfa;
-
     /**
-     * Resets the state ID counter before generating a new NDFA.
+     * Parses a regular expression and converts it into an NDFA. The states are numbered from zero by a
+     * compilation context of their own, so nothing is shared between two calls.
+     *
+     * @param regEx The regular expression to parse and convert.
+     * @return The NDFA of the regular expression.
      */
-    public static void resetStateCounter() {
-        NDFA.Etat.compteur = 0;
+    public static NDFA buildNDFAFromRegex(String regEx) {
+        return buildNDFAFromRegex(regEx, new CompileContext(CompileBudget.ILLIMITE));
     }
 
     /**
-     * Parses a regular expression, converts it into an NDFA, and stores it in a static field.
+     * Parses a regular expression and converts it into an NDFA within the given compilation context.
      *
-     * @param regEx The regular expression to parse and convert.
+     * @param regEx    The regular expression to parse and convert.
+     * @param contexte The context numbering the states of the NDFA.
+     * @return The NDFA of the regular expression.
+     * @throws src.regex.RegExSyntaxException If the regular expression is not well formed.
      */
-    public static void buildNDFAFromRegex(String regEx) {
-        // Reset state IDs before building a new NDFA
-        resetStateCounter();
-
+    public static NDFA buildNDFAFromRegex(String regEx, CompileContext contexte) {
         System.out.println("Processing regex: " + regEx);
         RegExTree parsedRegex = RegExTreeParser.parse(regEx);
 
         // Convert the parsed regular expression into an NDFA
-        assert parsedRegex != null;
-        ndfa = NDFAParser.parseTreeToNDFA(parsedRegex);
+        return NDFAParser.parseTreeToNDFA(parsedRegex, contexte);
     }
 
     /**
@@ -75,7 +78,7 @@ public class NDFAGenerator {
                 }
 
                 // Build NDFA from the current regex line
-                buildNDFAFromRegex(line.trim());
+                NDFA ndfa = buildNDFAFromRegex(line.trim());
 
                 String filename = outputFolderPath + "/NDFASample" + regexIndex + ".json";
                 regexIndex++;
@@ -0,0 +1,92 @@
+package src.regex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A leaf of the syntax tree matching any symbol of a character class, such as
+ * {@code [a-z0-9]}, {@code [^ ]} or {@code \d}.
+ *
+ * <p>
+ * The class is kept as a set of the 256 symbols handled by the automata, so it
+ * compiles to a single pair of states joined by one range transition per run of
+ * consecutive symbols, instead of an alternation of one branch per symbol.
+ * </p>
+ */
+public class ClasseCaracteres extends RegExTree {
+
+    private final BitSet symboles;
+
+    /**
+     * Constructs a class leaf.
+     *
+     * @param symboles The symbols of the class, between 0 and 255. The set is copied.
+     */
+    public ClasseCaracteres(BitSet symboles) {
+        super(RegExTreeParser.CLASSE);
+        this.symboles = (BitSet) symboles.clone();
+    }
+
+    /**
+     * Tells whether the class contains a symbol.
+     *
+     * @param symbole The symbol to test.
+     * @return {@code true} if the class matches the symbol.
+     */
+    public boolean contient(int symbole) {
+        return symbole >= 0 && symboles.get(symbole);
+    }
+
+    /**
+     * Returns the number of symbols of the class.
+     *
+     * @return The number of symbols.
+     */
+    public int taille() {
+        return symboles.cardinality();
+    }
+
+    @Override
+    public RegExTree copieFeuille() {
+        return new ClasseCaracteres(symboles);
+    }
+
+    @Override
+    public int[] intervalles() {
+        int[] bornes = new int[2 * symboles.cardinality()];
+        int n = 0;
+        for (int bas = symboles.nextSetBit(0); bas >= 0; ) {
+            int fin = symboles.nextClearBit(bas);
+            bornes[n++] = bas;
+            bornes[n++] = fin - 1;
+            bas = symboles.nextSetBit(fin);
+        }
+        return Arrays.copyOf(bornes, n);
+    }
+
+    /**
+     * Returns the class in bracket notation, with runs of at least three symbols
+     * written as ranges and non-printable symbols in hexadecimal.
+     */
+    @Override
+    protected String rootToString() {
+        StringBuilder sb = new StringBuilder("[");
+        int[] bornes = intervalles();
+        for (int i = 0; i < bornes.length; i += 2) {
+            sb.append(symbole(bornes[i]));
+            if (bornes[i + 1] > bornes[i] + 1)
+                sb.append('-');
+            if (bornes[i + 1] > bornes[i])
+                sb.append(symbole(bornes[i + 1]));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String symbole(int c) {
+        if (c < 0x21 || c > 0x7E)
+            return String.format("\\x%02X", c);
+        if (c == ']' || c == '\\' || c == '-' || c == '^')
+            return "\\" + (char) c;
+        return Character.toString((char) c);
+    }
+}
@@ -0,0 +1,37 @@
+package src.regex;
+
+/**
+ * A parsed search pattern: the syntax tree of the expression and the line anchors
+ * around it.
+ *
+ * <p>
+ * The anchors {@code ^} and {@code $} are not part of the tree: they do not match
+ * any symbol, they tell where a match may start and end. The line matchers turn
+ * them into start and end conditions of the automaton run, so that {@code ^R$}
+ * costs the same as the full-line mode.
+ * </p>
+ */
+public class Motif {
+
+    /** The syntax tree of the expression, without the anchors. */
+    public final RegExTree arbre;
+
+    /** Whether a match must start at the beginning of the line ({@code ^}). */
+    public final boolean ancreDebut;
+
+    /** Whether a match must end at the end of the line ({@code $}). */
+    public final boolean ancreFin;
+
+    /**
+     * Constructs a pattern.
+     *
+     * @param arbre      The syntax tree of the expression.
+     * @param ancreDebut Whether a match must start at the beginning of the line.
+     * @param ancreFin   Whether a match must end at the end of the line.
+     */
+    public Motif(RegExTree arbre, boolean ancreDebut, boolean ancreFin) {
+        this.arbre = arbre;
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+    }
+}
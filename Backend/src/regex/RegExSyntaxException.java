@@ -0,0 +1,34 @@
+package src.regex;
+
+/**
+ * Thrown when a regular expression is not well formed. The message names the problem and the
+ * position, counted in characters from 0, of the character at which it was detected, so the
+ * caller can point the user at it.
+ */
+public class RegExSyntaxException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int position;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param reason   The description of the syntax error.
+     * @param position The position in the pattern at which the error was detected.
+     */
+    public RegExSyntaxException(String reason, int position) {
+        super(reason + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * Returns the position in the pattern at which the error was detected.
+     *
+     * @return The position, counted in characters from 0; the length of the pattern if the error
+     *         was only detected at its end.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
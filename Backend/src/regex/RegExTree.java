@@ -1,5 +1,6 @@
 package src.regex;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
 /**
@@ -66,27 +67,54 @@ public class RegExTree {
      * might be 'a,(b)' where '|' is the root operator.
      * </p>
      *
+     * <p>
+     * The tree is walked with an explicit stack, so very deep trees do not
+     * overflow the call stack.
+     * </p>
+     *
      * @return A string representation of the regular expression tree.
      */
     @Override
     public String toString() {
+        // Iterative walk: each entry of the stack is a node and the index of its next subtree to print
+        StringBuilder result = new StringBuilder();
+        ArrayDeque<RegExTree> nodes = new ArrayDeque<>();
+        ArrayDeque<Integer> next = new ArrayDeque<>();
+        result.append(rootToString());
         if (subTrees.isEmpty())
-            return rootToString();
-        StringBuilder result = new StringBuilder(rootToString() + "(" + subTrees.get(0).toString());
-        for (int i = 1; i < subTrees.size(); i++)
-            result.append(",").append(subTrees.get(i).toString());
-        return result + ")";
+            return result.toString();
+        nodes.push(this);
+        next.push(0);
+        while (!nodes.isEmpty()) {
+            RegExTree node = nodes.peek();
+            int i = next.pop();
+            if (i == node.subTrees.size()) {
+                result.append(")");
+                nodes.pop();
+                continue;
+            }
+            result.append(i == 0 ? "(" : ",");
+            next.push(i + 1);
+            RegExTree child = node.subTrees.get(i);
+            result.append(child.rootToString());
+            if (!child.subTrees.isEmpty()) {
+                nodes.push(child);
+                next.push(0);
+            }
+        }
+        return result.toString();
     }
 
     /**
-     * Recursively finds and returns the leftmost leaf node of the tree.
+     * Finds and returns the leftmost leaf node of the tree.
      *
      * @return The leftmost leaf node, or null if there are no subtrees.
      */
     public RegExTree getLeaf() {
-        if (subTrees.isEmpty())
-            return this;
-        return subTrees.get(0).getLeaf();
+        RegExTree leaf = this;
+        while (!leaf.subTrees.isEmpty())
+            leaf = leaf.subTrees.get(0);
+        return leaf;
     }
 
     /**
@@ -158,7 +186,7 @@ public class RegExTree {
      *
      * @return The string representation of the root node.
      */
-    private String rootToString() {
+    protected String rootToString() {
         if (root == RegExTreeParser.CONCAT)
             return ".";
         if (root == RegExTreeParser.ETOILE)
@@ -167,11 +195,39 @@ public class RegExTree {
             return "+";
         if (root == RegExTreeParser.ALTERN)
             return "|";
+        if (root == RegExTreeParser.OPTION)
+            return "?";
         if (root == RegExTreeParser.DOT)
             return ".";
         return Character.toString((char) root);
     }
 
+    /**
+     * Returns the symbols matched by this leaf, as consecutive pairs of inclusive
+     * bounds in increasing order, so that every automaton builder can emit one
+     * range transition per pair. A symbol beyond the 256 handled by the automata
+     * matches nothing.
+     *
+     * @return The bounds of the ranges of symbols matched by this leaf.
+     */
+    public int[] intervalles() {
+        if (root == RegExTreeParser.DOT)
+            return new int[]{0, 255};
+        if (root >= 0 && root < 256)
+            return new int[]{root, root};
+        return new int[0];
+    }
+
+    /**
+     * Returns a new leaf matching the same symbols as this one, so that an
+     * expression can be repeated without sharing nodes between the copies.
+     *
+     * @return A copy of this leaf.
+     */
+    public RegExTree copieFeuille() {
+        return new RegExTree(root);
+    }
+
     /**
      * Determines if this node is a leaf node (i.e., it has no subtrees).
      *
@@ -0,0 +1,444 @@
+package src.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites a syntax tree into an equivalent one that compiles to smaller automata.
+ *
+ * <p>
+ * The rewrites only preserve the language, which is all the matchers depend on:
+ * </p>
+ * <ul>
+ * <li>nested postfix operators collapse: {@code (a*)*}, {@code (a+)*},
+ * {@code (a?)+} become {@code a*}, {@code (a+)+} becomes {@code a+};</li>
+ * <li>redundant empty words are removed: {@code R?} and {@code R+} of a nullable
+ * {@code R} become {@code R} and {@code R*}, and {@code a|b?} becomes
+ * {@code (a|b)?};</li>
+ * <li>the branches of an alternation are deduplicated, and the branches matching
+ * a single symbol are folded into one class: {@code a|b|c} becomes
+ * {@code [a-c]};</li>
+ * <li>the common prefixes, then the common suffixes, of the branches are factored
+ * as in a trie: {@code Sagron|Sagon|Sargon} becomes
+ * {@code Sa(g(r?on)|rgon)}, and then {@code Sa(gr?|rg)on}.</li>
+ * </ul>
+ *
+ * <p>
+ * The tree is rebuilt bottom-up with an explicit stack, so very deep trees do not
+ * overflow the call stack. Nested factorings deeper than {@link #PROFONDEUR_MAX}
+ * are left as they are. The input tree is not modified, and subtrees left
+ * unchanged are shared with it.
+ * </p>
+ */
+public final class RegExTreeOptimizer {
+
+    /** The deepest nesting of alternations factored inside one another. */
+    private static final int PROFONDEUR_MAX = 256;
+
+    /**
+     * Structural keys of the subtrees met: the symbols of a leaf, or the operator of
+     * a node followed by the numbers of the keys of its subtrees.
+     */
+    private final Map<RegExTree, String> cles = new IdentityHashMap<>();
+
+    /**
+     * The number of each distinct key, so that the key of a node does not grow with
+     * the size of its subtrees.
+     */
+    private final Map<String, Integer> numeros = new HashMap<>();
+
+    /** Whether the subtrees met match the empty word. */
+    private final Map<RegExTree, Boolean> vides = new IdentityHashMap<>();
+
+    /**
+     * The alternations that are operands of another alternation: only the top of a
+     * chain {@code a|b|c|...} is rewritten, once for all its branches.
+     */
+    private final Map<RegExTree, Boolean> interieures = new IdentityHashMap<>();
+
+    private RegExTreeOptimizer() {
+    }
+
+    /**
+     * Returns a tree equivalent to the given one, rewritten to compile to smaller
+     * automata.
+     *
+     * @param arbre The syntax tree.
+     * @return The optimized tree.
+     */
+    public static RegExTree optimize(RegExTree arbre) {
+        return new RegExTreeOptimizer().optimiser(arbre);
+    }
+
+    private RegExTree optimiser(RegExTree arbre) {
+        ArrayDeque<RegExTree> noeuds = new ArrayDeque<>();
+        ArrayDeque<Integer> prochains = new ArrayDeque<>();
+        ArrayDeque<RegExTree> resultats = new ArrayDeque<>();
+        noeuds.push(arbre);
+        prochains.push(0);
+        while (!noeuds.isEmpty()) {
+            RegExTree noeud = noeuds.peek();
+            int i = prochains.pop();
+            if (i < noeud.subTrees.size()) {
+                RegExTree sousArbre = noeud.subTrees.get(i);
+                if (noeud.getRoot() == RegExTreeParser.ALTERN && sousArbre.getRoot() == RegExTreeParser.ALTERN
+                        && !noeud.isLeaf() && !sousArbre.isLeaf())
+                    interieures.put(sousArbre, Boolean.TRUE);
+                prochains.push(i + 1);
+                noeuds.push(sousArbre);
+                prochains.push(0);
+                continue;
+            }
+            noeuds.pop();
+            if (noeud.isLeaf()) {
+                resultats.push(noeud);
+                continue;
+            }
+            RegExTree[] operandes = new RegExTree[noeud.subTrees.size()];
+            for (int k = operandes.length - 1; k >= 0; k--)
+                operandes[k] = resultats.pop();
+            resultats.push(reecrire(noeud, operandes));
+        }
+        return resultats.pop();
+    }
+
+    /**
+     * Rewrites a node whose subtrees are already optimized.
+     */
+    private RegExTree reecrire(RegExTree noeud, RegExTree[] operandes) {
+        int racine = noeud.getRoot();
+        if (noeud instanceof Repetition repetition)
+            return new Repetition(operandes[0], repetition.min, repetition.max);
+        if (racine == RegExTreeParser.ETOILE || racine == RegExTreeParser.PLUS || racine == RegExTreeParser.OPTION)
+            return postfixe(racine, operandes[0]);
+        if (racine == RegExTreeParser.ALTERN) {
+            if (interieures.containsKey(noeud))
+                return binaire(racine, operandes[0], operandes[1]);
+            return alternative(branches(operandes), 0);
+        }
+        if (racine == RegExTreeParser.CONCAT)
+            return concat(operandes[0], operandes[1]);
+        return noeud;
+    }
+
+    /**
+     * Applies a postfix operator, collapsing it with the operator of its operand.
+     */
+    private RegExTree postfixe(int operateur, RegExTree operande) {
+        int interieur = operande.getRoot();
+        boolean postfixe = !operande.isLeaf() && (interieur == RegExTreeParser.ETOILE
+                || interieur == RegExTreeParser.PLUS || interieur == RegExTreeParser.OPTION);
+        if (postfixe) {
+            // (R+)+ = R+ and (R?)? = R?, any other pair of operators gives R*
+            if (interieur == operateur)
+                return operande;
+            return unaire(RegExTreeParser.ETOILE, operande.subTrees.get(0));
+        }
+        if (nullable(operande)) {
+            if (operateur == RegExTreeParser.OPTION)
+                return operande;
+            if (operateur == RegExTreeParser.PLUS)
+                operateur = RegExTreeParser.ETOILE;
+        }
+        return unaire(operateur, operande);
+    }
+
+    /**
+     * Returns the branches of an alternation whose two operands are already optimized.
+     */
+    private static List<RegExTree> branches(RegExTree[] operandes) {
+        List<RegExTree> branches = new ArrayList<>();
+        for (RegExTree operande : operandes)
+            aplatir(operande, RegExTreeParser.ALTERN, branches);
+        return branches;
+    }
+
+    /**
+     * Builds the optimized alternation of branches: the empty word is pulled out of
+     * the branches, duplicates are dropped, single symbols are folded into a class,
+     * and common prefixes and suffixes are factored.
+     *
+     * @param branches   The branches, none of them an alternation.
+     * @param profondeur The number of factorings this alternation is nested in.
+     * @return The optimized alternation.
+     */
+    private RegExTree alternative(List<RegExTree> branches, int profondeur) {
+        boolean videAjoute = false;
+        Map<String, RegExTree> uniques = new LinkedHashMap<>();
+        BitSet symboles = new BitSet(256);
+        for (RegExTree branche : branches) {
+            if (!branche.isLeaf() && branche.getRoot() == RegExTreeParser.OPTION) {
+                // a|b? = (a|b)?
+                videAjoute = true;
+                List<RegExTree> interieures = new ArrayList<>();
+                aplatir(branche.subTrees.get(0), RegExTreeParser.ALTERN, interieures);
+                for (RegExTree interieure : interieures)
+                    ajouterBranche(interieure, uniques, symboles);
+                continue;
+            }
+            ajouterBranche(branche, uniques, symboles);
+        }
+        if (!symboles.isEmpty()) {
+            // The single symbols take the place of the first of them
+            RegExTree classe = RegExTreeParser.atome(symboles);
+            Map<String, RegExTree> avecClasse = new LinkedHashMap<>();
+            for (Map.Entry<String, RegExTree> entree : uniques.entrySet())
+                avecClasse.put(entree.getKey(), entree.getValue() == null ? classe : entree.getValue());
+            uniques = avecClasse;
+        }
+
+        List<RegExTree> restantes = new ArrayList<>(uniques.values());
+        if (restantes.size() > 1 && profondeur < PROFONDEUR_MAX) {
+            restantes = factoriser(restantes, true, profondeur);
+            if (restantes.size() > 1)
+                restantes = factoriser(restantes, false, profondeur);
+        }
+
+        RegExTree resultat = alternation(restantes);
+        if (videAjoute && !nullable(resultat))
+            resultat = unaire(RegExTreeParser.OPTION, resultat);
+        return resultat;
+    }
+
+    /**
+     * Adds a branch to the unique branches, or its symbols to the class of the
+     * single symbols, which is recorded by a {@code null} placeholder at the place
+     * of the first of them.
+     */
+    private void ajouterBranche(RegExTree branche, Map<String, RegExTree> uniques, BitSet symboles) {
+        int[] intervalles = branche.isLeaf() ? branche.intervalles() : new int[0];
+        if (intervalles.length > 0) {
+            uniques.putIfAbsent("\0classe", null);
+            for (int i = 0; i < intervalles.length; i += 2)
+                symboles.set(intervalles[i], intervalles[i + 1] + 1);
+            return;
+        }
+        uniques.putIfAbsent(cle(branche), branche);
+    }
+
+    /**
+     * Factors the branches sharing their first (or last) factor: each group of
+     * branches becomes its longest common prefix (or suffix) followed (or preceded)
+     * by the alternation of what is left of the branches, optional if one of them
+     * is left empty.
+     *
+     * @param branches   The unique branches.
+     * @param prefixe    {@code true} to factor prefixes, {@code false} for suffixes.
+     * @param profondeur The number of factorings the alternation is nested in.
+     * @return The branches after factoring, in the order of their first appearance.
+     */
+    private List<RegExTree> factoriser(List<RegExTree> branches, boolean prefixe, int profondeur) {
+        Map<String, List<List<RegExTree>>> groupes = new LinkedHashMap<>();
+        for (RegExTree branche : branches) {
+            List<RegExTree> facteurs = new ArrayList<>();
+            aplatir(branche, RegExTreeParser.CONCAT, facteurs);
+            String extremite = cle(facteurs.get(prefixe ? 0 : facteurs.size() - 1));
+            groupes.computeIfAbsent(extremite, k -> new ArrayList<>()).add(facteurs);
+        }
+        if (groupes.size() == branches.size())
+            return branches;
+
+        List<RegExTree> resultat = new ArrayList<>();
+        for (List<List<RegExTree>> groupe : groupes.values()) {
+            if (groupe.size() == 1) {
+                resultat.add(sequence(groupe.get(0)));
+                continue;
+            }
+            // Longest common prefix (or suffix) of the group, at least one factor
+            int commun = 1;
+            boolean continuer = true;
+            while (continuer) {
+                List<RegExTree> premiere = groupe.get(0);
+                if (commun >= premiere.size()) {
+                    break;
+                }
+                String attendue = cle(facteur(premiere, commun, prefixe));
+                for (List<RegExTree> facteurs : groupe) {
+                    if (commun >= facteurs.size() || !cle(facteur(facteurs, commun, prefixe)).equals(attendue)) {
+                        continuer = false;
+                        break;
+                    }
+                }
+                if (continuer)
+                    commun++;
+            }
+
+            List<RegExTree> partagee = prefixe ? groupe.get(0).subList(0, commun)
+                    : groupe.get(0).subList(groupe.get(0).size() - commun, groupe.get(0).size());
+            List<RegExTree> restes = new ArrayList<>();
+            for (List<RegExTree> facteurs : groupe) {
+                List<RegExTree> reste = prefixe ? facteurs.subList(commun, facteurs.size())
+                        : facteurs.subList(0, facteurs.size() - commun);
+                restes.add(reste.isEmpty() ? null : sequence(reste));
+            }
+            RegExTree milieu = reste(restes, profondeur);
+            List<RegExTree> facteurs = new ArrayList<>(partagee);
+            if (milieu != null) {
+                if (prefixe)
+                    facteurs.add(milieu);
+                else
+                    facteurs.add(0, milieu);
+            }
+            resultat.add(sequence(facteurs));
+        }
+        return resultat;
+    }
+
+    /**
+     * Returns the alternation of what is left of the branches of a group once
+     * their common part is removed, {@code null} standing for an empty remainder.
+     */
+    private RegExTree reste(List<RegExTree> restes, int profondeur) {
+        boolean vide = false;
+        List<RegExTree> branches = new ArrayList<>();
+        for (RegExTree reste : restes) {
+            if (reste == null)
+                vide = true;
+            else
+                aplatir(reste, RegExTreeParser.ALTERN, branches);
+        }
+        if (branches.isEmpty())
+            return null;
+        RegExTree alternative = alternative(branches, profondeur + 1);
+        return vide ? postfixe(RegExTreeParser.OPTION, alternative) : alternative;
+    }
+
+    private static RegExTree facteur(List<RegExTree> facteurs, int rang, boolean prefixe) {
+        return facteurs.get(prefixe ? rang : facteurs.size() - 1 - rang);
+    }
+
+    /**
+     * Returns the key of a tree, equal for two trees of the same structure. The
+     * subtrees without a key yet are walked in post-order with an explicit stack.
+     */
+    private String cle(RegExTree arbre) {
+        ArrayDeque<RegExTree> pile = new ArrayDeque<>();
+        pile.push(arbre);
+        while (!cles.containsKey(arbre)) {
+            RegExTree noeud = pile.peek();
+            boolean prets = true;
+            for (RegExTree sousArbre : noeud.subTrees) {
+                if (!cles.containsKey(sousArbre)) {
+                    pile.push(sousArbre);
+                    prets = false;
+                }
+            }
+            if (!prets)
+                continue;
+            pile.pop();
+            StringBuilder cle = new StringBuilder();
+            if (noeud.isLeaf()) {
+                // A leaf is known by its symbols: the literal '.' is not the DOT
+                cle.append(Arrays.toString(noeud.intervalles()));
+            } else {
+                cle.append(noeud.rootToString()).append('(');
+                for (RegExTree sousArbre : noeud.subTrees)
+                    cle.append(numeros.get(cles.get(sousArbre))).append(',');
+                cle.append(')');
+            }
+            String resultat = cle.toString();
+            numeros.putIfAbsent(resultat, numeros.size());
+            cles.put(noeud, resultat);
+        }
+        return cles.get(arbre);
+    }
+
+    /**
+     * Tells whether a tree matches the empty word. The subtrees not met yet are
+     * walked in post-order with an explicit stack, and the answers are kept.
+     */
+    private boolean nullable(RegExTree arbre) {
+        ArrayDeque<RegExTree> pile = new ArrayDeque<>();
+        pile.push(arbre);
+        while (!pile.isEmpty()) {
+            RegExTree noeud = pile.peek();
+            if (vides.containsKey(noeud)) {
+                pile.pop();
+                continue;
+            }
+            boolean pret = true;
+            for (RegExTree sousArbre : noeud.subTrees) {
+                if (!vides.containsKey(sousArbre)) {
+                    pile.push(sousArbre);
+                    pret = false;
+                }
+            }
+            if (!pret)
+                continue;
+            pile.pop();
+            int racine = noeud.getRoot();
+            boolean vide;
+            if (noeud.isLeaf())
+                vide = false;
+            else if (noeud instanceof Repetition repetition)
+                vide = repetition.min == 0 || vides.get(noeud.subTrees.get(0));
+            else if (racine == RegExTreeParser.ETOILE || racine == RegExTreeParser.OPTION)
+                vide = true;
+            else if (racine == RegExTreeParser.PLUS)
+                vide = vides.get(noeud.subTrees.get(0));
+            else if (racine == RegExTreeParser.CONCAT)
+                vide = vides.get(noeud.subTrees.get(0)) && vides.get(noeud.subTrees.get(1));
+            else if (racine == RegExTreeParser.ALTERN)
+                vide = vides.get(noeud.subTrees.get(0)) || vides.get(noeud.subTrees.get(1));
+            else
+                vide = false;
+            vides.put(noeud, vide);
+        }
+        return vides.get(arbre);
+    }
+
+    /**
+     * Lists the operands of a spine of the given binary operator, from left to right.
+     */
+    private static void aplatir(RegExTree arbre, int operateur, List<RegExTree> operandes) {
+        ArrayDeque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbre);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            if (!noeud.isLeaf() && noeud.getRoot() == operateur) {
+                aVisiter.push(noeud.subTrees.get(1));
+                aVisiter.push(noeud.subTrees.get(0));
+            } else {
+                operandes.add(noeud);
+            }
+        }
+    }
+
+    private static RegExTree sequence(List<RegExTree> facteurs) {
+        RegExTree resultat = facteurs.get(0);
+        for (int k = 1; k < facteurs.size(); k++)
+            resultat = concat(resultat, facteurs.get(k));
+        return resultat;
+    }
+
+    private static RegExTree alternation(List<RegExTree> branches) {
+        RegExTree resultat = branches.get(0);
+        for (int k = 1; k < branches.size(); k++)
+            resultat = binaire(RegExTreeParser.ALTERN, resultat, branches.get(k));
+        return resultat;
+    }
+
+    private static RegExTree concat(RegExTree gauche, RegExTree droite) {
+        return binaire(RegExTreeParser.CONCAT, gauche, droite);
+    }
+
+    private static RegExTree binaire(int operateur, RegExTree gauche, RegExTree droite) {
+        ArrayList<RegExTree> sousArbres = new ArrayList<>(2);
+        sousArbres.add(gauche);
+        sousArbres.add(droite);
+        return new RegExTree(operateur, sousArbres);
+    }
+
+    private static RegExTree unaire(int operateur, RegExTree operande) {
+        ArrayList<RegExTree> sousArbres = new ArrayList<>(1);
+        sousArbres.add(operande);
+        return new RegExTree(operateur, sousArbres);
+    }
+}
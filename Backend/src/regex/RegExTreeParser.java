@@ -1,7 +1,8 @@
 package src.regex;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.lang.Exception;
+import java.util.BitSet;
 
 /**
  * The {@code RegExTreeParser} class is responsible for parsing regular
@@ -44,412 +45,513 @@ public class RegExTreeParser {
   public static final int ALTERN = 0xA17E54;
 
   /**
-   * Macro for protecting expressions enclosed in parentheses.
+   * Macro representing the '.' (dot) character, which can be used to match any
+   * character.
    */
-  public static final int PROTECTION = 0xBADDAD;
+  public static final int DOT = 0xD07;
 
   /**
-   * Macro representing an opening parenthesis in the regular expression.
+   * Macro representing the optional operator ('?', zero or one time) in the
+   * regular expression syntax tree.
    */
-  public static final int PARENTHESEOUVRANT = 0x16641664;
+  public static final int OPTION = 0x3F0B7;
 
   /**
-   * Macro representing a closing parenthesis in the regular expression.
+   * Macro representing a character class leaf ({@link ClasseCaracteres}) in the
+   * regular expression syntax tree.
    */
-  public static final int PARENTHESEFERMANT = 0x51515151;
+  public static final int CLASSE = 0xC1A55E;
 
   /**
-   * Macro representing the '.' (dot) character, which can be used to match any
-   * character.
+   * Macro representing a counted repetition ({@link Repetition}, {@code {m,n}})
+   * in the regular expression syntax tree.
    */
-  public static final int DOT = 0xD07;
+  public static final int REPETITION = 0x8E9E7;
 
-  // REGEX STRING
-  private static String regEx;
+  private static final int SYMBOLES_ASCII = 256;
 
   /**
-   * Default constructor. The class is mostly used in a static context, so no
-   * initialization is needed here.
+   * Default constructor. The class is only used in a static context and keeps no
+   * state between two calls, so patterns can be parsed concurrently.
    */
   public RegExTreeParser() {
   }
 
   /**
    * Parses a given regular expression string and converts it into a syntax tree.
-   * This method is primarily used for testing purposes.
+   *
+   * <p>
+   * The pattern is read once, from left to right, with an explicit stack holding
+   * one frame per open parenthesis, so parsing takes time linear in the length of
+   * the pattern and very long or deeply nested patterns do not overflow the call
+   * stack. Concatenation binds tighter than alternation, both associate to the
+   * left, and {@code *}, {@code +}, {@code ?} and the counted repetitions
+   * {@code {m}}, {@code {m,}} and {@code {m,n}} apply to the atom they follow. A
+   * {@code {} that does not start a repetition matches itself.
+   * </p>
+   *
+   * <p>
+   * Besides these operators, the parser reads the ERE character classes
+   * ({@code [a-z0-9]}, {@code [^ ]}, {@code [[:alpha:]]}), the escapes
+   * {@code \n}, {@code \t}, {@code \r}, {@code \f}, {@code \v}, {@code \xHH},
+   * {@code \d}, {@code \w}, {@code \s} and their negations, and a backslash
+   * before any other punctuation character to match it literally. The line
+   * anchors are only accepted by {@link #parseMotif(String)}.
+   * </p>
    *
    * @param regEx The regular expression to parse.
    * @return A {@code RegExTree} representing the syntax tree of the parsed regex.
+   * @throws RegExSyntaxException If the expression is not well formed, or holds
+   *                              an anchor, with the position of the offending
+   *                              character.
    */
   public static RegExTree parse(String regEx) {
-    ArrayList<RegExTree> result = new ArrayList<>();
-    for (int i = 0; i < regEx.length(); i++)
-      result.add(new RegExTree(charToRoot(regEx.charAt(i)), new ArrayList<>()));
-    try {
-      return parse(result);
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-    return null;
+    Motif motif = parseMotif(regEx);
+    if (motif.ancreDebut)
+      throw new RegExSyntaxException("Anchor '^' is only supported in line searches", 0);
+    if (motif.ancreFin)
+      throw new RegExSyntaxException("Anchor '$' is only supported in line searches", regEx.length() - 1);
+    return motif.arbre;
   }
 
   /**
-   * Parses the {@code regEx} string and converts it into a syntax tree.
-   * This method processes the expression using different regex operators like
-   * parentheses,
-   * Kleene star, concatenation, and alternation.
+   * Parses a search pattern: a regular expression whose top-level branches may be
+   * preceded by the anchor {@code ^} and followed by the anchor {@code $}. The
+   * anchors are kept out of the tree and returned as conditions on where a match
+   * starts and ends, so every top-level branch must carry the same anchors:
+   * {@code ^a|^b} is read as {@code ^(a|b)}, while {@code ^a|b} is rejected. The
+   * empty pattern, alone or between anchors as in {@code ^$}, matches the empty
+   * word.
    *
-   * @return A {@code RegExTree} representing the syntax tree of the parsed regex.
-   * @throws Exception If there is a syntax error in the regex.
+   * @param regEx The pattern to parse.
+   * @return The syntax tree of the expression and its anchors.
+   * @throws RegExSyntaxException If the pattern is not well formed, with the
+   *                              position of the offending character.
    */
-  private static RegExTree parse() throws Exception {
-    // Debug: can be used for debugging
-    RegExTree example = exampleAhoUllman();
+  public static Motif parseMotif(String regEx) {
+    ArrayDeque<Cadre> pile = new ArrayDeque<>();
+    Cadre cadre = new Cadre(-1);
+    int fin = regEx.length();
+    // Anchors of the current top-level branch, and of the first one, which the others must share
+    boolean ancreDebut = false;
+    boolean ancreFin = false;
+    boolean debutPremiere = false;
+    boolean finPremiere = false;
+    int branches = 0;
+    int debutBranche = 0;
+
+    for (int i = 0; i < fin; i++) {
+      char c = regEx.charAt(i);
+      switch (c) {
+        case '(' -> {
+          pile.push(cadre);
+          cadre = new Cadre(i);
+        }
+        case ')' -> {
+          if (pile.isEmpty())
+            throw new RegExSyntaxException("Unmatched ')'", i);
+          RegExTree groupe = cadre.terminer(i, "')'");
+          cadre = pile.pop();
+          cadre.ajouterAtome(groupe);
+        }
+        case '*' -> cadre.appliquer(ETOILE, c, i);
+        case '+' -> cadre.appliquer(PLUS, c, i);
+        case '?' -> cadre.appliquer(OPTION, c, i);
+        case '{' -> {
+          int fermante = finBornes(regEx, i, fin);
+          if (fermante < 0) {
+            cadre.ajouterAtome(new RegExTree(c));
+          } else {
+            cadre.repeter(regEx, i, fermante);
+            i = fermante;
+          }
+        }
+        case '|' -> {
+          cadre.alterner(i);
+          if (pile.isEmpty()) {
+            if (branches++ == 0) {
+              debutPremiere = ancreDebut;
+              finPremiere = ancreFin;
+            } else if (ancreDebut != debutPremiere || ancreFin != finPremiere) {
+              throw ancresMelangees(debutBranche);
+            }
+            ancreDebut = false;
+            ancreFin = false;
+            debutBranche = i + 1;
+          }
+        }
+        case '.' -> cadre.ajouterAtome(new RegExTree(DOT));
+        case '^' -> {
+          if (!pile.isEmpty() || !cadre.brancheVide())
+            throw new RegExSyntaxException("Anchor '^' is only supported at the start of a top-level branch", i);
+          ancreDebut = true;
+        }
+        case '$' -> {
+          if (!pile.isEmpty() || (i + 1 < fin && regEx.charAt(i + 1) != '|'))
+            throw new RegExSyntaxException("Anchor '$' is only supported at the end of a top-level branch", i);
+          ancreFin = true;
+        }
+        case '[' -> {
+          BitSet symboles = new BitSet(SYMBOLES_ASCII);
+          i = lireClasse(regEx, i, fin, symboles);
+          cadre.ajouterAtome(atome(symboles));
+        }
+        case '\\' -> {
+          if (i + 1 >= fin)
+            throw new RegExSyntaxException("Missing character after '\\'", i);
+          BitSet symboles = new BitSet(SYMBOLES_ASCII);
+          int longueur = lireEchappement(regEx, i, symboles);
+          cadre.ajouterAtome(symboles.isEmpty() ? new RegExTree(symboleEchappe(regEx, i)) : atome(symboles));
+          i += longueur - 1;
+        }
+        default -> cadre.ajouterAtome(new RegExTree(c));
+      }
+    }
 
-    ArrayList<RegExTree> result = new ArrayList<>();
-    for (int i = 0; i < regEx.length(); i++)
-      result.add(new RegExTree(charToRoot(regEx.charAt(i)), new ArrayList<>()));
+    if (!pile.isEmpty())
+      throw new RegExSyntaxException("Unmatched '('", cadre.ouverture);
+    if (branches > 0 && (ancreDebut != debutPremiere || ancreFin != finPremiere))
+      throw ancresMelangees(debutBranche);
+    // Like egrep, an empty pattern matches the empty word, hence every line
+    RegExTree arbre = branches == 0 && cadre.brancheVide() ? motVide() : cadre.terminer(fin, "the end of the pattern");
+    return new Motif(arbre, ancreDebut, ancreFin);
+  }
 
-    return parse(result);
+  private static RegExSyntaxException ancresMelangees(int position) {
+    return new RegExSyntaxException(
+        "Anchors differ between the top-level branches; anchor every branch or group them, as in ^(a|b)", position);
   }
 
   /**
-   * Converts a character to its corresponding regex operation or keeps it as a
-   * literal.
-   *
-   * @param c The character to convert.
-   * @return The integer representing the corresponding regex operation or the
-   *         character's ASCII value.
+   * Returns a tree matching only the empty word. The syntax trees have no leaf
+   * for it, so it is written {@code []?}: an optional class matching no symbol,
+   * which every automaton builder already handles.
    */
-  private static int charToRoot(char c) {
-    if (c == '.')
-      return DOT;
-    if (c == '*')
-      return ETOILE;
-    if (c == '+')
-      return PLUS;
-    if (c == '|')
-      return ALTERN;
-    if (c == '(')
-      return PARENTHESEOUVRANT;
-    if (c == ')')
-      return PARENTHESEFERMANT;
-    return c;
+  static RegExTree motVide() {
+    ArrayList<RegExTree> subTrees = new ArrayList<>(1);
+    subTrees.add(new ClasseCaracteres(new BitSet(SYMBOLES_ASCII)));
+    return new RegExTree(OPTION, subTrees);
   }
 
   /**
-   * Processes the regex tree and builds the final structure.
-   * Handles parentheses, Kleene star, concatenation, and alternation operators.
-   *
-   * @param result The list of regex tree nodes to process.
-   * @return The root of the processed syntax tree.
-   * @throws Exception If there is a syntax error during processing.
+   * Returns the position of the {@code }} closing the bounds {@code {m}},
+   * {@code {m,}} or {@code {m,n}} opened at {@code debut}, or -1 if the brace
+   * does not open bounds.
    */
-  private static RegExTree parse(ArrayList<RegExTree> result) throws Exception {
-    while (containParenthese(result))
-      result = processParenthese(result);
-    while (containEtoile(result))
-      result = processEtoile(result);
-    while (containPlus(result))
-      result = processPlus(result);
-    while (containConcat(result))
-      result = processConcat(result);
-    while (containAltern(result))
-      result = processAltern(result);
-
-    if (result.size() > 1)
-      throw new Exception();
-
-    return removeProtection(result.get(0));
+  private static int finBornes(String regEx, int debut, int fin) {
+    int i = debut + 1;
+    while (i < fin && chiffre(regEx.charAt(i)))
+      i++;
+    if (i == debut + 1)
+      return -1;
+    if (i < fin && regEx.charAt(i) == ',') {
+      i++;
+      while (i < fin && chiffre(regEx.charAt(i)))
+        i++;
+    }
+    return i < fin && regEx.charAt(i) == '}' ? i : -1;
   }
 
-  /**
-   * Checks if the list of regex trees contains parentheses.
-   *
-   * @param trees The list of regex trees to check.
-   * @return {@code true} if parentheses are found, otherwise {@code false}.
-   */
-  private static boolean containParenthese(ArrayList<RegExTree> trees) {
-    for (RegExTree t : trees)
-      if (t.root == PARENTHESEFERMANT || t.root == PARENTHESEOUVRANT)
-        return true;
-    return false;
+  private static boolean chiffre(char c) {
+    return c >= '0' && c <= '9';
   }
 
   /**
-   * Processes the regex trees to handle parentheses and create subtrees for
-   * protected expressions.
-   *
-   * @param trees The list of regex trees to process.
-   * @return A new list of trees with parentheses processed.
-   * @throws Exception If there is a syntax error.
+   * Reads the bound written between {@code debut} and {@code fin}, excluded.
    */
-  private static ArrayList<RegExTree> processParenthese(ArrayList<RegExTree> trees) throws Exception {
-    ArrayList<RegExTree> result = new ArrayList<RegExTree>();
-    boolean found = false;
-    for (RegExTree t : trees) {
-      if (!found && t.root == PARENTHESEFERMANT) {
-        boolean done = false;
-        ArrayList<RegExTree> content = new ArrayList<RegExTree>();
-        while (!done && !result.isEmpty())
-          if (result.getLast().root == PARENTHESEOUVRANT) {
-            done = true;
-            result.removeLast();
-          } else
-            content.addFirst(result.removeLast());
-        if (!done)
-          throw new Exception();
-        found = true;
-        ArrayList<RegExTree> subTrees = new ArrayList<RegExTree>();
-        subTrees.add(parse(content));
-        result.add(new RegExTree(PROTECTION, subTrees));
-      } else {
-        result.add(t);
-      }
+  private static int borne(String regEx, int debut, int fin) {
+    int valeur = 0;
+    for (int i = debut; i < fin; i++) {
+      valeur = 10 * valeur + regEx.charAt(i) - '0';
+      if (valeur > Repetition.BORNE_MAX)
+        throw new RegExSyntaxException("Repetition bound larger than " + Repetition.BORNE_MAX, debut);
     }
-    if (!found)
-      throw new Exception();
-    return result;
+    return valeur;
   }
 
   /**
-   * Checks if the list of regex trees contains a Kleene star operation.
-   *
-   * @param trees The list of regex trees to check.
-   * @return {@code true} if a Kleene star is found, otherwise {@code false}.
+   * Returns the leaf matching a set of symbols: a plain symbol for a single one,
+   * {@code DOT} for all of them, a {@link ClasseCaracteres} otherwise.
    */
-  private static boolean containEtoile(ArrayList<RegExTree> trees) {
-    for (RegExTree t : trees)
-      if (t.root == ETOILE && t.subTrees.isEmpty())
-        return true;
-    return false;
+  static RegExTree atome(BitSet symboles) {
+    int taille = symboles.cardinality();
+    if (taille == 1)
+      return new RegExTree(symboles.nextSetBit(0));
+    if (taille == SYMBOLES_ASCII)
+      return new RegExTree(DOT);
+    return new ClasseCaracteres(symboles);
   }
 
   /**
-   * Processes the regex trees to handle the Kleene star operation and updates the
-   * tree structure.
+   * Reads the bracket expression starting at {@code debut} and adds its symbols
+   * to {@code symboles}.
    *
-   * @param trees The list of regex trees to process.
-   * @return A new list of trees with the Kleene star operation processed.
-   * @throws Exception If there is a syntax error.
+   * @return The position of the closing {@code ]}.
    */
-  private static ArrayList<RegExTree> processEtoile(ArrayList<RegExTree> trees) throws Exception {
-    ArrayList<RegExTree> result = new ArrayList<>();
-    boolean found = false;
-    for (RegExTree t : trees) {
-      if (!found && t.root == ETOILE && t.subTrees.isEmpty()) {
-        if (result.isEmpty()) {
-          throw new Exception("Invalid regex: '*' cannot be applied without a valid operand.");
+  private static int lireClasse(String regEx, int debut, int fin, BitSet symboles) {
+    int i = debut + 1;
+    boolean negation = i < fin && regEx.charAt(i) == '^';
+    if (negation)
+      i++;
+    BitSet classe = new BitSet(SYMBOLES_ASCII);
+    boolean premier = true;
+    while (true) {
+      if (i >= fin)
+        throw new RegExSyntaxException("Unterminated character class", debut);
+      char c = regEx.charAt(i);
+      // A ']' right after '[' or '[^' is a literal
+      if (c == ']' && !premier)
+        break;
+      premier = false;
+
+      if (c == '[' && i + 1 < fin && regEx.charAt(i + 1) == ':') {
+        int fermeture = regEx.indexOf(":]", i + 2);
+        if (fermeture < 0 || fermeture >= fin)
+          throw new RegExSyntaxException("Unterminated POSIX class", i);
+        ajouterClassePosix(regEx.substring(i + 2, fermeture), i, classe);
+        i = fermeture + 2;
+        continue;
+      }
+
+      int bas;
+      int longueur = 1;
+      if (c == '\\') {
+        if (i + 1 >= fin)
+          throw new RegExSyntaxException("Missing character after '\\'", i);
+        BitSet echappement = new BitSet(SYMBOLES_ASCII);
+        longueur = lireEchappement(regEx, i, echappement);
+        if (!echappement.isEmpty()) {
+          // A class escape such as \d cannot bound a range
+          classe.or(echappement);
+          i += longueur;
+          continue;
         }
-        found = true;
-        RegExTree last = result.removeLast();
-        ArrayList<RegExTree> subTrees = new ArrayList<>();
-        subTrees.add(last);
-        result.add(new RegExTree(ETOILE, subTrees));
+        bas = symboleEchappe(regEx, i);
       } else {
-        result.add(t);
+        bas = c;
       }
+      i += longueur;
+
+      int haut = bas;
+      if (i + 1 < fin && regEx.charAt(i) == '-' && regEx.charAt(i + 1) != ']') {
+        int tiret = i;
+        i++;
+        if (regEx.charAt(i) == '\\') {
+          if (i + 1 >= fin)
+            throw new RegExSyntaxException("Missing character after '\\'", i);
+          BitSet echappement = new BitSet(SYMBOLES_ASCII);
+          int n = lireEchappement(regEx, i, echappement);
+          if (!echappement.isEmpty())
+            throw new RegExSyntaxException("Invalid range end", i);
+          haut = symboleEchappe(regEx, i);
+          i += n;
+        } else {
+          haut = regEx.charAt(i);
+          i++;
+        }
+        if (haut < bas)
+          throw new RegExSyntaxException("Invalid range " + (char) bas + "-" + (char) haut, tiret);
+      }
+      // Symbols beyond the 256 handled by the automata never match
+      if (bas < SYMBOLES_ASCII)
+        classe.set(bas, Math.min(haut, SYMBOLES_ASCII - 1) + 1);
     }
-    return result;
-  }
 
-  /**
-   * Checks if the list of regex trees contains a Kleene star operation.
-   *
-   * @param trees The list of regex trees to check.
-   * @return {@code true} if a Kleene star is found, otherwise {@code false}.
-   */
-  private static boolean containPlus(ArrayList<RegExTree> trees) {
-    for (RegExTree t : trees)
-      if (t.root == PLUS && t.subTrees.isEmpty())
-        return true;
-    return false;
+    if (negation)
+      classe.flip(0, SYMBOLES_ASCII);
+    if (classe.isEmpty())
+      throw new RegExSyntaxException("Character class matching nothing", debut);
+    symboles.or(classe);
+    return i;
   }
 
   /**
-   * Processes the regex trees to handle the PLUS operation and updates the tree
-   * structure.
+   * Reads the escape starting with the backslash at {@code position}. A class
+   * escape such as {@code \d} adds its symbols to {@code classe}; any other
+   * escape leaves it empty and stands for {@link #symboleEchappe}.
    *
-   * @param trees The list of regex trees to process.
-   * @return A new list of trees with the Kleene star operation processed.
-   * @throws Exception If there is a syntax error.
+   * @return The length of the escape, backslash included.
    */
-  private static ArrayList<RegExTree> processPlus(ArrayList<RegExTree> trees) throws Exception {
-    ArrayList<RegExTree> result = new ArrayList<>();
-    boolean found = false;
-    for (RegExTree t : trees) {
-      if (!found && t.root == PLUS && t.subTrees.isEmpty()) {
-        if (result.isEmpty()) {
-          throw new Exception("Invalid regex: '+' cannot be applied without a valid operand.");
-        }
-        found = true;
-        RegExTree last = result.removeLast();
-        ArrayList<RegExTree> subTrees = new ArrayList<>();
-        subTrees.add(last);
-        result.add(new RegExTree(PLUS, subTrees));
-      } else {
-        result.add(t);
+  private static int lireEchappement(String regEx, int position, BitSet classe) {
+    char c = regEx.charAt(position + 1);
+    switch (c) {
+      case 'd', 'D' -> classe.set('0', '9' + 1);
+      case 'w', 'W' -> {
+        classe.set('a', 'z' + 1);
+        classe.set('A', 'Z' + 1);
+        classe.set('0', '9' + 1);
+        classe.set('_');
+      }
+      case 's', 'S' -> {
+        classe.set('\t', '\r' + 1);
+        classe.set(' ');
+      }
+      case 'x' -> {
+        return 4;
+      }
+      default -> {
+        return 2;
       }
     }
-    return result;
+    if (Character.isUpperCase(c))
+      classe.flip(0, SYMBOLES_ASCII);
+    return 2;
   }
 
   /**
-   * Checks if the list of regex trees contains a concatenation operation.
-   *
-   * @param trees The list of regex trees to check.
-   * @return {@code true} if a concatenation is found, otherwise {@code false}.
+   * Returns the symbol matched by the escape starting with the backslash at
+   * {@code position}, which is not a class escape.
    */
-  private static boolean containConcat(ArrayList<RegExTree> trees) {
-    boolean firstFound = false;
-    for (RegExTree t : trees) {
-      if (!firstFound && t.root != ALTERN) {
-        firstFound = true;
-        continue;
-      }
-      if (firstFound)
-        if (t.root != ALTERN)
-          return true;
-        else
-          firstFound = false;
+  private static int symboleEchappe(String regEx, int position) {
+    char c = regEx.charAt(position + 1);
+    switch (c) {
+      case 'n':
+        return '\n';
+      case 't':
+        return '\t';
+      case 'r':
+        return '\r';
+      case 'f':
+        return '\f';
+      case 'v':
+        return 0x0B;
+      case 'x':
+        if (position + 3 < regEx.length()) {
+          int haut = Character.digit(regEx.charAt(position + 2), 16);
+          int bas = Character.digit(regEx.charAt(position + 3), 16);
+          if (haut >= 0 && bas >= 0)
+            return haut * 16 + bas;
+        }
+        throw new RegExSyntaxException("Expected two hexadecimal digits after '\\x'", position);
+      default:
+        if (Character.isLetterOrDigit(c))
+          throw new RegExSyntaxException("Unknown escape '\\" + c + "'", position);
+        return c;
     }
-    return false;
   }
 
   /**
-   * Processes the regex trees to handle concatenation and updates the tree
-   * structure.
-   *
-   * @param trees The list of regex trees to process.
-   * @return A new list of trees with the concatenation operation processed.
-   * @throws Exception If there is a syntax error.
+   * Adds the symbols of a POSIX class such as {@code [:alpha:]} to a bracket
+   * expression.
    */
-  private static ArrayList<RegExTree> processConcat(ArrayList<RegExTree> trees) throws Exception {
-    ArrayList<RegExTree> result = new ArrayList<RegExTree>();
-    boolean found = false;
-    boolean firstFound = false;
-    for (RegExTree t : trees) {
-      if (!found && !firstFound && t.root != ALTERN) {
-        firstFound = true;
-        result.add(t);
-        continue;
-      }
-      if (!found && firstFound && t.root == ALTERN) {
-        firstFound = false;
-        result.add(t);
-        continue;
-      }
-      if (!found && firstFound) {
-        found = true;
-        RegExTree last = result.removeLast();
-        ArrayList<RegExTree> subTrees = new ArrayList<RegExTree>();
-        subTrees.add(last);
-        subTrees.add(t);
-        result.add(new RegExTree(CONCAT, subTrees));
-      } else {
-        result.add(t);
-      }
+  private static void ajouterClassePosix(String nom, int position, BitSet classe) {
+    for (int c = 0; c < 128; c++) {
+      boolean membre = switch (nom) {
+        case "alpha" -> Character.isLetter(c);
+        case "digit" -> c >= '0' && c <= '9';
+        case "alnum" -> Character.isLetterOrDigit(c);
+        case "upper" -> c >= 'A' && c <= 'Z';
+        case "lower" -> c >= 'a' && c <= 'z';
+        case "space" -> c == ' ' || (c >= '\t' && c <= '\r');
+        case "blank" -> c == ' ' || c == '\t';
+        case "punct" -> c > 0x20 && c < 0x7F && !Character.isLetterOrDigit(c);
+        case "xdigit" -> Character.digit(c, 16) >= 0;
+        case "cntrl" -> c < 0x20 || c == 0x7F;
+        case "print" -> c >= 0x20 && c < 0x7F;
+        case "graph" -> c > 0x20 && c < 0x7F;
+        default -> throw new RegExSyntaxException("Unknown POSIX class [:" + nom + ":]", position);
+      };
+      if (membre)
+        classe.set(c);
     }
-    return result;
   }
 
   /**
-   * Checks if the list of regex trees contains an alternation (OR) operation.
-   *
-   * @param trees The list of regex trees to check.
-   * @return {@code true} if an alternation is found, otherwise {@code false}.
+   * The expression being read between a pair of parentheses, or at the top level.
+   * The last atom is kept apart from the concatenation of the atoms before it, as
+   * a {@code *}, {@code +} or {@code ?} may still apply to it.
    */
-  private static boolean containAltern(ArrayList<RegExTree> trees) {
-    for (RegExTree t : trees)
-      if (t.root == ALTERN && t.subTrees.isEmpty())
-        return true;
-    return false;
-  }
+  private static class Cadre {
+    // Position of the opening parenthesis, -1 at the top level
+    private final int ouverture;
+    // Alternation of the branches already closed by a '|', or null
+    private RegExTree alternative;
+    // Position of the last '|', -1 if none
+    private int barre = -1;
+    // Concatenation of the atoms of the current branch before the last one, or null
+    private RegExTree sequence;
+    // Last atom of the current branch, or null
+    private RegExTree dernier;
+
+    private Cadre(int ouverture) {
+      this.ouverture = ouverture;
+    }
 
-  /**
-   * Processes the regex trees to handle alternation (OR) and updates the tree
-   * structure.
-   *
-   * @param trees The list of regex trees to process.
-   * @return A new list of trees with the alternation operation processed.
-   * @throws Exception If there is a syntax error.
-   */
-  private static ArrayList<RegExTree> processAltern(ArrayList<RegExTree> trees) throws Exception {
-    ArrayList<RegExTree> result = new ArrayList<RegExTree>();
-    boolean found = false;
-    RegExTree gauche = null;
-    boolean done = false;
-    for (RegExTree t : trees) {
-      if (!found && t.root == ALTERN && t.subTrees.isEmpty()) {
-        if (result.isEmpty())
-          throw new Exception();
-        found = true;
-        gauche = result.removeLast();
-        continue;
-      }
-      if (found && !done) {
-        if (gauche == null)
-          throw new Exception();
-        done = true;
-        ArrayList<RegExTree> subTrees = new ArrayList<RegExTree>();
-        subTrees.add(gauche);
-        subTrees.add(t);
-        result.add(new RegExTree(ALTERN, subTrees));
-      } else {
-        result.add(t);
+    private void ajouterAtome(RegExTree atome) {
+      if (dernier != null)
+        sequence = sequence == null ? dernier : noeud(CONCAT, sequence, dernier);
+      dernier = atome;
+    }
+
+    private void appliquer(int operateur, char symbole, int position) {
+      if (dernier == null)
+        throw new RegExSyntaxException("Nothing to repeat before '" + symbole + "'", position);
+      ArrayList<RegExTree> subTrees = new ArrayList<>(1);
+      subTrees.add(dernier);
+      dernier = new RegExTree(operateur, subTrees);
+    }
+
+    /**
+     * Applies the bounds written between the braces at {@code ouvrante} and
+     * {@code fermante} to the last atom.
+     */
+    private void repeter(String regEx, int ouvrante, int fermante) {
+      if (dernier == null)
+        throw new RegExSyntaxException("Nothing to repeat before '{'", ouvrante);
+      int virgule = regEx.indexOf(',', ouvrante);
+      boolean uneBorne = virgule < 0 || virgule > fermante;
+      int min = borne(regEx, ouvrante + 1, uneBorne ? fermante : virgule);
+      int max = uneBorne ? min
+          : virgule + 1 == fermante ? Repetition.INFINI : borne(regEx, virgule + 1, fermante);
+      if (max != Repetition.INFINI && max < min)
+        throw new RegExSyntaxException("Invalid repetition bounds {" + min + "," + max + "}", ouvrante);
+      // R{0} matches only the empty word, as in egrep
+      dernier = max == 0 ? motVide() : new Repetition(dernier, min, max);
+    }
+
+    private void alterner(int position) {
+      RegExTree branche = branche();
+      if (branche == null)
+        throw new RegExSyntaxException("Missing expression before '|'", position);
+      alternative = alternative == null ? branche : noeud(ALTERN, alternative, branche);
+      barre = position;
+    }
+
+    /**
+     * Returns the tree of the whole frame, once its closing parenthesis or the end
+     * of the pattern is reached.
+     */
+    private RegExTree terminer(int position, String fin) {
+      RegExTree branche = branche();
+      if (branche == null) {
+        if (alternative != null)
+          throw new RegExSyntaxException("Missing expression after '|'", barre);
+        if (ouverture >= 0)
+          throw new RegExSyntaxException("Empty parentheses", ouverture);
+        throw new RegExSyntaxException("Empty expression before " + fin, position);
       }
+      return alternative == null ? branche : noeud(ALTERN, alternative, branche);
     }
-    return result;
-  }
 
-  /**
-   * Removes protection nodes from the syntax tree. Protection nodes are used
-   * internally
-   * to handle parentheses and should not appear in the final syntax tree.
-   *
-   * @param tree The syntax tree to process.
-   * @return The tree with protection nodes removed.
-   * @throws Exception If an invalid protection node is found.
-   */
-  private static RegExTree removeProtection(RegExTree tree) throws Exception {
-    if (tree.root == PROTECTION && tree.subTrees.size() != 1)
-      throw new Exception();
-    if (tree.subTrees.isEmpty())
-      return tree;
-    if (tree.root == PROTECTION)
-      return removeProtection(tree.subTrees.get(0));
-
-    ArrayList<RegExTree> subTrees = new ArrayList<>();
-    for (RegExTree t : tree.subTrees)
-      subTrees.add(removeProtection(t));
-    return new RegExTree(tree.root, subTrees);
-  }
+    private boolean brancheVide() {
+      return sequence == null && dernier == null;
+    }
 
-  /**
-   * Example from Aho-Ullman book (Chap.10 Example 10.25) that builds a sample
-   * regex tree
-   * for the expression 'a|bc*'.
-   *
-   * @return A {@code RegExTree} representing the example syntax tree.
-   */
-  private static RegExTree exampleAhoUllman() {
-    RegExTree a = new RegExTree('a', new ArrayList<>());
-    RegExTree b = new RegExTree('b', new ArrayList<>());
-    RegExTree c = new RegExTree((int) 'c', new ArrayList<>());
-    ArrayList<RegExTree> subTrees = new ArrayList<>();
-    subTrees.add(c);
-    RegExTree cEtoile = new RegExTree(ETOILE, subTrees);
-    subTrees = new ArrayList<>();
-    subTrees.add(b);
-    subTrees.add(cEtoile);
-    RegExTree dotBCEtoile = new RegExTree(CONCAT, subTrees);
-    subTrees = new ArrayList<>();
-    subTrees.add(a);
-    subTrees.add(dotBCEtoile);
-    return new RegExTree(ALTERN, subTrees);
+    /**
+     * Closes the current branch and returns its concatenation, or {@code null} if it is empty.
+     */
+    private RegExTree branche() {
+      RegExTree branche = sequence == null ? dernier : dernier == null ? sequence : noeud(CONCAT, sequence, dernier);
+      sequence = null;
+      dernier = null;
+      return branche;
+    }
   }
 
-  public static void setRegEx(String regEx) {
-    RegExTreeParser.regEx = regEx;
+  private static RegExTree noeud(int operateur, RegExTree gauche, RegExTree droite) {
+    ArrayList<RegExTree> subTrees = new ArrayList<>(2);
+    subTrees.add(gauche);
+    subTrees.add(droite);
+    return new RegExTree(operateur, subTrees);
   }
 }
@@ -0,0 +1,323 @@
+package src.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * A counted repetition {@code R{m}}, {@code R{m,}} or {@code R{m,n}} in the syntax
+ * tree, with its single operand as subtree.
+ *
+ * <p>
+ * The bounds are kept in the node instead of being expanded by the parser, so the
+ * tree stays proportional to the pattern text. The DFA constructions work on the
+ * unrolled tree returned by {@link #deplier(RegExTree)}, which is cheap for small
+ * bounds. A repetition of a single symbol or class with a large bound is instead
+ * compiled to one counter by
+ * {@link src.ndfa.CompactNDFA#avecCompteurs(RegExTree)}: matching then costs the
+ * same for {@code .{0,500}} as for {@code .{0,5}}.
+ * </p>
+ */
+public class Repetition extends RegExTree {
+
+    /** The upper bound of {@code R{m,}}. */
+    public static final int INFINI = -1;
+
+    /** The largest bound accepted by the parser, as {@code RE_DUP_MAX} in GNU grep. */
+    public static final int BORNE_MAX = 32767;
+
+    /**
+     * The largest bound unrolled when a counter could be used instead. Below it, the
+     * unrolled automaton stays small enough to be determinised.
+     */
+    public static final int SEUIL_DEPLIAGE = 16;
+
+    /** The largest number of nodes of an unrolled tree. */
+    private static final int MAX_NOEUDS_DEPLIES = 1 << 20;
+
+    /** The minimum number of repetitions. */
+    public final int min;
+
+    /** The maximum number of repetitions, or {@link #INFINI}. */
+    public final int max;
+
+    /**
+     * Constructs a repetition node.
+     *
+     * @param operande The repeated expression.
+     * @param min      The minimum number of repetitions.
+     * @param max      The maximum number of repetitions, at least {@code min} and 1,
+     *                 or {@link #INFINI}.
+     */
+    public Repetition(RegExTree operande, int min, int max) {
+        super(RegExTreeParser.REPETITION, new ArrayList<>(1));
+        subTrees.add(operande);
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Tells whether this repetition is run by a counter rather than unrolled: its
+     * operand matches exactly one symbol and its bound is larger than
+     * {@link #SEUIL_DEPLIAGE}.
+     *
+     * @return {@code true} if the repetition is compiled to a counter.
+     */
+    public boolean estCompteur() {
+        return subTrees.get(0).isLeaf() && subTrees.get(0).intervalles().length > 0
+                && (max == INFINI ? min : max) > SEUIL_DEPLIAGE;
+    }
+
+    /**
+     * Tells whether a tree holds a repetition compiled to a counter.
+     *
+     * @param arbre The syntax tree.
+     * @return {@code true} if some repetition of the tree is a counter.
+     */
+    public static boolean aCompteurs(RegExTree arbre) {
+        ArrayDeque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbre);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            if (noeud instanceof Repetition repetition && repetition.estCompteur())
+                return true;
+            for (RegExTree sousArbre : noeud.subTrees)
+                aVisiter.push(sousArbre);
+        }
+        return false;
+    }
+
+    /**
+     * Returns an equivalent tree without any repetition node, each {@code R{m,n}}
+     * being unrolled into {@code m} copies of {@code R} followed by {@code n - m}
+     * nested optional copies, and {@code R{m,}} into {@code m} copies followed by
+     * {@code R*}. A tree without repetition is returned as it is.
+     *
+     * @param arbre The syntax tree.
+     * @return The unrolled tree.
+     * @throws IllegalArgumentException If the unrolled tree would be too large.
+     */
+    public static RegExTree deplier(RegExTree arbre) {
+        return deplier(arbre, false);
+    }
+
+    /**
+     * Returns an equivalent tree in which only the repetitions compiled to counters
+     * are left, the others being unrolled as by {@link #deplier(RegExTree)}.
+     *
+     * @param arbre          The syntax tree.
+     * @param garderCompteurs Whether to keep the repetitions compiled to counters.
+     * @return The unrolled tree.
+     * @throws IllegalArgumentException If the unrolled tree would be too large.
+     */
+    public static RegExTree deplier(RegExTree arbre, boolean garderCompteurs) {
+        if (!contientRepetition(arbre))
+            return arbre;
+        // Reject the bounds that are too large before allocating any copy
+        if (tailleDepliee(arbre, garderCompteurs) > MAX_NOEUDS_DEPLIES)
+            throw new IllegalArgumentException("Counted repetition too large to unroll");
+
+        // Post-order rebuild with explicit stacks: each node is rebuilt from its rebuilt subtrees
+        ArrayDeque<RegExTree> noeuds = new ArrayDeque<>();
+        ArrayDeque<Integer> prochains = new ArrayDeque<>();
+        ArrayDeque<RegExTree> resultats = new ArrayDeque<>();
+        int[] taille = {0};
+        noeuds.push(arbre);
+        prochains.push(0);
+        while (!noeuds.isEmpty()) {
+            RegExTree noeud = noeuds.peek();
+            int i = prochains.pop();
+            if (i < noeud.subTrees.size()) {
+                prochains.push(i + 1);
+                noeuds.push(noeud.subTrees.get(i));
+                prochains.push(0);
+                continue;
+            }
+            noeuds.pop();
+            ArrayList<RegExTree> sousArbres = new ArrayList<>(noeud.subTrees.size());
+            for (int k = 0; k < noeud.subTrees.size(); k++)
+                sousArbres.add(0, resultats.pop());
+
+            RegExTree resultat;
+            if (noeud instanceof Repetition repetition) {
+                resultat = garderCompteurs && repetition.estCompteur()
+                        ? new Repetition(sousArbres.get(0), repetition.min, repetition.max)
+                        : repetition.deplie(sousArbres.get(0), taille);
+            } else if (noeud.isLeaf()) {
+                resultat = noeud.copieFeuille();
+            } else {
+                resultat = new RegExTree(noeud.getRoot(), sousArbres);
+            }
+            if (++taille[0] > MAX_NOEUDS_DEPLIES)
+                throw new IllegalArgumentException("Counted repetition too large to unroll");
+            resultats.push(resultat);
+        }
+        return resultats.pop();
+    }
+
+    /**
+     * Returns the largest number of copies of a subtree in the unrolled tree: the
+     * product of the bounds of the repetitions around it, {@code R{m,}} counting
+     * {@code m + 1} copies. Matching {@code R{n}} takes at least one DFA state per
+     * copy, to count them. The count saturates at {@link Long#MAX_VALUE}.
+     *
+     * @param arbre The syntax tree.
+     * @return The largest number of copies, 1 for a tree without repetition.
+     */
+    public static long copiesMax(RegExTree arbre) {
+        ArrayDeque<RegExTree> noeuds = new ArrayDeque<>();
+        ArrayDeque<Long> copies = new ArrayDeque<>();
+        noeuds.push(arbre);
+        copies.push(1L);
+        long max = 1;
+        while (!noeuds.isEmpty()) {
+            RegExTree noeud = noeuds.pop();
+            long n = copies.pop();
+            if (noeud instanceof Repetition repetition)
+                n = multiplier(n, repetition.copies());
+            max = Math.max(max, n);
+            for (RegExTree sousArbre : noeud.subTrees) {
+                noeuds.push(sousArbre);
+                copies.push(n);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of nodes of the tree unrolled by
+     * {@link #deplier(RegExTree, boolean)}, or more, without unrolling it. The count
+     * saturates at {@link Long#MAX_VALUE}.
+     */
+    private static long tailleDepliee(RegExTree arbre, boolean garderCompteurs) {
+        // Post-order walk: the size of each node is computed from the sizes of its subtrees
+        ArrayDeque<RegExTree> noeuds = new ArrayDeque<>();
+        ArrayDeque<Integer> prochains = new ArrayDeque<>();
+        ArrayDeque<Long> tailles = new ArrayDeque<>();
+        noeuds.push(arbre);
+        prochains.push(0);
+        while (!noeuds.isEmpty()) {
+            RegExTree noeud = noeuds.peek();
+            int i = prochains.pop();
+            if (i < noeud.subTrees.size()) {
+                prochains.push(i + 1);
+                noeuds.push(noeud.subTrees.get(i));
+                prochains.push(0);
+                continue;
+            }
+            noeuds.pop();
+            long taille = 1;
+            for (int k = 0; k < noeud.subTrees.size(); k++)
+                taille = Math.min(Long.MAX_VALUE - 1, taille + tailles.pop());
+            if (noeud instanceof Repetition repetition && !(garderCompteurs && repetition.estCompteur()))
+                // Each copy comes with its optional or concatenation node
+                taille = multiplier(taille + 1, repetition.copies());
+            tailles.push(taille);
+        }
+        return tailles.pop();
+    }
+
+    /** The number of copies of the operand in the unrolled repetition. */
+    private long copies() {
+        return max == INFINI ? min + 1L : max;
+    }
+
+    private static long multiplier(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    private static boolean contientRepetition(RegExTree arbre) {
+        ArrayDeque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbre);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            if (noeud instanceof Repetition)
+                return true;
+            for (RegExTree sousArbre : noeud.subTrees)
+                aVisiter.push(sousArbre);
+        }
+        return false;
+    }
+
+    /**
+     * Unrolls this repetition of an operand already free of repetitions. Every use
+     * of the operand is a fresh copy, as the automaton builders tell positions
+     * apart by node identity.
+     */
+    private RegExTree deplie(RegExTree operande, int[] taille) {
+        RegExTree resultat = null;
+        for (int k = 0; k < min; k++)
+            resultat = concat(resultat, k == 0 ? operande : copie(operande, taille));
+        if (max == INFINI)
+            return concat(resultat, unaire(RegExTreeParser.ETOILE, min == 0 ? operande : copie(operande, taille)));
+        // R{m,n} = R^m (R (R ...)?)? with n - m nested optional copies
+        RegExTree queue = null;
+        for (int k = max - 1; k >= min; k--) {
+            RegExTree exemplaire = k == 0 ? operande : copie(operande, taille);
+            queue = unaire(RegExTreeParser.OPTION, concat(exemplaire, queue));
+        }
+        return concat(resultat, queue);
+    }
+
+    private static RegExTree concat(RegExTree gauche, RegExTree droite) {
+        if (gauche == null)
+            return droite;
+        if (droite == null)
+            return gauche;
+        ArrayList<RegExTree> sousArbres = new ArrayList<>(2);
+        sousArbres.add(gauche);
+        sousArbres.add(droite);
+        return new RegExTree(RegExTreeParser.CONCAT, sousArbres);
+    }
+
+    private static RegExTree unaire(int operateur, RegExTree operande) {
+        ArrayList<RegExTree> sousArbres = new ArrayList<>(1);
+        sousArbres.add(operande);
+        return new RegExTree(operateur, sousArbres);
+    }
+
+    /**
+     * Returns a deep copy of a tree free of repetitions, counting its nodes.
+     */
+    private static RegExTree copie(RegExTree arbre, int[] taille) {
+        ArrayDeque<RegExTree> noeuds = new ArrayDeque<>();
+        ArrayDeque<Integer> prochains = new ArrayDeque<>();
+        ArrayDeque<RegExTree> resultats = new ArrayDeque<>();
+        noeuds.push(arbre);
+        prochains.push(0);
+        while (!noeuds.isEmpty()) {
+            RegExTree noeud = noeuds.peek();
+            int i = prochains.pop();
+            if (i < noeud.subTrees.size()) {
+                prochains.push(i + 1);
+                noeuds.push(noeud.subTrees.get(i));
+                prochains.push(0);
+                continue;
+            }
+            noeuds.pop();
+            if (++taille[0] > MAX_NOEUDS_DEPLIES)
+                throw new IllegalArgumentException("Counted repetition too large to unroll");
+            if (noeud.isLeaf()) {
+                resultats.push(noeud.copieFeuille());
+                continue;
+            }
+            ArrayList<RegExTree> sousArbres = new ArrayList<>(noeud.subTrees.size());
+            for (int k = 0; k < noeud.subTrees.size(); k++)
+                sousArbres.add(0, resultats.pop());
+            resultats.push(noeud instanceof Repetition repetition
+                    ? new Repetition(sousArbres.get(0), repetition.min, repetition.max)
+                    : new RegExTree(noeud.getRoot(), sousArbres));
+        }
+        return resultats.pop();
+    }
+
+    /**
+     * Returns the bounds in the usual notation, {@code {m}}, {@code {m,}} or
+     * {@code {m,n}}.
+     */
+    @Override
+    protected String rootToString() {
+        if (max == min)
+            return "{" + min + "}";
+        return "{" + min + "," + (max == INFINI ? "" : max) + "}";
+    }
+}
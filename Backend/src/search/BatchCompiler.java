@@ -0,0 +1,79 @@
+package src.search;
+
+import src.dfa.CompileBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code BatchCompiler} class compiles a list of patterns across a pool of threads.
+ *
+ * <p>Every pattern is compiled by {@link CompiledPattern#compile} in a context of its own, so the
+ * compilations share nothing but the immutable budget, and the results are returned in the order
+ * of the patterns whatever the order in which the threads finish.</p>
+ */
+public class BatchCompiler {
+
+    private BatchCompiler() {
+    }
+
+    /**
+     * Compiles the given patterns on as many threads as there are available processors.
+     *
+     * @param patterns The regular expressions to compile.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources each DFA compilation may use.
+     * @return The compiled patterns, in the order of {@code patterns}.
+     */
+    public static List<CompiledPattern> compileAll(List<String> patterns, boolean fullLine, CompileBudget budget) {
+        return compileAll(patterns, fullLine, budget, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Compiles the given patterns on a pool of the given number of threads. With a single thread the
+     * patterns are compiled on the calling thread.
+     *
+     * @param patterns The regular expressions to compile.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources each DFA compilation may use.
+     * @param threads  The number of threads of the pool.
+     * @return The compiled patterns, in the order of {@code patterns}.
+     * @throws IllegalArgumentException If {@code threads} is not positive.
+     */
+    public static List<CompiledPattern> compileAll(List<String> patterns, boolean fullLine, CompileBudget budget, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        List<CompiledPattern> resultats = new ArrayList<>(patterns.size());
+        if (threads == 1) {
+            for (String pattern : patterns) {
+                resultats.add(CompiledPattern.compile(pattern, fullLine, budget));
+            }
+            return resultats;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CompiledPattern>> taches = new ArrayList<>(patterns.size());
+            for (String pattern : patterns) {
+                taches.add(pool.submit(() -> CompiledPattern.compile(pattern, fullLine, budget)));
+            }
+            for (Future<CompiledPattern> tache : taches) {
+                resultats.add(tache.get());
+            }
+            return resultats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch compilation interrupted", e);
+        } catch (ExecutionException e) {
+            // CompiledPattern.compile reports the errors of a pattern in its result, so this is a bug
+            throw new IllegalStateException("Batch compilation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
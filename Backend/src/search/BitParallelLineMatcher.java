@@ -0,0 +1,65 @@
+package src.search;
+
+import src.DFASearch;
+import src.dfa.BitParallelAutomaton;
+
+/**
+ * The {@code BitParallelLineMatcher} class adapts a {@link BitParallelAutomaton} to the
+ * {@link LineMatcher} interface. It selects and highlights the same lines as {@link DFALineMatcher}.
+ *
+ * <p>The automaton only holds immutable tables, so an instance can be shared between threads.</p>
+ */
+public class BitParallelLineMatcher implements LineMatcher {
+
+    private final BitParallelAutomaton automate;
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+
+    /**
+     * Constructs a line matcher running the given automaton between line anchors.
+     *
+     * @param automate   The bit-parallel automaton of the pattern.
+     * @param ancreDebut Whether a match must start at the beginning of the line.
+     * @param ancreFin   Whether a match must end at the end of the line.
+     */
+    public BitParallelLineMatcher(BitParallelAutomaton automate, boolean ancreDebut, boolean ancreFin) {
+        this.automate = automate;
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+    }
+
+    @Override
+    public boolean matches(String line) {
+        if (ancreDebut) {
+            return ancreFin ? automate.accepte(line) : automate.correspondAuDebut(line);
+        }
+        return ancreFin ? automate.correspondALaFin(line) : automate.contientCorrespondance(line);
+    }
+
+    @Override
+    public String highlight(String line) {
+        if (ancreDebut && ancreFin) {
+            return DFASearch.RED + DFASearch.BOLD + line + DFASearch.RESET;
+        }
+        if (ancreDebut) {
+            return DFASearch.highlightSpan(line, 0, automate.finCorrespondance(line, 0));
+        }
+        if (ancreFin) {
+            int debut = automate.debutCorrespondanceFinale(line);
+            return debut < 0 ? line : DFASearch.highlightSpan(line, debut, line.length());
+        }
+        StringBuilder highlightedLineBuilder = new StringBuilder();
+        int index = 0;
+        while (index < line.length()) {
+            int end = automate.finCorrespondance(line, index);
+            if (end > index) {
+                highlightedLineBuilder.append(DFASearch.RED + DFASearch.BOLD).append(line, index, end).append(DFASearch.RESET);
+                index = end;
+            } else {
+                highlightedLineBuilder.append(line.charAt(index));
+                index++;
+            }
+        }
+        return highlightedLineBuilder.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package src.search;
+
+import src.dfa.BudgetExceededException;
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.ndfa.CompactNDFA;
+import src.regex.Motif;
+import src.regex.RegExSyntaxException;
+import src.regex.RegExTree;
+import src.regex.RegExTreeOptimizer;
+import src.regex.RegExTreeParser;
+import src.regex.Repetition;
+import src.stats.PhaseStats;
+
+/**
+ * The {@code CompiledPattern} class is the immutable result of the compilation of one pattern by
+ * the automaton method: the tables of its minimized DFAs, or its compact NDFA when the DFAs
+ * exceeded the compilation budget, or the reason why the pattern could not be compiled.
+ *
+ * <p>The syntax tree is first rewritten by {@link RegExTreeOptimizer}. A pattern holding a counted
+ * repetition too large to unroll, such as {@code .{0,500}}, then skips the DFAs, whose size would
+ * grow with the bound, and is simulated on its NDFA with counters.</p>
+ *
+ * <p>Each compilation runs in a {@link CompileContext} of its own, so patterns can be compiled on
+ * several threads at once, and a compiled pattern can be published to any thread.</p>
+ */
+public class CompiledPattern {
+
+    /** The source of the pattern. */
+    public final String pattern;
+
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+    private final DFALineMatcher dfaMatcher;
+    private final CompactNDFA ndfa;
+    private final String repli;
+    private final String erreur;
+
+    private CompiledPattern(String pattern, boolean ancreDebut, boolean ancreFin, DFALineMatcher dfaMatcher,
+                            CompactNDFA ndfa, String repli, String erreur) {
+        this.pattern = pattern;
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+        this.dfaMatcher = dfaMatcher;
+        this.ndfa = ndfa;
+        this.repli = repli;
+        this.erreur = erreur;
+    }
+
+    /**
+     * Compiles a pattern into minimized DFA tables, falling back to the compact NDFA when the DFAs
+     * exceed the budget. This method keeps no state between two calls and is safe to call from
+     * several threads.
+     *
+     * @param pattern  The regular expression to compile, possibly anchored with {@code ^} and {@code $}.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources the DFA compilation may use.
+     * @return The compiled pattern, possibly holding a compilation error instead of an automaton.
+     */
+    public static CompiledPattern compile(String pattern, boolean fullLine, CompileBudget budget) {
+        return compile(pattern, fullLine, budget, PhaseStats.DISABLED);
+    }
+
+    /**
+     * Compiles a pattern as {@link #compile(String, boolean, CompileBudget)} does, measuring each
+     * phase of the compilation.
+     *
+     * @param pattern  The regular expression to compile, possibly anchored with {@code ^} and {@code $}.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources the DFA compilation may use.
+     * @param stats    The statistics the phases are added to, confined to the calling thread.
+     * @return The compiled pattern, possibly holding a compilation error instead of an automaton.
+     */
+    public static CompiledPattern compile(String pattern, boolean fullLine, CompileBudget budget, PhaseStats stats) {
+        Motif motif;
+        try {
+            // The rewritten tree selects the same lines with smaller automata
+            motif = stats.measure(PhaseStats.PARSE, () -> {
+                Motif lu = RegExTreeParser.parseMotif(pattern);
+                return new Motif(RegExTreeOptimizer.optimize(lu.arbre), lu.ancreDebut, lu.ancreFin);
+            });
+        } catch (RegExSyntaxException e) {
+            return new CompiledPattern(pattern, fullLine, fullLine, null, null, null, e.getMessage());
+        }
+        boolean ancreDebut = fullLine || motif.ancreDebut;
+        boolean ancreFin = fullLine || motif.ancreFin;
+        RegExTree arbre = motif.arbre;
+        if (Repetition.aCompteurs(arbre)) {
+            return new CompiledPattern(pattern, ancreDebut, ancreFin, null,
+                    stats.measure(PhaseStats.NDFA, () -> CompactNDFA.avecCompteurs(arbre)),
+                    "counted repetitions run on counters", null);
+        }
+        try {
+            DFALineMatcher matcher = DFALineMatcher.compile(motif, fullLine, new CompileContext(budget, stats));
+            return new CompiledPattern(pattern, ancreDebut, ancreFin, matcher, null, null, null);
+        } catch (BudgetExceededException e) {
+            // The DFA is too costly for this pattern: keep the NDFA, which is simulated instead
+            return new CompiledPattern(pattern, ancreDebut, ancreFin, null,
+                    stats.measure(PhaseStats.NDFA, () -> CompactNDFA.fromTree(arbre)), e.getMessage(), null);
+        } catch (IllegalArgumentException e) {
+            // Nested counted repetitions whose unrolled tree is too large
+            return new CompiledPattern(pattern, ancreDebut, ancreFin, null, null, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Tells whether the pattern was compiled into an automaton.
+     *
+     * @return {@code true} if {@link #matcher()} can be called, {@code false} if the pattern is invalid.
+     */
+    public boolean estCompile() {
+        return erreur == null;
+    }
+
+    /**
+     * Returns the reason why the pattern could not be compiled.
+     *
+     * @return The error message, or {@code null} if the pattern was compiled.
+     */
+    public String getErreur() {
+        return erreur;
+    }
+
+    /**
+     * Returns the reason why the DFAs were abandoned for the NDFA.
+     *
+     * @return The budget report, or {@code null} if the DFAs were compiled.
+     */
+    public String getRepli() {
+        return repli;
+    }
+
+    /**
+     * Tells whether the pattern runs on an NDFA with counters, its counted repetitions being too
+     * large to unroll, rather than on the NDFA of a DFA compilation over budget.
+     *
+     * @return {@code true} if the pattern is simulated with counters.
+     */
+    public boolean aCompteurs() {
+        return ndfa != null && ndfa.nombreCompteurs > 0;
+    }
+
+    /**
+     * Returns a line matcher for the pattern. The DFA matcher only reads immutable tables and is the
+     * same for every call; the NDFA simulation keeps scratch sets, so each call returns a new one.
+     *
+     * @return A line matcher for the pattern.
+     * @throws IllegalStateException If the pattern could not be compiled.
+     */
+    public LineMatcher matcher() {
+        if (erreur != null) {
+            throw new IllegalStateException("Pattern " + pattern + " was not compiled: " + erreur);
+        }
+        return dfaMatcher != null ? dfaMatcher : new NDFALineMatcher(ndfa, ancreDebut, ancreFin);
+    }
+}
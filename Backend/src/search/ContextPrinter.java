@@ -0,0 +1,139 @@
+package src.search;
+
+import java.io.PrintStream;
+
+/**
+ * The {@code ContextPrinter} class prints selected lines together with their surrounding
+ * context, the same way {@code egrep -A/-B/-C} does.
+ *
+ * <p>The lines preceding a hit are kept in a ring buffer of exactly {@code before} slots, and
+ * the lines following a hit are printed as they stream by, so the memory used is constant
+ * whatever the size of the file. Overlapping or adjacent context windows are merged, and
+ * non-contiguous groups are separated by a {@code --} line.</p>
+ */
+public class ContextPrinter {
+
+    /** Separator printed between two non-contiguous groups of lines. */
+    public static final String SEPARATOR = "--";
+
+    private final int after;
+    private final boolean separated;
+    private final PrintStream out;
+
+    /** Ring buffer holding the last {@code before} lines that were not printed. */
+    private final String[] buffer;
+    private final long[] bufferNumbers;
+    private int bufferStart = 0;
+    private int bufferSize = 0;
+
+    /** Number of the last printed line, or -1 if nothing has been printed yet. */
+    private long lastPrinted = -1;
+
+    /** Number of trailing context lines still to print after the last hit. */
+    private int remainingAfter = 0;
+
+    /**
+     * Constructs a printer with the given amount of context, separating the groups whenever there
+     * is some context to print.
+     *
+     * @param before The number of lines to print before each selected line (-B).
+     * @param after  The number of lines to print after each selected line (-A).
+     * @param out    The stream to which the lines are written.
+     */
+    public ContextPrinter(int before, int after, PrintStream out) {
+        this(before, after, before > 0 || after > 0, out);
+    }
+
+    /**
+     * Constructs a printer with the given amount of context. As with egrep, a context option given
+     * explicitly separates the groups even when its count is 0, as in {@code -C 0}.
+     *
+     * @param before    The number of lines to print before each selected line (-B).
+     * @param after     The number of lines to print after each selected line (-A).
+     * @param separated Whether non-contiguous groups are separated by {@link #SEPARATOR}.
+     * @param out       The stream to which the lines are written.
+     */
+    public ContextPrinter(int before, int after, boolean separated, PrintStream out) {
+        if (before < 0 || after < 0) {
+            throw new IllegalArgumentException("Context line counts must be positive.");
+        }
+        this.after = after;
+        this.separated = separated;
+        this.out = out;
+        this.buffer = new String[before];
+        this.bufferNumbers = new long[before];
+    }
+
+    /**
+     * Constructs a printer that prints selected lines only, without context.
+     *
+     * @param out The stream to which the lines are written.
+     */
+    public ContextPrinter(PrintStream out) {
+        this(0, 0, out);
+    }
+
+    /**
+     * Feeds the next line of the input to the printer.
+     *
+     * @param number   The number of the line in the input (starting at 0, strictly increasing).
+     * @param line     The raw line, used when it is printed as context.
+     * @param selected Whether the line was selected by the search.
+     * @param rendered The text to print for a selected line (e.g. highlighted); ignored otherwise.
+     */
+    public void accept(long number, String line, boolean selected, String rendered) {
+        if (selected) {
+            long first = bufferSize > 0 ? bufferNumbers[bufferStart] : number;
+            printSeparatorIfNeeded(first);
+            for (int i = 0; i < bufferSize; i++) {
+                out.println(buffer[(bufferStart + i) % buffer.length]);
+            }
+            clearBuffer();
+            out.println(rendered);
+            lastPrinted = number;
+            remainingAfter = after;
+        } else if (remainingAfter > 0) {
+            out.println(line);
+            lastPrinted = number;
+            remainingAfter--;
+        } else if (buffer.length > 0) {
+            push(number, line);
+        }
+    }
+
+    /**
+     * Prints the separator when the next group does not directly follow the previous one.
+     *
+     * @param first The number of the first line of the group about to be printed.
+     */
+    private void printSeparatorIfNeeded(long first) {
+        if (separated && lastPrinted >= 0 && first > lastPrinted + 1) {
+            out.println(SEPARATOR);
+        }
+    }
+
+    /**
+     * Adds a line to the ring buffer, overwriting the oldest one when it is full.
+     */
+    private void push(long number, String line) {
+        int slot = (bufferStart + bufferSize) % buffer.length;
+        if (bufferSize == buffer.length) {
+            bufferStart = (bufferStart + 1) % buffer.length;
+        } else {
+            bufferSize++;
+        }
+        buffer[slot] = line;
+        bufferNumbers[slot] = number;
+    }
+
+    /**
+     * Empties the ring buffer, releasing the references to the buffered lines.
+     */
+    private void clearBuffer() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = null;
+        }
+        bufferStart = 0;
+        bufferSize = 0;
+    }
+}
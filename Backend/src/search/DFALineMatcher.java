@@ -0,0 +1,168 @@
+package src.search;
+
+import src.DFASearch;
+import src.dfa.BitParallelAutomaton;
+import src.dfa.BudgetExceededException;
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.minimization.DFAMinimization;
+import src.ndfa.CompactNDFA;
+import src.regex.Motif;
+import src.regex.RegExTree;
+import src.regex.Repetition;
+import src.stats.PhaseStats;
+
+/**
+ * The {@code DFALineMatcher} class adapts a minimized DFA to the {@link LineMatcher} interface.
+ *
+ * <p>Lines are classified in a single pass by the table of {@code .*R}, or, in full-line mode, by an
+ * anchored run of the table of {@code R} over the whole line. The line anchors of a {@link Motif} are
+ * start and end conditions of these runs: {@code ^R} runs the table of {@code R} from the start of
+ * the line until it accepts, and {@code R$} runs the table of {@code .*R} to the end of the line.
+ * Highlighting, which only happens for printed lines, uses the same leftmost-shortest matching as
+ * {@link DFASearch}.</p>
+ */
+public class DFALineMatcher implements LineMatcher {
+
+    private final DFATable table;
+    private final DFATable searchTable;
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+
+    /**
+     * Constructs a line matcher from compiled tables.
+     *
+     * @param table       The table of the minimized DFA of the pattern.
+     * @param searchTable The table of the minimized DFA of {@code .*R}, unused in full-line mode.
+     * @param fullLine    Whether the whole line must be matched (-x) instead of a part of it.
+     */
+    public DFALineMatcher(DFATable table, DFATable searchTable, boolean fullLine) {
+        this(table, searchTable, fullLine, fullLine);
+    }
+
+    /**
+     * Constructs a line matcher from compiled tables and line anchors.
+     *
+     * @param table       The table of the minimized DFA of the pattern.
+     * @param searchTable The table of the minimized DFA of {@code .*R}, unused when the match must
+     *                    start at the beginning of the line.
+     * @param ancreDebut  Whether a match must start at the beginning of the line.
+     * @param ancreFin    Whether a match must end at the end of the line.
+     */
+    public DFALineMatcher(DFATable table, DFATable searchTable, boolean ancreDebut, boolean ancreFin) {
+        this.table = table;
+        this.searchTable = searchTable;
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+    }
+
+    /**
+     * Compiles a line matcher from a regular expression syntax tree.
+     *
+     * @param tree     The parsed regular expression.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @return The compiled line matcher.
+     */
+    public static DFALineMatcher compile(RegExTree tree, boolean fullLine) {
+        return compile(tree, fullLine, CompileBudget.ILLIMITE);
+    }
+
+    /**
+     * Compiles a line matcher from a regular expression syntax tree, within a compilation budget
+     * shared by the two DFAs.
+     *
+     * @param tree     The parsed regular expression.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources the compilation may use.
+     * @return The compiled line matcher.
+     * @throws BudgetExceededException If the compilation exceeds the budget.
+     */
+    public static DFALineMatcher compile(RegExTree tree, boolean fullLine, CompileBudget budget) {
+        return compile(tree, fullLine, new CompileContext(budget));
+    }
+
+    /**
+     * Compiles a line matcher from a regular expression syntax tree within the context of a running
+     * compilation. The matcher only holds immutable tables, so it can be shared between threads.
+     *
+     * @param tree     The parsed regular expression.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param contexte The context of the running compilation, shared by the two DFAs.
+     * @return The compiled line matcher.
+     * @throws BudgetExceededException If the compilation exceeds the budget.
+     */
+    public static DFALineMatcher compile(RegExTree tree, boolean fullLine, CompileContext contexte) {
+        return compile(tree, fullLine, fullLine, contexte);
+    }
+
+    /**
+     * Compiles a line matcher from a parsed pattern and its line anchors within the context of a
+     * running compilation.
+     *
+     * @param motif    The parsed pattern.
+     * @param fullLine Whether the whole line must be matched (-x), whatever the anchors.
+     * @param contexte The context of the running compilation, shared by the two DFAs.
+     * @return The compiled line matcher.
+     * @throws BudgetExceededException If the compilation exceeds the budget.
+     */
+    public static DFALineMatcher compile(Motif motif, boolean fullLine, CompileContext contexte) {
+        return compile(motif.arbre, fullLine || motif.ancreDebut, fullLine || motif.ancreFin, contexte);
+    }
+
+    private static DFALineMatcher compile(RegExTree tree, boolean ancreDebut, boolean ancreFin,
+                                          CompileContext contexte) {
+        // R{n} takes a DFA state per copy, each standing for a set of the two NDFA states or more of
+        // every position: a repetition too large for the budget is abandoned before it is unrolled
+        contexte.budget.verifierEnsembles("unrolling", Repetition.copiesMax(tree),
+                2 * BitParallelAutomaton.nombrePositions(tree));
+        DFATable table = DFATable.compile(minimizedDFA(tree, false, contexte));
+        // Only the runs that may start anywhere in the line need the table of .*R
+        DFATable searchTable = ancreDebut ? null : DFATable.compile(minimizedDFA(tree, true, contexte));
+        return new DFALineMatcher(table, searchTable, ancreDebut, ancreFin);
+    }
+
+    private static DFA minimizedDFA(RegExTree tree, boolean search, CompileContext contexte) {
+        PhaseStats stats = contexte.stats;
+        CompactNDFA ndfa = stats.measure(PhaseStats.NDFA,
+                () -> search ? CompactNDFA.fromSearchTree(tree) : CompactNDFA.fromTree(tree));
+        DFA dfa = stats.measure(PhaseStats.DETERMINISE, () -> DFADeterminisation.determinise(ndfa, contexte));
+        return stats.measure(PhaseStats.MINIMIZE, () -> DFAMinimization.minimize(dfa, contexte));
+    }
+
+    /**
+     * Returns the number of states of the compiled tables.
+     *
+     * @return The states of the table of {@code R}, plus those of the table of {@code .*R} if any.
+     */
+    public int nombreEtats() {
+        return table.nombreEtats() + (searchTable == null ? 0 : searchTable.nombreEtats());
+    }
+
+    @Override
+    public boolean matches(String line) {
+        if (ancreDebut) {
+            return ancreFin ? DFASearch.isAcceptedByDFA(table, line) : DFASearch.startsWithMatch(table, line);
+        }
+        return ancreFin ? DFASearch.endsWithMatch(searchTable, line) : DFASearch.containsMatch(searchTable, line);
+    }
+
+    @Override
+    public String highlight(String line) {
+        if (ancreDebut && ancreFin) {
+            return DFASearch.RED + DFASearch.BOLD + line + DFASearch.RESET;
+        }
+        if (ancreDebut) {
+            return DFASearch.highlightSpan(line, 0, DFASearch.matchEnd(line, 0, table));
+        }
+        if (ancreFin) {
+            int start = DFASearch.suffixMatchStart(table, line);
+            return start < 0 ? line : DFASearch.highlightSpan(line, start, line.length());
+        }
+        String highlightedLine = DFASearch.highlightLine(line, table);
+        // Patterns matching the empty word select a line without highlighting anything in it
+        return highlightedLine != null ? highlightedLine : line;
+    }
+}
@@ -0,0 +1,29 @@
+package src.search;
+
+import src.KMPAlgorithm;
+
+/**
+ * The {@code KMPLineMatcher} class adapts {@link KMPAlgorithm} to the {@link LineMatcher} interface.
+ * The pattern is searched as a literal string.
+ */
+public class KMPLineMatcher extends LiteralLineMatcher {
+
+    /**
+     * Constructs a line matcher searching for the given literal pattern.
+     *
+     * @param pattern  The literal string to search for.
+     * @param fullLine Whether the whole line must be equal to the pattern (-x).
+     */
+    public KMPLineMatcher(String pattern, boolean fullLine) {
+        super(pattern, new KMPAlgorithm(pattern, ""), fullLine);
+    }
+
+    /**
+     * Constructs a line matcher searching for the given literal pattern anywhere in the line.
+     *
+     * @param pattern The literal string to search for.
+     */
+    public KMPLineMatcher(String pattern) {
+        this(pattern, false);
+    }
+}
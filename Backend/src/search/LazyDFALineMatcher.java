@@ -0,0 +1,76 @@
+package src.search;
+
+import src.dfa.LazyDFA;
+import src.ndfa.CompactNDFA;
+
+/**
+ * The {@code LazyDFALineMatcher} class adapts {@link LazyDFA} to the {@link LineMatcher} interface.
+ *
+ * <p>Lines are classified as by {@link DFALineMatcher}, with lazy DFAs of {@code R} and {@code .*R}
+ * in place of the compiled tables, so only the DFA states met in the input are built. Highlighting,
+ * which only happens for printed lines, is left to an {@link NDFALineMatcher}.</p>
+ *
+ * <p>The lazy DFAs fill their caches while they run, so an instance is not thread-safe.</p>
+ */
+public class LazyDFALineMatcher implements LineMatcher {
+
+    private final LazyDFA dfa;
+    private final LazyDFA searchDfa;
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+    private final NDFALineMatcher surligneur;
+
+    /**
+     * Constructs a line matcher running lazy DFAs of a pattern between line anchors.
+     *
+     * @param ndfa       The NDFA of the pattern.
+     * @param searchNdfa The NDFA of {@code .*R}, unused when a match must start at the beginning of the line.
+     * @param ancreDebut Whether a match must start at the beginning of the line.
+     * @param ancreFin   Whether a match must end at the end of the line.
+     * @param maxEtats   The number of states kept in the cache of each lazy DFA.
+     */
+    public LazyDFALineMatcher(CompactNDFA ndfa, CompactNDFA searchNdfa, boolean ancreDebut, boolean ancreFin,
+                              int maxEtats) {
+        this.dfa = new LazyDFA(ndfa, maxEtats);
+        this.searchDfa = ancreDebut ? null : new LazyDFA(searchNdfa, maxEtats);
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+        this.surligneur = new NDFALineMatcher(ndfa, ancreDebut, ancreFin);
+    }
+
+    @Override
+    public boolean matches(String line) {
+        if (ancreDebut) {
+            int state = dfa.getEtatInitial();
+            for (int i = 0; i < line.length(); i++) {
+                if (!ancreFin && dfa.estAcceptant(state)) {
+                    return true;
+                }
+                state = dfa.suivant(state, line.charAt(i));
+                if (state == LazyDFA.MORT) {
+                    return false;
+                }
+            }
+            return dfa.estAcceptant(state);
+        }
+        int state = searchDfa.getEtatInitial();
+        if (!ancreFin && searchDfa.estAcceptant(state)) {
+            return true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            state = searchDfa.suivant(state, line.charAt(i));
+            if (state == LazyDFA.MORT) {
+                // Symbol unknown to the pattern: only the leading loop survives it
+                state = searchDfa.getEtatInitial();
+            } else if (!ancreFin && searchDfa.estAcceptant(state)) {
+                return true;
+            }
+        }
+        return searchDfa.estAcceptant(state);
+    }
+
+    @Override
+    public String highlight(String line) {
+        return surligneur.highlight(line);
+    }
+}
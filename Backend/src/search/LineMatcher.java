@@ -0,0 +1,29 @@
+package src.search;
+
+/**
+ * The {@code LineMatcher} interface is the contract shared by every search engine that can be
+ * driven line by line by {@link StreamingSearch}.
+ *
+ * <p>An engine only has to decide whether a line is selected and, when the line is printed,
+ * produce its highlighted form. It never sees the whole file, so the memory used by a search
+ * does not depend on the size of the input.</p>
+ */
+public interface LineMatcher {
+
+    /**
+     * Decides whether the given line contains the pattern.
+     *
+     * @param line The line to classify, without its line terminator.
+     * @return {@code true} if the line is selected, {@code false} otherwise.
+     */
+    boolean matches(String line);
+
+    /**
+     * Returns the line with the occurrences of the pattern highlighted.
+     * Only called on lines for which {@link #matches(String)} returned {@code true}.
+     *
+     * @param line The selected line.
+     * @return The line decorated with ANSI escape codes around each occurrence.
+     */
+    String highlight(String line);
+}
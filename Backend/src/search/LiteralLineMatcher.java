@@ -0,0 +1,90 @@
+package src.search;
+
+import src.KMPAlgorithm;
+import src.literal.LiteralMatcher;
+import src.literal.LiteralMatchers;
+
+/**
+ * The {@code LiteralLineMatcher} class adapts a {@link LiteralMatcher} to the {@link LineMatcher} interface.
+ * The pattern is searched as a literal string, by the engine chosen by {@link LiteralMatchers#select(String)}
+ * unless one is given.
+ */
+public class LiteralLineMatcher implements LineMatcher {
+
+    private final String pattern;
+    private final LiteralMatcher engine;
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+
+    /**
+     * Constructs a line matcher searching for a literal pattern with a given engine.
+     *
+     * @param pattern  The literal string to search for.
+     * @param engine   The engine searching the pattern.
+     * @param fullLine Whether the whole line must be equal to the pattern (-x).
+     */
+    public LiteralLineMatcher(String pattern, LiteralMatcher engine, boolean fullLine) {
+        this(pattern, engine, fullLine, fullLine);
+    }
+
+    /**
+     * Constructs a line matcher searching for a literal pattern with a given engine between line anchors.
+     *
+     * @param pattern    The literal string to search for.
+     * @param engine     The engine searching the pattern.
+     * @param ancreDebut Whether the pattern must start the line.
+     * @param ancreFin   Whether the pattern must end the line.
+     */
+    public LiteralLineMatcher(String pattern, LiteralMatcher engine, boolean ancreDebut, boolean ancreFin) {
+        this.pattern = pattern;
+        this.engine = engine;
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+    }
+
+    /**
+     * Constructs a line matcher searching for a literal pattern with the engine suited to it.
+     *
+     * @param pattern  The literal string to search for.
+     * @param fullLine Whether the whole line must be equal to the pattern (-x).
+     */
+    public LiteralLineMatcher(String pattern, boolean fullLine) {
+        this(pattern, LiteralMatchers.select(pattern), fullLine);
+    }
+
+    /**
+     * Returns the engine searching the pattern.
+     *
+     * @return The engine.
+     */
+    public LiteralMatcher getEngine() {
+        return engine;
+    }
+
+    @Override
+    public boolean matches(String line) {
+        if (ancreDebut) {
+            return ancreFin ? line.equals(pattern) : line.startsWith(pattern);
+        }
+        return ancreFin ? line.endsWith(pattern) : engine.indexOf(line, 0) >= 0;
+    }
+
+    @Override
+    public String highlight(String line) {
+        if (ancreDebut || ancreFin) {
+            int start = ancreDebut ? 0 : line.length() - pattern.length();
+            return line.substring(0, start) + KMPAlgorithm.GREEN + pattern + KMPAlgorithm.RESET
+                    + line.substring(start + pattern.length());
+        }
+        if (pattern.isEmpty()) {
+            return line;
+        }
+        StringBuilder sb = new StringBuilder(line.length() + 16);
+        int last = 0;
+        for (int i = engine.indexOf(line, 0); i >= 0; i = engine.indexOf(line, last)) {
+            sb.append(line, last, i).append(KMPAlgorithm.GREEN).append(pattern).append(KMPAlgorithm.RESET);
+            last = i + pattern.length();
+        }
+        return sb.append(line, last, line.length()).toString();
+    }
+}
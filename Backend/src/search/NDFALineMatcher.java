@@ -0,0 +1,74 @@
+package src.search;
+
+import src.DFASearch;
+import src.ndfa.CompactNDFA;
+import src.ndfa.NDFASimulation;
+
+/**
+ * The {@code NDFALineMatcher} class adapts an {@link NDFASimulation} to the {@link LineMatcher} interface.
+ * It selects and highlights the same lines as {@link DFALineMatcher}, without building any DFA.
+ */
+public class NDFALineMatcher implements LineMatcher {
+
+    private final NDFASimulation simulation;
+    private final boolean ancreDebut;
+    private final boolean ancreFin;
+
+    /**
+     * Constructs a line matcher simulating the given NDFA.
+     *
+     * @param ndfa     The NDFA of the pattern.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     */
+    public NDFALineMatcher(CompactNDFA ndfa, boolean fullLine) {
+        this(ndfa, fullLine, fullLine);
+    }
+
+    /**
+     * Constructs a line matcher simulating the given NDFA between line anchors.
+     *
+     * @param ndfa       The NDFA of the pattern.
+     * @param ancreDebut Whether a match must start at the beginning of the line.
+     * @param ancreFin   Whether a match must end at the end of the line.
+     */
+    public NDFALineMatcher(CompactNDFA ndfa, boolean ancreDebut, boolean ancreFin) {
+        this.simulation = new NDFASimulation(ndfa);
+        this.ancreDebut = ancreDebut;
+        this.ancreFin = ancreFin;
+    }
+
+    @Override
+    public boolean matches(String line) {
+        if (ancreDebut) {
+            return ancreFin ? simulation.accepte(line) : simulation.correspondAuDebut(line);
+        }
+        return ancreFin ? simulation.correspondALaFin(line) : simulation.contientCorrespondance(line);
+    }
+
+    @Override
+    public String highlight(String line) {
+        if (ancreDebut && ancreFin) {
+            return DFASearch.RED + DFASearch.BOLD + line + DFASearch.RESET;
+        }
+        if (ancreDebut) {
+            return DFASearch.highlightSpan(line, 0, simulation.finCorrespondance(line, 0));
+        }
+        if (ancreFin) {
+            int debut = simulation.debutCorrespondanceFinale(line);
+            return debut < 0 ? line : DFASearch.highlightSpan(line, debut, line.length());
+        }
+        StringBuilder highlightedLineBuilder = new StringBuilder();
+        int index = 0;
+        while (index < line.length()) {
+            int end = simulation.finCorrespondance(line, index);
+            if (end > index) {
+                highlightedLineBuilder.append(DFASearch.RED + DFASearch.BOLD).append(line, index, end).append(DFASearch.RESET);
+                index = end;
+            } else {
+                highlightedLineBuilder.append(line.charAt(index));
+                index++;
+            }
+        }
+        return highlightedLineBuilder.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package src.search;
+
+import src.literal.LiteralMatcher;
+
+/**
+ * The {@code PrefilteredLineMatcher} class puts a literal search in front of another
+ * {@link LineMatcher}: a line that does not contain a literal required by every match of the
+ * pattern is rejected without running the engine.
+ *
+ * <p>Most lines of a text usually lack the literal, and the literal engines skip through them
+ * faster than an automaton reads them. The engine only runs on the lines that contain it.</p>
+ */
+public class PrefilteredLineMatcher implements LineMatcher {
+
+    private final LiteralMatcher prefiltre;
+    private final LineMatcher moteur;
+
+    /**
+     * Constructs a prefiltered line matcher.
+     *
+     * @param prefiltre The engine searching a literal found in every match of the pattern.
+     * @param moteur    The engine deciding on the lines containing the literal.
+     */
+    public PrefilteredLineMatcher(LiteralMatcher prefiltre, LineMatcher moteur) {
+        this.prefiltre = prefiltre;
+        this.moteur = moteur;
+    }
+
+    @Override
+    public boolean matches(String line) {
+        return prefiltre.indexOf(line, 0) >= 0 && moteur.matches(line);
+    }
+
+    @Override
+    public String highlight(String line) {
+        return moteur.highlight(line);
+    }
+}
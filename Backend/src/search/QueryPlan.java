@@ -0,0 +1,142 @@
+package src.search;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The {@code QueryPlan} class is the immutable result of the planning of one pattern by
+ * {@link QueryPlanner}: the engine chosen to select the lines, the literal prefilter put in front of
+ * it if any, the estimated cost of the search, and the facts of the analysis that led to the choice.
+ */
+public class QueryPlan {
+
+    /**
+     * The engines a plan can choose, from the cheapest per character of text to the most costly.
+     */
+    public enum Engine {
+        /** A single literal string, searched by {@link src.literal.LiteralMatchers#select(String)}. */
+        LITERAL("literal"),
+        /** A small finite set of literal strings, searched by the DFA of the set (Aho-Corasick automaton). */
+        MULTI_LITERAL("multi-literal"),
+        /** The minimized DFAs of the pattern, compiled into tables before the search. */
+        DFA("dfa"),
+        /** The position automaton of a pattern of at most 64 positions, run with bit-parallel operations. */
+        BIT_PARALLEL("bit-parallel"),
+        /** A DFA built while the text is read, whose states are kept in a bounded cache. */
+        LAZY_DFA("lazy-dfa"),
+        /**
+         * The simulation of the NDFA, with counters for the large counted repetitions, or for the
+         * patterns too large for the cache of a lazy DFA.
+         */
+        NFA("nfa");
+
+        /** The name of the engine, as printed by {@code --explain}. */
+        public final String nom;
+
+        Engine(String nom) {
+            this.nom = nom;
+        }
+    }
+
+    /** The source of the pattern. */
+    public final String pattern;
+
+    private final Engine engine;
+    private final String prefiltre;
+    private final double cout;
+    private final List<String> analyse;
+    private final Supplier<LineMatcher> fabrique;
+    private final String erreur;
+
+    QueryPlan(String pattern, Engine engine, String prefiltre, double cout, List<String> analyse,
+              Supplier<LineMatcher> fabrique, String erreur) {
+        this.pattern = pattern;
+        this.engine = engine;
+        this.prefiltre = prefiltre;
+        this.cout = cout;
+        this.analyse = List.copyOf(analyse);
+        this.fabrique = fabrique;
+        this.erreur = erreur;
+    }
+
+    /**
+     * Returns the engine selecting the lines.
+     *
+     * @return The engine, or {@code null} if the pattern could not be compiled.
+     */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the literal every match contains, searched before running the engine on a line.
+     *
+     * @return The literal of the prefilter, or {@code null} if there is none.
+     */
+    public String getPrefiltre() {
+        return prefiltre;
+    }
+
+    /**
+     * Returns the estimated number of table reads per character of text, on the lines reaching
+     * the engine.
+     *
+     * @return The estimated cost per character.
+     */
+    public double getCout() {
+        return cout;
+    }
+
+    /**
+     * Returns the reason why the pattern could not be compiled.
+     *
+     * @return The error message, or {@code null} if the pattern was compiled.
+     */
+    public String getErreur() {
+        return erreur;
+    }
+
+    /**
+     * Tells whether the pattern was compiled.
+     *
+     * @return {@code true} if {@link #matcher()} can be called.
+     */
+    public boolean estCompile() {
+        return erreur == null;
+    }
+
+    /**
+     * Returns a line matcher running the plan. The engines keeping scratch state return a new
+     * matcher on each call, the others the same one.
+     *
+     * @return A line matcher for the pattern.
+     * @throws IllegalStateException If the pattern could not be compiled.
+     */
+    public LineMatcher matcher() {
+        if (erreur != null) {
+            throw new IllegalStateException("Pattern " + pattern + " was not compiled: " + erreur);
+        }
+        return fabrique.get();
+    }
+
+    /**
+     * Describes the plan as printed by {@code --explain}: the facts found on the syntax tree, the
+     * engine, the prefilter and the estimated cost.
+     *
+     * @return The description, one fact per line.
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder("plan for ").append(pattern).append('\n');
+        for (String fait : analyse) {
+            sb.append("  ").append(fait).append('\n');
+        }
+        if (erreur != null) {
+            return sb.append("  error: ").append(erreur).append('\n').toString();
+        }
+        sb.append("  engine: ").append(engine.nom).append('\n');
+        sb.append("  prefilter: ").append(prefiltre == null ? "none" : "literal \"" + prefiltre + "\"").append('\n');
+        sb.append(String.format("  estimated cost: %.2f table reads per character%s%n", cout,
+                prefiltre == null ? "" : " of the lines containing the prefilter"));
+        return sb.toString();
+    }
+}
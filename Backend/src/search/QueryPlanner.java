@@ -0,0 +1,358 @@
+package src.search;
+
+import src.dfa.BitParallelAutomaton;
+import src.dfa.BudgetExceededException;
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.literal.LiteralMatcher;
+import src.literal.LiteralMatchers;
+import src.ndfa.CompactNDFA;
+import src.regex.Motif;
+import src.regex.RegExSyntaxException;
+import src.regex.RegExTree;
+import src.regex.RegExTreeOptimizer;
+import src.regex.RegExTreeParser;
+import src.regex.Repetition;
+import src.stats.PhaseStats;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The {@code QueryPlanner} class chooses the engine that selects the lines of a pattern, from an
+ * analysis of its optimized syntax tree, so the user does not have to know the engines.
+ *
+ * <ol>
+ * <li>A pattern that is a single literal string, such as {@code Sargon} or {@code a\.b}, is searched
+ * by the literal engine suited to it, Horspool or Two-Way.</li>
+ * <li>A pattern holding a large counted repetition, such as {@code a.{0,500}b}, runs on the NDFA
+ * with counters, whose size does not depend on the bounds.</li>
+ * <li>A pattern whose language is a small finite set of words, such as {@code gr[ae]y|Babylon}, is
+ * searched by the minimized DFA of {@code .*R}, which is the Aho-Corasick automaton of the set.</li>
+ * <li>Otherwise the DFAs are compiled, as by {@link CompiledPattern}, but within a number of states
+ * proportional to the number of positions of the pattern: a DFA growing beyond it is exponential.
+ * The pattern then runs on the bit-parallel position automaton if it has at most
+ * {@link BitParallelAutomaton#MAX_POSITIONS} positions, on a lazy DFA if its cache clearly holds
+ * more states than the pattern has positions, and on the NDFA otherwise: a lazy DFA whose cache
+ * keeps being flushed rebuilds its states from the NDFA at each character.</li>
+ * </ol>
+ *
+ * <p>Whatever the engine, a literal that every match contains, such as {@code Sa} and {@code on} in
+ * {@code Sa(g|r)+on}, is searched first on each line: only the lines containing it reach the engine.
+ * The DFA only gets such a prefilter when the literal is long enough for Horspool to skip text.</p>
+ */
+public class QueryPlanner {
+
+    /** The largest number of words of a pattern searched as a set of literals. */
+    public static final int MAX_MOTS = 64;
+
+    /** The smallest number of DFA states the planning compilation may build. */
+    private static final int MIN_ETATS_PLANIFIES = 4096;
+
+    /** The number of DFA states the planning compilation may build per position of the pattern. */
+    private static final int ETATS_PAR_POSITION = 64;
+
+    /** The largest number of states kept in the cache of a lazy DFA. */
+    private static final int MAX_ETATS_PARESSEUX = 10_000;
+
+    /** The number of times the cache of a lazy DFA must hold the positions of the pattern. */
+    private static final int MARGE_CACHE = 4;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Plans the search of a pattern. This method keeps no state between two calls and is safe to
+     * call from several threads.
+     *
+     * @param pattern  The regular expression, possibly anchored with {@code ^} and {@code $}.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources the DFA compilation may use.
+     * @return The plan, possibly holding a compilation error instead of an engine.
+     */
+    public static QueryPlan plan(String pattern, boolean fullLine, CompileBudget budget) {
+        return plan(pattern, fullLine, budget, PhaseStats.DISABLED);
+    }
+
+    /**
+     * Plans the search of a pattern as {@link #plan(String, boolean, CompileBudget)} does, measuring
+     * each phase of the construction of the engine.
+     *
+     * @param pattern  The regular expression, possibly anchored with {@code ^} and {@code $}.
+     * @param fullLine Whether the whole line must be matched (-x) instead of a part of it.
+     * @param budget   The resources the DFA compilation may use.
+     * @param stats    The statistics the phases are added to, confined to the calling thread.
+     * @return The plan, possibly holding a compilation error instead of an engine.
+     */
+    public static QueryPlan plan(String pattern, boolean fullLine, CompileBudget budget, PhaseStats stats) {
+        List<String> analyse = new ArrayList<>();
+        Motif motif;
+        try {
+            motif = stats.measure(PhaseStats.PARSE, () -> {
+                Motif lu = RegExTreeParser.parseMotif(pattern);
+                return new Motif(RegExTreeOptimizer.optimize(lu.arbre), lu.ancreDebut, lu.ancreFin);
+            });
+        } catch (RegExSyntaxException e) {
+            return new QueryPlan(pattern, null, null, 0, analyse, null, e.getMessage());
+        }
+        boolean ancreDebut = fullLine || motif.ancreDebut;
+        boolean ancreFin = fullLine || motif.ancreFin;
+        RegExTree arbre = motif.arbre;
+        analyse.add("optimized tree: " + abreger(arbre.toString()));
+        analyse.add("anchors: " + (ancreDebut ? "start" : "-") + (ancreFin ? ", end" : ""));
+
+        String litteral = litteral(arbre);
+        if (litteral != null) {
+            analyse.add("pure literal: \"" + litteral + "\"");
+            LiteralMatcher moteur = LiteralMatchers.select(litteral);
+            analyse.add("literal engine: " + moteur.name());
+            LiteralLineMatcher matcher = new LiteralLineMatcher(litteral, moteur, ancreDebut, ancreFin);
+            double cout = moteur.name().equals("horspool") ? 1.0 / litteral.length() : 1.0;
+            return new QueryPlan(pattern, QueryPlan.Engine.LITERAL, null, cout, analyse, () -> matcher, null);
+        }
+
+        String requis = litteralRequis(arbre);
+        analyse.add("required literal: " + (requis.isEmpty() ? "none" : "\"" + requis + "\""));
+        LiteralMatcher prefiltre = requis.length() >= 2 ? LiteralMatchers.select(requis) : null;
+
+        if (Repetition.aCompteurs(arbre)) {
+            CompactNDFA ndfa = stats.measure(PhaseStats.NDFA, () -> CompactNDFA.avecCompteurs(arbre));
+            analyse.add("counted repetitions: " + ndfa.nombreCompteurs + " counter(s), " + ndfa.nombreEtats
+                    + " NDFA states");
+            return avecPrefiltre(pattern, QueryPlan.Engine.NFA, ndfa.nombreEtats, requis, prefiltre, analyse,
+                    () -> new NDFALineMatcher(ndfa, ancreDebut, ancreFin));
+        }
+
+        long positions = BitParallelAutomaton.nombrePositions(arbre);
+        analyse.add("positions: " + positions + (positions < 62 ? ", at most 2^" + positions + " DFA states" : ""));
+        List<String> mots = langageFini(arbre);
+        boolean ensemble = mots != null && mots.size() > 1 && !mots.contains("");
+        if (ensemble) {
+            analyse.add("literal set: " + mots.size() + " words");
+        }
+
+        int plafond = (int) Math.min(budget.maxEtats,
+                Math.max(MIN_ETATS_PLANIFIES, Math.min(Integer.MAX_VALUE, ETATS_PAR_POSITION * positions)));
+        CompileBudget budgetPlanifie = new CompileBudget(plafond, budget.maxOctetsTable, budget.maxMillis);
+        boolean ensemblesTropGrands;
+        try {
+            DFALineMatcher matcher = DFALineMatcher.compile(motif, fullLine,
+                    new CompileContext(budgetPlanifie, stats));
+            analyse.add("DFA: " + matcher.nombreEtats() + " states");
+            boolean horspool = prefiltre != null && prefiltre.name().equals("horspool");
+            return avecPrefiltre(pattern, ensemble ? QueryPlan.Engine.MULTI_LITERAL : QueryPlan.Engine.DFA, 1,
+                    requis, horspool ? prefiltre : null, analyse, () -> matcher);
+        } catch (BudgetExceededException e) {
+            analyse.add("DFA: abandoned, " + e.getMessage());
+            ensemblesTropGrands = e.isStateSetLimit();
+        } catch (IllegalArgumentException e) {
+            // Nested counted repetitions whose unrolled tree is too large
+            return new QueryPlan(pattern, null, null, 0, analyse, null, e.getMessage());
+        }
+
+        if (positions <= BitParallelAutomaton.MAX_POSITIONS) {
+            BitParallelAutomaton automate = stats.measure(PhaseStats.NDFA, () -> BitParallelAutomaton.build(arbre));
+            return avecPrefiltre(pattern, QueryPlan.Engine.BIT_PARALLEL, (positions + 7) / 8 + 1, requis,
+                    prefiltre, analyse, () -> new BitParallelLineMatcher(automate, ancreDebut, ancreFin));
+        }
+        CompactNDFA ndfa = stats.measure(PhaseStats.NDFA, () -> CompactNDFA.fromTree(arbre));
+        // Each cached state holds a row of the table and a set of NDFA states
+        long octetsParEtat = CompileBudget.OCTETS_PAR_ETAT + (ndfa.nombreEtats + 64) / 64 * Long.BYTES;
+        int cache = (int) Math.max(2, Math.min(MAX_ETATS_PARESSEUX,
+                Math.min(budget.maxEtats, budget.maxOctetsTable / octetsParEtat)));
+        analyse.add("lazy DFA cache: " + cache + " states");
+        // The states a line visits grow with the positions: a cache that cannot hold them is flushed
+        // over and over, and each state it rebuilds reads the NDFA states, as the simulation does
+        if (ensemblesTropGrands || positions * MARGE_CACHE > cache) {
+            analyse.add("lazy DFA: " + (ensemblesTropGrands ? "state sets over budget"
+                    : "cache below " + MARGE_CACHE + " states per position") + ", NFA simulation instead");
+            return avecPrefiltre(pattern, QueryPlan.Engine.NFA, ndfa.nombreEtats, requis, prefiltre, analyse,
+                    () -> new NDFALineMatcher(ndfa, ancreDebut, ancreFin));
+        }
+        CompactNDFA searchNdfa = ancreDebut ? null
+                : stats.measure(PhaseStats.NDFA, () -> CompactNDFA.fromSearchTree(arbre));
+        // A character misses the cache about as often as the positions fill it
+        double cout = 1 + (double) ndfa.nombreEtats * positions / cache;
+        return avecPrefiltre(pattern, QueryPlan.Engine.LAZY_DFA, cout, requis, prefiltre, analyse,
+                () -> new LazyDFALineMatcher(ndfa, searchNdfa, ancreDebut, ancreFin, cache));
+    }
+
+    private static QueryPlan avecPrefiltre(String pattern, QueryPlan.Engine engine, double cout, String requis,
+                                           LiteralMatcher prefiltre, List<String> analyse,
+                                           Supplier<LineMatcher> fabrique) {
+        if (prefiltre == null) {
+            return new QueryPlan(pattern, engine, null, cout, analyse, fabrique, null);
+        }
+        analyse.add("prefilter engine: " + prefiltre.name());
+        return new QueryPlan(pattern, engine, requis, cout, analyse,
+                () -> new PrefilteredLineMatcher(prefiltre, fabrique.get()), null);
+    }
+
+    /**
+     * Returns the literal a pattern is made of, if it is a concatenation of single symbols.
+     *
+     * @param pattern The regular expression.
+     * @return The literal, or {@code null} if the pattern is invalid, anchored or not a literal.
+     */
+    public static String litteral(String pattern) {
+        try {
+            Motif motif = RegExTreeParser.parseMotif(pattern);
+            return motif.ancreDebut || motif.ancreFin ? null : litteral(RegExTreeOptimizer.optimize(motif.arbre));
+        } catch (RegExSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the literal a tree is made of, if it is a concatenation of single symbols.
+     */
+    private static String litteral(RegExTree arbre) {
+        StringBuilder sb = new StringBuilder();
+        for (RegExTree facteur : facteurs(arbre)) {
+            int symbole = symbole(facteur);
+            if (symbole < 0) {
+                return null;
+            }
+            sb.append((char) symbole);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the longest run of single symbols of the top-level concatenation of a tree, which
+     * every match contains. {@code R+} and {@code R{m,n}} with {@code m >= 1} of a single symbol
+     * contain the symbol once, and end the run.
+     */
+    private static String litteralRequis(RegExTree arbre) {
+        String meilleur = "";
+        StringBuilder run = new StringBuilder();
+        for (RegExTree facteur : facteurs(arbre)) {
+            int symbole = symbole(facteur);
+            if (symbole >= 0) {
+                run.append((char) symbole);
+                continue;
+            }
+            boolean auMoinsUne = !facteur.isLeaf() && (facteur.getRoot() == RegExTreeParser.PLUS
+                    || facteur instanceof Repetition repetition && repetition.min >= 1);
+            int repete = auMoinsUne ? symbole(facteur.subTrees.get(0)) : -1;
+            if (repete >= 0) {
+                run.append((char) repete);
+            }
+            if (run.length() > meilleur.length()) {
+                meilleur = run.toString();
+            }
+            run.setLength(0);
+        }
+        return run.length() > meilleur.length() ? run.toString() : meilleur;
+    }
+
+    /**
+     * Returns the finite language of a tree, if it has at most {@link #MAX_MOTS} words.
+     * The tree is walked in post-order with an explicit stack.
+     *
+     * @return The words, or {@code null} if the language is infinite or too large.
+     */
+    private static List<String> langageFini(RegExTree arbre) {
+        List<RegExTree> noeuds = new ArrayList<>();
+        Deque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbre);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            noeuds.add(noeud);
+            for (RegExTree sousArbre : noeud.subTrees) {
+                aVisiter.push(sousArbre);
+            }
+        }
+        Collections.reverse(noeuds);
+
+        Map<RegExTree, Set<String>> langages = new IdentityHashMap<>();
+        for (RegExTree noeud : noeuds) {
+            Set<String> langage = new LinkedHashSet<>();
+            int racine = noeud.getRoot();
+            if (noeud.isLeaf()) {
+                int[] intervalles = noeud.intervalles();
+                for (int i = 0; i < intervalles.length; i += 2) {
+                    for (int s = intervalles[i]; s <= intervalles[i + 1] && langage.size() <= MAX_MOTS; s++) {
+                        langage.add(Character.toString((char) s));
+                    }
+                }
+            } else if (racine == RegExTreeParser.CONCAT) {
+                Set<String> gauche = langages.get(noeud.subTrees.get(0));
+                Set<String> droite = langages.get(noeud.subTrees.get(1));
+                if (gauche == null || droite == null || (long) gauche.size() * droite.size() > MAX_MOTS) {
+                    return null;
+                }
+                for (String debut : gauche) {
+                    for (String fin : droite) {
+                        langage.add(debut + fin);
+                    }
+                }
+            } else if (racine == RegExTreeParser.ALTERN) {
+                Set<String> gauche = langages.get(noeud.subTrees.get(0));
+                Set<String> droite = langages.get(noeud.subTrees.get(1));
+                if (gauche == null || droite == null) {
+                    return null;
+                }
+                langage.addAll(gauche);
+                langage.addAll(droite);
+            } else if (racine == RegExTreeParser.OPTION && !(noeud instanceof Repetition)) {
+                Set<String> operande = langages.get(noeud.subTrees.get(0));
+                if (operande == null) {
+                    return null;
+                }
+                langage.add("");
+                langage.addAll(operande);
+            } else {
+                // Stars, pluses and counted repetitions are left to the automata
+                return null;
+            }
+            if (langage.isEmpty() || langage.size() > MAX_MOTS) {
+                return null;
+            }
+            langages.put(noeud, langage);
+        }
+        return new ArrayList<>(langages.get(arbre));
+    }
+
+    /**
+     * Lists the factors of the top-level concatenation of a tree, from left to right.
+     */
+    private static List<RegExTree> facteurs(RegExTree arbre) {
+        List<RegExTree> facteurs = new ArrayList<>();
+        Deque<RegExTree> aVisiter = new ArrayDeque<>();
+        aVisiter.push(arbre);
+        while (!aVisiter.isEmpty()) {
+            RegExTree noeud = aVisiter.pop();
+            if (!noeud.isLeaf() && noeud.getRoot() == RegExTreeParser.CONCAT) {
+                aVisiter.push(noeud.subTrees.get(1));
+                aVisiter.push(noeud.subTrees.get(0));
+            } else {
+                facteurs.add(noeud);
+            }
+        }
+        return facteurs;
+    }
+
+    /**
+     * Returns the symbol matched by a leaf matching a single symbol, or -1.
+     */
+    private static int symbole(RegExTree arbre) {
+        if (!arbre.isLeaf()) {
+            return -1;
+        }
+        int[] intervalles = arbre.intervalles();
+        return intervalles.length == 2 && intervalles[0] == intervalles[1] ? intervalles[0] : -1;
+    }
+
+    private static String abreger(String texte) {
+        return texte.length() <= 80 ? texte : texte.substring(0, 77) + "...";
+    }
+}
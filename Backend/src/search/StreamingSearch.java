@@ -0,0 +1,55 @@
+package src.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * The {@code StreamingSearch} class drives a {@link LineMatcher} over an input read line by line.
+ *
+ * <p>Only the current line (plus the bounded context buffer of the {@link ContextPrinter}) is held
+ * in memory, so a search over a file of any size runs in constant memory, unlike splitting the
+ * whole text with {@code text.split("\n")}.</p>
+ */
+public class StreamingSearch {
+
+    /**
+     * Searches every line of the reader and hands the result to the printer.
+     *
+     * @param reader  The source of the lines to search.
+     * @param matcher The engine deciding which lines are selected.
+     * @param printer The printer receiving the selected lines and their context.
+     * @return The number of selected lines.
+     * @throws IOException If there is an error while reading the input.
+     */
+    public static int search(BufferedReader reader, LineMatcher matcher, ContextPrinter printer) throws IOException {
+        return search(reader, matcher, printer, false);
+    }
+
+    /**
+     * Searches every line of the reader and hands the result to the printer.
+     * In inverted mode (-v), the same classification is run and the lines that do not match are selected;
+     * they are printed as they are, since there is nothing to highlight in them.
+     *
+     * @param reader  The source of the lines to search.
+     * @param matcher The engine deciding which lines match.
+     * @param printer The printer receiving the selected lines and their context.
+     * @param invert  Whether to select the lines that do not match.
+     * @return The number of selected lines.
+     * @throws IOException If there is an error while reading the input.
+     */
+    public static int search(BufferedReader reader, LineMatcher matcher, ContextPrinter printer, boolean invert) throws IOException {
+        int matchedLinesCount = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            boolean selected = matcher.matches(line) != invert;
+            String rendered = null;
+            if (selected) {
+                matchedLinesCount++;
+                rendered = invert ? line : matcher.highlight(line);
+            }
+            printer.accept(lineNumber++, line, selected, rendered);
+        }
+        return matchedLinesCount;
+    }
+}
@@ -0,0 +1,266 @@
+package src.stats;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code PhaseStats} class records what each phase of a compilation or of a search costs: its
+ * wall-clock time, the bytes allocated by the thread running it, the garbage collections that ran
+ * meanwhile and the peak of the heap used.
+ *
+ * <p>A phase is measured each time its code runs through {@link #measure}, and the measures of a
+ * phase that runs several times, such as the determinisation of the two DFAs of a pattern, add up;
+ * the peak heap is the highest one. The phases are named by the constants of this class.</p>
+ *
+ * <p>The allocated bytes only count the current thread, and are exact. The collections and their
+ * pause time are those of the whole JVM, as reported by its collectors. The heap used only drops
+ * when a collection runs, so its peak during the phase is the highest of the heap used at the start
+ * and at the end of the phase and just before each collection that ran meanwhile, as reported by the
+ * notifications of the collectors. Like a {@code CompileContext}, a
+ * {@code PhaseStats} is confined to one thread, and its phases must not be nested.</p>
+ *
+ * <p>{@link #DISABLED} runs the phases without measuring them, at no cost, and is the default of
+ * the compilations that are not instrumented.</p>
+ */
+public class PhaseStats {
+
+    /** The parsing of the pattern into its optimized syntax tree. */
+    public static final String PARSE = "parse";
+
+    /** The construction of the NDFA, or of another automaton, from the syntax tree. */
+    public static final String NDFA = "parseTreeToNDFA";
+
+    /** The subset construction of the DFA. */
+    public static final String DETERMINISE = "determinise";
+
+    /** The minimization of the DFA. */
+    public static final String MINIMIZE = "minimize";
+
+    /** The search of the lines of the input. */
+    public static final String SEARCH = "search";
+
+    /** Statistics that measure nothing. */
+    public static final PhaseStats DISABLED = new PhaseStats(false);
+
+    /**
+     * An operation measured as a phase, which may throw a checked exception.
+     *
+     * @param <T> The type of the result of the operation.
+     * @param <E> The type of the exception thrown by the operation.
+     */
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+
+        /**
+         * Runs the operation.
+         *
+         * @return The result of the operation.
+         * @throws E If the operation fails.
+         */
+        T run() throws E;
+    }
+
+    /**
+     * The measures of a phase, added up over its runs.
+     *
+     * @param name           The name of the phase.
+     * @param runs           The number of times the phase ran.
+     * @param nanos          The wall-clock time of the phase, in nanoseconds.
+     * @param allocatedBytes The bytes allocated by the thread during the phase.
+     * @param gcCount        The number of garbage collections during the phase.
+     * @param gcMillis       The time spent in these collections, in milliseconds.
+     * @param peakHeapBytes  The highest heap used during a run of the phase, in bytes.
+     */
+    public record Phase(String name, int runs, long nanos, long allocatedBytes, long gcCount, long gcMillis,
+                        long peakHeapBytes) {
+
+        private Phase add(Phase other) {
+            return new Phase(name, runs + other.runs, nanos + other.nanos, allocatedBytes + other.allocatedBytes,
+                    gcCount + other.gcCount, gcMillis + other.gcMillis, Math.max(peakHeapBytes, other.peakHeapBytes));
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private boolean running;
+
+    /**
+     * Creates empty statistics, which measure the phases run through them.
+     */
+    public PhaseStats() {
+        this(true);
+    }
+
+    private PhaseStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs an operation as a run of a phase and adds its measures to those of the phase.
+     *
+     * @param phase     The name of the phase, one of the constants of this class.
+     * @param operation The code of the phase.
+     * @param <T>       The type of the result of the operation.
+     * @param <E>       The type of the exception thrown by the operation.
+     * @return The result of the operation.
+     * @throws E                     If the operation fails; its run is measured all the same.
+     * @throws IllegalStateException If another phase is running.
+     */
+    public <T, E extends Exception> T measure(String phase, Operation<T, E> operation) throws E {
+        if (!enabled) {
+            return operation.run();
+        }
+        if (running) {
+            throw new IllegalStateException("Phase " + phase + " started within another phase");
+        }
+        running = true;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        PeakListener listener = new PeakListener(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+        }
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        try {
+            return operation.run();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+            long collections = gcCount() - gcCount;
+            listener.sample(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+            long peak = listener.peak(collections);
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) gc).removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    // Not registered on this collector, nothing to remove
+                }
+            }
+            phases.merge(phase, new Phase(phase, 1, nanos, allocated, collections, gcMillis() - gcMillis, peak),
+                    Phase::add);
+            running = false;
+        }
+    }
+
+    /**
+     * Returns the measures of the phases that ran.
+     *
+     * @return The phases, in the order of their first run.
+     */
+    public List<Phase> phases() {
+        return new ArrayList<>(phases.values());
+    }
+
+    /**
+     * Formats the measures of the phases as a table, one line per phase.
+     *
+     * @return The table, ending with a line terminator.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("%-16s %5s %10s %15s %5s %11s %15s%n", "phase", "runs",
+                "time(ms)", "allocated(KiB)", "GCs", "GC time(ms)", "peak heap(KiB)"));
+        for (Phase phase : phases.values()) {
+            sb.append(String.format("%-16s %5d %10.3f %15d %5d %11d %15d%n", phase.name(), phase.runs(),
+                    phase.nanos() / 1e6, phase.allocatedBytes() / 1024, phase.gcCount(), phase.gcMillis(),
+                    phase.peakHeapBytes() / 1024));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records the highest heap used during a phase from the samples taken at its start and end, and
+     * from the heap used before each collection, which the collectors notify on a thread of their own.
+     */
+    private static class PeakListener implements NotificationListener {
+
+        /** The longest wait for the notifications of the collections of the phase, in milliseconds. */
+        private static final long MAX_WAIT_MILLIS = 100;
+
+        private final Set<String> heapPools = new HashSet<>();
+        private final AtomicLong peak;
+        private final AtomicLong notified = new AtomicLong();
+
+        private PeakListener(long used) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            this.peak = new AtomicLong(used);
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = 0;
+            for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageBeforeGc().entrySet()) {
+                if (heapPools.contains(pool.getKey())) {
+                    used += pool.getValue().getUsed();
+                }
+            }
+            sample(used);
+            notified.incrementAndGet();
+        }
+
+        private void sample(long used) {
+            peak.accumulateAndGet(used, Math::max);
+        }
+
+        /**
+         * Returns the peak once the given number of collections have been notified, or after a
+         * short wait for those whose notification is late.
+         */
+        private long peak(long collections) {
+            long deadline = System.nanoTime() + MAX_WAIT_MILLIS * 1_000_000;
+            while (notified.get() < collections && System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return peak.get();
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,82 @@
+package test.derivative;
+
+import org.junit.jupiter.api.Test;
+import src.derivative.DerivativeDFABuilder;
+import src.derivative.Term;
+import src.derivative.TermFactory;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import test.util.Texts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code DerivativeDFABuilder} and {@code TermFactory} classes.
+ */
+public class DerivativeDFABuilderTest {
+
+    @Test
+    public void testSameLanguageAsThompsonPipeline() {
+        String[] regexes = {"a", "ab", "a|b", "a*", "a+", "(a|b)*abb", "(a|b)*a(a|b)(a|b)", "a*b*",
+                "(ab|c)+", "(a*|b)c", "a.c", ".*", "(a|bc)*(c|ab)*", "((a|b)*c)+a",
+                "a?b", "(ab)?c?", "[ab]*c", "[^a]b?", "(a|[bc])+a?",
+                "a{2}", "(ab){1,2}", "[ab]{0,3}c", "a{2,}b"};
+        for (String regex : regexes) {
+            RegExTree tree = RegExTreeParser.parse(regex);
+            DFATable thompson = DFATable.compile(DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree)));
+            DFATable derivatives = DFATable.compile(DerivativeDFABuilder.build(tree));
+
+            for (String word : Texts.words("abc", 6)) {
+                assertEquals(thompson.accepte(word), derivatives.accepte(word), regex + " on \"" + word + "\"");
+            }
+        }
+    }
+
+    @Test
+    public void testCloseToMinimal() {
+        String[] regexes = {"(a|b)*abb", "S(a|g|r)+on", "(ab|ab)*", "a*a*a*"};
+        for (String regex : regexes) {
+            RegExTree tree = RegExTreeParser.parse(regex);
+            int minimal = DFATable.compile(DFAMinimization.minimize(
+                    DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree)))).nombreEtats();
+
+            assertEquals(minimal, DFATable.compile(DerivativeDFABuilder.build(tree)).nombreEtats(), regex);
+        }
+    }
+
+    @Test
+    public void testSmartConstructors() {
+        TermFactory factory = new TermFactory();
+        Term a = factory.symbole('a');
+        Term b = factory.symbole('b');
+
+        // Alternation modulo associativity, commutativity and idempotence
+        assertSame(factory.altern(a, b), factory.altern(b, a));
+        assertSame(factory.altern(a, factory.altern(b, a)), factory.altern(b, a));
+        assertSame(a, factory.altern(a, factory.vide));
+
+        // Simplification of ε and ∅
+        assertSame(a, factory.concat(factory.epsilon, a));
+        assertSame(factory.vide, factory.concat(a, factory.vide));
+        assertSame(factory.etoile(a), factory.etoile(factory.etoile(a)));
+        assertSame(factory.epsilon, factory.etoile(factory.vide));
+
+        // Concatenations are right-associated
+        assertSame(factory.concat(a, factory.concat(b, a)), factory.concat(factory.concat(a, b), a));
+    }
+
+    @Test
+    public void testDerivative() {
+        TermFactory factory = new TermFactory();
+        Term term = factory.depuis(RegExTreeParser.parse("ab*"));
+
+        Term afterA = factory.deriver(term, 'a');
+        assertTrue(afterA.isNullable());
+        assertSame(afterA, factory.deriver(afterA, 'b'));
+        assertSame(factory.vide, factory.deriver(term, 'b'));
+    }
+}
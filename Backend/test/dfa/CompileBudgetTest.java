@@ -0,0 +1,88 @@
+package test.dfa;
+
+import etudeExp.PatternFamilies;
+import org.junit.jupiter.api.Test;
+import src.dfa.BudgetExceededException;
+import src.dfa.CompileBudget;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTreeParser;
+import src.search.CompiledPattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code CompileBudget} class and its use by the determinisation.
+ */
+public class CompileBudgetTest {
+
+    /**
+     * Helper method building the pattern (a|b)*a(a|b)...(a|b), whose DFA has 2^(n+1) states.
+     */
+    private NDFA buildExponentialNDFA(int n) {
+        return NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(PatternFamilies.exponential(n)));
+    }
+
+    @Test
+    public void testStateBudgetExceeded() {
+        CompileBudget budget = new CompileBudget(100, Long.MAX_VALUE, Long.MAX_VALUE);
+        NDFA ndfa = buildExponentialNDFA(10);
+
+        BudgetExceededException e = assertThrows(BudgetExceededException.class,
+                () -> DFADeterminisation.determinise(ndfa, budget.start()));
+        assertEquals("determinisation", e.getPhase());
+        assertTrue(e.getMessage().contains("101 DFA states"));
+    }
+
+    @Test
+    public void testTableBudgetExceeded() {
+        CompileBudget budget = new CompileBudget(Integer.MAX_VALUE, 10 * CompileBudget.OCTETS_PAR_ETAT, Long.MAX_VALUE);
+        NDFA ndfa = buildExponentialNDFA(10);
+
+        BudgetExceededException e = assertThrows(BudgetExceededException.class,
+                () -> DFADeterminisation.determinise(ndfa, budget.start()));
+        assertTrue(e.getMessage().contains("byte table"));
+    }
+
+    @Test
+    public void testWithinBudget() {
+        CompileBudget budget = new CompileBudget(100, Long.MAX_VALUE, 60_000);
+        DFA dfa = DFADeterminisation.determinise(buildExponentialNDFA(3), budget.start());
+
+        assertNotNull(dfa);
+        assertFalse(dfa.etatAcceptant.isEmpty());
+    }
+
+    @Test
+    public void testAdversarialPatternsFallBack() {
+        CompileBudget budget = new CompileBudget(500, Long.MAX_VALUE, 60_000);
+        String alphabet = "abcdefghijklmnopqrstuvwxyz".repeat(40);
+        String[][] cases = {
+                {"exponential-16", "ba" + "b".repeat(16)},
+                {"dictionary-1000", "x" + PatternFamilies.byName("dictionary-1000").substring(0, 8) + "x"},
+                {"dotstar-1000", alphabet},
+        };
+        for (String[] c : cases) {
+            CompiledPattern pattern = CompiledPattern.compile(PatternFamilies.byName(c[0]), false, budget);
+            assertNotNull(pattern.getRepli(), c[0]);
+            assertTrue(pattern.matcher().matches(c[1]), c[0]);
+            assertFalse(pattern.matcher().matches("zzz"), c[0]);
+        }
+    }
+
+    @Test
+    public void testDeepNestingWithinBudget() {
+        // The pattern matches the empty word, so only the full-line mode rejects lines
+        CompiledPattern pattern = CompiledPattern.compile(PatternFamilies.nested(200), true, CompileBudget.DEFAUT);
+        assertNull(pattern.getRepli());
+        assertTrue(pattern.matcher().matches("xabcz"));
+        assertFalse(pattern.matcher().matches("xab-"));
+    }
+
+    @Test
+    public void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new CompileBudget(0, 1, 1));
+    }
+}
@@ -147,4 +147,23 @@ public class DFADeterminisationTest {
         System.out.println(dfaMin.etatInitial.transitions);
     }
 
+    @Test
+    public void testRangeSplitting() {
+        // "a.c": after 'a', the DOT range is split around nothing and stays a single range transition
+        DFA dfa = DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse("a.c")));
+        DFA.Etat stateAfterA = (DFA.Etat) dfa.etatInitial.obtenirTransition('a').iterator().next();
+
+        assertTrue(stateAfterA.transitions.isEmpty());
+        assertEquals(1, stateAfterA.getIntervalles().size());
+        assertEquals(0, stateAfterA.getIntervalles().get(0).bas);
+        assertEquals(255, stateAfterA.getIntervalles().get(0).haut);
+
+        // "(.|b)c": 'b' is split out of the DOT range, the pieces around it go to the same state
+        dfa = DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse("(.|b)c")));
+        NDFA.Etat afterB = dfa.etatInitial.obtenirTransition('b').iterator().next();
+        NDFA.Etat afterX = dfa.etatInitial.obtenirTransition('x').iterator().next();
+        assertNotSame(afterB, afterX);
+        assertSame(afterX, dfa.etatInitial.obtenirTransition('a').iterator().next());
+        assertEquals(2, dfa.etatInitial.getIntervalles().size());
+    }
 }
@@ -0,0 +1,69 @@
+package test.dfa;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTreeParser;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code DFAMinimization} class.
+ */
+public class DFAMinimizationTest {
+
+    /**
+     * Helper method building the DFA of a regex, before minimization.
+     */
+    private DFA buildDFA(String regex) {
+        return DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(regex)));
+    }
+
+    @Test
+    public void testSameResultAsMoore() {
+        String[] regexes = {"a|b", "(a|b)*abb", "S(a|g|r)+on", "(a|b)*a(a|b)(a|b)(a|b)", "ab*c|ab*d", "S.*a.*r"};
+        String[] inputs = {"", "a", "abb", "babb", "Sargon", "Son", "abbbc", "abd", "aaba", "Sxxaxr"};
+        for (String regex : regexes) {
+            DFA dfa = buildDFA(regex);
+            DFATable hopcroft = DFATable.compile(DFAMinimization.minimize(dfa));
+            DFATable moore = DFATable.compile(DFAMinimization.minimizeMoore(dfa));
+
+            assertEquals(moore.nombreEtats(), hopcroft.nombreEtats(), regex);
+            for (String input : inputs) {
+                assertEquals(moore.accepte(input), hopcroft.accepte(input), regex + " on \"" + input + "\"");
+            }
+        }
+    }
+
+    @Test
+    public void testKnownSizes() {
+        assertEquals(4, DFATable.compile(DFAMinimization.minimize(buildDFA("(a|b)*abb"))).nombreEtats());
+        assertEquals(16, DFATable.compile(DFAMinimization.minimize(buildDFA("(a|b)*a(a|b)(a|b)(a|b)"))).nombreEtats());
+    }
+
+    @Test
+    public void testDeadStatesRemoved() {
+        // State 1 cannot reach the accepting state 2
+        DFA.Etat s0 = new DFA.Etat();
+        DFA.Etat s1 = new DFA.Etat();
+        DFA.Etat s2 = new DFA.Etat();
+        s0.ajouterTransition('a', s1);
+        s0.ajouterTransition('b', s2);
+        s1.ajouterTransition('a', s1);
+        Set<DFA.Etat> accepting = new HashSet<>();
+        accepting.add(s2);
+
+        DFA minimized = DFAMinimization.minimize(new DFA(s0, accepting));
+        assertNull(minimized.etatInitial.obtenirTransition('a'));
+        Set<NDFA.Etat> next = minimized.etatInitial.obtenirTransition('b');
+        assertTrue(minimized.etatAcceptant.contains(next.iterator().next()));
+        assertEquals(2, DFATable.compile(minimized).nombreEtats());
+    }
+}
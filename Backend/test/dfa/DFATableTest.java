@@ -0,0 +1,68 @@
+package test.dfa;
+
+import org.junit.jupiter.api.Test;
+import src.DFASearch;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.search.DFALineMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code DFATable} class and the table-based line classification.
+ */
+public class DFATableTest {
+
+    /**
+     * Helper method building the minimized DFA of a regex.
+     */
+    private DFA buildDFA(String regex) {
+        RegExTree tree = RegExTreeParser.parse(regex);
+        return DFAMinimization.minimize(DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree)));
+    }
+
+    @Test
+    public void testTableAgreesWithDFA() {
+        DFA dfa = buildDFA("S(a|g|r)+on");
+        DFATable table = DFATable.compile(dfa);
+
+        String[] inputs = {"Sargon", "Sagon", "Son", "Sargonx", "", "S", "Saaaaon"};
+        for (String input : inputs) {
+            assertEquals(DFASearch.isAcceptedByDFA(dfa, input), DFASearch.isAcceptedByDFA(table, input), input);
+        }
+    }
+
+    @Test
+    public void testSymbolsAboveAscii() {
+        DFATable table = DFATable.compile(buildDFA("ab"));
+
+        // Symbols outside of the ASCII table have no transition
+        assertFalse(table.accepte("a€b"));
+        assertEquals(DFATable.MORT, table.suivant(table.getEtatInitial(), '€'));
+    }
+
+    @Test
+    public void testLineClassification() {
+        DFALineMatcher matcher = DFALineMatcher.compile(RegExTreeParser.parse("S(a|g|r)+on"), false);
+
+        assertTrue(matcher.matches("the reign of Sargon of Akkad"));
+        assertTrue(matcher.matches("Sargon"));
+        assertTrue(matcher.matches("…Sagon…"));
+        assertFalse(matcher.matches("the reign of Sxon"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testFullLineClassification() {
+        DFALineMatcher matcher = DFALineMatcher.compile(RegExTreeParser.parse("S(a|g|r)+on"), true);
+
+        assertTrue(matcher.matches("Sargon"));
+        assertFalse(matcher.matches("Sargon of Akkad"));
+        assertFalse(matcher.matches(" Sargon"));
+    }
+}
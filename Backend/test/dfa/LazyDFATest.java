@@ -0,0 +1,85 @@
+package test.dfa;
+
+import org.junit.jupiter.api.Test;
+import src.DFASearch;
+import src.dfa.BitParallelAutomaton;
+import src.dfa.CompileBudget;
+import src.dfa.CompileContext;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.dfa.LazyDFA;
+import src.minimization.DFAMinimization;
+import src.ndfa.CompactNDFA;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import test.util.Texts;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code LazyDFA} and {@code BitParallelAutomaton} classes, which run a pattern
+ * without building its whole DFA.
+ */
+public class LazyDFATest {
+
+    private static final String[] PATTERNS = {"ab", "a.c", "(a|b)*a(a|b){3}", "(ab)+c?", "a*", "c(a|b){2,5}c",
+            "[^a]b|ba*c"};
+
+    /**
+     * Helper method running a lazy DFA over the whole input.
+     */
+    private boolean accepte(LazyDFA dfa, String input) {
+        int etat = dfa.getEtatInitial();
+        for (int i = 0; i < input.length() && etat != LazyDFA.MORT; i++) {
+            etat = dfa.suivant(etat, input.charAt(i));
+        }
+        return etat != LazyDFA.MORT && dfa.estAcceptant(etat);
+    }
+
+    @Test
+    public void testAgreesWithDFATable() {
+        Random random = new Random(44);
+        for (String pattern : PATTERNS) {
+            RegExTree tree = RegExTreeParser.parse(pattern);
+            CompactNDFA ndfa = CompactNDFA.fromTree(tree);
+            DFATable table = DFATable.compile(DFAMinimization.minimize(DFADeterminisation.determinise(ndfa,
+                    new CompileContext(CompileBudget.ILLIMITE))));
+            LazyDFA grand = new LazyDFA(ndfa, 1000);
+            LazyDFA petit = new LazyDFA(ndfa, 2);
+            BitParallelAutomaton automate = BitParallelAutomaton.build(tree);
+            for (int i = 0; i < 500; i++) {
+                String input = Texts.randomText(random, random.nextInt(12), "abc");
+                boolean attendu = DFASearch.isAcceptedByDFA(table, input);
+                assertEquals(attendu, accepte(grand, input), pattern + " on \"" + input + "\"");
+                assertEquals(attendu, accepte(petit, input), pattern + " on \"" + input + "\" (cache of 2)");
+                assertEquals(attendu, automate.accepte(input), pattern + " on \"" + input + "\" (bit-parallel)");
+            }
+            assertEquals(0, grand.getVidages());
+        }
+    }
+
+    @Test
+    public void testCacheStaysBounded() {
+        // The DFA of (a|b)*a(a|b){12} has 2^13 states, which a varied input reaches
+        LazyDFA dfa = new LazyDFA(CompactNDFA.fromTree(RegExTreeParser.parse("(a|b)*a(a|b){12}")), 64);
+        Random random = new Random(44);
+        int etat = dfa.getEtatInitial();
+        for (int i = 0; i < 10_000; i++) {
+            etat = dfa.suivant(etat, random.nextBoolean() ? 'a' : 'b');
+            assertTrue(dfa.nombreEtats() <= 64);
+        }
+        assertTrue(dfa.getVidages() > 0);
+    }
+
+    @Test
+    public void testPositionLimits() {
+        assertEquals(14, BitParallelAutomaton.nombrePositions(RegExTreeParser.parse("[ab]*a[ab]{12}")));
+        assertEquals(Long.MAX_VALUE, BitParallelAutomaton.nombrePositions(
+                RegExTreeParser.parse("((((a{30000}){30000}){30000}){30000}){30000}")));
+        assertThrows(IllegalArgumentException.class, () -> BitParallelAutomaton.build(RegExTreeParser.parse("a{65}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LazyDFA(CompactNDFA.avecCompteurs(RegExTreeParser.parse("a.{0,500}b")), 10));
+    }
+}
@@ -0,0 +1,62 @@
+package test.dfa;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.dfa.DFATable;
+import src.dfa.PositionDFABuilder;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import test.util.Texts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code PositionDFABuilder} class.
+ */
+public class PositionDFABuilderTest {
+
+    /**
+     * Helper method checking that the position DFA and the Thompson pipeline agree on every short word.
+     */
+    private void assertSameLanguage(String regex) {
+        RegExTree tree = RegExTreeParser.parse(regex);
+        DFATable thompson = DFATable.compile(DFADeterminisation.determinise(NDFAParser.parseTreeToNDFA(tree)));
+        DFATable positions = DFATable.compile(PositionDFABuilder.build(tree));
+
+        for (String word : Texts.words("abc", 6)) {
+            assertEquals(thompson.accepte(word), positions.accepte(word), regex + " on \"" + word + "\"");
+        }
+    }
+
+    @Test
+    public void testSameLanguageAsThompsonPipeline() {
+        String[] regexes = {"a", "ab", "a|b", "a*", "a+", "(a|b)*abb", "(a|b)*a(a|b)(a|b)", "a*b*",
+                "(ab|c)+", "(a*|b)c", "a.c", ".*", "(a|bc)*(c|ab)*", "((a|b)*c)+a",
+                "a?b", "(ab)?c?", "[ab]*c", "[^a]b?", "(a|[bc])+a?",
+                "a{2}", "(ab){1,2}", "[ab]{0,3}c", "a{2,}b"};
+        for (String regex : regexes) {
+            assertSameLanguage(regex);
+        }
+    }
+
+    @Test
+    public void testNullablePattern() {
+        DFATable table = DFATable.compile(PositionDFABuilder.build(RegExTreeParser.parse("a*")));
+
+        assertTrue(table.accepte(""));
+        assertTrue(table.accepte("aaa"));
+        assertFalse(table.accepte("b"));
+    }
+
+    @Test
+    public void testDragonBookExample() {
+        // (a|b)*abb gives 4 states without minimization with the followpos construction
+        DFA dfa = PositionDFABuilder.build(RegExTreeParser.parse("(a|b)*abb"));
+
+        assertEquals(4, DFATable.compile(dfa).nombreEtats());
+        assertEquals(4, DFATable.compile(DFAMinimization.minimize(dfa)).nombreEtats());
+    }
+}
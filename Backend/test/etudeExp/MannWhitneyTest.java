@@ -0,0 +1,62 @@
+package test.etudeExp;
+
+import etudeExp.MannWhitney;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code MannWhitney} class.
+ */
+public class MannWhitneyTest {
+
+    @Test
+    public void testClearlyGreaterSample() {
+        long[] before = {100, 102, 98, 101, 99, 100, 103, 97, 100, 101};
+        long[] after = {130, 128, 131, 127, 135, 129, 130, 132, 126, 131};
+        assertTrue(MannWhitney.pValueGreater(after, before) < 0.001);
+        assertTrue(MannWhitney.pValueGreater(before, after) > 0.999);
+    }
+
+    @Test
+    public void testSameDistribution() {
+        Random random = new Random(42);
+        long[] x = new long[30];
+        long[] y = new long[30];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = 1000 + random.nextInt(100);
+            y[i] = 1000 + random.nextInt(100);
+        }
+        double p = MannWhitney.pValueGreater(x, y);
+        assertTrue(p > 0.01 && p < 0.99);
+    }
+
+    @Test
+    public void testIdenticalValues() {
+        long[] x = {5, 5, 5, 5};
+        assertEquals(1.0, MannWhitney.pValueGreater(x, x.clone()));
+    }
+
+    @Test
+    public void testOutlierBarelyMatters() {
+        // A single run slowed down by a collection does not make the samples differ
+        long[] before = {100, 101, 99, 100, 102, 98, 100, 101};
+        long[] after = {100, 99, 101, 100, 98, 102, 100, 5000};
+        assertTrue(MannWhitney.pValueGreater(after, before) > 0.05);
+    }
+
+    @Test
+    public void testKnownValue() {
+        // No overlap between two samples of 5: U = 25, z = (25 - 12.5 - 0.5) / sqrt(275/12)
+        long[] x = {6, 7, 8, 9, 10};
+        long[] y = {1, 2, 3, 4, 5};
+        assertEquals(0.0061, MannWhitney.pValueGreater(x, y), 0.0001);
+    }
+
+    @Test
+    public void testEmptySample() {
+        assertThrows(IllegalArgumentException.class, () -> MannWhitney.pValueGreater(new long[0], new long[]{1}));
+    }
+}
@@ -3,6 +3,12 @@ package test.kmp;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import src.KMPAlgorithm;
+import src.KMPAlgorithm.Occurrence;
+import test.util.Texts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 class KMPAlgorithmTest {
 
@@ -54,4 +60,57 @@ class KMPAlgorithmTest {
         Assertions.assertArrayEquals(expected4, kmpMatcher4.getLpsTable().toArray(),
                 "The retention table for pattern 'Sargon' should match the expected output.");
     }
+
+    @Test
+    void findAllOccurrences() {
+        String text = "aaa\nbaab\n\naa";
+        List<Occurrence> occurrences = new KMPAlgorithm("aa", "").findAll(text.toCharArray());
+
+        // Overlapping occurrences are all reported, with the line holding them
+        Assertions.assertEquals(List.of(
+                new Occurrence(0, 0, 0, 3),
+                new Occurrence(1, 0, 0, 3),
+                new Occurrence(5, 1, 4, 8),
+                new Occurrence(10, 3, 10, 12)), occurrences);
+    }
+
+    @Test
+    void findAllAcrossLines() {
+        String text = "ab\ncd\nab\ncd";
+        List<Occurrence> occurrences = new KMPAlgorithm("b\nc", "").findAll(text.toCharArray());
+
+        Assertions.assertEquals(List.of(new Occurrence(1, 0, 0, 2), new Occurrence(7, 2, 6, 8)), occurrences);
+    }
+
+    @Test
+    void sameOffsetsAsIndexOf() {
+        Random random = new Random(3);
+        for (int n = 0; n < 200; n++) {
+            String pattern = Texts.randomText(random, 1 + random.nextInt(5), "ab");
+            String text = Texts.randomText(random, random.nextInt(200), "ab\n");
+            List<Integer> expected = new ArrayList<>();
+            for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+                expected.add(i);
+            }
+
+            KMPAlgorithm kmpMatcher = new KMPAlgorithm(pattern, text);
+            List<Integer> offsets = new ArrayList<>();
+            for (Occurrence occurrence : kmpMatcher.findAll(text.toCharArray())) {
+                offsets.add(occurrence.offset());
+                Assertions.assertEquals(text.lastIndexOf('\n', occurrence.offset() - 1) + 1, occurrence.lineStart());
+            }
+            Assertions.assertEquals(expected, offsets, pattern + " in " + text);
+            Assertions.assertEquals(expected.isEmpty() ? -1 : expected.get(0), kmpMatcher.indexOf(text, 0));
+        }
+    }
+
+    @Test
+    void searchPatternInTextScansOnce() {
+        String text = "Sargon\nSagon\nSargon Sargon\n\nno";
+        KMPAlgorithm kmpMatcher = new KMPAlgorithm("Sargon", text);
+
+        Assertions.assertEquals(List.of("Sargon", "Sargon Sargon"), kmpMatcher.searchPatternInText());
+        Assertions.assertEquals("aSargon", kmpMatcher.searchInSuffixes("aSargon"));
+        Assertions.assertNull(kmpMatcher.searchInSuffixes("Sargo"));
+    }
 }
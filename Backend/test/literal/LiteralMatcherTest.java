@@ -0,0 +1,80 @@
+package test.literal;
+
+import org.junit.jupiter.api.Test;
+import src.KMPAlgorithm;
+import src.literal.HorspoolMatcher;
+import src.literal.LiteralMatcher;
+import src.literal.LiteralMatchers;
+import src.literal.TwoWayMatcher;
+import src.search.LiteralLineMatcher;
+import test.util.Texts;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the literal engines and their selection.
+ */
+class LiteralMatcherTest {
+
+    private static final List<Function<String, LiteralMatcher>> ENGINES = List.of(
+            pattern -> new KMPAlgorithm(pattern, ""), HorspoolMatcher::new, TwoWayMatcher::new);
+
+    /**
+     * Helper method checking every occurrence found by each engine against {@link String#indexOf(String, int)}.
+     */
+    private static void assertSameOccurrences(String pattern, String text) {
+        for (Function<String, LiteralMatcher> engine : ENGINES) {
+            LiteralMatcher matcher = engine.apply(pattern);
+            for (int from = 0; from <= text.length(); from++) {
+                assertEquals(text.indexOf(pattern, from), matcher.indexOf(text, from),
+                        matcher.name() + ": " + pattern + " in " + text + " from " + from);
+            }
+        }
+    }
+
+    @Test
+    void testFixedCases() {
+        assertSameOccurrences("Chihuahua", "A Chihuahua is not a Chihuahua");
+        assertSameOccurrences("aaab", "aaaaaaaaaaaaab");
+        assertSameOccurrences("abab", "abababab");
+        assertSameOccurrences("", "abc");
+        assertSameOccurrences("a", "");
+        assertSameOccurrences("éĀ", "xéĀ ĀéĀ");
+    }
+
+    @Test
+    void testRandomPatterns() {
+        Random random = new Random(7);
+        for (int n = 0; n < 2000; n++) {
+            String alphabet = n % 2 == 0 ? "ab" : "abcd";
+            String pattern = Texts.randomText(random, 1 + random.nextInt(8), alphabet);
+            String text = Texts.randomText(random, random.nextInt(60), alphabet);
+            assertSameOccurrences(pattern, text);
+            // A text holding the pattern at least once
+            int cut = random.nextInt(text.length() + 1);
+            assertSameOccurrences(pattern, text.substring(0, cut) + pattern + text.substring(cut));
+        }
+    }
+
+    @Test
+    void testSelection() {
+        assertEquals("two-way", LiteralMatchers.select("the").name());
+        assertEquals("two-way", LiteralMatchers.select("aaaaaaab").name());
+        assertEquals("two-way", LiteralMatchers.select("abababc").name());
+        assertEquals("horspool", LiteralMatchers.select("Chihuahua").name());
+    }
+
+    @Test
+    void testHighlight() {
+        LiteralLineMatcher matcher = new LiteralLineMatcher("aa", false);
+
+        assertTrue(matcher.matches("baab"));
+        assertFalse(matcher.matches("abab"));
+        assertEquals("b" + KMPAlgorithm.GREEN + "aa" + KMPAlgorithm.RESET + KMPAlgorithm.GREEN + "aa"
+                + KMPAlgorithm.RESET + "a", matcher.highlight("baaaaa"));
+    }
+}
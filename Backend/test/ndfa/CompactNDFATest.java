@@ -0,0 +1,101 @@
+package test.ndfa;
+
+import etudeExp.PatternFamilies;
+import org.junit.jupiter.api.Test;
+import src.ndfa.CompactNDFA;
+import src.ndfa.NDFAParser;
+import src.ndfa.NDFASimulation;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code CompactNDFA} class.
+ */
+public class CompactNDFATest {
+
+    @Test
+    public void testFromTreeAgreesWithNDFAParser() {
+        String[] regexes = {"a", "ab|c", "S(a|g|r)+on", "a*b|cd*", "S.*n", "(a|b)*a(a|b)(a|b)",
+                "[a-c]+d?", "a?b?", "[^ab]b", "(ab)?c"};
+        String[] inputs = {"", "a", "ab", "c", "Sargon", "Son", "aab", "cddd", "Sxyzn", "abab", "bbabb"};
+        for (String regex : regexes) {
+            RegExTree tree = RegExTreeParser.parse(regex);
+            NDFASimulation packed = new NDFASimulation(CompactNDFA.fromTree(tree));
+            NDFASimulation converted = new NDFASimulation(CompactNDFA.from(NDFAParser.parseTreeToNDFA(tree)));
+            for (String input : inputs) {
+                assertEquals(converted.accepte(input), packed.accepte(input), regex + " on " + input);
+                assertEquals(converted.contientCorrespondance(input), packed.contientCorrespondance(input), regex + " on " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testDotIsASingleRange() {
+        CompactNDFA ndfa = CompactNDFA.fromTree(RegExTreeParser.parse("."));
+
+        assertEquals(2, ndfa.nombreEtats);
+        int arc = ndfa.debut(ndfa.etatInitial);
+        assertEquals(arc + 1, ndfa.fin(ndfa.etatInitial));
+        assertEquals(0, ndfa.bas(arc));
+        assertEquals(255, ndfa.haut(arc));
+        assertEquals(ndfa.etatAcceptant, ndfa.cible(arc));
+    }
+
+    @Test
+    public void testClassIsOneStatePair() {
+        CompactNDFA ndfa = CompactNDFA.fromTree(RegExTreeParser.parse("[a-z0-9]"));
+
+        // One arc per range between two states, instead of one branch per symbol
+        assertEquals(2, ndfa.nombreEtats);
+        assertEquals(2, ndfa.fin(ndfa.etatInitial) - ndfa.debut(ndfa.etatInitial));
+    }
+
+    @Test
+    public void testConversionMergesConsecutiveSymbols() {
+        // The 256 transitions of the legacy DOT become a single arc
+        CompactNDFA ndfa = CompactNDFA.from(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(".")));
+
+        assertEquals(1, ndfa.fin(ndfa.etatInitial) - ndfa.debut(ndfa.etatInitial));
+    }
+
+    @Test
+    public void testSearchTree() {
+        NDFASimulation simulation = new NDFASimulation(CompactNDFA.fromSearchTree(RegExTreeParser.parse("ab")));
+
+        // The search NDFA accepts every text ending with a match
+        assertTrue(simulation.accepte("xxab"));
+        assertFalse(simulation.accepte("xxabx"));
+    }
+
+    @Test
+    public void testClosureStopsAtSetStates() {
+        CompactNDFA ndfa = CompactNDFA.fromTree(RegExTreeParser.parse("a*"));
+        int[] pile = new int[ndfa.nombreEtats];
+        long[] ensemble = new long[1];
+
+        ndfa.ajouterFermeture(ndfa.etatInitial, ensemble, pile);
+        assertNotEquals(0, ensemble[0] & (1L << ndfa.etatAcceptant));
+        long ferme = ensemble[0];
+        // Every member of a closed set already has its closure
+        for (int etat = 0; etat < ndfa.nombreEtats; etat++) {
+            if ((ferme & (1L << etat)) != 0) {
+                ndfa.ajouterFermeture(etat, ensemble, pile);
+            }
+        }
+        assertEquals(ferme, ensemble[0]);
+    }
+
+    @Test
+    public void testDeeplyNestedStarsInLinearSpace() {
+        // The closure of the innermost state spans the whole NDFA: a table of all the closures
+        // would hold hundreds of millions of states
+        CompactNDFA ndfa = CompactNDFA.fromTree(RegExTreeParser.parse(PatternFamilies.nested(5000)));
+        NDFASimulation simulation = new NDFASimulation(ndfa);
+
+        assertTrue(ndfa.nombreEtats > 20_000);
+        assertTrue(simulation.accepte("xabcz"));
+        assertFalse(simulation.accepte("xab-"));
+    }
+}
@@ -7,6 +7,7 @@ import src.regex.RegExTree;
 import src.regex.RegExTreeParser;
 import src.ndfa.NDFAParser;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -83,4 +84,20 @@ public class NDFAParserTest {
         // Validate epsilon transition from State 2 to the accepting state (State 3)
         assertTrue(etat2.transitionsEpsilon.contains(ndfa.etatAcceptant));
     }
+
+    @Test
+    public void testVeryLongConcatenationDoesNotOverflow() {
+        // Left-associative spine of 100 000 symbols: deeper than any default thread stack
+        RegExTree tree = new RegExTree('a');
+        for (int i = 1; i < 100_000; i++) {
+            ArrayList<RegExTree> fils = new ArrayList<>();
+            fils.add(tree);
+            fils.add(new RegExTree('a'));
+            tree = new RegExTree(RegExTreeParser.CONCAT, fils);
+        }
+
+        NDFA ndfa = NDFAParser.parseTreeToNDFA(tree);
+        assertNotNull(ndfa.etatInitial);
+        assertFalse(tree.toString().isEmpty());
+    }
 }
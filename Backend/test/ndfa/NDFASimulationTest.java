@@ -0,0 +1,89 @@
+package test.ndfa;
+
+import org.junit.jupiter.api.Test;
+import src.ndfa.CompactNDFA;
+import src.ndfa.NDFAParser;
+import src.ndfa.NDFASimulation;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+import src.search.DFALineMatcher;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code NDFASimulation} class, checked against the DFA engine.
+ */
+public class NDFASimulationTest {
+
+    private static final String[] LINES = {
+            "the reign of Sargon of Akkad", "Sagon", "Son", "", "S", "Saron", "sargon", "xxSrgonxx", "…Sagon…"
+    };
+
+    /**
+     * Helper method building the simulation of a regex.
+     */
+    private NDFASimulation buildSimulation(String regex) {
+        return new NDFASimulation(CompactNDFA.from(NDFAParser.parseTreeToNDFA(RegExTreeParser.parse(regex))));
+    }
+
+    @Test
+    public void testAgreesWithDFA() {
+        String[] regexes = {"S(a|g|r)+on", "a*b|cd*", "S.*n", "(a|b)*a(a|b)(a|b)"};
+        for (String regex : regexes) {
+            NDFASimulation simulation = buildSimulation(regex);
+            DFALineMatcher search = DFALineMatcher.compile(RegExTreeParser.parse(regex), false);
+            DFALineMatcher fullLine = DFALineMatcher.compile(RegExTreeParser.parse(regex), true);
+            for (String line : LINES) {
+                assertEquals(search.matches(line), simulation.contientCorrespondance(line), regex + " on " + line);
+                assertEquals(fullLine.matches(line), simulation.accepte(line), regex + " on " + line);
+            }
+        }
+    }
+
+    @Test
+    public void testShortestMatch() {
+        NDFASimulation simulation = buildSimulation("S(a|g|r)+on");
+        String line = "the reign of Sargon";
+
+        assertEquals(19, simulation.finCorrespondance(line, 13));
+        assertEquals(12, simulation.finCorrespondance(line, 12));
+    }
+
+    @Test
+    public void testCountersAgreeWithUnrolledRepetitions() {
+        String[] regexes = {"a.{20}b", "[ab]{17,30}", "x{0,40}y", "(a{20}|b)+c", "a{18,}b", "[^x]{17,19}"};
+        Random random = new Random(7);
+        for (String regex : regexes) {
+            RegExTree tree = RegExTreeParser.parse(regex);
+            CompactNDFA compteurs = CompactNDFA.avecCompteurs(tree);
+            assertTrue(compteurs.nombreCompteurs > 0, regex);
+            NDFASimulation counted = new NDFASimulation(compteurs);
+            NDFASimulation unrolled = new NDFASimulation(CompactNDFA.fromTree(tree));
+            for (int n = 0; n < 400; n++) {
+                StringBuilder line = new StringBuilder();
+                for (int length = random.nextInt(60); line.length() < length; ) {
+                    line.append("aaabxy".charAt(random.nextInt(6)));
+                }
+                String text = regex + " on " + line;
+                assertEquals(unrolled.accepte(line), counted.accepte(line), text);
+                assertEquals(unrolled.contientCorrespondance(line), counted.contientCorrespondance(line), text);
+                assertEquals(unrolled.correspondAuDebut(line), counted.correspondAuDebut(line), text);
+                assertEquals(unrolled.correspondALaFin(line), counted.correspondALaFin(line), text);
+                assertEquals(unrolled.finCorrespondance(line, 0), counted.finCorrespondance(line, 0), text);
+            }
+        }
+    }
+
+    @Test
+    public void testCounterSizeDoesNotDependOnBounds() {
+        CompactNDFA petit = CompactNDFA.avecCompteurs(RegExTreeParser.parse("a.{0,50}b"));
+        CompactNDFA grand = CompactNDFA.avecCompteurs(RegExTreeParser.parse("a.{0,5000}b"));
+
+        assertEquals(petit.nombreEtats, grand.nombreEtats);
+        NDFASimulation simulation = new NDFASimulation(grand);
+        assertTrue(simulation.contientCorrespondance("xa" + "y".repeat(4999) + "b"));
+        assertFalse(simulation.contientCorrespondance("xa" + "y".repeat(5001) + "b"));
+    }
+}
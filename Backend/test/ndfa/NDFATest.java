@@ -117,4 +117,22 @@ public class NDFATest {
         // Ensure the NDFA has no transitions
         assertEquals("", ndfa.toString().trim());
     }
+
+    @Test
+    public void testRangeTransition() {
+        // A range of several symbols is a single transition
+        etat1.ajouterTransition('a', 'z', etat2);
+        etat1.ajouterTransition('m', etat3);
+
+        assertEquals(1, etat1.getIntervalles().size());
+        assertEquals(Set.of(etat2), etat1.obtenirTransition('a'));
+        assertEquals(Set.of(etat2, etat3), etat1.obtenirTransition('m'));
+        assertNull(etat1.obtenirTransition('A'));
+        assertTrue(etat1.successeurs().contains(etat2));
+
+        // A range of one symbol is an ordinary transition
+        etat2.ajouterTransition('x', 'x', etat3);
+        assertTrue(etat2.getIntervalles().isEmpty());
+        assertEquals(Set.of(etat3), etat2.transitions.get((int) 'x'));
+    }
 }
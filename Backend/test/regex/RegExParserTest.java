@@ -1,8 +1,11 @@
 package test.regex;
 
 import org.junit.jupiter.api.Test;
+import src.regex.Motif;
+import src.regex.RegExSyntaxException;
 import src.regex.RegExTree;
 import src.regex.RegExTreeParser;
+import src.regex.Repetition;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,7 +104,172 @@ class RegExParserTest {
         String regex = "a\\.b";  // Escaped dot means literal '.' character
         RegExTree result = RegExTreeParser.parse(regex);
 
-        // Expected tree: concatenation 'a.\.b'
-        assertEquals(".(.(.(a,\\),.),b)", result.toString());
+        // Expected tree: concatenation of 'a', the literal '.' and 'b'
+        assertEquals(".(.(a,.),b)", result.toString());
+        assertEquals('.', result.subTrees.get(0).subTrees.get(1).getRoot());
+    }
+
+    /**
+     * Test parsing bracket expressions, shorthand classes and escapes into class leaves.
+     */
+    @Test
+    void testParseCharacterClasses() throws Exception {
+        assertEquals("[a-z]", RegExTreeParser.parse("[a-z]").toString());
+        assertEquals("[0-9A-Z_a-z]", RegExTreeParser.parse("\\w").toString());
+        assertEquals("[0-9]", RegExTreeParser.parse("[[:digit:]]").toString());
+        assertEquals("[\\]ab]", RegExTreeParser.parse("[]ab]").toString());
+        assertEquals(".(a,[\\-0])", RegExTreeParser.parse("a[-0]").toString());
+        // A class of one symbol is a plain leaf, a class of every symbol is the dot
+        assertEquals("x", RegExTreeParser.parse("[x]").toString());
+        assertEquals(RegExTreeParser.DOT, RegExTreeParser.parse("[\\x00-\\xFF]").getRoot());
+        assertEquals('\t', RegExTreeParser.parse("\\t").getRoot());
+
+        RegExTree negation = RegExTreeParser.parse("[^a-c]");
+        assertEquals(RegExTreeParser.CLASSE, negation.getRoot());
+        assertArrayEquals(new int[]{0, 'a' - 1, 'd', 255}, negation.intervalles());
+
+        assertErrorAt("[]", 0);
+        assertErrorAt("[z-a]", 2);
+        assertErrorAt("\\q", 0);
+    }
+
+    /**
+     * Test parsing the optional operator and the line anchors.
+     */
+    @Test
+    void testParseOptionAndAnchors() throws Exception {
+        assertEquals(".(a,?(b))", RegExTreeParser.parse("ab?").toString());
+        assertEquals("?(|(a,b))", RegExTreeParser.parse("(a|b)?").toString());
+
+        Motif motif = RegExTreeParser.parseMotif("^ab$");
+        assertTrue(motif.ancreDebut);
+        assertTrue(motif.ancreFin);
+        assertEquals(".(a,b)", motif.arbre.toString());
+        Motif echappe = RegExTreeParser.parseMotif("a\\$");
+        assertFalse(echappe.ancreFin);
+        assertEquals(".(a,$)", echappe.arbre.toString());
+
+        // Anchors are only allowed at the ends of the top-level branches, and not by parse
+        assertThrows(RegExSyntaxException.class, () -> RegExTreeParser.parseMotif("a^b"));
+        assertThrows(RegExSyntaxException.class, () -> RegExTreeParser.parseMotif("a$b"));
+        assertThrows(RegExSyntaxException.class, () -> RegExTreeParser.parseMotif("(^a|b)"));
+        assertThrows(RegExSyntaxException.class, () -> RegExTreeParser.parse("^a"));
+    }
+
+    /**
+     * Test that anchors shared by every top-level branch apply to the alternation, and that mixed ones are rejected.
+     */
+    @Test
+    void testParseAnchoredBranches() throws Exception {
+        Motif debut = RegExTreeParser.parseMotif("^ab|^c");
+        assertTrue(debut.ancreDebut);
+        assertFalse(debut.ancreFin);
+        assertEquals("|(.(a,b),c)", debut.arbre.toString());
+        Motif fin = RegExTreeParser.parseMotif("a$|b$|c$");
+        assertFalse(fin.ancreDebut);
+        assertTrue(fin.ancreFin);
+        assertEquals("|(|(a,b),c)", fin.arbre.toString());
+
+        // egrep would anchor only one branch: the pattern is rejected rather than anchored as a whole
+        assertErrorAt("^foo|bar", 5);
+        assertErrorAt("foo|bar$", 4);
+        assertErrorAt("^a$|^b", 4);
+    }
+
+    /**
+     * Test that the empty pattern matches the empty word, alone or between anchors.
+     */
+    @Test
+    void testParseEmptyPattern() throws Exception {
+        assertEquals("?([])", RegExTreeParser.parse("").toString());
+        Motif vide = RegExTreeParser.parseMotif("^$");
+        assertTrue(vide.ancreDebut);
+        assertTrue(vide.ancreFin);
+        assertEquals("?([])", vide.arbre.toString());
+        assertTrue(RegExTreeParser.parseMotif("^").ancreDebut);
+    }
+
+    /**
+     * Test that alternations and concatenations associate to the left, and postfix operators apply in sequence.
+     */
+    @Test
+    void testParseAssociativity() throws Exception {
+        assertEquals("|(|(a,b),c)", RegExTreeParser.parse("a|b|c").toString());
+        assertEquals("+(*(a))", RegExTreeParser.parse("a*+").toString());
+        assertEquals(".(|(a,b),c)", RegExTreeParser.parse("(a|b)c").toString());
+    }
+
+    /**
+     * Test parsing counted repetitions, kept as single nodes, and their unrolling.
+     */
+    @Test
+    void testParseRepetitions() throws Exception {
+        assertEquals("{3}(a)", RegExTreeParser.parse("a{3}").toString());
+        assertEquals(".(a,{2,}(b))", RegExTreeParser.parse("ab{2,}").toString());
+        assertEquals("{0,500}(.)", RegExTreeParser.parse(".{0,500}").toString());
+        // A brace that does not open bounds is a literal
+        assertEquals(".(.(.(a,{),x),})", RegExTreeParser.parse("a{x}").toString());
+
+        assertEquals(".(.(a,a),?(a))", Repetition.deplier(RegExTreeParser.parse("a{2,3}")).toString());
+        assertEquals("?(.(a,?(a)))", Repetition.deplier(RegExTreeParser.parse("a{0,2}")).toString());
+        assertEquals(".(|(a,b),*(|(a,b)))", Repetition.deplier(RegExTreeParser.parse("(a|b){1,}")).toString());
+
+        assertTrue(((Repetition) RegExTreeParser.parse("[a-z]{100}")).estCompteur());
+        assertFalse(((Repetition) RegExTreeParser.parse("(ab){100}")).estCompteur());
+        assertFalse(((Repetition) RegExTreeParser.parse("a{2,5}")).estCompteur());
+
+        // R{0} is the empty word, as in egrep
+        assertEquals("?([])", RegExTreeParser.parse("a{0}").toString());
+        assertEquals(".(.(a,?([])),c)", RegExTreeParser.parse("a(bc){0,0}c").toString());
+
+        assertEquals(1, Repetition.copiesMax(RegExTreeParser.parse("ab*")));
+        assertEquals(5000, Repetition.copiesMax(RegExTreeParser.parse("x(the ){2,5000}")));
+        assertEquals(15, Repetition.copiesMax(RegExTreeParser.parse("((ab){3}c|d){4,}e{10}")));
+        // Too large to unroll: rejected before any copy is made
+        assertThrows(IllegalArgumentException.class,
+                () -> Repetition.deplier(RegExTreeParser.parse("((ab){30000}){30000}")));
+
+        assertErrorAt("{3}", 0);
+        assertErrorAt("a{3,2}", 1);
+        assertErrorAt("a{99999}", 2);
+    }
+
+    /**
+     * Test that syntax errors are reported with the position of the offending character.
+     */
+    @Test
+    void testSyntaxErrorPositions() {
+        assertErrorAt("ab)", 2);
+        assertErrorAt("a(b", 1);
+        assertErrorAt("a()", 1);
+        assertErrorAt("*a", 0);
+        assertErrorAt("a|*", 2);
+        assertErrorAt("|a", 0);
+        assertErrorAt("a|", 1);
+        assertErrorAt("(a|)b", 2);
+    }
+
+    /**
+     * Test that very long and deeply nested patterns are parsed without overflowing the stack.
+     */
+    @Test
+    void testParseVeryLongPattern() throws Exception {
+        StringBuilder alternation = new StringBuilder("a");
+        for (int i = 1; i < 20_000; i++) {
+            alternation.append("|ab");
+        }
+        RegExTree result = RegExTreeParser.parse(alternation.toString());
+        assertEquals(RegExTreeParser.ALTERN, result.getRoot());
+
+        String nested = "(".repeat(50_000) + "a" + ")".repeat(50_000);
+        assertEquals("a", RegExTreeParser.parse(nested).toString());
+    }
+
+    /**
+     * Helper method asserting that parsing fails at the given position.
+     */
+    private static void assertErrorAt(String regex, int position) {
+        RegExSyntaxException e = assertThrows(RegExSyntaxException.class, () -> RegExTreeParser.parse(regex));
+        assertEquals(position, e.getPosition(), regex + ": " + e.getMessage());
     }
 }
@@ -0,0 +1,113 @@
+package test.regex;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.DFATable;
+import src.dfa.PositionDFABuilder;
+import src.ndfa.CompactNDFA;
+import src.regex.RegExTree;
+import src.regex.RegExTreeOptimizer;
+import src.regex.RegExTreeParser;
+import test.util.Texts;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code RegExTreeOptimizer} class.
+ */
+class RegExTreeOptimizerTest {
+
+    /**
+     * Helper method optimizing a pattern and printing the resulting tree.
+     */
+    private static String optimize(String regex) {
+        return RegExTreeOptimizer.optimize(RegExTreeParser.parse(regex)).toString();
+    }
+
+    @Test
+    void testStarsAndEmptyWords() {
+        assertEquals("*(a)", optimize("(a*)*"));
+        assertEquals("*(a)", optimize("(a+)?"));
+        assertEquals("+(a)", optimize("(a+)+"));
+        assertEquals("*([ab])", optimize("((a|b)?)+"));
+        assertEquals("*(a)", optimize("(a*)?"));
+    }
+
+    @Test
+    void testClassFolding() {
+        assertEquals("[a-c]", optimize("a|b|c"));
+        assertEquals("|([0-9a],.(b,c))", optimize("a|[0-9]|bc"));
+        assertEquals("a", optimize("a|a"));
+    }
+
+    @Test
+    void testFactoring() {
+        assertEquals(".(.(S,a),.(.(|(.(g,?(r)),.(r,g)),o),n))", optimize("Sagron|Sagon|Sargon"));
+        assertEquals(".(.(a,b),?([cd]))", optimize("abc|abd|ab"));
+        // The literal '.' and the DOT print alike but are different factors
+        assertEquals("|(.(.,a),.(.,b))", optimize("\\.a|.b"));
+        assertEquals(".(.,[ab])", optimize("\\.a|\\.b"));
+
+        // The factored alternation compiles to a smaller NDFA
+        RegExTree tree = RegExTreeParser.parse("Sagron|Sagon|Sargon");
+        assertTrue(CompactNDFA.fromTree(RegExTreeOptimizer.optimize(tree)).nombreEtats
+                < CompactNDFA.fromTree(tree).nombreEtats);
+    }
+
+    @Test
+    void testSameLanguage() {
+        // Random patterns over a small alphabet, checked on every short word
+        Random random = new Random(11);
+        List<String> words = Texts.words("abc", 5);
+        for (int n = 0; n < 300; n++) {
+            String regex = randomPattern(random, 3);
+            RegExTree tree = RegExTreeParser.parse(regex);
+            DFATable original = DFATable.compile(PositionDFABuilder.build(tree));
+            DFATable optimized = DFATable.compile(PositionDFABuilder.build(RegExTreeOptimizer.optimize(tree)));
+            for (String word : words) {
+                assertEquals(original.accepte(word), optimized.accepte(word), regex + " on \"" + word + "\"");
+            }
+        }
+    }
+
+    @Test
+    void testVeryLongAlternation() {
+        StringBuilder alternation = new StringBuilder("a");
+        for (int i = 1; i < 20_000; i++) {
+            alternation.append("|a").append("b".repeat(i % 50));
+        }
+        RegExTree optimized = RegExTreeOptimizer.optimize(RegExTreeParser.parse(alternation.toString()));
+        DFATable table = DFATable.compile(PositionDFABuilder.build(optimized));
+        assertTrue(table.accepte("ab"));
+        assertTrue(table.accepte("a" + "b".repeat(49)));
+        assertFalse(table.accepte("a" + "b".repeat(50)));
+    }
+
+    /**
+     * Helper method generating a random pattern with alternations, stars, options and classes.
+     */
+    private static String randomPattern(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            String[] atoms = {"a", "b", "c", "[ab]", "."};
+            return atoms[random.nextInt(atoms.length)];
+        }
+        String left = randomPattern(random, depth - 1);
+        String right = randomPattern(random, depth - 1);
+        switch (random.nextInt(6)) {
+            case 0:
+                return "(" + left + "|" + right + ")";
+            case 1:
+                return "(" + left + "|" + left + right + ")";
+            case 2:
+                return "(" + left + ")*";
+            case 3:
+                return "(" + left + ")?";
+            case 4:
+                return "(" + left + ")+";
+            default:
+                return left + right;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package test.search;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.CompileBudget;
+import src.search.BatchCompiler;
+import src.search.CompiledPattern;
+import src.search.LineMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code BatchCompiler} class.
+ */
+public class BatchCompilerTest {
+
+    private static final String[] LINES = {
+            "", "a", "ab", "abc", "abab", "cab", "bbbb", "The cat sat", "Sargon of Akkad", "aaaaaaaaab"
+    };
+
+    /**
+     * Helper method building a list of distinct patterns.
+     */
+    private static List<String> patterns() {
+        List<String> patterns = new ArrayList<>();
+        String[] bases = {"ab", "a*b", "(a|b)*c", "S(a|g|r)+on", "c.t", "(ab)+", "b+", "a|bc*"};
+        for (int i = 0; i < 200; i++) {
+            patterns.add(bases[i % bases.length] + (i / bases.length == 0 ? "" : "|x" + i));
+        }
+        return patterns;
+    }
+
+    @Test
+    public void testParallelResultsMatchSequentialOnes() {
+        List<String> patterns = patterns();
+        List<CompiledPattern> sequentiels = BatchCompiler.compileAll(patterns, false, CompileBudget.DEFAUT, 1);
+        List<CompiledPattern> paralleles = BatchCompiler.compileAll(patterns, false, CompileBudget.DEFAUT, 8);
+
+        assertEquals(patterns.size(), paralleles.size());
+        for (int i = 0; i < patterns.size(); i++) {
+            // Results are returned in the order of the patterns
+            assertEquals(patterns.get(i), paralleles.get(i).pattern);
+            assertTrue(paralleles.get(i).estCompile());
+            LineMatcher attendu = sequentiels.get(i).matcher();
+            LineMatcher obtenu = paralleles.get(i).matcher();
+            for (String line : LINES) {
+                assertEquals(attendu.matches(line), obtenu.matches(line), patterns.get(i) + " on " + line);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidPatternIsReportedInItsResult() {
+        List<CompiledPattern> resultats = BatchCompiler.compileAll(List.of("ab", "(ab", "a*"), false, CompileBudget.DEFAUT, 2);
+
+        assertTrue(resultats.get(0).estCompile());
+        assertFalse(resultats.get(1).estCompile());
+        assertNotNull(resultats.get(1).getErreur());
+        assertThrows(IllegalStateException.class, () -> resultats.get(1).matcher());
+        assertTrue(resultats.get(2).estCompile());
+    }
+
+    @Test
+    public void testPatternMatchingNothingDoesNotAbortTheBatch() {
+        List<CompiledPattern> resultats = BatchCompiler.compileAll(List.of("ab", "\u00e6|\u2014", "a*"), false,
+                CompileBudget.DEFAUT, 2);
+
+        assertEquals(3, resultats.size());
+        assertTrue(resultats.get(1).estCompile());
+        assertTrue(resultats.get(1).matcher().matches("\u00e6"));
+        assertFalse(resultats.get(1).matcher().matches("\u2014"));
+        assertTrue(resultats.get(2).estCompile());
+    }
+
+    @Test
+    public void testBudgetExceededFallsBackToNDFA() {
+        CompileBudget budget = new CompileBudget(3, CompileBudget.DEFAUT.maxOctetsTable, CompileBudget.DEFAUT.maxMillis);
+        List<CompiledPattern> resultats = BatchCompiler.compileAll(List.of("S(a|g|r)+on"), false, budget, 2);
+
+        CompiledPattern compile = resultats.get(0);
+        assertTrue(compile.estCompile());
+        assertNotNull(compile.getRepli());
+        assertTrue(compile.matcher().matches("Sargon of Akkad"));
+        assertFalse(compile.matcher().matches("The cat sat"));
+    }
+}
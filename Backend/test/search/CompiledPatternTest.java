@@ -0,0 +1,122 @@
+package test.search;
+
+import org.junit.jupiter.api.Test;
+import src.DFASearch;
+import src.dfa.CompileBudget;
+import src.search.CompiledPattern;
+import src.search.LineMatcher;
+import src.search.QueryPlan;
+import src.search.QueryPlanner;
+import test.util.Budgets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code CompiledPattern} class.
+ */
+public class CompiledPatternTest {
+
+    private static final String[] LINES = {"", "ab", "abc", "cab", "xabx", "b", "a1b", "ab ab"};
+
+    /**
+     * Helper method checking the lines selected by a pattern, with both engines.
+     */
+    private void assertSelects(String pattern, boolean... attendus) {
+        CompiledPattern dfa = CompiledPattern.compile(pattern, false, CompileBudget.DEFAUT);
+        CompiledPattern ndfa = CompiledPattern.compile(pattern, false, Budgets.AUCUN_DFA);
+        assertNull(dfa.getRepli());
+        assertNotNull(ndfa.getRepli());
+        for (int i = 0; i < LINES.length; i++) {
+            assertEquals(attendus[i], dfa.matcher().matches(LINES[i]), pattern + " on \"" + LINES[i] + "\"");
+            assertEquals(attendus[i], ndfa.matcher().matches(LINES[i]), pattern + " on \"" + LINES[i] + "\" (NDFA)");
+        }
+    }
+
+    @Test
+    public void testAnchors() {
+        //                           ""     ab     abc    cab    xabx   b      a1b    ab ab
+        assertSelects("ab",          false, true,  true,  true,  true,  false, false, true);
+        assertSelects("^ab",         false, true,  true,  false, false, false, false, true);
+        assertSelects("ab$",         false, true,  false, true,  false, false, false, true);
+        assertSelects("^ab$",        false, true,  false, false, false, false, false, false);
+        assertSelects("^a?b",        false, true,  true,  false, false, true,  false, true);
+        assertSelects("a[0-9]?b$",   false, true,  false, true,  false, false, true,  true);
+        assertSelects("^ab|^b",      false, true,  true,  false, false, true,  false, true);
+        assertSelects("b$|c$",       false, true,  true,  true,  false, true,  true,  true);
+    }
+
+    @Test
+    public void testEmptyPattern() {
+        // The DFA of the empty word has one state, so it compiles within any budget
+        LineMatcher vide = CompiledPattern.compile("^$", false, Budgets.AUCUN_DFA).matcher();
+        LineMatcher tout = CompiledPattern.compile("", false, Budgets.AUCUN_DFA).matcher();
+        for (String line : LINES) {
+            assertEquals(line.isEmpty(), vide.matches(line), "^$ on \"" + line + "\"");
+            assertTrue(tout.matches(line), "empty pattern on \"" + line + "\"");
+        }
+    }
+
+    @Test
+    public void testSymbolAbove255MatchesNothing() {
+        // The automata cover the symbols 0 to 255: a dash U+2014 leaves a DFA without accepting state
+        for (String pattern : new String[]{"\u2014", "a\u2014b", "x(\u2014|\u201c)+"}) {
+            CompiledPattern compiled = CompiledPattern.compile(pattern, false, CompileBudget.DEFAUT);
+            assertTrue(compiled.estCompile(), pattern);
+            assertNull(compiled.getRepli(), pattern);
+            assertFalse(compiled.matcher().matches("a\u2014b x\u2014"), pattern);
+            assertFalse(QueryPlanner.plan(pattern, true, CompileBudget.DEFAUT).matcher().matches("x\u2014"), pattern);
+        }
+        // A branch without such a symbol still matches
+        assertTrue(CompiledPattern.compile("\u2014|ab", false, CompileBudget.DEFAUT).matcher().matches("cab"));
+    }
+
+    @Test
+    public void testAnchoredHighlighting() {
+        String debut = CompiledPattern.compile("^ab", false, CompileBudget.DEFAUT).matcher().highlight("ab ab");
+        assertEquals(DFASearch.RED + DFASearch.BOLD + "ab" + DFASearch.RESET + " ab", debut);
+
+        for (CompileBudget budget : new CompileBudget[]{CompileBudget.DEFAUT, Budgets.AUCUN_DFA}) {
+            LineMatcher fin = CompiledPattern.compile("[a-z ]*b$", false, budget).matcher();
+            assertEquals("1" + DFASearch.RED + DFASearch.BOLD + "ab ab" + DFASearch.RESET, fin.highlight("1ab ab"));
+        }
+    }
+
+    @Test
+    public void testLargeRepetitionRunsOnCounters() {
+        CompiledPattern pattern = CompiledPattern.compile("^a.{0,500}b$", false, CompileBudget.DEFAUT);
+
+        assertTrue(pattern.estCompile());
+        assertNotNull(pattern.getRepli());
+        assertTrue(pattern.matcher().matches("a" + "x".repeat(500) + "b"));
+        assertFalse(pattern.matcher().matches("a" + "x".repeat(501) + "b"));
+        // Small bounds are unrolled and compiled to DFAs
+        assertNull(CompiledPattern.compile("a.{0,5}b", false, CompileBudget.DEFAUT).getRepli());
+    }
+
+    @Test
+    public void testLargeGroupRepetitionAbandonedBeforeUnrolling() {
+        // 200 DFA states would each stand for a set of the 802 NDFA states or more: 20800 bytes
+        CompileBudget budget = new CompileBudget(100_000, 16_384, Long.MAX_VALUE);
+        CompiledPattern pattern = CompiledPattern.compile("x(ab){200}", false, budget);
+
+        assertTrue(pattern.estCompile());
+        assertTrue(pattern.getRepli().startsWith("unrolling"), pattern.getRepli());
+        assertTrue(pattern.matcher().matches("x" + "ab".repeat(200)));
+        assertFalse(pattern.matcher().matches("x" + "ab".repeat(199)));
+        QueryPlan plan = QueryPlanner.plan("x(ab){200}", false, budget);
+        assertEquals(QueryPlan.Engine.NFA, plan.getEngine(), plan.explain());
+        assertTrue(plan.matcher().matches("x" + "ab".repeat(200)));
+        assertFalse(plan.matcher().matches("x" + "ab".repeat(199) + "a"));
+    }
+
+    @Test
+    public void testInvalidAnchor() {
+        CompiledPattern pattern = CompiledPattern.compile("a^b", false, CompileBudget.DEFAUT);
+
+        assertFalse(pattern.estCompile());
+        assertThrows(IllegalStateException.class, pattern::matcher);
+        // egrep anchors a single branch, which the matchers cannot: the pattern is rejected
+        assertFalse(CompiledPattern.compile("^ab|b", false, CompileBudget.DEFAUT).estCompile());
+        assertFalse(CompiledPattern.compile("ab|b$", false, CompileBudget.DEFAUT).estCompile());
+    }
+}
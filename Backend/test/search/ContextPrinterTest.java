@@ -0,0 +1,88 @@
+package test.search;
+
+import org.junit.jupiter.api.Test;
+import src.search.ContextPrinter;
+import src.search.LineMatcher;
+import src.search.StreamingSearch;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code ContextPrinter} class, driven through {@code StreamingSearch}.
+ */
+public class ContextPrinterTest {
+
+    private static final String TEXT = "l0\nhit1\nl2\nl3\nl4\nl5\nhit6\nl7\nhit8\nl9\n";
+
+    /**
+     * Helper matcher selecting the lines starting with "hit".
+     */
+    private static final LineMatcher HIT_MATCHER = new LineMatcher() {
+        @Override
+        public boolean matches(String line) {
+            return line.startsWith("hit");
+        }
+
+        @Override
+        public String highlight(String line) {
+            return line.toUpperCase();
+        }
+    };
+
+    /**
+     * Helper method running the search with the given context and returning the printed lines.
+     */
+    private String runSearch(int before, int after) throws IOException {
+        return runSearch(before, after, before > 0 || after > 0);
+    }
+
+    /**
+     * Helper method running the search with the given context, separated or not, and returning the printed lines.
+     */
+    private String runSearch(int before, int after, boolean separated) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ContextPrinter printer = new ContextPrinter(before, after, separated, new PrintStream(output));
+        int count = StreamingSearch.search(new BufferedReader(new StringReader(TEXT)), HIT_MATCHER, printer);
+        assertEquals(3, count);
+        return output.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    @Test
+    public void testNoContext() throws IOException {
+        // Only the selected lines are printed, without any separator
+        assertEquals("HIT1\nHIT6\nHIT8\n", runSearch(0, 0));
+    }
+
+    @Test
+    public void testExplicitZeroContextSeparatesGroups() throws IOException {
+        // As egrep -C 0 does: no context line, but a separator between non-adjacent lines
+        assertEquals("HIT1\n--\nHIT6\n--\nHIT8\n", runSearch(0, 0, true));
+    }
+
+    @Test
+    public void testAfterContext() throws IOException {
+        assertEquals("HIT1\nl2\n--\nHIT6\nl7\nHIT8\nl9\n", runSearch(0, 1));
+    }
+
+    @Test
+    public void testBeforeContext() throws IOException {
+        assertEquals("l0\nHIT1\n--\nl5\nHIT6\nl7\nHIT8\n", runSearch(1, 0));
+    }
+
+    @Test
+    public void testOverlappingWindowsAreMerged() throws IOException {
+        // The windows of hit6 and hit8 overlap on l7: it must be printed only once
+        assertEquals("l0\nHIT1\nl2\nl3\nl4\nl5\nHIT6\nl7\nHIT8\nl9\n", runSearch(2, 2));
+    }
+
+    @Test
+    public void testNegativeContextIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ContextPrinter(-1, 0, System.out));
+    }
+}
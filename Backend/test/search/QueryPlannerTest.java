@@ -0,0 +1,144 @@
+package test.search;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.CompileBudget;
+import src.search.CompiledPattern;
+import src.search.LineMatcher;
+import src.search.QueryPlan;
+import src.search.QueryPlanner;
+import test.util.Budgets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code QueryPlanner} class.
+ */
+public class QueryPlannerTest {
+
+    private static final String[] PATTERNS = {"ab", "^ab", "ab$", "^ab$", "a.c", "abc|b1", "(a|b)*a(a|b){3}",
+            "a[0-9]?b$", "^a?b", "(ab)+c", "a.{0,40}c", "c(a|b){2,5}c", "[a-c ]*(abc|abb|b1){12}", "a*",
+            "^ab|^b1", "", "^$"};
+
+    /**
+     * Helper method listing lines over a small alphabet, so that the patterns match some of them.
+     */
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>(List.of("", "ab", "abc", "cab", "a1b", "ab ab", "abb".repeat(12)));
+        Random random = new Random(44);
+        for (int i = 0; i < 300; i++) {
+            StringBuilder line = new StringBuilder();
+            for (int n = random.nextInt(40); n > 0; n--) {
+                line.append("abc1 ".charAt(random.nextInt(5)));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Helper method checking that a plan selects the same lines as the compiled DFAs.
+     */
+    private void assertSameLines(String pattern, boolean fullLine, CompileBudget budget) {
+        QueryPlan plan = QueryPlanner.plan(pattern, fullLine, budget);
+        LineMatcher attendu = CompiledPattern.compile(pattern, fullLine, CompileBudget.ILLIMITE).matcher();
+        LineMatcher matcher = plan.matcher();
+        for (String line : lines()) {
+            assertEquals(attendu.matches(line), matcher.matches(line),
+                    pattern + " (" + plan.getEngine().nom + ") on \"" + line + "\"");
+        }
+    }
+
+    @Test
+    public void testEngineChoices() {
+        assertEquals(QueryPlan.Engine.LITERAL, QueryPlanner.plan("Sargon", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.LITERAL, QueryPlanner.plan("^a\\.b$", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.MULTI_LITERAL,
+                QueryPlanner.plan("gr[ae]y|Babylon", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.DFA, QueryPlanner.plan("Sa(g|r)+on", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.NFA, QueryPlanner.plan("a.{0,500}b", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.BIT_PARALLEL,
+                QueryPlanner.plan("(a|b)*a(a|b){12}", false, CompileBudget.DEFAUT).getEngine());
+        assertEquals(QueryPlan.Engine.LAZY_DFA,
+                QueryPlanner.plan("((a|b)*a(a|b){12}){6}c", false, CompileBudget.DEFAUT).getEngine());
+    }
+
+    @Test
+    public void testLazyDFAOnlyWhenItsCacheFits() {
+        String pattern = "((a|b)*a(a|b){12}){6}c";
+        QueryPlan lazy = QueryPlanner.plan(pattern, false, CompileBudget.DEFAUT);
+        assertEquals(QueryPlan.Engine.LAZY_DFA, lazy.getEngine());
+        // The cache flushes are part of the cost
+        assertTrue(lazy.getCout() > 1, lazy.explain());
+
+        // A cache of 100 states cannot hold the states of 85 positions
+        QueryPlan petitCache = QueryPlanner.plan(pattern, false,
+                new CompileBudget(100, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(QueryPlan.Engine.NFA, petitCache.getEngine(), petitCache.explain());
+
+        // The state sets of the repetition exceed the budget, those of a lazy DFA as well
+        QueryPlan ensembles = QueryPlanner.plan("x(ab){20000}", false, CompileBudget.DEFAUT);
+        assertEquals(QueryPlan.Engine.NFA, ensembles.getEngine(), ensembles.explain());
+    }
+
+    @Test
+    public void testPrefilter() {
+        QueryPlan plan = QueryPlanner.plan("Baby(lon)+ian.*king", false, CompileBudget.DEFAUT);
+        assertEquals(QueryPlan.Engine.DFA, plan.getEngine());
+        assertEquals("Baby", plan.getPrefiltre());
+        assertTrue(plan.matcher().matches("the Babylonian king"));
+        assertFalse(plan.matcher().matches("the Babylonian queen"));
+
+        // A prefilter too short for Horspool would only slow the DFA down
+        assertNull(QueryPlanner.plan("ab(c|d)*e", false, CompileBudget.DEFAUT).getPrefiltre());
+        assertEquals("ab", QueryPlanner.plan("ab(c|d)*e", false, Budgets.AUCUN_DFA).getPrefiltre());
+    }
+
+    @Test
+    public void testSameLinesAsCompiledPattern() {
+        for (String pattern : PATTERNS) {
+            for (boolean fullLine : new boolean[]{false, true}) {
+                assertSameLines(pattern, fullLine, CompileBudget.DEFAUT);
+                assertSameLines(pattern, fullLine, Budgets.AUCUN_DFA);
+            }
+        }
+    }
+
+    @Test
+    public void testSameHighlightingAsCompiledPattern() {
+        for (String pattern : new String[]{"(a|b)*a(a|b){3}", "^a?b", "[a-c ]*(abc|abb|b1){12}", "(ab)+c$"}) {
+            LineMatcher attendu = CompiledPattern.compile(pattern, false, CompileBudget.ILLIMITE).matcher();
+            LineMatcher matcher = QueryPlanner.plan(pattern, false, Budgets.AUCUN_DFA).matcher();
+            for (String line : lines()) {
+                if (attendu.matches(line)) {
+                    assertEquals(attendu.highlight(line), matcher.highlight(line), pattern + " on \"" + line + "\"");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExplain() {
+        QueryPlan plan = QueryPlanner.plan("(a|b)*a(a|b){12}", false, CompileBudget.DEFAUT);
+        String explication = plan.explain();
+        assertTrue(explication.contains("positions: 14"), explication);
+        assertTrue(explication.contains("engine: bit-parallel"), explication);
+        assertEquals(3.0, plan.getCout());
+
+        QueryPlan erreur = QueryPlanner.plan("a(", false, CompileBudget.DEFAUT);
+        assertFalse(erreur.estCompile());
+        assertTrue(erreur.explain().contains("error: "));
+        assertThrows(IllegalStateException.class, erreur::matcher);
+    }
+
+    @Test
+    public void testLitteral() {
+        assertEquals("a.b", QueryPlanner.litteral("a\\.b"));
+        assertNull(QueryPlanner.litteral("a.b"));
+        assertNull(QueryPlanner.litteral("^ab"));
+        assertNull(QueryPlanner.litteral("a("));
+    }
+}
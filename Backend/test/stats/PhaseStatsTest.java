@@ -0,0 +1,105 @@
+package test.stats;
+
+import org.junit.jupiter.api.Test;
+import src.dfa.CompileBudget;
+import src.search.CompiledPattern;
+import src.search.QueryPlan;
+import src.search.QueryPlanner;
+import src.stats.PhaseStats;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code PhaseStats} class and the instrumented compilations.
+ */
+public class PhaseStatsTest {
+
+    private static List<String> names(PhaseStats stats) {
+        return stats.phases().stream().map(PhaseStats.Phase::name).toList();
+    }
+
+    private static int allocate(int bytes) {
+        byte[] block = new byte[bytes];
+        block[bytes - 1] = 1;
+        return block.length;
+    }
+
+    @Test
+    public void testAllocatedBytesAddUp() {
+        PhaseStats stats = new PhaseStats();
+        byte[] first = stats.measure(PhaseStats.SEARCH, () -> new byte[1 << 20]);
+        byte[] second = stats.measure(PhaseStats.SEARCH, () -> new byte[1 << 20]);
+        assertEquals(first.length, second.length);
+
+        PhaseStats.Phase search = stats.phases().get(0);
+        assertEquals(PhaseStats.SEARCH, search.name());
+        assertEquals(2, search.runs());
+        assertTrue(search.allocatedBytes() >= 2 << 20);
+        assertTrue(search.peakHeapBytes() > 0);
+        assertTrue(stats.report().contains(PhaseStats.SEARCH));
+    }
+
+    @Test
+    public void testPeakHeapSeenBeforeCollection() {
+        PhaseStats stats = new PhaseStats();
+        stats.measure(PhaseStats.SEARCH, () -> {
+            int length = allocate(32 << 20);
+            // The block is garbage: only the heap used before the collection shows it
+            System.gc();
+            return length;
+        });
+        PhaseStats.Phase search = stats.phases().get(0);
+        assertTrue(search.gcCount() > 0);
+        assertTrue(search.peakHeapBytes() >= 32 << 20);
+        // The peak is that of the whole heap, not the sum of the peaks of its pools
+        assertTrue(search.peakHeapBytes() <= Runtime.getRuntime().maxMemory());
+    }
+
+    @Test
+    public void testDisabledMeasuresNothing() {
+        assertEquals("x", PhaseStats.DISABLED.measure(PhaseStats.PARSE, () -> "x"));
+        assertTrue(PhaseStats.DISABLED.phases().isEmpty());
+    }
+
+    @Test
+    public void testFailedRunIsMeasured() {
+        PhaseStats stats = new PhaseStats();
+        assertThrows(IOException.class, () -> stats.measure(PhaseStats.SEARCH, () -> {
+            throw new IOException("unreadable");
+        }));
+        assertEquals(1, stats.phases().get(0).runs());
+        // The failed run does not leave the phase running
+        assertEquals(1, stats.measure(PhaseStats.PARSE, () -> 1));
+    }
+
+    @Test
+    public void testNestedPhasesRejected() {
+        PhaseStats stats = new PhaseStats();
+        assertThrows(IllegalStateException.class,
+                () -> stats.measure(PhaseStats.PARSE, () -> stats.measure(PhaseStats.NDFA, () -> 1)));
+    }
+
+    @Test
+    public void testCompilationPhases() {
+        PhaseStats stats = new PhaseStats();
+        CompiledPattern compiled = CompiledPattern.compile("S(a|g|r)+on", false, CompileBudget.DEFAUT, stats);
+        assertTrue(compiled.estCompile());
+        assertEquals(List.of(PhaseStats.PARSE, PhaseStats.NDFA, PhaseStats.DETERMINISE, PhaseStats.MINIMIZE),
+                names(stats));
+        // The DFA of the pattern and the DFA of its search
+        assertEquals(2, stats.phases().get(2).runs());
+    }
+
+    @Test
+    public void testPlannedFallbackPhases() {
+        PhaseStats stats = new PhaseStats();
+        CompileBudget budget = new CompileBudget(100, Long.MAX_VALUE, Long.MAX_VALUE);
+        QueryPlan plan = QueryPlanner.plan("(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)", false, budget, stats);
+        assertEquals(QueryPlan.Engine.BIT_PARALLEL, plan.getEngine());
+        // The abandoned determinisation is measured, and there is no minimization
+        assertEquals(List.of(PhaseStats.PARSE, PhaseStats.NDFA, PhaseStats.DETERMINISE), names(stats));
+    }
+}
@@ -0,0 +1,15 @@
+package test.util;
+
+import src.dfa.CompileBudget;
+
+/**
+ * Compilation budgets shared by the tests.
+ */
+public final class Budgets {
+
+    /** A budget too small for any DFA, which forces the engines that do without one. */
+    public static final CompileBudget AUCUN_DFA = new CompileBudget(1, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private Budgets() {
+    }
+}
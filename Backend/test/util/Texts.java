@@ -0,0 +1,48 @@
+package test.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Helper methods generating the words and texts the tests run their engines on.
+ */
+public final class Texts {
+
+    private Texts() {
+    }
+
+    /**
+     * Lists every word over an alphabet up to a given length, shortest first.
+     *
+     * @param alphabet  The letters of the words.
+     * @param maxLength The length of the longest words.
+     * @return The words, starting with the empty word.
+     */
+    public static List<String> words(String alphabet, int maxLength) {
+        List<String> words = new ArrayList<>();
+        words.add("");
+        for (int start = 0; words.get(start).length() < maxLength; start++) {
+            for (char c : alphabet.toCharArray()) {
+                words.add(words.get(start) + c);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Generates a random text over an alphabet.
+     *
+     * @param random   The source of the letters.
+     * @param length   The length of the text.
+     * @param alphabet The letters of the text, possibly with line terminators.
+     * @return The text.
+     */
+    public static String randomText(Random random, int length, String alphabet) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package benchmarks;
+
+import etudeExp.CompileBenchmark;
+import etudeExp.CorpusGenerator;
+import etudeExp.PatternFamilies;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The inputs shared by the benchmarks: the pattern sets of the repository, the generated
+ * patterns of {@link CompileBenchmark} and {@link PatternFamilies}, the texts of
+ * {@code resources/texts} replicated to a given size, and the corpora of {@link CorpusGenerator},
+ * found from the {@code Backend} directory.
+ *
+ * <p>The directory is given by the {@code backend.dir} system property, or else searched from the
+ * working directory, so the benchmarks run from the root of the repository as well as from the
+ * {@code benchmarks} module.</p>
+ */
+public final class BenchmarkInputs {
+
+    /** The pattern set of {@code resources/regexLists/regexList0.csv}. */
+    public static final String REGEX_LIST = "regexList0";
+
+    /** The pattern set of {@code etudeExp/test_words.txt}. */
+    public static final String TEST_WORDS = "test_words";
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Returns the {@code Backend} directory of the repository.
+     *
+     * @return The directory holding {@code resources} and {@code etudeExp}.
+     * @throws IllegalStateException If the directory cannot be found.
+     */
+    public static Path backend() {
+        String property = System.getProperty("backend.dir");
+        if (property != null) {
+            return Paths.get(property);
+        }
+        for (String candidate : new String[]{"Backend", "../Backend", "."}) {
+            Path path = Paths.get(candidate);
+            if (Files.isDirectory(path.resolve("resources/regexLists"))) {
+                return path;
+            }
+        }
+        throw new IllegalStateException("Backend directory not found from " + Paths.get("").toAbsolutePath()
+                + ", set -Dbackend.dir");
+    }
+
+    /**
+     * Returns a set of patterns: one of the files of the repository, or a generated pattern.
+     *
+     * @param name {@link #REGEX_LIST}, {@link #TEST_WORDS}, the name of a pattern of
+     *             {@link CompileBenchmark#generatePatterns()}, such as {@code alternation-100}, or
+     *             of {@link PatternFamilies}, such as {@code nested-1000}.
+     * @return The patterns of the set, indexed by a readable name.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    public static Map<String, String> patterns(String name) {
+        if (name.equals(REGEX_LIST)) {
+            return CompileBenchmark.loadRegexList(backend().resolve("resources/regexLists/regexList0.csv").toString());
+        }
+        if (name.equals(TEST_WORDS)) {
+            Map<String, String> patterns = new LinkedHashMap<>();
+            List<String> lines = readLines(backend().resolve("etudeExp/test_words.txt"));
+            for (int i = 0; i < lines.size(); i++) {
+                if (!lines.get(i).isBlank()) {
+                    patterns.put(TEST_WORDS + ":" + (i + 1), lines.get(i).trim());
+                }
+            }
+            return patterns;
+        }
+        String generated = CompileBenchmark.generatePatterns().get(name);
+        return Map.of(name, generated != null ? generated : PatternFamilies.byName(name));
+    }
+
+    /**
+     * Returns a corpus of at least the given size, in a file of the temporary directory written on
+     * the first call and reused by the following ones.
+     *
+     * @param book The name of a text of {@code resources/texts}, such as {@code 56667-0}, replicated
+     *             to the size, or {@code log} or {@code prose} for a corpus of
+     *             {@link CorpusGenerator} with its default settings, 1% of the lines holding
+     *             {@code Sargon}.
+     * @param size The size, in decimal units: {@code 10MB}, {@code 100MB}, {@code 1GB}...
+     * @return The path of the corpus.
+     */
+    public static Path corpus(String book, String size) {
+        long bytes = CorpusGenerator.parseSize(size);
+        Path target = Paths.get(System.getProperty("java.io.tmpdir"), "egrep-benchmarks", book + "-" + size + ".txt");
+        try {
+            if (book.equals("log") || book.equals("prose")) {
+                if (!Files.exists(target)) {
+                    CorpusGenerator generator = new CorpusGenerator(CorpusGenerator.Style.valueOf(book.toUpperCase()),
+                            80, CorpusGenerator.LOWER_CASE, 0.01, "Sargon", PatternFamilies.SEED);
+                    generator.write(target, bytes);
+                }
+                return target;
+            }
+            Path source = backend().resolve("resources/texts/" + book + ".txt");
+            long copySize = Files.size(source);
+            long expected = (bytes + copySize - 1) / copySize * copySize;
+            if (Files.exists(target) && Files.size(target) == expected) {
+                return target;
+            }
+            Files.createDirectories(target.getParent());
+            byte[] text = Files.readAllBytes(source);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 1 << 20)) {
+                for (long written = 0; written < expected; written += copySize) {
+                    out.write(text);
+                }
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> readLines(Path path) {
+        try {
+            return Files.readAllLines(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
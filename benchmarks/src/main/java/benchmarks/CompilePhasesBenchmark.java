@@ -0,0 +1,116 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import src.dfa.DFA;
+import src.dfa.DFADeterminisation;
+import src.minimization.DFAMinimization;
+import src.ndfa.NDFA;
+import src.ndfa.NDFAParser;
+import src.regex.RegExTree;
+import src.regex.RegExTreeParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each phase of the compilation pipeline on its own: {@link RegExTreeParser#parse},
+ * {@link NDFAParser#parseTreeToNDFA}, {@link DFADeterminisation#determinise} and
+ * {@link DFAMinimization#minimize}. Each phase runs on the output of the previous ones, computed
+ * once per trial, so its score does not include them.
+ *
+ * <p>An operation compiles every pattern of the set given by {@link #patterns}: the whole
+ * {@code regexList0.csv} or {@code test_words.txt}, or one generated pattern of growing size, the
+ * last ones being the adversarial families of {@code PatternFamilies}. Run with {@code -prof gc},
+ * or through {@link #main}, to get the allocation rate of each phase beside its ops/s.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompilePhasesBenchmark {
+
+    /** The pattern set compiled by an operation, see {@link BenchmarkInputs#patterns(String)}. */
+    @Param({BenchmarkInputs.REGEX_LIST, BenchmarkInputs.TEST_WORDS, "literal-100", "literal-200", "alternation-50",
+            "alternation-100", "alternation-200", "exponential-6", "exponential-8", "exponential-10", "wildcards",
+            "exponential-12", "nested-100", "nested-500", "dictionary-1000", "dotstar-100", "dotstar-300"})
+    public String patterns;
+
+    private String[] sources;
+    private RegExTree[] trees;
+    private NDFA[] ndfas;
+    private DFA[] dfas;
+
+    @Setup(Level.Trial)
+    public void compileInputs() {
+        sources = BenchmarkInputs.patterns(patterns).values().toArray(new String[0]);
+        trees = new RegExTree[sources.length];
+        ndfas = new NDFA[sources.length];
+        dfas = new DFA[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            trees[i] = RegExTreeParser.parse(sources[i]);
+            ndfas[i] = NDFAParser.parseTreeToNDFA(trees[i]);
+            dfas[i] = DFADeterminisation.determinise(ndfas[i]);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String source : sources) {
+            blackhole.consume(RegExTreeParser.parse(source));
+        }
+    }
+
+    @Benchmark
+    public void parseTreeToNDFA(Blackhole blackhole) {
+        for (RegExTree tree : trees) {
+            blackhole.consume(NDFAParser.parseTreeToNDFA(tree));
+        }
+    }
+
+    @Benchmark
+    public void determinise(Blackhole blackhole) {
+        for (NDFA ndfa : ndfas) {
+            blackhole.consume(DFADeterminisation.determinise(ndfa));
+        }
+    }
+
+    @Benchmark
+    public void minimize(Blackhole blackhole) {
+        for (DFA dfa : dfas) {
+            blackhole.consume(DFAMinimization.minimize(dfa));
+        }
+    }
+
+    /**
+     * Runs the benchmarks of this class with the GC profiler, which reports the bytes allocated per
+     * operation and the allocation rate.
+     *
+     * @param args Unused.
+     * @throws RunnerException If JMH fails to run the benchmarks.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CompilePhasesBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
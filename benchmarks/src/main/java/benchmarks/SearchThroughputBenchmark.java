@@ -0,0 +1,275 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import src.dfa.CompileBudget;
+import src.regex.RegExTreeParser;
+import src.search.DFALineMatcher;
+import src.search.KMPLineMatcher;
+import src.search.LineMatcher;
+import src.search.QueryPlanner;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the scan throughput of the search engines: an operation streams a whole corpus line by
+ * line, as {@code Main} does, and counts the selected lines. Besides ops/s, JMH reports the
+ * {@code megabytes} and {@code matches} counters per second, i.e. MB/s and matched lines/s.
+ *
+ * <p>The corpora are the texts of {@code resources/texts} replicated to 10 MB, 100 MB and 1 GB,
+ * and the log-like and prose-like corpora of {@code CorpusGenerator} of the same sizes. The
+ * patterns are words found in no line ({@code none}) up to nearly every line ({@code very-high})
+ * of both texts, and {@code planted}, found in 1% of the lines of the generated corpora. In the case-insensitive variant, the DFA engines search a
+ * pattern where each letter is a class of its two cases, {@code java.util.regex} uses
+ * {@link Pattern#CASE_INSENSITIVE}, and KMP, which only compares characters, searches the lower-case
+ * word in the lower-cased line.</p>
+ *
+ * <p>{@link #main} writes the results as JSON, in a file named after the commit, so that runs of
+ * several commits can be compared.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchThroughputBenchmark {
+
+    /** The engine scanning the lines. */
+    @Param({"dfa", "auto", "kmp", "java-regex"})
+    public String engine;
+
+    /** The text of {@code resources/texts} replicated into the corpus, or a generated corpus. */
+    @Param({"56667-0", "41011-0", "log", "prose"})
+    public String book;
+
+    /** The size of the corpus. */
+    @Param({"10MB", "100MB", "1GB"})
+    public String size;
+
+    /** The share of the lines containing the pattern, see {@link #word(String)}. */
+    @Param({"none", "low", "medium", "high", "very-high", "planted"})
+    public String density;
+
+    /** Whether the case of the letters is ignored. */
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    private Path corpus;
+    private long corpusBytes;
+    private LineMatcher matcher;
+
+    /**
+     * The counters reported per second beside the ops/s of the benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        /** The number of bytes scanned, reported through {@link #megabytes()}. */
+        private long bytes;
+
+        /** The number of selected lines. */
+        public long matches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            matches = 0;
+        }
+
+        /**
+         * Returns the number of megabytes scanned, reported in MB/s.
+         *
+         * @return The bytes scanned, in decimal megabytes.
+         */
+        public double megabytes() {
+            return bytes / 1e6;
+        }
+    }
+
+    /**
+     * Returns the word searched for a match density. The shares of lines are those of
+     * {@code 41011-0} and {@code 56667-0}, but for {@code planted}.
+     *
+     * @param density {@code none}, {@code low}, {@code medium}, {@code high}, {@code very-high} or
+     *                {@code planted}.
+     * @return The word.
+     */
+    public static String word(String density) {
+        return switch (density) {
+            case "none" -> "zyzzyva";   // 0%
+            case "low" -> "king";       // 2% - 4%
+            case "medium" -> "and";     // 25% - 40%
+            case "high" -> "the";       // 55% - 60%
+            case "very-high" -> "e";    // 80% - 85%
+            case "planted" -> "Sargon"; // 1% of the generated corpora, 0% - 0.2% of the texts
+            default -> throw new IllegalArgumentException("Unknown density " + density);
+        };
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        corpus = BenchmarkInputs.corpus(book, size);
+        corpusBytes = Files.size(corpus);
+        matcher = matcher(engine, word(density), ignoreCase);
+    }
+
+    /**
+     * Builds the line matcher of an engine for a word.
+     *
+     * @param engine     {@code dfa}, {@code auto}, {@code kmp} or {@code java-regex}.
+     * @param word       The word, made of letters.
+     * @param ignoreCase Whether the case of the letters is ignored.
+     * @return The line matcher.
+     */
+    public static LineMatcher matcher(String engine, String word, boolean ignoreCase) {
+        String pattern = ignoreCase ? caseClasses(word) : word;
+        return switch (engine) {
+            case "dfa" -> DFALineMatcher.compile(RegExTreeParser.parse(pattern), false);
+            case "auto" -> QueryPlanner.plan(pattern, false, CompileBudget.DEFAUT).matcher();
+            case "kmp" -> ignoreCase ? new LowerCaseLineMatcher(new KMPLineMatcher(word.toLowerCase(Locale.ROOT)))
+                    : new KMPLineMatcher(word);
+            case "java-regex" -> new RegexLineMatcher(Pattern.compile(word, ignoreCase ? Pattern.CASE_INSENSITIVE : 0));
+            default -> throw new IllegalArgumentException("Unknown engine " + engine);
+        };
+    }
+
+    private static String caseClasses(String word) {
+        StringBuilder pattern = new StringBuilder();
+        for (char c : word.toCharArray()) {
+            pattern.append('[').append(Character.toLowerCase(c)).append(Character.toUpperCase(c)).append(']');
+        }
+        return pattern.toString();
+    }
+
+    @Benchmark
+    public long scan(Counters counters) throws IOException {
+        long matched = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(corpus.toFile()), 1 << 16)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (matcher.matches(line)) {
+                    matched++;
+                }
+            }
+        }
+        counters.bytes += corpusBytes;
+        counters.matches += matched;
+        return matched;
+    }
+
+    /**
+     * Adapts {@code java.util.regex} to the {@link LineMatcher} interface, reusing one matcher.
+     */
+    private static final class RegexLineMatcher implements LineMatcher {
+
+        private final Matcher matcher;
+
+        RegexLineMatcher(Pattern pattern) {
+            this.matcher = pattern.matcher("");
+        }
+
+        @Override
+        public boolean matches(String line) {
+            return matcher.reset(line).find();
+        }
+
+        @Override
+        public String highlight(String line) {
+            return line;
+        }
+    }
+
+    /**
+     * Runs a line matcher on the lower-cased lines.
+     */
+    private static final class LowerCaseLineMatcher implements LineMatcher {
+
+        private final LineMatcher matcher;
+
+        LowerCaseLineMatcher(LineMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public boolean matches(String line) {
+            return matcher.matches(line.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public String highlight(String line) {
+            return line;
+        }
+    }
+
+    /**
+     * Runs the benchmarks of this class with the GC profiler and writes their results as JSON into
+     * {@code search-throughput-<commit>.json}, with the bytes allocated per operation and the
+     * number and time of the garbage collections beside the throughput. The commit is given by the {@code commit} system
+     * property, or else read from git. The JMH command line options, such as
+     * {@code -p size=10MB}, restrict the run.
+     *
+     * @param args The JMH command line options.
+     * @throws RunnerException             If JMH fails to run the benchmarks.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SearchThroughputBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("search-throughput-" + commit() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Returns the commit the benchmarks run on.
+     *
+     * @return The {@code commit} system property, the short hash of {@code HEAD}, or {@code local}.
+     */
+    static String commit() {
+        String commit = System.getProperty("commit");
+        if (commit != null) {
+            return commit;
+        }
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String hash = new String(git.getInputStream().readAllBytes()).trim();
+            return git.waitFor() == 0 && !hash.isEmpty() ? hash : "local";
+        } catch (IOException e) {
+            return "local";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "local";
+        }
+    }
+}